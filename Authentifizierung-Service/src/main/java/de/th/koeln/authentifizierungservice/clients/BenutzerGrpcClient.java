@@ -1,12 +1,19 @@
 package de.th.koeln.authentifizierungservice.clients;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import de.th.koeln.benutzerservice.grpc.*;
 import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Service-Klasse für die Kommunikation mit dem Benutzer-Service über gRPC.
  *
@@ -29,6 +36,18 @@ public class BenutzerGrpcClient {
     @GrpcClient("benutzer-service")
     private BenutzerServiceGrpc.BenutzerServiceBlockingStub stub;
 
+    /**
+     * Der asynchrone gRPC-Client Stub für Aufrufe, die parallel zu anderen Aufrufen laufen.
+     */
+    @GrpcClient("benutzer-service")
+    private BenutzerServiceGrpc.BenutzerServiceFutureStub futureStub;
+
+    /**
+     * Die maximale Dauer eines asynchronen Aufrufs, damit ein nicht antwortender Dienst den Login nicht blockiert.
+     */
+    @Value("${auth.grpc.deadline:5s}")
+    private Duration deadline;
+
     /**
      * Holt die Benutzerdaten basierend auf der Sub.
      *
@@ -97,4 +116,23 @@ public class BenutzerGrpcClient {
             logger.error("UpdateLetzteAnmeldung request failed: {}", e.getStatus(), e);
         }
     }
+
+    /**
+     * Stellt asynchron sicher, dass ein Benutzer existiert.
+     *
+     * Diese Methode sendet eine Anfrage an den Benutzer-Service, die den Benutzer mit der Sub
+     * der angegebenen Benutzerdaten zurückgibt und seine letzte Anmeldung aktualisiert. Existiert
+     * der Benutzer noch nicht, wird er mit den angegebenen Benutzerdaten angelegt.
+     *
+     * @param benutzer Die Benutzerdaten aus dem Login.
+     * @return Ein Future mit den Benutzerdaten des vorhandenen oder neu angelegten Benutzers.
+     */
+    public ListenableFuture<BenutzerDaten> ensureBenutzer(BenutzerDaten benutzer) {
+        EnsureBenutzerRequest request = EnsureBenutzerRequest.newBuilder()
+                .setBenutzer(benutzer)
+                .build();
+        return Futures.transform(futureStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                        .ensureBenutzer(request),
+                EnsureBenutzerResponse::getBenutzer, MoreExecutors.directExecutor());
+    }
 }
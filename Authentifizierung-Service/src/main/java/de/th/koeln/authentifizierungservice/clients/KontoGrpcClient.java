@@ -1,11 +1,18 @@
 package de.th.koeln.authentifizierungservice.clients;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import de.th.koeln.kontoservice.grpc.*;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
  * gRPC-Client für den Konto-Service.
  * Diese Klasse ermöglicht die Kommunikation mit dem Konto-Service über gRPC,
@@ -26,6 +33,15 @@ public class KontoGrpcClient {
     @GrpcClient("konto-service")
     private KontoServiceGrpc.KontoServiceBlockingStub stub;
 
+    @GrpcClient("konto-service")
+    private KontoServiceGrpc.KontoServiceFutureStub futureStub;
+
+    /**
+     * Die maximale Dauer eines asynchronen Aufrufs, damit ein nicht antwortender Dienst den Login nicht blockiert.
+     */
+    @Value("${auth.grpc.deadline:5s}")
+    private Duration deadline;
+
     /**
      * Erstellt ein neues Konto.
      * Diese Methode sendet einen CreateKontoRequest an den Konto-Service,
@@ -57,4 +73,21 @@ public class KontoGrpcClient {
         FindByBenutzerIdResponse response = stub.findByBenutzerId(request);
         return response.getKonto();
     }
+
+    /**
+     * Stellt asynchron sicher, dass ein Benutzer ein Konto hat.
+     * Diese Methode sendet einen EnsureKontoRequest an den Konto-Service, der das Konto
+     * des Benutzers zurückgibt und es mit Kontostand 0 anlegt, wenn es noch nicht existiert.
+     *
+     * @param benutzerId Die ID des Benutzers.
+     * @return Ein Future mit den Kontodaten des Benutzers.
+     */
+    public ListenableFuture<KontoDaten> ensureKonto(String benutzerId) {
+        EnsureKontoRequest request = EnsureKontoRequest.newBuilder()
+                .setBenutzerId(benutzerId)
+                .build();
+        return Futures.transform(futureStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                        .ensureKonto(request),
+                EnsureKontoResponse::getKonto, MoreExecutors.directExecutor());
+    }
 }
@@ -1,11 +1,14 @@
 package de.th.koeln.authentifizierungservice.controllers;
 
 
+import com.google.common.util.concurrent.ListenableFuture;
 import de.th.koeln.authentifizierungservice.clients.BenutzerGrpcClient;
 import de.th.koeln.authentifizierungservice.clients.KontoGrpcClient;
 import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
 import de.th.koeln.kontoservice.grpc.KontoDaten;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -15,8 +18,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Controller-Klasse für die Authentifizierung und Benutzerverwaltung.
@@ -28,6 +33,8 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/auth")
 public class AuthentifizierungController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthentifizierungController.class);
+
     private final KontoGrpcClient kontoGrpcClient;
     private final BenutzerGrpcClient benutzerGrpcClient;
 
@@ -58,55 +65,33 @@ public class AuthentifizierungController {
      * Verarbeitet den erfolgreichen Login eines Benutzers.
      *
      * Diese Methode wird aufgerufen, wenn ein Benutzer sich erfolgreich anmeldet.
-     * Sie aktualisiert die Benutzerdaten und das Konto des Benutzers und leitet dann
-     * auf eine spezifische URL weiter.
+     * Sie stellt parallel sicher, dass Benutzer und Konto existieren, wobei die letzte
+     * Anmeldung aktualisiert wird, und leitet dann auf eine spezifische URL weiter.
+     * Beide Aufrufe sind idempotent, sodass ein wiederholter Login nichts doppelt anlegt.
      *
      * @param oidcUser Der authentifizierte OIDC-Benutzer.
      * @param response Die HTTP-Antwort.
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     @GetMapping("/loginSuccess")
-    public void loginSuccess(@AuthenticationPrincipal OidcUser oidcUser, HttpServletResponse response) throws IOException, IOException {
+    public void loginSuccess(@AuthenticationPrincipal OidcUser oidcUser, HttpServletResponse response) throws IOException {
         String accessToken = oidcUser.getIdToken().getTokenValue();
-        String email = oidcUser.getEmail();
-        String vorname = oidcUser.getGivenName();
-        String nachname = oidcUser.getFamilyName();
         String geschlecht = oidcUser.getGender() != null ? oidcUser.getGender() : "UNBEKANNT";
         String sub = oidcUser.getSubject();
-        LocalDateTime letzteAnmeldung = LocalDateTime.now();
-
-        BenutzerDaten benutzer = benutzerGrpcClient.getBenutzerBySub(sub);
-        KontoDaten konto = null;
 
+        BenutzerDaten benutzerDaten = BenutzerDaten.newBuilder()
+                .setVorname(Objects.toString(oidcUser.getGivenName(), ""))
+                .setNachname(Objects.toString(oidcUser.getFamilyName(), ""))
+                .setGeschlecht(geschlecht)
+                .setEmail(Objects.toString(oidcUser.getEmail(), ""))
+                .setSub(sub)
+                .build();
 
-        if(benutzer != null) {
-            benutzerGrpcClient.updateLetzteAnmeldung(sub);
-            konto = kontoGrpcClient.findByBenutzerId(sub);
+        ListenableFuture<BenutzerDaten> benutzer = benutzerGrpcClient.ensureBenutzer(benutzerDaten);
+        ListenableFuture<KontoDaten> konto = kontoGrpcClient.ensureKonto(sub);
 
-            if (konto == null) {
-                KontoDaten kontoDaten = KontoDaten.newBuilder()
-                        .setBenutzerId(sub)
-                        .setKontostand(BigDecimal.ZERO.toPlainString())
-                        .build();
-                kontoGrpcClient.createKonto(kontoDaten);
-            }
-        } else {
-            BenutzerDaten benutzerDaten = BenutzerDaten.newBuilder()
-                    .setVorname(vorname)
-                    .setNachname(nachname)
-                    .setGeschlecht(geschlecht)
-                    .setEmail(email)
-                    .setSub(sub)
-                    .build();
-            benutzerGrpcClient.createBenutzer(benutzerDaten);
-            KontoDaten kontoDaten = KontoDaten.newBuilder()
-                    .setBenutzerId(sub)
-                    .setKontostand(BigDecimal.ZERO.toPlainString())
-                    .build();
-            kontoGrpcClient.createKonto(kontoDaten);
-        }
-
-        String kontoId = konto != null ? konto.getId() : "";
+        warte(benutzer, "EnsureBenutzer");
+        String kontoId = warte(konto, "EnsureKonto").map(KontoDaten::getId).orElse("");
 
         response.sendRedirect("http://localhost:4200/login?access_token=" + accessToken + "&kontoId=" + kontoId);
     }
@@ -122,4 +107,25 @@ public class AuthentifizierungController {
         return principal.getIdToken().getTokenValue();
     }
 
+    /**
+     * Wartet auf das Ergebnis eines gRPC-Aufrufs. Die Aufrufe haben eine Deadline, sodass das Warten
+     * begrenzt ist. Fehler werden protokolliert, damit der Login auch dann abgeschlossen wird, wenn
+     * einer der Dienste nicht antwortet.
+     *
+     * @param aufruf Der laufende Aufruf.
+     * @param name Der Name des Aufrufs für das Protokoll.
+     * @return Das Ergebnis oder leer, wenn der Aufruf fehlgeschlagen ist.
+     */
+    private static <T> Optional<T> warte(Future<T> aufruf, String name) {
+        try {
+            return Optional.of(aufruf.get());
+        } catch (ExecutionException e) {
+            logger.error("{} request failed", name, e.getCause());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aufruf.cancel(true);
+            return Optional.empty();
+        }
+    }
 }
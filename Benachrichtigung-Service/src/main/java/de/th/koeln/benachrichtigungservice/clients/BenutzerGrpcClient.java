@@ -5,10 +5,16 @@ import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
 import de.th.koeln.benutzerservice.grpc.BenutzerServiceGrpc;
 import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubRequest;
 import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubResponse;
+import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubsRequest;
+import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubsResponse;
 import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Service-Klasse für die Kommunikation mit dem Benutzer-Service über gRPC.
  *
@@ -51,4 +57,32 @@ public class BenutzerGrpcClient {
             throw new NotFoundException("Benutzer not found");
         }
     }
+
+    /**
+     * Findet die Benutzerdaten mehrerer Benutzer mit einer einzigen Anfrage an den Benutzer-Service.
+     *
+     * Subs, zu denen kein Benutzer existiert, sind im Ergebnis nicht enthalten.
+     *
+     * @param subs Die Subs der Benutzer.
+     * @return Die Benutzerdaten der gefundenen Benutzer, abgebildet auf ihre Sub.
+     * @throws NotFoundException wenn die Benutzerdaten nicht abgerufen werden können.
+     */
+    public Map<String, BenutzerDaten> findBenutzerBySubs(Collection<String> subs) {
+        if (subs.isEmpty()) {
+            return Map.of();
+        }
+        GetBenutzerBySubsRequest request = GetBenutzerBySubsRequest.newBuilder()
+                .addAllSubs(subs)
+                .build();
+        try {
+            GetBenutzerBySubsResponse response = stub.getBenutzerBySubs(request);
+            Map<String, BenutzerDaten> benutzer = new HashMap<>();
+            for (BenutzerDaten benutzerDaten : response.getBenutzerList()) {
+                benutzer.put(benutzerDaten.getSub(), benutzerDaten);
+            }
+            return benutzer;
+        } catch (StatusRuntimeException e) {
+            throw new NotFoundException("Benutzer not found");
+        }
+    }
 }
@@ -6,6 +6,7 @@ import de.th.koeln.benachrichtigungservice.dtos.BenutzerDTO;
 import de.th.koeln.benachrichtigungservice.dtos.BenutzerdatenMapper;
 import de.th.koeln.benachrichtigungservice.dtos.ZieleDTO;
 import de.th.koeln.benachrichtigungservice.dtos.ZieleMapper;
+import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
 import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service-Klasse für Benachrichtigungen.
@@ -73,16 +75,26 @@ public class BenachrichtigungService {
      *
      * Diese Methode wird täglich um 9 Uhr ausgeführt und sendet Erinnerungs-E-Mails
      * an Benutzer, deren finanzielle Ziele innerhalb der nächsten 7 Tage fällig werden.
+     * Die Benutzerdaten aller betroffenen Benutzer werden mit einer einzigen Anfrage abgerufen;
+     * Ziele von Benutzern, die nicht mehr existieren, werden übersprungen.
      */
     @Scheduled(cron = "0 0 9 * * ?") // Täglich um 9 Uhr
     public void benachrichtige() {
         LocalDate heute = LocalDate.now();
-        List<ZieleDTO> ziele = getAlleZiel();
+        List<ZieleDTO> faelligeZiele = getAlleZiel().stream()
+                .filter(ziel -> ziel.getFaelligkeitDatum().isBefore(heute.plusDays(7)))
+                .toList();
+
+        Map<String, BenutzerDaten> benutzer = this.benutzerClient.findBenutzerBySubs(faelligeZiele.stream()
+                .map(ZieleDTO::getBenutzerId)
+                .distinct()
+                .toList());
 
-        for (ZieleDTO ziel : ziele) {
-            if(ziel.getFaelligkeitDatum().isBefore((heute.plusDays(7)))) {
-                BenutzerDTO benutzerDTO = findBenutzerById(ziel.getBenutzerId());
-                this.sendMail(benutzerDTO.getEmail(), TEXT.concat(ziel.getZielName()) );
+        for (ZieleDTO ziel : faelligeZiele) {
+            BenutzerDaten benutzerDaten = benutzer.get(ziel.getBenutzerId());
+            if (benutzerDaten != null) {
+                BenutzerDTO benutzerDTO = BenutzerdatenMapper.toDto(benutzerDaten);
+                this.sendMail(benutzerDTO.getEmail(), TEXT.concat(ziel.getZielName()));
             }
         }
     }
@@ -14,8 +14,14 @@ import java.time.LocalDateTime;
  *
  * <p>Zusätzliche Annotationen wie {@link Version}, {@link Temporal}, {@link Enumerated} und {@link Column}
  * werden verwendet, um die Felder dieser Klasse weiter zu konfigurieren und deren Verhalten in der Datenbank zu steuern.</p>
+ *
+ * <p>Sub und E-Mail-Adresse sind eindeutig, damit die Suche über beide Spalten einen Index verwendet.</p>
  */
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_benutzerdaten_sub", columnNames = "sub"),
+        @UniqueConstraint(name = "uk_benutzerdaten_email", columnNames = "email")
+})
 public class Benutzerdaten {
 
     @Id
@@ -58,6 +64,10 @@ public class Benutzerdaten {
         Id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getVorname() {
         return vorname;
     }
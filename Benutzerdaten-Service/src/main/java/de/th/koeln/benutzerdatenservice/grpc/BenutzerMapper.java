@@ -0,0 +1,44 @@
+package de.th.koeln.benutzerdatenservice.grpc;
+
+import de.th.koeln.benutzerdatenservice.entities.Benutzerdaten;
+import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
+
+/**
+ * Wandelt Benutzerdaten in ihre gRPC-Darstellung um.
+ *
+ * <p>Nicht gesetzte Felder werden ausgelassen, da gRPC-Nachrichten keine {@code null}-Werte zulassen.</p>
+ */
+public final class BenutzerMapper {
+
+    private BenutzerMapper() {
+    }
+
+    /**
+     * Wandelt Benutzerdaten in eine gRPC-Nachricht um.
+     *
+     * @param benutzer Die Benutzerdaten.
+     * @return Die Benutzerdaten als gRPC-Nachricht.
+     */
+    public static BenutzerDaten toBenutzerDaten(Benutzerdaten benutzer) {
+        BenutzerDaten.Builder builder = BenutzerDaten.newBuilder();
+        if (benutzer.getId() != null) {
+            builder.setId(String.valueOf(benutzer.getId()));
+        }
+        if (benutzer.getVorname() != null) {
+            builder.setVorname(benutzer.getVorname());
+        }
+        if (benutzer.getNachname() != null) {
+            builder.setNachname(benutzer.getNachname());
+        }
+        if (benutzer.getEmail() != null) {
+            builder.setEmail(benutzer.getEmail());
+        }
+        if (benutzer.getGeschlecht() != null) {
+            builder.setGeschlecht(benutzer.getGeschlecht().name().toLowerCase());
+        }
+        if (benutzer.getSub() != null) {
+            builder.setSub(benutzer.getSub());
+        }
+        return builder.build();
+    }
+}
@@ -4,10 +4,16 @@ import de.th.koeln.benutzerdatenservice.entities.Benutzerdaten;
 import de.th.koeln.benutzerdatenservice.entities.Geschlecht;
 import de.th.koeln.benutzerdatenservice.services.BenutzerService;
 import de.th.koeln.benutzerservice.grpc.*;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * gRPC-Service-Implementierung für Benutzerdaten.
  *
@@ -41,12 +47,8 @@ public class BenutzerServiceImpl extends BenutzerServiceGrpc.BenutzerServiceImpl
      */
     @Override
     public void createBenutzer(CreateBenutzerRequest request, StreamObserver<Empty> response) {
-        Benutzerdaten benutzer = new Benutzerdaten();
-        benutzer.setVorname(request.getBenutzer().getVorname());
-        benutzer.setNachname(request.getBenutzer().getNachname());
-        benutzer.setEmail(request.getBenutzer().getEmail());
+        Benutzerdaten benutzer = toBenutzerdaten(request.getBenutzer());
         benutzer.setGeschlecht(Geschlecht.valueOf(request.getBenutzer().getGeschlecht().toUpperCase()));
-        benutzer.setSub(request.getBenutzer().getSub());
         benutzerService.speichern(benutzer);
         response.onNext(Empty.newBuilder().build());
         response.onCompleted();
@@ -56,31 +58,43 @@ public class BenutzerServiceImpl extends BenutzerServiceGrpc.BenutzerServiceImpl
      * Ruft Benutzerdaten anhand der Sub ab.
      *
      * Diese Methode empfängt eine gRPC-Anfrage zur Abfrage von Benutzerdaten anhand
-     * der Sub, konvertiert die Benutzerdaten in ein gRPC-kompatibles Format und
-     * übermittelt die Antwort.
+     * der Sub und übermittelt die fertig aufgebaute Antwort, die bei wiederholten
+     * Abfragen aus dem Cache des BenutzerService stammt.
      *
      * @param request Die Anfrage zur Abfrage von Benutzerdaten.
      * @param response Der StreamObserver zur Übermittlung der Antwort.
      */
     @Override
     public void getBenutzerBySub(GetBenutzerBySubRequest request, StreamObserver<GetBenutzerBySubResponse> response) {
-        Benutzerdaten benutzer = this.benutzerService.findBenutzerBySub(request.getSub());
-        if (benutzer != null) {
-            BenutzerDaten benutzerDaten = BenutzerDaten.newBuilder()
-                    .setId(String.valueOf(benutzer.getId()))
-                    .setVorname(benutzer.getVorname())
-                    .setNachname(benutzer.getNachname())
-                    .setEmail(benutzer.getEmail())
-                    .setGeschlecht(benutzer.getGeschlecht().name().toLowerCase())
-                    .setSub(benutzer.getSub())
-                    .build();
+        response.onNext(this.benutzerService.findBenutzerAntwortBySub(request.getSub()));
+        response.onCompleted();
+    }
+
+    /**
+     * Ruft die Benutzerdaten mehrerer Benutzer anhand ihrer Subs ab.
+     *
+     * Doppelte und leere Subs werden ignoriert. Die gefundenen Benutzer werden in der
+     * Reihenfolge der Anfrage zurückgegeben, Subs ohne Benutzer werden als fehlend gemeldet.
+     *
+     * @param request Die Anfrage mit den Subs der Benutzer.
+     * @param response Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void getBenutzerBySubs(GetBenutzerBySubsRequest request, StreamObserver<GetBenutzerBySubsResponse> response) {
+        Set<String> subs = new LinkedHashSet<>(request.getSubsList());
+        subs.remove("");
+        Map<String, BenutzerDaten> gefunden = this.benutzerService.findBenutzerDatenBySubs(subs);
 
-            GetBenutzerBySubResponse benutzerResponse = GetBenutzerBySubResponse.newBuilder()
-                    .setBenutzer(benutzerDaten).build();
-            response.onNext(benutzerResponse);
-        } else {
-            response.onNext(GetBenutzerBySubResponse.getDefaultInstance());
+        GetBenutzerBySubsResponse.Builder antwort = GetBenutzerBySubsResponse.newBuilder();
+        for (String sub : subs) {
+            BenutzerDaten benutzerDaten = gefunden.get(sub);
+            if (benutzerDaten != null) {
+                antwort.addBenutzer(benutzerDaten);
+            } else {
+                antwort.addFehlendeSubs(sub);
+            }
         }
+        response.onNext(antwort.build());
         response.onCompleted();
     }
 
@@ -99,4 +113,45 @@ public class BenutzerServiceImpl extends BenutzerServiceGrpc.BenutzerServiceImpl
         response.onNext(Empty.newBuilder().build());
         response.onCompleted();
     }
+
+    /**
+     * Stellt sicher, dass ein Benutzer existiert.
+     *
+     * Diese Methode gibt den Benutzer mit der Sub der Anfrage zurück und aktualisiert seine
+     * letzte Anmeldung. Existiert er noch nicht, wird er mit den Daten der Anfrage angelegt;
+     * ein unbekanntes Geschlecht wird dabei als UNBEKANNT gespeichert.
+     *
+     * @param request Die Anfrage mit den Benutzerdaten.
+     * @param response Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void ensureBenutzer(EnsureBenutzerRequest request, StreamObserver<EnsureBenutzerResponse> response) {
+        if (request.getBenutzer().getSub().isEmpty()) {
+            response.onError(Status.INVALID_ARGUMENT.withDescription("Die Sub fehlt").asRuntimeException());
+            return;
+        }
+
+        Benutzerdaten benutzer = toBenutzerdaten(request.getBenutzer());
+        benutzer.setGeschlecht(Arrays.stream(Geschlecht.values())
+                .filter(geschlecht -> geschlecht.name().equalsIgnoreCase(request.getBenutzer().getGeschlecht()))
+                .findFirst()
+                .orElse(Geschlecht.UNBEKANNT));
+        response.onNext(EnsureBenutzerResponse.newBuilder()
+                .setBenutzer(this.benutzerService.ensureBenutzer(benutzer))
+                .build());
+        response.onCompleted();
+    }
+
+    /**
+     * Wandelt eine gRPC-Nachricht in Benutzerdaten um. Eine leere E-Mail-Adresse wird als {@code null} übernommen,
+     * da die E-Mail-Adresse eindeutig sein muss und sonst nur ein Benutzer ohne E-Mail-Adresse angelegt werden könnte.
+     */
+    private static Benutzerdaten toBenutzerdaten(BenutzerDaten benutzerDaten) {
+        Benutzerdaten benutzer = new Benutzerdaten();
+        benutzer.setVorname(benutzerDaten.getVorname());
+        benutzer.setNachname(benutzerDaten.getNachname());
+        benutzer.setEmail(benutzerDaten.getEmail().isEmpty() ? null : benutzerDaten.getEmail());
+        benutzer.setSub(benutzerDaten.getSub());
+        return benutzer;
+    }
 }
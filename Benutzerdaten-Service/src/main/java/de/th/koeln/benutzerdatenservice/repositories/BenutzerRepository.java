@@ -2,18 +2,16 @@ package de.th.koeln.benutzerdatenservice.repositories;
 
 import de.th.koeln.benutzerdatenservice.entities.Benutzerdaten;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Das Repository-Interface für die Benutzerdaten-Entität.
  *
- * <p>Dieses Interface erweitert {@link JpaRepository} und bietet Methoden zum Abrufen und
- * Aktualisieren von Benutzerdaten in der Datenbank.</p>
+ * <p>Dieses Interface erweitert {@link JpaRepository} und bietet Methoden zum Abrufen
+ * von Benutzerdaten in der Datenbank.</p>
  */
 @Repository
 public interface BenutzerRepository extends JpaRepository<Benutzerdaten, Long> {
@@ -35,12 +33,10 @@ public interface BenutzerRepository extends JpaRepository<Benutzerdaten, Long> {
     Benutzerdaten findBenutzerdatenBySub(String sub);
 
     /**
-     * Aktualisiert das Datum und die Uhrzeit der letzten Anmeldung eines Benutzers.
+     * Findet alle Benutzer, deren Sub (Subject-ID) in der angegebenen Menge enthalten ist.
      *
-     * @param sub Die Subject-ID des Benutzers.
-     * @param letzteAnmeldung Das neue Datum und die neue Uhrzeit der letzten Anmeldung.
+     * @param subs Die Subject-IDs der Benutzer.
+     * @return Die Benutzerdaten der gefundenen Benutzer.
      */
-    @Modifying
-    @Query("UPDATE Benutzerdaten b SET b.letzteAnmeldung = :letzteAnmeldung WHERE b.sub = :sub")
-    void updateLastLogin(@Param("sub") String sub, @Param("letzteAnmeldung") LocalDateTime letzteAnmeldung);
+    List<Benutzerdaten> findBySubIn(Collection<String> subs);
 }
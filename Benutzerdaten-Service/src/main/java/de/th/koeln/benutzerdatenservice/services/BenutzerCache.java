@@ -0,0 +1,230 @@
+package de.th.koeln.benutzerdatenservice.services;
+
+import de.th.koeln.benutzerdatenservice.entities.Benutzerdaten;
+import de.th.koeln.benutzerdatenservice.grpc.BenutzerMapper;
+import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
+import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Prozessinterner Cache, der Subs auf die fertig aufgebauten gRPC-Antworten ihrer Benutzerdaten abbildet.
+ *
+ * <p>Der Cache fasst höchstens eine konfigurierte Anzahl von Einträgen und verdrängt die am längsten nicht
+ * verwendeten. Ein Treffer gibt die gespeicherte Antwort ohne Datenbankzugriff und ohne neue Objekte zurück.</p>
+ *
+ * <p>Jeder Eintrag trägt die {@code @Version} der Benutzerdaten, aus denen er gebaut wurde. Geänderte Benutzerdaten
+ * werden nach dem Commit übernommen; ein Eintrag wird dabei nur durch einen mit höherer Version ersetzt, sodass ein
+ * parallel geladener älterer Stand einen neueren nicht überschreibt. Gelöschte Benutzer und geänderte Subs werden
+ * entfernt. Jede Entfernung erhöht einen Stand; ein geladener Eintrag wird nur übernommen, wenn sich der Stand seit
+ * Beginn des Ladens nicht geändert hat, damit ein gelöschter Benutzer nicht nachträglich wieder eingetragen wird.</p>
+ *
+ * <p>Änderungen auf anderen Instanzen erreichen diesen Cache nicht. Jeder Eintrag gilt deshalb nur für eine
+ * konfigurierte Dauer ab seinem Aufbau und wird danach neu geladen.</p>
+ */
+@Component
+public class BenutzerCache {
+
+    private final Map<String, Eintrag> eintraege;
+    private final long gueltigkeitNanos;
+    private long stand;
+
+    /**
+     * Konstruktor zur Initialisierung der Cachegröße und der Gültigkeit der Einträge.
+     *
+     * @param groesse Die maximale Anzahl der Einträge.
+     * @param gueltigkeit Die Dauer, für die ein Eintrag nach seinem Aufbau verwendet wird.
+     */
+    @Autowired
+    public BenutzerCache(@Value("${benutzer.cache.groesse:10000}") int groesse,
+                         @Value("${benutzer.cache.gueltigkeit:PT5M}") Duration gueltigkeit) {
+        this.gueltigkeitNanos = gueltigkeit.toNanos();
+        this.eintraege = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Eintrag> eldest) {
+                return size() > groesse;
+            }
+        });
+    }
+
+    /**
+     * Gibt die Antwort für eine Sub aus dem Cache zurück oder lädt die Benutzerdaten und speichert die Antwort im
+     * Cache.
+     *
+     * @param sub Die Subject-ID des Benutzers.
+     * @param laden Lädt die Benutzerdaten, wenn sie nicht im Cache sind.
+     * @return Die Antwort oder leer, wenn kein Benutzer mit der Sub existiert.
+     */
+    public Optional<GetBenutzerBySubResponse> hole(String sub, Supplier<Optional<Benutzerdaten>> laden) {
+        long vorher;
+        synchronized (this.eintraege) {
+            Eintrag treffer = gueltigerEintrag(sub);
+            if (treffer != null) {
+                return Optional.of(treffer.antwort());
+            }
+            vorher = this.stand;
+        }
+        return laden.get().map(benutzer -> uebernehme(benutzer, vorher).antwort());
+    }
+
+    /**
+     * Gibt die Benutzerdaten mehrerer Subs zurück. Nicht im Cache enthaltene Subs werden gemeinsam geladen und
+     * im Cache gespeichert.
+     *
+     * @param subs Die Subject-IDs der Benutzer.
+     * @param laden Lädt die Benutzerdaten der fehlenden Subs.
+     * @return Die Benutzerdaten der existierenden Benutzer, abgebildet auf ihre Sub.
+     */
+    public Map<String, BenutzerDaten> holeAlle(Collection<String> subs,
+                                               Function<Set<String>, List<Benutzerdaten>> laden) {
+        Map<String, BenutzerDaten> ergebnis = new HashMap<>();
+        Set<String> fehlende = new LinkedHashSet<>();
+        long vorher;
+        synchronized (this.eintraege) {
+            for (String sub : subs) {
+                Eintrag treffer = gueltigerEintrag(sub);
+                if (treffer != null) {
+                    ergebnis.put(sub, treffer.antwort().getBenutzer());
+                } else {
+                    fehlende.add(sub);
+                }
+            }
+            vorher = this.stand;
+        }
+        if (fehlende.isEmpty()) {
+            return ergebnis;
+        }
+
+        for (Benutzerdaten benutzer : laden.apply(fehlende)) {
+            ergebnis.put(benutzer.getSub(), uebernehme(benutzer, vorher).antwort().getBenutzer());
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Übernimmt geänderte Benutzerdaten, bei laufender Transaktion erst nach deren Commit, wenn die neue Version
+     * feststeht. Nach einem Rollback bleibt der bisherige Eintrag erhalten.
+     *
+     * @param benutzer Die gespeicherten Benutzerdaten.
+     */
+    public void aktualisiere(Benutzerdaten benutzer) {
+        if (benutzer.getSub() == null) {
+            return;
+        }
+        long vorher;
+        synchronized (this.eintraege) {
+            vorher = this.stand;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            uebernehme(benutzer, vorher);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!uebernehme(benutzer, vorher).gespeichert()) {
+                    verwirf(benutzer.getSub());
+                }
+            }
+        });
+    }
+
+    /**
+     * Entfernt den Eintrag einer Sub sofort und, bei laufender Transaktion, erneut nach deren Abschluss,
+     * damit ein zwischenzeitlich gelesener Stand nicht im Cache bleibt.
+     *
+     * @param sub Die Subject-ID des Benutzers.
+     */
+    public void entferne(String sub) {
+        if (sub == null) {
+            return;
+        }
+        verwirf(sub);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    verwirf(sub);
+                }
+            });
+        }
+    }
+
+    /**
+     * Baut den Eintrag für Benutzerdaten und speichert ihn, sofern seit {@code vorher} nichts entfernt wurde und
+     * kein Eintrag mit höherer Version vorhanden ist.
+     *
+     * @return Der gebaute Eintrag; wurde er wegen einer zwischenzeitlichen Entfernung nicht gespeichert, ist er als
+     * verworfen gekennzeichnet.
+     */
+    private Eintrag uebernehme(Benutzerdaten benutzer, long vorher) {
+        Eintrag neu = Eintrag.von(benutzer);
+        synchronized (this.eintraege) {
+            if (this.stand != vorher) {
+                return neu.verworfen();
+            }
+            this.eintraege.merge(benutzer.getSub(), neu, (bisher, kandidat) ->
+                    kandidat.version() > bisher.version() ? kandidat : bisher);
+        }
+        return neu;
+    }
+
+    /**
+     * Gibt den Eintrag einer Sub zurück, sofern er noch gültig ist; ein abgelaufener Eintrag wird entfernt.
+     * Muss unter der Sperre von {@code eintraege} aufgerufen werden.
+     */
+    private Eintrag gueltigerEintrag(String sub) {
+        Eintrag eintrag = this.eintraege.get(sub);
+        if (eintrag != null && System.nanoTime() - eintrag.erstellt() > this.gueltigkeitNanos) {
+            this.eintraege.remove(sub);
+            return null;
+        }
+        return eintrag;
+    }
+
+    private void verwirf(String sub) {
+        synchronized (this.eintraege) {
+            this.stand++;
+            this.eintraege.remove(sub);
+        }
+    }
+
+    /**
+     * Eine fertig gebaute Antwort mit der Version der Benutzerdaten, aus denen sie gebaut wurde.
+     *
+     * @param version Die Version der Benutzerdaten.
+     * @param antwort Die Antwort.
+     * @param erstellt Der Zeitpunkt des Aufbaus in {@link System#nanoTime()}.
+     * @param gespeichert Ob der Eintrag im Cache gespeichert wurde.
+     */
+    private record Eintrag(long version, GetBenutzerBySubResponse antwort, long erstellt, boolean gespeichert) {
+
+        static Eintrag von(Benutzerdaten benutzer) {
+            return new Eintrag(benutzer.getVersion() == null ? -1 : benutzer.getVersion(),
+                    GetBenutzerBySubResponse.newBuilder()
+                            .setBenutzer(BenutzerMapper.toBenutzerDaten(benutzer))
+                            .build(),
+                    System.nanoTime(), true);
+        }
+
+        Eintrag verworfen() {
+            return new Eintrag(version, antwort, erstellt, false);
+        }
+    }
+}
@@ -3,21 +3,32 @@ package de.th.koeln.benutzerdatenservice.services;
 import de.th.koeln.benutzerdatenservice.entities.Benutzerdaten;
 import de.th.koeln.benutzerdatenservice.exceptions.BenutzerdatenExceptionHandler;
 import de.th.koeln.benutzerdatenservice.repositories.BenutzerRepository;
+import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
+import de.th.koeln.benutzerservice.grpc.GetBenutzerBySubResponse;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class BenutzerService {
 
     private final BenutzerRepository repository;
+    private final BenutzerCache cache;
+    private final LetzteAnmeldungPuffer letzteAnmeldungPuffer;
 
     @Autowired
-    public BenutzerService(BenutzerRepository repository) {
+    public BenutzerService(BenutzerRepository repository, BenutzerCache cache,
+                           LetzteAnmeldungPuffer letzteAnmeldungPuffer) {
         this.repository = repository;
+        this.cache = cache;
+        this.letzteAnmeldungPuffer = letzteAnmeldungPuffer;
     }
 
     /**
@@ -28,7 +39,14 @@ public class BenutzerService {
      */
     @Transactional
     public Benutzerdaten speichern(Benutzerdaten benutzer) {
-        return repository.save(benutzer);
+        if (benutzer.getId() != null) {
+            repository.findById(benutzer.getId())
+                    .filter(bisher -> !Objects.equals(bisher.getSub(), benutzer.getSub()))
+                    .ifPresent(bisher -> cache.entferne(bisher.getSub()));
+        }
+        Benutzerdaten gespeichert = repository.save(benutzer);
+        cache.aktualisiere(gespeichert);
+        return gespeichert;
     }
 
     /**
@@ -38,7 +56,7 @@ public class BenutzerService {
      */
     @Transactional
     public void loeschen(long id) {
-        findBenutzerById(id);
+        cache.entferne(findBenutzerById(id).getSub());
         repository.deleteById(id);
     }
 
@@ -67,7 +85,9 @@ public class BenutzerService {
         existingBenutzer.setEmail(benutzer.getEmail());
         existingBenutzer.setGeschlecht(benutzer.getGeschlecht());
 
-        return repository.save(existingBenutzer);
+        Benutzerdaten gespeichert = repository.save(existingBenutzer);
+        cache.aktualisiere(gespeichert);
+        return gespeichert;
 
     }
 
@@ -81,14 +101,73 @@ public class BenutzerService {
         return repository.findBenutzerdatenBySub(sub);
     }
 
+    /**
+     * Findet einen Benutzer anhand der Sub (Subject-ID) und gibt die fertige gRPC-Antwort zurück.
+     *
+     * <p>Die Antworten werden in einem begrenzten Cache gehalten, der beim Speichern und Aktualisieren eines
+     * Benutzers nach dem Commit über die Version der Benutzerdaten aktualisiert und beim Löschen invalidiert wird.</p>
+     *
+     * @param sub Die Subject-ID des Benutzers.
+     * @return Die Antwort mit den Benutzerdaten oder die leere Antwort, wenn kein Benutzer mit der Sub existiert.
+     */
+    public GetBenutzerBySubResponse findBenutzerAntwortBySub(String sub) {
+        return cache.hole(sub, () -> Optional.ofNullable(repository.findBenutzerdatenBySub(sub)))
+                .orElse(GetBenutzerBySubResponse.getDefaultInstance());
+    }
+
+    /**
+     * Findet die Benutzerdaten mehrerer Benutzer anhand ihrer Subs (Subject-IDs) als gRPC-Nachrichten.
+     *
+     * <p>Subs, die nicht im Cache sind, werden mit einer einzigen Abfrage geladen.</p>
+     *
+     * @param subs Die Subject-IDs der Benutzer.
+     * @return Die Benutzerdaten der existierenden Benutzer, abgebildet auf ihre Sub.
+     */
+    public Map<String, BenutzerDaten> findBenutzerDatenBySubs(Collection<String> subs) {
+        return cache.holeAlle(subs, repository::findBySubIn);
+    }
+
+    /**
+     * Gibt den Benutzer mit der Sub der angegebenen Benutzerdaten zurück und legt ihn an, wenn er noch nicht
+     * existiert. Für einen vorhandenen Benutzer wird die letzte Anmeldung aktualisiert, ein neuer Benutzer erhält
+     * sie beim Anlegen.
+     *
+     * <p>Die Methode ist idempotent. Legen zwei Anfragen denselben Benutzer gleichzeitig an, verhindert der
+     * eindeutige Index auf der Sub einen zweiten Datensatz und die unterlegene Anfrage liest den Benutzer der
+     * anderen. Das Anlegen läuft in der Transaktion des Repositories, damit ein fehlgeschlagenes Einfügen nur diese
+     * zurückrollt.</p>
+     *
+     * @param benutzer Die Benutzerdaten, mit denen ein neuer Benutzer angelegt wird.
+     * @return Die Benutzerdaten des vorhandenen oder neu angelegten Benutzers als gRPC-Nachricht.
+     */
+    public BenutzerDaten ensureBenutzer(Benutzerdaten benutzer) {
+        GetBenutzerBySubResponse vorhanden = findBenutzerAntwortBySub(benutzer.getSub());
+        if (vorhanden.hasBenutzer()) {
+            updateLastLogin(benutzer.getSub());
+            return vorhanden.getBenutzer();
+        }
+
+        try {
+            Benutzerdaten gespeichert = repository.saveAndFlush(benutzer);
+            cache.aktualisiere(gespeichert);
+        } catch (DataIntegrityViolationException e) {
+            if (repository.findBenutzerdatenBySub(benutzer.getSub()) == null) {
+                throw e;
+            }
+            updateLastLogin(benutzer.getSub());
+        }
+        return findBenutzerAntwortBySub(benutzer.getSub()).getBenutzer();
+    }
+
     /**
      * Aktualisiert das Datum und die Uhrzeit der letzten Anmeldung eines Benutzers anhand der Sub (Subject-ID).
      *
+     * <p>Der Zeitpunkt wird gepuffert und kurz darauf gesammelt mit anderen Anmeldungen geschrieben.</p>
+     *
      * @param sub Die Subject-ID des Benutzers.
      */
-    @Transactional
     public void updateLastLogin(String sub) {
-        repository.updateLastLogin(sub, LocalDateTime.now());
+        letzteAnmeldungPuffer.merke(sub, LocalDateTime.now());
     }
 
 
@@ -0,0 +1,105 @@
+package de.th.koeln.benutzerdatenservice.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puffert die Zeitpunkte der letzten Anmeldung und schreibt sie gesammelt in die Datenbank.
+ *
+ * <p>Pro Sub wird nur der späteste Zeitpunkt gehalten. In einem kurzen Intervall und beim Herunterfahren werden
+ * alle gepufferten Zeitpunkte in einer Transaktion als JDBC-Batch geschrieben. Ein Zeitpunkt überschreibt nur
+ * einen früheren, damit mehrere Instanzen die letzte Anmeldung nicht zurücksetzen. Schlägt das Schreiben fehl,
+ * werden die Zeitpunkte wieder in den Puffer übernommen und beim nächsten Intervall erneut geschrieben.</p>
+ */
+@Component
+public class LetzteAnmeldungPuffer {
+
+    private static final String AKTUALISIERUNG =
+            "UPDATE benutzerdaten SET letzte_anmeldung = ? WHERE sub = ? AND letzte_anmeldung < ?";
+
+    private final Map<String, LocalDateTime> puffer = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchGroesse;
+
+    /**
+     * Konstruktor zur Initialisierung der Datenbankzugriffe und der Batchgröße.
+     *
+     * @param jdbcTemplate Das JdbcTemplate für die Batch-Aktualisierung.
+     * @param transactionTemplate Das TransactionTemplate, in dem ein Batch geschrieben wird.
+     * @param batchGroesse Die maximale Anzahl der Aktualisierungen pro JDBC-Batch.
+     */
+    @Autowired
+    public LetzteAnmeldungPuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 @Value("${benutzer.letzte-anmeldung.batch-groesse:500}") int batchGroesse) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchGroesse = batchGroesse;
+    }
+
+    /**
+     * Merkt sich den Zeitpunkt einer Anmeldung; ein früherer gepufferter Zeitpunkt derselben Sub wird ersetzt.
+     *
+     * @param sub Die Subject-ID des Benutzers.
+     * @param zeitpunkt Der Zeitpunkt der Anmeldung.
+     */
+    public void merke(String sub, LocalDateTime zeitpunkt) {
+        if (sub == null || sub.isEmpty()) {
+            return;
+        }
+        puffer.merge(sub, zeitpunkt, (bisher, neu) -> neu.isAfter(bisher) ? neu : bisher);
+    }
+
+    /**
+     * Schreibt alle gepufferten Zeitpunkte in die Datenbank.
+     */
+    @Scheduled(fixedDelayString = "${benutzer.letzte-anmeldung.intervall:PT1S}")
+    public void schreibeAus() {
+        if (puffer.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, LocalDateTime>> anmeldungen = new ArrayList<>();
+        for (String sub : puffer.keySet()) {
+            LocalDateTime zeitpunkt = puffer.remove(sub);
+            if (zeitpunkt != null) {
+                anmeldungen.add(Map.entry(sub, zeitpunkt));
+            }
+        }
+        if (anmeldungen.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(AKTUALISIERUNG, anmeldungen,
+                    batchGroesse, (statement, anmeldung) -> {
+                        Timestamp zeitpunkt = Timestamp.valueOf(anmeldung.getValue());
+                        statement.setTimestamp(1, zeitpunkt);
+                        statement.setString(2, anmeldung.getKey());
+                        statement.setTimestamp(3, zeitpunkt);
+                    }));
+        } catch (RuntimeException e) {
+            anmeldungen.forEach(anmeldung -> merke(anmeldung.getKey(), anmeldung.getValue()));
+            throw e;
+        }
+    }
+
+    /**
+     * Schreibt die verbliebenen Zeitpunkte beim Herunterfahren.
+     */
+    @PreDestroy
+    public void beende() {
+        schreibeAus();
+    }
+}
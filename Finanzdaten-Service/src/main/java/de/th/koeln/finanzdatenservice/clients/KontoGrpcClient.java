@@ -3,12 +3,16 @@ package de.th.koeln.finanzdatenservice.clients;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
 import de.th.koeln.kontoservice.grpc.FindKontoByIdRequest;
 import de.th.koeln.kontoservice.grpc.FindKontoByIdResponse;
+import de.th.koeln.kontoservice.grpc.FindKontenByIdsRequest;
+import de.th.koeln.kontoservice.grpc.FindKontenByIdsResponse;
 import de.th.koeln.kontoservice.grpc.KontoDaten;
 import de.th.koeln.kontoservice.grpc.KontoServiceGrpc;
 import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 /**
  * gRPC-Client für den Konto-Service.
  * Diese Klasse ermöglicht die Kommunikation mit dem Konto-Service über gRPC,
@@ -56,4 +60,20 @@ public class KontoGrpcClient  {
 
         }
     }
+
+    /**
+     * Findet die Kontodaten mehrerer Konten mit einem Aufruf.
+     *
+     * Die Antwort enthält die gefundenen Konten sowie die angefragten IDs, zu denen kein Konto existiert.
+     *
+     * @param ids Die IDs der Konten.
+     * @return Die gefundenen Konten und die fehlenden IDs.
+     * @throws StatusRuntimeException wenn der Konto-Service nicht erreichbar ist.
+     */
+    public FindKontenByIdsResponse findKontenByIds(Collection<Long> ids) {
+        FindKontenByIdsRequest request = FindKontenByIdsRequest.newBuilder()
+                .addAllKontoIds(ids.stream().map(String::valueOf).toList())
+                .build();
+        return stub.findKontenByIds(request);
+    }
 }
@@ -1,5 +1,6 @@
 package de.th.koeln.finanzdatenservice.controllers;
 
+import de.th.koeln.finanzdatenservice.dto.AusgabeAnsicht;
 import de.th.koeln.finanzdatenservice.entities.Ausgabe;
 import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
 import de.th.koeln.finanzdatenservice.services.AusgabeService;
@@ -55,7 +56,7 @@ public class AusgabeController extends BaseController<Ausgabe> {
      * @return Eine Menge von Ausgaben des Benutzers für den aktuellen Monat sortiert nach Datum absteigend.
      */
     @GetMapping("all/monat/{benutzerID}/desc")
-    public Set<Ausgabe> getAlleAusgabenByMonatDesc(@PathVariable String benutzerID) {
+    public Set<AusgabeAnsicht> getAlleAusgabenByMonatDesc(@PathVariable String benutzerID) {
         return this.service.holeAllAusgabenByDatumDesc(benutzerID);
     }
 
@@ -66,7 +67,7 @@ public class AusgabeController extends BaseController<Ausgabe> {
      * @return Eine Menge von Ausgaben des Benutzers für den aktuellen Monat.
      */
     @GetMapping("/all")
-    public Set<Ausgabe> getAlleAusgabenAktuellesMonats(@AuthenticationPrincipal Jwt jwt) {
+    public Set<AusgabeAnsicht> getAlleAusgabenAktuellesMonats(@AuthenticationPrincipal Jwt jwt) {
         String benutzerId = jwt.getSubject();
         return this.service.holeAusgabenAktuellesDatum(benutzerId);
     }
@@ -78,7 +79,7 @@ public class AusgabeController extends BaseController<Ausgabe> {
      * @return Eine Menge von Ausgaben des Kontos für den aktuellen Monat.
      */
     @GetMapping("/all/monat/{kontoId}")
-    public Set<Ausgabe> getAlleAusgabenAktuellesMonats(@PathVariable Long kontoId) {
+    public Set<AusgabeAnsicht> getAlleAusgabenAktuellesMonats(@PathVariable Long kontoId) {
         return this.service.holeAusgabenAktuellesDatum(kontoId);
     }
 
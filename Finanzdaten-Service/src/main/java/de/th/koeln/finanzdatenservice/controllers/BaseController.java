@@ -2,19 +2,22 @@ package de.th.koeln.finanzdatenservice.controllers;
 
 import de.th.koeln.finanzdatenservice.entities.AbstraktEntitaet;
 import de.th.koeln.finanzdatenservice.services.BaseService;
+import de.th.koeln.finanzdatenservice.services.IdempotenzService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collection;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * Abstrakte Basisklasse für REST-Controller, die Entitäten verwalten.
  *
  * <p>Diese Klasse bietet allgemeine CRUD-Operationen für Entitäten, die von {@link AbstraktEntitaet} erben,
- * und nutzt den {@link BaseService} zur Ausführung der Geschäftslogik.</p>
+ * und nutzt den {@link BaseService} zur Ausführung der Geschäftslogik. Lesende Endpunkte liefern die Ansichten
+ * des Services, die je nach Entität schreibgeschützte Projektionen sein können.</p>
  *
  * @param <T> Der Entitätstyp, der von AbstraktEntitaet erbt.
  */
@@ -22,6 +25,9 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
 
     protected final BaseService<T> baseService;
 
+    @Autowired
+    protected IdempotenzService idempotenzService;
+
     /**
      * Konstruktor zur Initialisierung des BaseService.
      *
@@ -34,15 +40,25 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
     /**
      * Erstellt eine neue Entität.
      *
+     * <p>Ist der Header {@code Idempotency-Key} gesetzt, wird die Entität pro Schlüssel nur einmal erstellt;
+     * Wiederholungen erhalten das ursprüngliche Ergebnis.</p>
+     *
      * @param entitaet Die zu erstellende Entität.
      * @param jwt Der JWT-Token des authentifizierten Benutzers.
+     * @param idempotenzSchluessel Der optionale Idempotenzschlüssel des Clients.
      * @return Die erstellte Entität als ResponseEntity.
      */
     @PostMapping
-    public ResponseEntity<T> create(@RequestBody T entitaet, @AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<T> create(@RequestBody T entitaet, @AuthenticationPrincipal Jwt jwt,
+                                    @RequestHeader(value = IdempotenzService.IDEMPOTENZ_HEADER, required = false)
+                                    String idempotenzSchluessel) {
         try {
             String benutzerId = jwt.getSubject();
             entitaet.setBenutzerID(benutzerId);
+            if (idempotenzSchluessel != null) {
+                return idempotenzService.ausfuehren(entitaet.getClass().getSimpleName(), benutzerId,
+                        idempotenzSchluessel, entitaet, () -> baseService.save(entitaet));
+            }
             T createdEntity = baseService.save(entitaet);
             return ResponseEntity.ok(createdEntity);
         } catch (IllegalArgumentException e) {
@@ -80,8 +96,8 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
      * @return Eine optionale Entität.
      */
     @GetMapping("/{id}")
-    public Optional<T> findById(@PathVariable Long id) {
-        return baseService.findById(id);
+    public Optional<?> findById(@PathVariable Long id) {
+        return baseService.findAnsichtById(id);
     }
 
     /**
@@ -91,9 +107,9 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
      * @return Eine Iterable von Entitäten des Benutzers.
      */
     @GetMapping("/alle")
-    public Iterable<T> findAll(@AuthenticationPrincipal Jwt jwt) {
+    public Iterable<?> findAll(@AuthenticationPrincipal Jwt jwt) {
         String sub = jwt.getSubject();
-        return baseService.findAllByBenutzerId(sub);
+        return baseService.findAnsichtenByBenutzerId(sub);
     }
 
     /**
@@ -103,8 +119,8 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
      * @return Eine Iterable von Entitäten des Benutzers.
      */
     @GetMapping("/all/{sub}")
-    public Iterable<T> findAll(@PathVariable String sub) {
-        return baseService.findAllByBenutzerId(sub);
+    public Iterable<?> findAll(@PathVariable String sub) {
+        return baseService.findAnsichtenByBenutzerId(sub);
     }
 
     /**
@@ -114,7 +130,7 @@ public abstract class BaseController<T extends AbstraktEntitaet>  {
      * @return Eine Menge von Entitäten des Kontos.
      */
     @GetMapping("/all/konto/{kontoId}")
-    public Set<T> findAllByKontoId(@PathVariable Long kontoId) {
-        return baseService.findAllByKontoId(kontoId);
+    public Collection<?> findAllByKontoId(@PathVariable Long kontoId) {
+        return baseService.findAnsichtenByKontoId(kontoId);
     }
 }
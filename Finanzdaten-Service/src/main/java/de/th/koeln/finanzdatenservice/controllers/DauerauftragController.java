@@ -0,0 +1,27 @@
+package de.th.koeln.finanzdatenservice.controllers;
+
+import de.th.koeln.finanzdatenservice.entities.Dauerauftrag;
+import de.th.koeln.finanzdatenservice.services.BaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller zur Verwaltung von Daueraufträgen.
+ *
+ * <p>Dieser Controller erweitert {@link BaseController} und bietet Endpunkte zur Verwaltung von Daueraufträgen.</p>
+ */
+@RestController
+@RequestMapping("/api/dauerauftraege")
+public class DauerauftragController extends BaseController<Dauerauftrag> {
+
+    /**
+     * Konstruktor zur Initialisierung des BaseService.
+     *
+     * @param service Der Service zur Verwaltung der Daueraufträge.
+     */
+    @Autowired
+    protected DauerauftragController(BaseService<Dauerauftrag> service) {
+        super(service);
+    }
+}
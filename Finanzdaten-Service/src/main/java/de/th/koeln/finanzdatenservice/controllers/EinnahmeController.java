@@ -1,5 +1,6 @@
 package de.th.koeln.finanzdatenservice.controllers;
 
+import de.th.koeln.finanzdatenservice.dto.EinnahmeAnsicht;
 import de.th.koeln.finanzdatenservice.entities.Einnahme;
 import de.th.koeln.finanzdatenservice.entities.EinnahmeKategorie;
 import de.th.koeln.finanzdatenservice.services.BaseService;
@@ -42,7 +43,7 @@ public class EinnahmeController extends BaseController<Einnahme> {
      * @return Eine Menge von Einnahmen des Benutzers, sortiert nach Datum absteigend.
      */
     @GetMapping("/all/desc/{id}")
-    public Set<Einnahme> getAlleEinnahmenDesc(@PathVariable String id) {
+    public Set<EinnahmeAnsicht> getAlleEinnahmenDesc(@PathVariable String id) {
         return this.service.holleAlleEinnahmeDesc(id);
     }
 
@@ -54,7 +55,7 @@ public class EinnahmeController extends BaseController<Einnahme> {
      * @return Eine Menge von Einnahmen des Benutzers für den angegebenen Monat.
      */
     @GetMapping("/all/monat/{benutzerId}/{monat}")
-    public Set<Einnahme> getAlleEinnahmenAktuellesMonats(@PathVariable String benutzerId, @PathVariable int monat) {
+    public Set<EinnahmeAnsicht> getAlleEinnahmenAktuellesMonats(@PathVariable String benutzerId, @PathVariable int monat) {
         return this.service.holeEinnahmenBeiDatum(benutzerId, monat);
     }
 
@@ -65,7 +66,7 @@ public class EinnahmeController extends BaseController<Einnahme> {
      * @return Eine Menge von Einnahmen des Benutzers für den aktuellen Monat.
      */
     @GetMapping("/all")
-    public Set<Einnahme> getAlleEinnahmenAktuellesMonats(@AuthenticationPrincipal Jwt jwt) {
+    public Set<EinnahmeAnsicht> getAlleEinnahmenAktuellesMonats(@AuthenticationPrincipal Jwt jwt) {
         String benutzerId = jwt.getSubject();
         return this.service.holeEinnahmenAktuellesDatum(benutzerId);
     }
@@ -77,7 +78,7 @@ public class EinnahmeController extends BaseController<Einnahme> {
      * @return Eine Menge von Einnahmen des Kontos für den aktuellen Monat.
      */
     @GetMapping("/all/monat/{kontoId}")
-    public Set<Einnahme> getAlleEinnahmenAktuellesMonats(@PathVariable Long kontoId) {
+    public Set<EinnahmeAnsicht> getAlleEinnahmenAktuellesMonats(@PathVariable Long kontoId) {
         return this.service.holeEinnahmenAktuellesDatum(kontoId);
     }
 
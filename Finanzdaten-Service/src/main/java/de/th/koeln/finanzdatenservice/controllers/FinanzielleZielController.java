@@ -1,12 +1,18 @@
 package de.th.koeln.finanzdatenservice.controllers;
 
+import de.th.koeln.finanzdatenservice.dto.ZielFortschritt;
 import de.th.koeln.finanzdatenservice.entities.FinanzielleZiel;
 import de.th.koeln.finanzdatenservice.services.BaseService;
 import de.th.koeln.finanzdatenservice.services.FinanzielleZielService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * REST-Controller zur Verwaltung von finanziellen Zielen.
  *
@@ -16,6 +22,9 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/ziel")
 public class FinanzielleZielController extends BaseController<FinanzielleZiel> {
 
+    @Autowired
+    protected FinanzielleZielService zielService;
+
     /**
      * Konstruktor zur Initialisierung des BaseService.
      *
@@ -26,7 +35,14 @@ public class FinanzielleZielController extends BaseController<FinanzielleZiel> {
         super(service);
     }
 
-
-
-
+    /**
+     * Holt den Fortschritt aller Ziele des angemeldeten Benutzers.
+     *
+     * @param jwt Der JWT-Token des authentifizierten Benutzers.
+     * @return Der Fortschritt je Ziel, sortiert nach Fälligkeitsdatum.
+     */
+    @GetMapping("/fortschritt")
+    public List<ZielFortschritt> getFortschritt(@AuthenticationPrincipal Jwt jwt) {
+        return this.zielService.getFortschritt(jwt.getSubject());
+    }
 }
@@ -0,0 +1,46 @@
+package de.th.koeln.finanzdatenservice.controllers;
+
+import de.th.koeln.finanzdatenservice.entities.Sparbeitrag;
+import de.th.koeln.finanzdatenservice.services.BaseService;
+import de.th.koeln.finanzdatenservice.services.SparbeitragService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST-Controller zur Verwaltung von Sparbeiträgen.
+ *
+ * <p>Dieser Controller erweitert {@link BaseController} und bietet Endpunkte zur Verwaltung von Sparbeiträgen
+ * zu finanziellen Zielen.</p>
+ */
+@RestController
+@RequestMapping("/api/sparbeitraege")
+public class SparbeitragController extends BaseController<Sparbeitrag> {
+
+    @Autowired
+    protected SparbeitragService service;
+
+    /**
+     * Konstruktor zur Initialisierung des BaseService.
+     *
+     * @param baseService Der Service zur Verwaltung der Sparbeiträge.
+     */
+    protected SparbeitragController(BaseService<Sparbeitrag> baseService) {
+        super(baseService);
+    }
+
+    /**
+     * Holt alle Sparbeiträge eines Ziels, sortiert nach Datum absteigend.
+     *
+     * @param zielId Die ID des Ziels.
+     * @return Eine Liste von Sparbeiträgen des Ziels.
+     */
+    @GetMapping("/ziel/{zielId}")
+    public List<Sparbeitrag> getSparbeitraege(@PathVariable Long zielId) {
+        return this.service.findAllByZielId(zielId);
+    }
+}
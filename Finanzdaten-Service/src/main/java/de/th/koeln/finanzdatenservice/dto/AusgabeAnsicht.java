@@ -0,0 +1,55 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import de.th.koeln.finanzdatenservice.entities.Ausgabe;
+import de.th.koeln.finanzdatenservice.entities.AusgabeArchiv;
+import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Schreibgeschützte Ansicht einer Ausgabe für lesende Endpunkte.
+ *
+ * <p>Die Felder entsprechen der JSON-Darstellung der Entität {@code Ausgabe}; statt des Budgets wird nur dessen
+ * ID gelesen, sodass das Budget weder geladen noch verbunden wird.</p>
+ */
+public record AusgabeAnsicht(Long id,
+                             LocalDateTime erstellerZeitstempel,
+                             LocalDateTime bearbeiterZeitstempel,
+                             String benutzerID,
+                             Long kontoId,
+                             BigDecimal betrag,
+                             AusgabeKategorie ausgabeKategorie,
+                             String bezeichnung,
+                             String beschreibung,
+                             LocalDate datum,
+                             Long budgetId) {
+
+    /**
+     * Erstellt die Ansicht einer Ausgabe.
+     *
+     * @param ausgabe Die Ausgabe.
+     * @return Die Ansicht.
+     */
+    public static AusgabeAnsicht von(Ausgabe ausgabe) {
+        return new AusgabeAnsicht(ausgabe.getId(), ausgabe.getErstellerZeitstempel(),
+                ausgabe.getBearbeiterZeitstempel(), ausgabe.getBenutzerID(), ausgabe.getKontoId(),
+                ausgabe.getBetrag(), ausgabe.getAusgabeKategorie(), ausgabe.getBezeichnung(),
+                ausgabe.getBeschreibung(), ausgabe.getDatum(),
+                ausgabe.getBudget() != null ? ausgabe.getBudget().getId() : null);
+    }
+
+    /**
+     * Erstellt die Ansicht einer archivierten Ausgabe.
+     *
+     * @param archiv Die archivierte Ausgabe.
+     * @return Die Ansicht.
+     */
+    public static AusgabeAnsicht von(AusgabeArchiv archiv) {
+        return new AusgabeAnsicht(archiv.getId(), archiv.getErstellerZeitstempel(),
+                archiv.getBearbeiterZeitstempel(), archiv.getBenutzerID(), archiv.getKontoId(), archiv.getBetrag(),
+                archiv.getAusgabeKategorie(), archiv.getBezeichnung(), archiv.getBeschreibung(), archiv.getDatum(),
+                archiv.getBudgetId());
+    }
+}
@@ -0,0 +1,32 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Schmale Projektion einer Einnahme oder Ausgabe, die nur Betrag und Datum enthält.
+ */
+public class BetragDatum {
+
+    private final BigDecimal betrag;
+    private final LocalDate datum;
+
+    /**
+     * Konstruktor, der von JPQL-Konstruktorausdrücken verwendet wird.
+     *
+     * @param betrag Der Betrag.
+     * @param datum Das Datum.
+     */
+    public BetragDatum(BigDecimal betrag, LocalDate datum) {
+        this.betrag = betrag;
+        this.datum = datum;
+    }
+
+    public BigDecimal getBetrag() {
+        return betrag;
+    }
+
+    public LocalDate getDatum() {
+        return datum;
+    }
+}
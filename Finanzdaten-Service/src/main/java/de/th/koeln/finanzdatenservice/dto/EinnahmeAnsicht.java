@@ -0,0 +1,52 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import de.th.koeln.finanzdatenservice.entities.Einnahme;
+import de.th.koeln.finanzdatenservice.entities.EinnahmeArchiv;
+import de.th.koeln.finanzdatenservice.entities.EinnahmeKategorie;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Schreibgeschützte Ansicht einer Einnahme für lesende Endpunkte.
+ *
+ * <p>Die Felder entsprechen der JSON-Darstellung der Entität {@code Einnahme}. Die Ansicht wird direkt per
+ * Projektion gelesen, ohne dass eine verwaltete Entität im Persistenzkontext entsteht.</p>
+ */
+public record EinnahmeAnsicht(Long id,
+                              LocalDateTime erstellerZeitstempel,
+                              LocalDateTime bearbeiterZeitstempel,
+                              String benutzerID,
+                              Long kontoId,
+                              BigDecimal betrag,
+                              EinnahmeKategorie einnahmeKategorie,
+                              String bezeichnung,
+                              String beschreibung,
+                              LocalDate datum) {
+
+    /**
+     * Erstellt die Ansicht einer Einnahme.
+     *
+     * @param einnahme Die Einnahme.
+     * @return Die Ansicht.
+     */
+    public static EinnahmeAnsicht von(Einnahme einnahme) {
+        return new EinnahmeAnsicht(einnahme.getId(), einnahme.getErstellerZeitstempel(),
+                einnahme.getBearbeiterZeitstempel(), einnahme.getBenutzerID(), einnahme.getKontoId(),
+                einnahme.getBetrag(), einnahme.getEinnahmeKategorie(), einnahme.getBezeichnung(),
+                einnahme.getBeschreibung(), einnahme.getDatum());
+    }
+
+    /**
+     * Erstellt die Ansicht einer archivierten Einnahme.
+     *
+     * @param archiv Die archivierte Einnahme.
+     * @return Die Ansicht.
+     */
+    public static EinnahmeAnsicht von(EinnahmeArchiv archiv) {
+        return new EinnahmeAnsicht(archiv.getId(), archiv.getErstellerZeitstempel(),
+                archiv.getBearbeiterZeitstempel(), archiv.getBenutzerID(), archiv.getKontoId(), archiv.getBetrag(),
+                archiv.getEinnahmeKategorie(), archiv.getBezeichnung(), archiv.getBeschreibung(), archiv.getDatum());
+    }
+}
@@ -0,0 +1,31 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Ergebnis einer nach Konto gruppierten Summenabfrage.
+ */
+public class KontoBetrag {
+
+    private final Long kontoId;
+    private final BigDecimal summe;
+
+    /**
+     * Konstruktor, der von JPQL-Konstruktorausdrücken verwendet wird.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param summe Die Summe der Beträge.
+     */
+    public KontoBetrag(Long kontoId, BigDecimal summe) {
+        this.kontoId = kontoId;
+        this.summe = summe;
+    }
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public BigDecimal getSumme() {
+        return summe;
+    }
+}
@@ -0,0 +1,31 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite der Zeitleiste eines Kontos.
+ */
+public class TimelineSeite {
+
+    private final List<TimelineZeile> eintraege;
+    private final String naechsterCursor;
+
+    /**
+     * Konstruktor zur Initialisierung der Seite.
+     *
+     * @param eintraege Die Einträge der Seite, absteigend nach Datum.
+     * @param naechsterCursor Der Cursor der nächsten Seite oder {@code null}, wenn dies die letzte Seite ist.
+     */
+    public TimelineSeite(List<TimelineZeile> eintraege, String naechsterCursor) {
+        this.eintraege = eintraege;
+        this.naechsterCursor = naechsterCursor;
+    }
+
+    public List<TimelineZeile> getEintraege() {
+        return eintraege;
+    }
+
+    public String getNaechsterCursor() {
+        return naechsterCursor;
+    }
+}
@@ -0,0 +1,38 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projektion einer Zeile der Zeitleiste eines Kontos, entweder eine Einnahme oder eine Ausgabe.
+ */
+public interface TimelineZeile {
+
+    /**
+     * Typ der Zeile.
+     *
+     * @return {@code EINNAHME} oder {@code AUSGABE}.
+     */
+    String getTyp();
+
+    Long getId();
+
+    String getBenutzerId();
+
+    String getKategorie();
+
+    String getBezeichnung();
+
+    String getBeschreibung();
+
+    LocalDate getDatum();
+
+    /**
+     * ID des Budgets einer Ausgabe.
+     *
+     * @return Die Budget-ID oder {@code null} bei Einnahmen und Ausgaben ohne Budget.
+     */
+    Long getBudgetId();
+
+    BigDecimal getBetrag();
+}
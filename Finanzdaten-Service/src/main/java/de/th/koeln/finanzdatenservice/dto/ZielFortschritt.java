@@ -0,0 +1,67 @@
+package de.th.koeln.finanzdatenservice.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Fortschritt eines finanziellen Ziels, gelesen aus dem fortgeschriebenen Sparstand des Ziels.
+ */
+public class ZielFortschritt {
+
+    private final Long zielId;
+    private final String bezeichnung;
+    private final BigDecimal sparbetrag;
+    private final BigDecimal gespartBetrag;
+    private final LocalDate faelligkeitdatum;
+
+    /**
+     * Konstruktor, der von JPQL-Konstruktorausdrücken verwendet wird.
+     *
+     * @param zielId Die ID des Ziels.
+     * @param bezeichnung Die Bezeichnung des Ziels.
+     * @param sparbetrag Der Zielbetrag.
+     * @param gespartBetrag Der bisher gesparte Betrag.
+     * @param faelligkeitdatum Das Fälligkeitsdatum des Ziels.
+     */
+    public ZielFortschritt(Long zielId, String bezeichnung, BigDecimal sparbetrag, BigDecimal gespartBetrag,
+                           LocalDate faelligkeitdatum) {
+        this.zielId = zielId;
+        this.bezeichnung = bezeichnung;
+        this.sparbetrag = sparbetrag;
+        this.gespartBetrag = gespartBetrag;
+        this.faelligkeitdatum = faelligkeitdatum;
+    }
+
+    /**
+     * Berechnet den Fortschritt des Ziels.
+     *
+     * @return Der Fortschritt in Prozent, gerundet auf zwei Nachkommastellen.
+     */
+    public BigDecimal getFortschritt() {
+        if (sparbetrag.compareTo(BigDecimal.ZERO) == 0) {
+            return BigDecimal.ZERO;
+        }
+        return gespartBetrag.multiply(BigDecimal.valueOf(100)).divide(sparbetrag, 2, RoundingMode.HALF_UP);
+    }
+
+    public Long getZielId() {
+        return zielId;
+    }
+
+    public String getBezeichnung() {
+        return bezeichnung;
+    }
+
+    public BigDecimal getSparbetrag() {
+        return sparbetrag;
+    }
+
+    public BigDecimal getGespartBetrag() {
+        return gespartBetrag;
+    }
+
+    public LocalDate getFaelligkeitdatum() {
+        return faelligkeitdatum;
+    }
+}
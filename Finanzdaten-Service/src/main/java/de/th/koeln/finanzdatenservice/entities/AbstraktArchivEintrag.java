@@ -0,0 +1,142 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Abstrakte Basisklasse für archivierte Einnahmen und Ausgaben.
+ *
+ * <p>Archivierte Einträge behalten ihre ursprüngliche ID. Da diese vor dem Speichern feststeht, implementiert die
+ * Klasse {@link Persistable}, damit beim Archivieren direkt eingefügt wird, statt jede Zeile vorher zu lesen.</p>
+ */
+@MappedSuperclass
+public abstract class AbstraktArchivEintrag implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String benutzerID;
+
+    @Column(nullable = false)
+    private Long kontoId;
+
+    @Column(nullable = false)
+    private BigDecimal betrag;
+
+    private String bezeichnung;
+    private String beschreibung;
+
+    @Column(nullable = false)
+    private LocalDate datum;
+
+    private LocalDateTime erstellerZeitstempel;
+    private LocalDateTime bearbeiterZeitstempel;
+
+    @Column(nullable = false)
+    private LocalDateTime archiviertAm;
+
+    @Transient
+    private boolean neu = true;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected AbstraktArchivEintrag() {
+    }
+
+    /**
+     * Übernimmt die gemeinsamen Felder einer Einnahme oder Ausgabe.
+     *
+     * @param entitaet Die zu archivierende Entität.
+     * @param bezeichnung Die Bezeichnung.
+     * @param beschreibung Die Beschreibung.
+     * @param datum Das Datum.
+     */
+    protected AbstraktArchivEintrag(AbstraktEntitaet entitaet, String bezeichnung, String beschreibung, LocalDate datum) {
+        this.id = entitaet.getId();
+        this.benutzerID = entitaet.getBenutzerID();
+        this.kontoId = entitaet.getKontoId();
+        this.betrag = entitaet.getBetrag();
+        this.bezeichnung = bezeichnung;
+        this.beschreibung = beschreibung;
+        this.datum = datum;
+        this.erstellerZeitstempel = entitaet.getErstellerZeitstempel();
+        this.bearbeiterZeitstempel = entitaet.getBearbeiterZeitstempel();
+        this.archiviertAm = LocalDateTime.now();
+    }
+
+    /**
+     * Überträgt die gemeinsamen Felder auf eine nicht verwaltete Entität.
+     *
+     * @param entitaet Die Zielentität.
+     */
+    protected void uebertrage(AbstraktEntitaet entitaet) {
+        entitaet.setId(id);
+        entitaet.setBenutzerID(benutzerID);
+        entitaet.setKontoId(kontoId);
+        entitaet.setBetrag(betrag);
+        entitaet.uebernehmeZeitstempel(erstellerZeitstempel, bearbeiterZeitstempel);
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return neu;
+    }
+
+    /**
+     * Markiert den Eintrag nach dem Laden oder Speichern als bereits persistiert.
+     */
+    @PostLoad
+    @PostPersist
+    void markiereGespeichert() {
+        this.neu = false;
+    }
+
+    // Getter für alle Felder
+
+    public String getBenutzerID() {
+        return benutzerID;
+    }
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public BigDecimal getBetrag() {
+        return betrag;
+    }
+
+    public String getBezeichnung() {
+        return bezeichnung;
+    }
+
+    public String getBeschreibung() {
+        return beschreibung;
+    }
+
+    public LocalDate getDatum() {
+        return datum;
+    }
+
+    public LocalDateTime getErstellerZeitstempel() {
+        return erstellerZeitstempel;
+    }
+
+    public LocalDateTime getBearbeiterZeitstempel() {
+        return bearbeiterZeitstempel;
+    }
+
+    public LocalDateTime getArchiviertAm() {
+        return archiviertAm;
+    }
+}
@@ -86,6 +86,17 @@ public abstract class AbstraktEntitaet {
         return bearbeiterZeitstempel;
     }
 
+    /**
+     * Übernimmt die Zeitstempel einer archivierten Entität, ohne dass diese gespeichert wird.
+     *
+     * @param erstellerZeitstempel Der ursprüngliche Erstellerzeitstempel.
+     * @param bearbeiterZeitstempel Der ursprüngliche Bearbeiterzeitstempel.
+     */
+    void uebernehmeZeitstempel(LocalDateTime erstellerZeitstempel, LocalDateTime bearbeiterZeitstempel) {
+        this.erstellerZeitstempel = erstellerZeitstempel;
+        this.bearbeiterZeitstempel = bearbeiterZeitstempel;
+    }
+
     /**
      * Methode, die vor dem Einfügen der Entität aufgerufen wird, um den Ersteller- und Bearbeiterzeitstempel zu setzen.
      */
@@ -0,0 +1,37 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Die Klasse AenderungsEpoche speichert die Epoche, zu der die Sequenznummern der Kontoänderungen gehören.
+ *
+ * <p>Die Tabelle enthält genau eine Zeile, die von der ersten Instanz angelegt und von allen Instanzen gelesen
+ * wird. Die Epoche ändert sich nur, wenn die Zeile und damit auch die Sequenznummern verloren gehen.</p>
+ */
+@Entity
+public class AenderungsEpoche {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, length = 36)
+    private String wert;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected AenderungsEpoche() {
+    }
+
+    // Getter für alle Felder
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getWert() {
+        return wert;
+    }
+}
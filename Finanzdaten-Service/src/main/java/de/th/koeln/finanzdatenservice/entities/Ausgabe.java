@@ -2,6 +2,7 @@ package de.th.koeln.finanzdatenservice.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
 import org.springframework.lang.NonNull;
 
 import java.time.LocalDate;
@@ -15,6 +16,11 @@ import java.time.LocalDate;
  */
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_ausgabe_datum", columnList = "datum"),
+        @Index(name = "idx_ausgabe_konto_datum", columnList = "kontoId, datum")
+})
+@EntityListeners(FinanzdatenAenderungListener.class)
 public class Ausgabe extends AbstraktEntitaet {
 
     @Enumerated(EnumType.STRING)
@@ -82,13 +88,13 @@ public class Ausgabe extends AbstraktEntitaet {
     }
 
     /**
-     * Methode, die vor dem Entfernen der Entität aufgerufen wird, um die Ausgabe aus dem Budget zu entfernen und den Restbetrag zu aktualisieren.
+     * Methode, die vor dem Entfernen der Entität aufgerufen wird, um die Ausgabe aus dem geladenen Budget zu entfernen.
+     * Der Restbetrag wird von {@code BudgetService} atomar in der Datenbank angepasst.
      */
     @PreRemove
     private void removeFromBudget() {
-        if (budget != null) {
+        if (budget != null && Hibernate.isInitialized(budget.getAusgaben())) {
             budget.getAusgaben().remove(this);
-            budget.setRestBetrag(budget.getRestBetrag().add(this.getBetrag()));
         }
     }
 }
@@ -0,0 +1,72 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Die Klasse AusgabeArchiv repräsentiert eine archivierte {@link Ausgabe}.
+ *
+ * <p>Das Budget wird nur als ID gespeichert. Der Restbetrag des Budgets bleibt beim Archivieren unverändert.</p>
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_ausgabe_archiv_konto_datum", columnList = "kontoId, datum"),
+        @Index(name = "idx_ausgabe_archiv_benutzer_datum", columnList = "benutzerID, datum")
+})
+public class AusgabeArchiv extends AbstraktArchivEintrag {
+
+    @Enumerated(EnumType.STRING)
+    private AusgabeKategorie ausgabeKategorie;
+
+    private Long budgetId;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected AusgabeArchiv() {
+        super();
+    }
+
+    private AusgabeArchiv(Ausgabe ausgabe) {
+        super(ausgabe, ausgabe.getBezeichnung(), ausgabe.getBeschreibung(), ausgabe.getDatum());
+        this.ausgabeKategorie = ausgabe.getAusgabeKategorie();
+        this.budgetId = ausgabe.getBudget() != null ? ausgabe.getBudget().getId() : null;
+    }
+
+    /**
+     * Erstellt einen Archiveintrag aus einer Ausgabe.
+     *
+     * @param ausgabe Die zu archivierende Ausgabe.
+     * @return Der Archiveintrag.
+     */
+    public static AusgabeArchiv von(Ausgabe ausgabe) {
+        return new AusgabeArchiv(ausgabe);
+    }
+
+    /**
+     * Erstellt eine nicht verwaltete Ausgabe mit den archivierten Werten, z. B. für Abfragen über den gesamten Zeitraum.
+     *
+     * @return Die Ausgabe.
+     */
+    public Ausgabe zuAusgabe() {
+        Ausgabe ausgabe = new Ausgabe();
+        uebertrage(ausgabe);
+        ausgabe.setAusgabeKategorie(ausgabeKategorie);
+        ausgabe.setBezeichnung(getBezeichnung());
+        ausgabe.setBeschreibung(getBeschreibung());
+        ausgabe.setDatum(getDatum());
+        if (budgetId != null) {
+            Budget budget = new Budget();
+            budget.setId(budgetId);
+            ausgabe.setBudget(budget);
+        }
+        return ausgabe;
+    }
+
+    public AusgabeKategorie getAusgabeKategorie() {
+        return ausgabeKategorie;
+    }
+
+    public Long getBudgetId() {
+        return budgetId;
+    }
+}
@@ -2,6 +2,7 @@ package de.th.koeln.finanzdatenservice.entities;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -32,6 +33,7 @@ public class Budget extends AbstraktEntitaet {
     private BigDecimal restBetrag;
 
     @OneToMany(mappedBy = "budget", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     @JsonManagedReference
     private Set<Ausgabe> ausgaben = new HashSet<>();
 
@@ -0,0 +1,170 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die Klasse Dauerauftrag repräsentiert eine wiederkehrende Einnahme oder Ausgabe, z. B. Miete oder Gehalt.
+ * Sie erbt von der abstrakten Klasse {@link AbstraktEntitaet}, die gemeinsame Eigenschaften und Verhalten definiert.
+ *
+ * <p>Ein Dauerauftrag dient als Vorlage. Fällige Termine werden vom {@code DauerauftragScheduler} als
+ * {@link Einnahme} bzw. {@link Ausgabe} angelegt. Der Zähler {@code ausfuehrungen} gibt an, wie viele Termine
+ * bereits angelegt wurden; {@code naechsteAusfuehrung} ist der nächste fällige Termin oder {@code null},
+ * wenn der Auftrag beendet ist.</p>
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_dauerauftrag_naechste_ausfuehrung", columnList = "naechsteAusfuehrung"))
+public class Dauerauftrag extends AbstraktEntitaet {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DauerauftragArt art;
+
+    @Enumerated(EnumType.STRING)
+    private EinnahmeKategorie einnahmeKategorie;
+
+    @Enumerated(EnumType.STRING)
+    private AusgabeKategorie ausgabeKategorie;
+
+    private String bezeichnung;
+    private String beschreibung;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Intervall intervall;
+
+    @Column(nullable = false)
+    private LocalDate ersteAusfuehrung;
+
+    private LocalDate endDatum;
+
+    @Column(nullable = false)
+    private long ausfuehrungen;
+
+    private LocalDate naechsteAusfuehrung;
+
+    /**
+     * Standardkonstruktor.
+     */
+    public Dauerauftrag() {
+        super();
+    }
+
+    /**
+     * Berechnet den n-ten Termin dieses Auftrags.
+     *
+     * @param n Die Nummer des Termins, beginnend bei 0.
+     * @return Der Termin oder {@code null}, wenn er nach dem Enddatum liegt.
+     */
+    public LocalDate termin(long n) {
+        LocalDate termin = intervall.termin(ersteAusfuehrung, n);
+        if (endDatum != null && termin.isAfter(endDatum)) {
+            return null;
+        }
+        return termin;
+    }
+
+    /**
+     * Ermittelt die nächsten noch nicht angelegten Termine bis einschließlich zum Stichtag.
+     *
+     * @param stichtag Der Stichtag.
+     * @param maxTermine Die maximale Anzahl von Terminen.
+     * @return Die fälligen Termine in aufsteigender Reihenfolge, höchstens {@code maxTermine}.
+     */
+    public List<LocalDate> faelligeTermine(LocalDate stichtag, int maxTermine) {
+        List<LocalDate> termine = new ArrayList<>();
+        for (long n = ausfuehrungen; termine.size() < maxTermine; n++) {
+            LocalDate termin = termin(n);
+            if (termin == null || termin.isAfter(stichtag)) {
+                return termine;
+            }
+            termine.add(termin);
+        }
+        return termine;
+    }
+
+    // Getter und Setter für alle Felder
+
+    public DauerauftragArt getArt() {
+        return art;
+    }
+
+    public void setArt(DauerauftragArt art) {
+        this.art = art;
+    }
+
+    public EinnahmeKategorie getEinnahmeKategorie() {
+        return einnahmeKategorie;
+    }
+
+    public void setEinnahmeKategorie(EinnahmeKategorie einnahmeKategorie) {
+        this.einnahmeKategorie = einnahmeKategorie;
+    }
+
+    public AusgabeKategorie getAusgabeKategorie() {
+        return ausgabeKategorie;
+    }
+
+    public void setAusgabeKategorie(AusgabeKategorie ausgabeKategorie) {
+        this.ausgabeKategorie = ausgabeKategorie;
+    }
+
+    public String getBezeichnung() {
+        return bezeichnung;
+    }
+
+    public void setBezeichnung(String bezeichnung) {
+        this.bezeichnung = bezeichnung;
+    }
+
+    public String getBeschreibung() {
+        return beschreibung;
+    }
+
+    public void setBeschreibung(String beschreibung) {
+        this.beschreibung = beschreibung;
+    }
+
+    public Intervall getIntervall() {
+        return intervall;
+    }
+
+    public void setIntervall(Intervall intervall) {
+        this.intervall = intervall;
+    }
+
+    public LocalDate getErsteAusfuehrung() {
+        return ersteAusfuehrung;
+    }
+
+    public void setErsteAusfuehrung(LocalDate ersteAusfuehrung) {
+        this.ersteAusfuehrung = ersteAusfuehrung;
+    }
+
+    public LocalDate getEndDatum() {
+        return endDatum;
+    }
+
+    public void setEndDatum(LocalDate endDatum) {
+        this.endDatum = endDatum;
+    }
+
+    public long getAusfuehrungen() {
+        return ausfuehrungen;
+    }
+
+    public void setAusfuehrungen(long ausfuehrungen) {
+        this.ausfuehrungen = ausfuehrungen;
+    }
+
+    public LocalDate getNaechsteAusfuehrung() {
+        return naechsteAusfuehrung;
+    }
+
+    public void setNaechsteAusfuehrung(LocalDate naechsteAusfuehrung) {
+        this.naechsteAusfuehrung = naechsteAusfuehrung;
+    }
+}
@@ -0,0 +1,10 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+/**
+ * Enum-Klasse zur Unterscheidung, ob ein Dauerauftrag Einnahmen oder Ausgaben erzeugt.
+ */
+public enum DauerauftragArt {
+
+    EINNAHME,
+    AUSGABE
+}
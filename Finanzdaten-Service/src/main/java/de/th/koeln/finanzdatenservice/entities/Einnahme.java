@@ -2,6 +2,7 @@ package de.th.koeln.finanzdatenservice.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import org.springframework.lang.NonNull;
@@ -16,6 +17,11 @@ import java.time.LocalDate;
  */
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_einnahme_datum", columnList = "datum"),
+        @Index(name = "idx_einnahme_konto_datum", columnList = "kontoId, datum")
+})
+@EntityListeners(FinanzdatenAenderungListener.class)
 public class Einnahme extends AbstraktEntitaet {
 
     @Enumerated(EnumType.STRING)
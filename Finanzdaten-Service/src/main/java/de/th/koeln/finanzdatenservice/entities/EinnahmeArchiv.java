@@ -0,0 +1,58 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Die Klasse EinnahmeArchiv repräsentiert eine archivierte {@link Einnahme}.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_einnahme_archiv_konto_datum", columnList = "kontoId, datum"),
+        @Index(name = "idx_einnahme_archiv_benutzer_datum", columnList = "benutzerID, datum")
+})
+public class EinnahmeArchiv extends AbstraktArchivEintrag {
+
+    @Enumerated(EnumType.STRING)
+    private EinnahmeKategorie einnahmeKategorie;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected EinnahmeArchiv() {
+        super();
+    }
+
+    private EinnahmeArchiv(Einnahme einnahme) {
+        super(einnahme, einnahme.getBezeichnung(), einnahme.getBeschreibung(), einnahme.getDatum());
+        this.einnahmeKategorie = einnahme.getEinnahmeKategorie();
+    }
+
+    /**
+     * Erstellt einen Archiveintrag aus einer Einnahme.
+     *
+     * @param einnahme Die zu archivierende Einnahme.
+     * @return Der Archiveintrag.
+     */
+    public static EinnahmeArchiv von(Einnahme einnahme) {
+        return new EinnahmeArchiv(einnahme);
+    }
+
+    /**
+     * Erstellt eine nicht verwaltete Einnahme mit den archivierten Werten, z. B. für Abfragen über den gesamten Zeitraum.
+     *
+     * @return Die Einnahme.
+     */
+    public Einnahme zuEinnahme() {
+        Einnahme einnahme = new Einnahme();
+        uebertrage(einnahme);
+        einnahme.setEinnahmeKategorie(einnahmeKategorie);
+        einnahme.setBezeichnung(getBezeichnung());
+        einnahme.setBeschreibung(getBeschreibung());
+        einnahme.setDatum(getDatum());
+        return einnahme;
+    }
+
+    public EinnahmeKategorie getEinnahmeKategorie() {
+        return einnahmeKategorie;
+    }
+}
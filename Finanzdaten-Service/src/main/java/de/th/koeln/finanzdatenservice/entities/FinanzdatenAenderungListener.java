@@ -0,0 +1,77 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import de.th.koeln.finanzdaten.grpc.AenderungsTyp;
+import de.th.koeln.finanzdatenservice.services.KontoAenderungService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA-Entity-Listener, der Änderungen an Einnahmen und Ausgaben an den {@link KontoAenderungService} meldet.
+ *
+ * <p>Der Listener wird von Hibernate über den Spring-Bean-Container erzeugt. Der Dienst wird über einen
+ * {@link ObjectProvider} bezogen, damit der Listener auch in Kontexten ohne Änderungsdienst (z. B. JPA-Tests)
+ * erzeugt werden kann.</p>
+ */
+public class FinanzdatenAenderungListener {
+
+    @Autowired
+    private ObjectProvider<KontoAenderungService> aenderungService;
+
+    /**
+     * Vermerkt den Stand einer geladenen Entität, damit spätere Änderungen mit dem vorherigen Stand gemeldet werden.
+     *
+     * @param entitaet Die geladene Entität.
+     */
+    @PostLoad
+    public void nachLaden(AbstraktEntitaet entitaet) {
+        KontoAenderungService service = service();
+        if (service != null) {
+            service.merkeGeladenenStand(entitaet);
+        }
+    }
+
+    /**
+     * Meldet eine neu eingefügte Entität.
+     *
+     * @param entitaet Die eingefügte Entität.
+     */
+    @PostPersist
+    public void nachEinfuegen(AbstraktEntitaet entitaet) {
+        melde(entitaet, AenderungsTyp.EINGEFUEGT);
+    }
+
+    /**
+     * Meldet eine geänderte Entität.
+     *
+     * @param entitaet Die geänderte Entität.
+     */
+    @PostUpdate
+    public void nachAendern(AbstraktEntitaet entitaet) {
+        melde(entitaet, AenderungsTyp.GEAENDERT);
+    }
+
+    /**
+     * Meldet eine gelöschte Entität.
+     *
+     * @param entitaet Die gelöschte Entität.
+     */
+    @PostRemove
+    public void nachLoeschen(AbstraktEntitaet entitaet) {
+        melde(entitaet, AenderungsTyp.GELOESCHT);
+    }
+
+    private void melde(AbstraktEntitaet entitaet, AenderungsTyp typ) {
+        KontoAenderungService service = service();
+        if (service != null) {
+            service.meldeAenderung(entitaet, typ);
+        }
+    }
+
+    private KontoAenderungService service() {
+        return this.aenderungService == null ? null : this.aenderungService.getIfAvailable();
+    }
+}
@@ -10,7 +10,9 @@ import java.time.LocalDate;
  * Die Klasse FinanzielleZiel repräsentiert ein finanzielles Ziel, das in der Anwendung verwaltet wird.
  * Sie erbt von der abstrakten Klasse {@link AbstraktEntitaet}, die gemeinsame Eigenschaften und Verhalten definiert.
  *
- * <p>Diese Klasse enthält spezifische Eigenschaften eines finanziellen Ziels wie Bezeichnung, Fälligkeitsdatum und Sparbetrag.</p>
+ * <p>Diese Klasse enthält spezifische Eigenschaften eines finanziellen Ziels wie Bezeichnung, Fälligkeitsdatum und Sparbetrag.
+ * Der bereits gesparte Betrag ist die laufende Summe aller {@link Sparbeitrag}-Einträge des Ziels und wird nur über
+ * den {@code SparbeitragService} geändert.</p>
  */
 @Entity
 public class FinanzielleZiel extends AbstraktEntitaet {
@@ -23,6 +25,9 @@ public class FinanzielleZiel extends AbstraktEntitaet {
     @Column(nullable = false)
     private BigDecimal sparbetrag;
 
+    @Column(nullable = false)
+    private BigDecimal gespartBetrag = BigDecimal.ZERO;
+
     /**
      * Standardkonstruktor.
      */
@@ -55,4 +60,12 @@ public class FinanzielleZiel extends AbstraktEntitaet {
     public void setSparbetrag(BigDecimal sparbetrag) {
         this.sparbetrag = sparbetrag;
     }
+
+    public BigDecimal getGespartBetrag() {
+        return gespartBetrag;
+    }
+
+    public void setGespartBetrag(BigDecimal gespartBetrag) {
+        this.gespartBetrag = gespartBetrag;
+    }
 }
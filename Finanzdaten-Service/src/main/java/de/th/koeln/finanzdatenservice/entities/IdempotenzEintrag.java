@@ -0,0 +1,102 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Die Klasse IdempotenzEintrag speichert das Ergebnis einer Anfrage mit {@code Idempotency-Key}.
+ *
+ * <p>Der Primärschlüssel ist ein Hash aus Ressource, Benutzer und Idempotenzschlüssel. Da er vor dem Speichern
+ * vergeben wird, implementiert die Klasse {@link Persistable}, damit {@code save} ein {@code INSERT} ausführt und
+ * ein gleichzeitig verwendeter Schlüssel an der Primärschlüssel-Verletzung erkannt wird.</p>
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_idempotenz_erstellt_am", columnList = "erstelltAm"))
+public class IdempotenzEintrag implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String schluessel;
+
+    @Column(nullable = false, length = 64)
+    private String anfrageHash;
+
+    @Lob
+    private String ergebnis;
+
+    @Column(nullable = false)
+    private boolean abgeschlossen;
+
+    @Column(nullable = false)
+    private LocalDateTime erstelltAm;
+
+    @Transient
+    private boolean neu = true;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected IdempotenzEintrag() {
+    }
+
+    /**
+     * Erstellt einen neuen, noch nicht abgeschlossenen Eintrag.
+     *
+     * @param schluessel Der Hash aus Ressource, Benutzer und Idempotenzschlüssel.
+     * @param anfrageHash Der Hash des Anfrageinhalts.
+     */
+    public IdempotenzEintrag(String schluessel, String anfrageHash) {
+        this.schluessel = schluessel;
+        this.anfrageHash = anfrageHash;
+        this.erstelltAm = LocalDateTime.now();
+    }
+
+    @Override
+    public String getId() {
+        return schluessel;
+    }
+
+    @Override
+    public boolean isNew() {
+        return neu;
+    }
+
+    /**
+     * Markiert den Eintrag nach dem Laden oder Speichern als bereits persistiert.
+     */
+    @PostLoad
+    @PostPersist
+    void markiereGespeichert() {
+        this.neu = false;
+    }
+
+    // Getter und Setter für alle Felder
+
+    public String getAnfrageHash() {
+        return anfrageHash;
+    }
+
+    public String getErgebnis() {
+        return ergebnis;
+    }
+
+    public boolean isAbgeschlossen() {
+        return abgeschlossen;
+    }
+
+    public LocalDateTime getErstelltAm() {
+        return erstelltAm;
+    }
+
+    /**
+     * Schließt den Eintrag mit dem serialisierten Ergebnis ab.
+     *
+     * @param ergebnis Das Ergebnis als JSON.
+     */
+    public void abschliessen(String ergebnis) {
+        this.ergebnis = ergebnis;
+        this.abgeschlossen = true;
+    }
+}
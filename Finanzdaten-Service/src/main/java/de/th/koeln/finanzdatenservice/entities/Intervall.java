@@ -0,0 +1,51 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import java.time.LocalDate;
+
+/**
+ * Enum-Klasse für die Intervalle, in denen ein Dauerauftrag ausgeführt wird.
+ */
+public enum Intervall {
+
+    WOECHENTLICH("Wöchentlich"),
+    MONATLICH("Monatlich"),
+    VIERTELJAEHRLICH("Vierteljährlich"),
+    JAEHRLICH("Jährlich");
+
+    private final String beschreibung;
+
+    /**
+     * Konstruktor für das Intervall.
+     *
+     * @param beschreibung Die Beschreibung des Intervalls
+     */
+    Intervall(String beschreibung) {
+        this.beschreibung = beschreibung;
+    }
+
+    /**
+     * Gibt die Beschreibung des Intervalls zurück.
+     *
+     * @return Die Beschreibung des Intervalls
+     */
+    public String getBeschreibung() {
+        return beschreibung;
+    }
+
+    /**
+     * Berechnet den n-ten Termin ausgehend vom ersten Termin. Die Berechnung erfolgt immer vom ersten Termin aus,
+     * damit z. B. ein Auftrag zum 31. nach einem kurzen Monat wieder am 31. ausgeführt wird.
+     *
+     * @param ersterTermin Der erste Termin.
+     * @param n Die Anzahl der bereits vergangenen Intervalle.
+     * @return Der n-te Termin.
+     */
+    public LocalDate termin(LocalDate ersterTermin, long n) {
+        return switch (this) {
+            case WOECHENTLICH -> ersterTermin.plusWeeks(n);
+            case MONATLICH -> ersterTermin.plusMonths(n);
+            case VIERTELJAEHRLICH -> ersterTermin.plusMonths(3 * n);
+            case JAEHRLICH -> ersterTermin.plusYears(n);
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Die Klasse KontoAenderungEintrag speichert eine festgeschriebene Änderung eines Kontos für die Verteilung an
+ * gRPC-Abonnenten.
+ *
+ * <p>Der Eintrag wird in derselben Transaktion wie die Änderung geschrieben und enthält die fertige
+ * {@code KontoAenderung} als serialisierte Nachricht. Jede Instanz liest neue Einträge anhand der aufsteigenden ID
+ * und stellt sie ihren Abonnenten zu; Fortsetzungen werden über Konto und Sequenznummer nachgeladen.</p>
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_konto_aenderung_sequenz", columnNames = {"kontoId", "sequenz"}),
+        indexes = @Index(name = "idx_konto_aenderung_erstellt_am", columnList = "erstelltAm"))
+public class KontoAenderungEintrag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long kontoId;
+
+    @Column(nullable = false)
+    private long sequenz;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] daten;
+
+    @Column(nullable = false)
+    private LocalDateTime erstelltAm;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected KontoAenderungEintrag() {
+    }
+
+    /**
+     * Erstellt einen neuen Eintrag.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param sequenz Die Sequenznummer der Änderung.
+     * @param daten Die serialisierte {@code KontoAenderung}.
+     * @param erstelltAm Der Zeitpunkt der Änderung.
+     */
+    public KontoAenderungEintrag(Long kontoId, long sequenz, byte[] daten, LocalDateTime erstelltAm) {
+        this.kontoId = kontoId;
+        this.sequenz = sequenz;
+        this.daten = daten;
+        this.erstelltAm = erstelltAm;
+    }
+
+    // Getter für alle Felder
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public long getSequenz() {
+        return sequenz;
+    }
+
+    public byte[] getDaten() {
+        return daten;
+    }
+
+    public LocalDateTime getErstelltAm() {
+        return erstelltAm;
+    }
+}
@@ -0,0 +1,38 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Die Klasse KontoSequenz speichert die Sequenznummer der zuletzt festgeschriebenen Änderung eines Kontos.
+ *
+ * <p>Die Sequenznummer wird in derselben Transaktion wie die Änderung erhöht. Dadurch enthalten die Einträge, die
+ * eine Transaktion sieht, genau die Änderungen bis zu der Sequenznummer, die sie liest, und alle Instanzen
+ * vergeben fortlaufende Nummern aus derselben Zeile.</p>
+ */
+@Entity
+public class KontoSequenz {
+
+    @Id
+    private Long kontoId;
+
+    @Column(nullable = false)
+    private long sequenz;
+
+    /**
+     * Standardkonstruktor.
+     */
+    protected KontoSequenz() {
+    }
+
+    // Getter für alle Felder
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public long getSequenz() {
+        return sequenz;
+    }
+}
@@ -0,0 +1,61 @@
+package de.th.koeln.finanzdatenservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+/**
+ * Die Klasse Sparbeitrag repräsentiert einen Betrag, der für ein {@link FinanzielleZiel} zurückgelegt wird.
+ * Sie erbt von der abstrakten Klasse {@link AbstraktEntitaet}, die gemeinsame Eigenschaften und Verhalten definiert.
+ *
+ * <p>Ein negativer Betrag steht für eine Entnahme. Die Summe aller Beiträge eines Ziels wird beim Speichern und
+ * Löschen in {@link FinanzielleZiel#getGespartBetrag()} fortgeschrieben.</p>
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_sparbeitrag_ziel_datum", columnList = "zielId, datum"))
+public class Sparbeitrag extends AbstraktEntitaet {
+
+    @Column(nullable = false)
+    private Long zielId;
+
+    @Column(nullable = false)
+    private LocalDate datum;
+
+    private String beschreibung;
+
+    /**
+     * Standardkonstruktor.
+     */
+    public Sparbeitrag() {
+        super();
+    }
+
+    // Getter und Setter für alle Felder
+
+    public Long getZielId() {
+        return zielId;
+    }
+
+    public void setZielId(Long zielId) {
+        this.zielId = zielId;
+    }
+
+    public LocalDate getDatum() {
+        return datum;
+    }
+
+    public void setDatum(LocalDate datum) {
+        this.datum = datum;
+    }
+
+    public String getBeschreibung() {
+        return beschreibung;
+    }
+
+    public void setBeschreibung(String beschreibung) {
+        this.beschreibung = beschreibung;
+    }
+}
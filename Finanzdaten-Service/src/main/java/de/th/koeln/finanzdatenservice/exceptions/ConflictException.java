@@ -0,0 +1,19 @@
+package de.th.koeln.finanzdatenservice.exceptions;
+
+/**
+ * Die ConflictException-Klasse behandelt Ausnahmen, die auf einen Konflikt mit einer laufenden Anfrage hinweisen.
+ *
+ * <p>Diese Klasse erweitert {@link RuntimeException} und bietet einen Konstruktor,
+ * um eine Ausnahme mit einer spezifischen Fehlermeldung zu erzeugen.</p>
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Konstruktor zur Erstellung einer ConflictException mit einer bestimmten Fehlermeldung.
+     *
+     * @param message Die Fehlermeldung.
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
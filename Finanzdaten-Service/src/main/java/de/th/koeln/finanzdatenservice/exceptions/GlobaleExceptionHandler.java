@@ -37,6 +37,17 @@ public class GlobaleExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Behandelt Ausnahmen vom Typ {@link ConflictException}.
+     *
+     * @param ex Die aufgetretene Ausnahme.
+     * @return Eine {@link ResponseEntity} mit dem Fehlerstatus und der Fehlermeldung.
+     */
+    @ExceptionHandler(value = {ConflictException.class})
+    public ResponseEntity<String> handleConflictException(ConflictException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
     /**
      * Behandelt alle anderen Ausnahmen.
      *
@@ -0,0 +1,66 @@
+package de.th.koeln.finanzdatenservice.grpc;
+
+import com.google.protobuf.FieldMask;
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+
+import java.util.Set;
+
+/**
+ * Die vom Aufrufer angeforderten Felder eines {@link FinanzdatenDTO}.
+ *
+ * <p>Eine leere {@link FieldMask} bedeutet, dass alle Felder geliefert werden. Besteht die Maske nur aus
+ * {@code betrag} und {@code datum}, werden nur diese beiden Spalten aus der Datenbank gelesen.</p>
+ */
+final class FeldMaske {
+
+    /**
+     * Maske, die alle Felder enthält.
+     */
+    static final FeldMaske ALLE = new FeldMaske(Set.of());
+
+    private static final Set<String> BETRAG_UND_DATUM = Set.of("betrag", "datum");
+
+    private final Set<String> pfade;
+
+    private FeldMaske(Set<String> pfade) {
+        this.pfade = pfade;
+    }
+
+    /**
+     * Erstellt eine Maske aus einer {@link FieldMask} der Anfrage.
+     *
+     * @param felder Die Feldmaske der Anfrage.
+     * @return Die Maske.
+     * @throws IllegalArgumentException Wenn ein Pfad kein Feld von {@link FinanzdatenDTO} ist.
+     */
+    static FeldMaske von(FieldMask felder) {
+        if (felder.getPathsCount() == 0) {
+            return ALLE;
+        }
+        for (String pfad : felder.getPathsList()) {
+            if (FinanzdatenDTO.getDescriptor().findFieldByName(pfad) == null) {
+                throw new IllegalArgumentException("Unbekanntes Feld in der Feldmaske: " + pfad);
+            }
+        }
+        return new FeldMaske(Set.copyOf(felder.getPathsList()));
+    }
+
+    /**
+     * Prüft, ob ein Feld geliefert werden soll.
+     *
+     * @param feld Der Name des Feldes in {@link FinanzdatenDTO}.
+     * @return true, wenn das Feld in der Maske enthalten ist oder die Maske leer ist.
+     */
+    boolean enthaelt(String feld) {
+        return pfade.isEmpty() || pfade.contains(feld);
+    }
+
+    /**
+     * Prüft, ob nur Betrag und Datum angefordert sind, sodass eine schmale Projektion genügt.
+     *
+     * @return true, wenn die Maske nicht leer ist und nur {@code betrag} und {@code datum} enthält.
+     */
+    boolean nurBetragUndDatum() {
+        return !pfade.isEmpty() && BETRAG_UND_DATUM.containsAll(pfade);
+    }
+}
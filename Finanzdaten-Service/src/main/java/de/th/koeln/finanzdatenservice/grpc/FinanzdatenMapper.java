@@ -0,0 +1,216 @@
+package de.th.koeln.finanzdatenservice.grpc;
+
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.TimelineEintrag;
+import de.th.koeln.finanzdaten.grpc.ZielFortschrittDTO;
+import de.th.koeln.finanzdatenservice.dto.AusgabeAnsicht;
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
+import de.th.koeln.finanzdatenservice.dto.EinnahmeAnsicht;
+import de.th.koeln.finanzdatenservice.dto.TimelineZeile;
+import de.th.koeln.finanzdatenservice.dto.ZielFortschritt;
+import de.th.koeln.finanzdatenservice.entities.Ausgabe;
+import de.th.koeln.finanzdatenservice.entities.Einnahme;
+
+/**
+ * Hilfsklasse zur Umwandlung von Einnahmen und Ausgaben in {@link FinanzdatenDTO}-Nachrichten.
+ *
+ * <p>Nicht gesetzte Felder der Entitäten werden ausgelassen, da Protobuf keine {@code null}-Werte erlaubt.</p>
+ */
+public final class FinanzdatenMapper {
+
+    private FinanzdatenMapper() {
+    }
+
+    /**
+     * Wandelt eine Einnahme in ein FinanzdatenDTO um.
+     *
+     * @param einnahme Die Einnahme.
+     * @return Das FinanzdatenDTO.
+     */
+    public static FinanzdatenDTO toDto(Einnahme einnahme) {
+        return toDto(EinnahmeAnsicht.von(einnahme), FeldMaske.ALLE);
+    }
+
+    /**
+     * Wandelt die Ansicht einer Einnahme in ein FinanzdatenDTO um, das nur die Felder der Maske enthält.
+     *
+     * @param einnahme Die Ansicht der Einnahme.
+     * @param maske Die angeforderten Felder.
+     * @return Das FinanzdatenDTO.
+     */
+    static FinanzdatenDTO toDto(EinnahmeAnsicht einnahme, FeldMaske maske) {
+        FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
+
+        if (maske.enthaelt("benutzerID") && einnahme.benutzerID() != null) {
+            finanzDTO.setBenutzerID(einnahme.benutzerID());
+        }
+
+        if (maske.enthaelt("kategorie") && einnahme.einnahmeKategorie() != null) {
+            finanzDTO.setKategorie(einnahme.einnahmeKategorie().toString().toUpperCase());
+        }
+
+        if (maske.enthaelt("bezeichnung") && einnahme.bezeichnung() != null) {
+            finanzDTO.setBezeichnung(einnahme.bezeichnung());
+        }
+
+        if (maske.enthaelt("beschreibung") && einnahme.beschreibung() != null) {
+            finanzDTO.setBeschreibung(einnahme.beschreibung());
+        }
+
+        if (maske.enthaelt("datum") && einnahme.datum() != null) {
+            finanzDTO.setDatum(einnahme.datum().toString());
+        }
+
+        if (maske.enthaelt("betrag") && einnahme.betrag() != null) {
+            finanzDTO.setBetrag(einnahme.betrag().toString());
+        }
+        return finanzDTO.build();
+    }
+
+    /**
+     * Wandelt eine Ausgabe in ein FinanzdatenDTO um.
+     *
+     * @param ausgabe Die Ausgabe.
+     * @return Das FinanzdatenDTO.
+     */
+    public static FinanzdatenDTO toDto(Ausgabe ausgabe) {
+        return toDto(AusgabeAnsicht.von(ausgabe), FeldMaske.ALLE);
+    }
+
+    /**
+     * Wandelt die Ansicht einer Ausgabe in ein FinanzdatenDTO um, das nur die Felder der Maske enthält.
+     *
+     * @param ausgabe Die Ansicht der Ausgabe.
+     * @param maske Die angeforderten Felder.
+     * @return Das FinanzdatenDTO.
+     */
+    static FinanzdatenDTO toDto(AusgabeAnsicht ausgabe, FeldMaske maske) {
+        FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
+
+        if (maske.enthaelt("benutzerID") && ausgabe.benutzerID() != null) {
+            finanzDTO.setBenutzerID(ausgabe.benutzerID());
+        }
+
+        if (maske.enthaelt("kategorie") && ausgabe.ausgabeKategorie() != null) {
+            finanzDTO.setKategorie(ausgabe.ausgabeKategorie().toString().toUpperCase());
+        }
+
+        if (maske.enthaelt("bezeichnung") && ausgabe.bezeichnung() != null) {
+            finanzDTO.setBezeichnung(ausgabe.bezeichnung());
+        }
+
+        if (maske.enthaelt("beschreibung") && ausgabe.beschreibung() != null) {
+            finanzDTO.setBeschreibung(ausgabe.beschreibung());
+        }
+
+        if (maske.enthaelt("datum") && ausgabe.datum() != null) {
+            finanzDTO.setDatum(ausgabe.datum().toString());
+        }
+
+        if (maske.enthaelt("betrag") && ausgabe.betrag() != null) {
+            finanzDTO.setBetrag(ausgabe.betrag().toString());
+        }
+
+        if (maske.enthaelt("budget") && ausgabe.budgetId() != null) {
+            finanzDTO.setBudget(ausgabe.budgetId().toString());
+        }
+        return finanzDTO.build();
+    }
+
+    /**
+     * Wandelt eine schmale Projektion in ein FinanzdatenDTO mit Betrag und Datum um.
+     *
+     * @param betragDatum Betrag und Datum einer Einnahme oder Ausgabe.
+     * @param maske Die angeforderten Felder.
+     * @return Das FinanzdatenDTO.
+     */
+    static FinanzdatenDTO toDto(BetragDatum betragDatum, FeldMaske maske) {
+        FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
+
+        if (maske.enthaelt("datum") && betragDatum.getDatum() != null) {
+            finanzDTO.setDatum(betragDatum.getDatum().toString());
+        }
+
+        if (maske.enthaelt("betrag") && betragDatum.getBetrag() != null) {
+            finanzDTO.setBetrag(betragDatum.getBetrag().toString());
+        }
+        return finanzDTO.build();
+    }
+
+    /**
+     * Wandelt eine Zeile der Zeitleiste in einen TimelineEintrag um.
+     *
+     * @param zeile Die Zeile der Zeitleiste.
+     * @return Der TimelineEintrag.
+     */
+    public static TimelineEintrag toEintrag(TimelineZeile zeile) {
+        return TimelineEintrag.newBuilder()
+                .setTyp(zeile.getTyp())
+                .setId(String.valueOf(zeile.getId()))
+                .setDaten(toDto(zeile, FeldMaske.ALLE))
+                .build();
+    }
+
+    /**
+     * Wandelt eine Zeile der Zeitleiste in ein FinanzdatenDTO um, das nur die Felder der Maske enthält.
+     *
+     * @param zeile Die Zeile der Zeitleiste.
+     * @param maske Die angeforderten Felder.
+     * @return Das FinanzdatenDTO.
+     */
+    static FinanzdatenDTO toDto(TimelineZeile zeile, FeldMaske maske) {
+        FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
+
+        if (maske.enthaelt("benutzerID") && zeile.getBenutzerId() != null) {
+            finanzDTO.setBenutzerID(zeile.getBenutzerId());
+        }
+
+        if (maske.enthaelt("kategorie") && zeile.getKategorie() != null) {
+            finanzDTO.setKategorie(zeile.getKategorie().toUpperCase());
+        }
+
+        if (maske.enthaelt("bezeichnung") && zeile.getBezeichnung() != null) {
+            finanzDTO.setBezeichnung(zeile.getBezeichnung());
+        }
+
+        if (maske.enthaelt("beschreibung") && zeile.getBeschreibung() != null) {
+            finanzDTO.setBeschreibung(zeile.getBeschreibung());
+        }
+
+        if (maske.enthaelt("datum") && zeile.getDatum() != null) {
+            finanzDTO.setDatum(zeile.getDatum().toString());
+        }
+
+        if (maske.enthaelt("betrag") && zeile.getBetrag() != null) {
+            finanzDTO.setBetrag(zeile.getBetrag().toString());
+        }
+
+        if (maske.enthaelt("budget") && zeile.getBudgetId() != null) {
+            finanzDTO.setBudget(zeile.getBudgetId().toString());
+        }
+        return finanzDTO.build();
+    }
+
+    /**
+     * Wandelt den Fortschritt eines Ziels in ein ZielFortschrittDTO um.
+     *
+     * @param fortschritt Der Fortschritt des Ziels.
+     * @return Das ZielFortschrittDTO.
+     */
+    public static ZielFortschrittDTO toDto(ZielFortschritt fortschritt) {
+        ZielFortschrittDTO.Builder zielDTO = ZielFortschrittDTO.newBuilder()
+                .setZielId(String.valueOf(fortschritt.getZielId()))
+                .setSparbetrag(fortschritt.getSparbetrag().toString())
+                .setGespartBetrag(fortschritt.getGespartBetrag().toString())
+                .setFortschritt(fortschritt.getFortschritt().doubleValue());
+
+        if (fortschritt.getBezeichnung() != null) {
+            zielDTO.setBezeichnung(fortschritt.getBezeichnung());
+        }
+
+        if (fortschritt.getFaelligkeitdatum() != null) {
+            zielDTO.setFaelligkeitDatum(fortschritt.getFaelligkeitdatum().toString());
+        }
+        return zielDTO.build();
+    }
+}
@@ -1,23 +1,39 @@
 package de.th.koeln.finanzdatenservice.grpc;
 
+import com.google.protobuf.FieldMask;
 import de.th.koeln.finanzdaten.grpc.*;
 import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
-import de.th.koeln.finanzdatenservice.entities.Ausgabe;
-import de.th.koeln.finanzdatenservice.entities.Einnahme;
+import de.th.koeln.finanzdatenservice.dto.TimelineSeite;
+import de.th.koeln.finanzdatenservice.dto.TimelineZeile;
 import de.th.koeln.finanzdatenservice.entities.FinanzielleZiel;
+import de.th.koeln.finanzdatenservice.exceptions.BadRequestException;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
 import de.th.koeln.finanzdatenservice.services.AusgabeService;
 import de.th.koeln.finanzdatenservice.services.EinnahmeService;
 import de.th.koeln.finanzdatenservice.services.FinanzielleZielService;
+import de.th.koeln.finanzdatenservice.services.KontoAenderungService;
+import de.th.koeln.finanzdatenservice.services.TimelineService;
 import de.th.koeln.kontoservice.grpc.KontoDaten;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +50,10 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
     private final AusgabeService ausgabeService;
     private final KontoGrpcClient kontoClient;
     private final FinanzielleZielService zieleService;
+    private final KontoAenderungService aenderungService;
+    private final TimelineService timelineService;
+    private final TransactionTemplate stichtagsLesen;
+    private final int seitenGroesse;
 
     /**
      * Konstruktor für FinanzdatenServiceImpl.
@@ -42,14 +62,27 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
      * @param ausgabeService Der Dienst zur Verwaltung von Ausgaben.
      * @param kontoClient Der gRPC-Client für Kontodienste.
      * @param zieleService Der Dienst zur Verwaltung finanzieller Ziele.
+     * @param aenderungService Der Dienst zur Verteilung von Kontoänderungen.
+     * @param timelineService Der Dienst für die Zeitleiste eines Kontos.
+     * @param transactionManager Der TransactionManager für das gemeinsame Lesen von Summen und Sequenznummern.
+     * @param seitenGroesse Die Anzahl der Einträge pro Nachricht eines Streams.
      */
     @Autowired
     public FinanzdatenServiceImpl(EinnahmeService einnahmeService, AusgabeService ausgabeService
-            , KontoGrpcClient kontoClient, FinanzielleZielService zieleService) {
+            , KontoGrpcClient kontoClient, FinanzielleZielService zieleService
+            , KontoAenderungService aenderungService, TimelineService timelineService
+            , PlatformTransactionManager transactionManager
+            , @Value("${finanzdaten.grpc.stream.seiten-groesse:500}") int seitenGroesse) {
         this.einnahmeService = einnahmeService;
         this.ausgabeService = ausgabeService;
         this.kontoClient = kontoClient;
         this.zieleService = zieleService;
+        this.aenderungService = aenderungService;
+        this.timelineService = timelineService;
+        this.stichtagsLesen = new TransactionTemplate(transactionManager);
+        this.stichtagsLesen.setReadOnly(true);
+        this.stichtagsLesen.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.seitenGroesse = seitenGroesse;
     }
 
     /**
@@ -57,6 +90,8 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
      *
      * Diese Methode empfängt eine gRPC-Anfrage zur Abfrage der Einnahmen des aktuellen
      * Monats für ein gegebenes Konto und übermittelt die Antwort.
+     * Über {@code felder} kann die Antwort auf einzelne Felder beschränkt werden; werden nur
+     * {@code betrag} und {@code datum} angefordert, liest die Datenbank nur diese beiden Spalten.
      *
      * @param request Die Anfrage zur Abfrage der Einnahmen des aktuellen Monats.
      * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
@@ -64,40 +99,27 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
     @Override
     public void getEinnahmenDesMonats(GetEinnahmenDesMonatsRequest request, StreamObserver<GetEinnahmenDesMonatsResponse> responseObserver) {
         Long kontoId = Long.parseLong(request.getKontoId());
+        FeldMaske maske;
+        try {
+            maske = FeldMaske.von(request.getFelder());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
         Optional<KontoDaten> kontoDaten = Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId()));
         if (kontoDaten.isPresent()) {
-            Set<Einnahme> einnahmen = this.einnahmeService.holeEinnahmenAktuellesDatum(kontoId);
+            List<FinanzdatenDTO> einnahmen;
+            if (maske.nurBetragUndDatum()) {
+                einnahmen = this.einnahmeService.findBetragDatumAktuellesDatum(kontoId).stream()
+                        .map(betragDatum -> FinanzdatenMapper.toDto(betragDatum, maske))
+                        .collect(Collectors.toList());
+            } else {
+                einnahmen = this.einnahmeService.holeEinnahmenAktuellesDatum(kontoId).stream()
+                        .map(einnahme -> FinanzdatenMapper.toDto(einnahme, maske))
+                        .collect(Collectors.toList());
+            }
             GetEinnahmenDesMonatsResponse response = GetEinnahmenDesMonatsResponse.newBuilder()
-                    .addAllEinnahmen(einnahmen.stream().map(einnahme ->
-                            {
-                                FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
-
-                                if (einnahme.getBenutzerID() != null) {
-                                    finanzDTO.setBenutzerID(einnahme.getBenutzerID());
-                                }
-
-                                if(einnahme.getEinnahmeKategorie() != null) {
-                                    finanzDTO.setKategorie(einnahme.getEinnahmeKategorie().toString().toUpperCase());
-                                }
-
-                                if (einnahme.getBezeichnung() != null) {
-                                    finanzDTO.setBezeichnung(einnahme.getBezeichnung());
-                                }
-
-                                if (einnahme.getBeschreibung() != null) {
-                                    finanzDTO.setBeschreibung(einnahme.getBeschreibung());
-                                }
-
-                                if (einnahme.getDatum() != null) {
-                                    finanzDTO.setDatum(einnahme.getDatum().toString());
-                                }
-
-                                if (einnahme.getBetrag() != null) {
-                                    finanzDTO.setBetrag(einnahme.getBetrag().toString());
-                                }
-                                return finanzDTO.build();
-                            })
-                            .collect(Collectors.toList()))
+                    .addAllEinnahmen(einnahmen)
                     .build();
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -111,6 +133,8 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
      *
      * Diese Methode empfängt eine gRPC-Anfrage zur Abfrage der Ausgaben des aktuellen
      * Monats für ein gegebenes Konto und übermittelt die Antwort.
+     * Über {@code felder} kann die Antwort auf einzelne Felder beschränkt werden; werden nur
+     * {@code betrag} und {@code datum} angefordert, liest die Datenbank nur diese beiden Spalten.
      *
      * @param request Die Anfrage zur Abfrage der Ausgaben des aktuellen Monats.
      * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
@@ -118,20 +142,27 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
     @Override
     public void getAusgabenDesMonats(GetAusgabenDesMonatsRequest request, StreamObserver<GetAusgabenDesMonatsResponse> responseObserver) {
         Long kontoId = Long.parseLong(request.getKontoId());
+        FeldMaske maske;
+        try {
+            maske = FeldMaske.von(request.getFelder());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
         Optional<KontoDaten> kontoDaten = Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId()));
         if (kontoDaten.isPresent()) {
-            Set<Ausgabe> ausgaben = this.ausgabeService.holeAusgabenAktuellesDatum(kontoId);
+            List<FinanzdatenDTO> ausgaben;
+            if (maske.nurBetragUndDatum()) {
+                ausgaben = this.ausgabeService.findBetragDatumAktuellesDatum(kontoId).stream()
+                        .map(betragDatum -> FinanzdatenMapper.toDto(betragDatum, maske))
+                        .collect(Collectors.toList());
+            } else {
+                ausgaben = this.ausgabeService.holeAusgabenAktuellesDatum(kontoId).stream()
+                        .map(ausgabe -> FinanzdatenMapper.toDto(ausgabe, maske))
+                        .collect(Collectors.toList());
+            }
             GetAusgabenDesMonatsResponse response = GetAusgabenDesMonatsResponse.newBuilder()
-                    .addAllAusgaben(ausgaben.stream().map(ausgabe -> FinanzdatenDTO.newBuilder()
-                                    .setBenutzerID(ausgabe.getBenutzerID())
-                                    .setKategorie(ausgabe.getAusgabeKategorie().toString().toUpperCase())
-                                    .setBezeichnung(ausgabe.getBezeichnung())
-                                    .setBeschreibung(ausgabe.getBeschreibung())
-                                    .setDatum(ausgabe.getDatum().toString())
-                                    .setBetrag(ausgabe.getBetrag().toString())
-                                    .setBudget(ausgabe.getBudget().toString())
-                                    .build())
-                            .collect(Collectors.toList()))
+                    .addAllAusgaben(ausgaben)
                     .build();
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -145,6 +176,8 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
      *
      * Diese Methode empfängt eine gRPC-Anfrage zur Abfrage aller Einnahmen für ein gegebenes Konto
      * und übermittelt die Antwort.
+     * Über {@code felder} kann die Antwort auf einzelne Felder beschränkt werden; werden nur
+     * {@code betrag} und {@code datum} angefordert, liest die Datenbank nur diese beiden Spalten.
      *
      * @param request Die Anfrage zur Abfrage aller Einnahmen.
      * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
@@ -152,39 +185,27 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
     @Override
     public void getAlleEinnahmen(GetAlleEinnahmenRequest request, StreamObserver<GetAlleEinnahmenResponse> responseObserver) {
         Long kontoId = Long.parseLong(request.getKontoId());
+        FeldMaske maske;
+        try {
+            maske = FeldMaske.von(request.getFelder());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
         Optional<KontoDaten> kontoDaten = Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId()));
         if (kontoDaten.isPresent()) {
-            Set<Einnahme> einnahmen = this.einnahmeService.findAllByKontoId(kontoId);
+            List<FinanzdatenDTO> einnahmen;
+            if (maske.nurBetragUndDatum()) {
+                einnahmen = this.einnahmeService.findBetragDatumByKontoId(kontoId).stream()
+                        .map(betragDatum -> FinanzdatenMapper.toDto(betragDatum, maske))
+                        .collect(Collectors.toList());
+            } else {
+                einnahmen = this.einnahmeService.findAnsichtenByKontoId(kontoId).stream()
+                        .map(einnahme -> FinanzdatenMapper.toDto(einnahme, maske))
+                        .collect(Collectors.toList());
+            }
             GetAlleEinnahmenResponse response = GetAlleEinnahmenResponse.newBuilder()
-                    .addAllEinnahmen(einnahmen.stream().map(einnahme ->
-                            {
-                                FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
-
-                                if (einnahme.getBenutzerID() != null) {
-                                    finanzDTO.setBenutzerID(einnahme.getBenutzerID());
-                                }
-                                if(einnahme.getEinnahmeKategorie() != null) {
-                                    finanzDTO.setKategorie(einnahme.getEinnahmeKategorie().toString().toUpperCase());
-                                }
-
-                                if (einnahme.getBezeichnung() != null) {
-                                    finanzDTO.setBezeichnung(einnahme.getBezeichnung());
-                                }
-
-                                if (einnahme.getBeschreibung() != null) {
-                                    finanzDTO.setBeschreibung(einnahme.getBeschreibung());
-                                }
-
-                                if (einnahme.getDatum() != null) {
-                                    finanzDTO.setDatum(einnahme.getDatum().toString());
-                                }
-
-                                if (einnahme.getBetrag() != null) {
-                                    finanzDTO.setBetrag(einnahme.getBetrag().toString());
-                                }
-                                return finanzDTO.build();
-                            })
-                            .collect(Collectors.toList()))
+                    .addAllEinnahmen(einnahmen)
                     .build();
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -198,6 +219,8 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
      *
      * Diese Methode empfängt eine gRPC-Anfrage zur Abfrage aller Ausgaben für ein gegebenes Konto
      * und übermittelt die Antwort.
+     * Über {@code felder} kann die Antwort auf einzelne Felder beschränkt werden; werden nur
+     * {@code betrag} und {@code datum} angefordert, liest die Datenbank nur diese beiden Spalten.
      *
      * @param request Die Anfrage zur Abfrage aller Ausgaben.
      * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
@@ -205,39 +228,27 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
     @Override
     public void getAlleAusgaben(GetAlleAusgabenRequest request, StreamObserver<GetAlleAusgabenResponse> responseObserver) {
         Long kontoId = Long.parseLong(request.getKontoId());
+        FeldMaske maske;
+        try {
+            maske = FeldMaske.von(request.getFelder());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
         Optional<KontoDaten> kontoDaten = Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId()));
         if (kontoDaten.isPresent()) {
-            Set<Ausgabe> ausgaben = this.ausgabeService.findAllByKontoId(kontoId);
+            List<FinanzdatenDTO> ausgaben;
+            if (maske.nurBetragUndDatum()) {
+                ausgaben = this.ausgabeService.findBetragDatumByKontoId(kontoId).stream()
+                        .map(betragDatum -> FinanzdatenMapper.toDto(betragDatum, maske))
+                        .collect(Collectors.toList());
+            } else {
+                ausgaben = this.ausgabeService.findAnsichtenByKontoId(kontoId).stream()
+                        .map(ausgabe -> FinanzdatenMapper.toDto(ausgabe, maske))
+                        .collect(Collectors.toList());
+            }
             GetAlleAusgabenResponse response = GetAlleAusgabenResponse.newBuilder()
-                    .addAllAusgaben(ausgaben.stream().map(ausgabe ->
-                            {
-                                FinanzdatenDTO.Builder finanzDTO = FinanzdatenDTO.newBuilder();
-
-                                if (ausgabe.getBenutzerID() != null) {
-                                    finanzDTO.setBenutzerID(ausgabe.getBenutzerID());
-                                }
-                                if(ausgabe.getAusgabeKategorie() != null) {
-                                    finanzDTO.setKategorie(ausgabe.getAusgabeKategorie().toString().toUpperCase());
-                                }
-
-                                if (ausgabe.getBezeichnung() != null) {
-                                    finanzDTO.setBezeichnung(ausgabe.getBezeichnung());
-                                }
-
-                                if (ausgabe.getBeschreibung() != null) {
-                                    finanzDTO.setBeschreibung(ausgabe.getBeschreibung());
-                                }
-
-                                if (ausgabe.getDatum() != null) {
-                                    finanzDTO.setDatum(ausgabe.getDatum().toString());
-                                }
-
-                                if (ausgabe.getBetrag() != null) {
-                                    finanzDTO.setBetrag(ausgabe.getBetrag().toString());
-                                }
-                                return finanzDTO.build();
-                            })
-                            .collect(Collectors.toList()))
+                    .addAllAusgaben(ausgaben)
                     .build();
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -246,6 +257,40 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
         }
     }
 
+    /**
+     * Liefert alle Einnahmen eines Kontos in Seiten, sortiert nach Datum absteigend.
+     *
+     * Jede Nachricht enthält höchstens die konfigurierte Anzahl von Einnahmen. Die nächste Seite wird erst
+     * gelesen, wenn der Client die vorherige abnehmen kann, sodass der Speicherbedarf unabhängig von der Anzahl
+     * der Einnahmen bleibt. Über {@code felder} kann die Antwort auf einzelne Felder beschränkt werden.
+     *
+     * @param request Die Anfrage mit Konto-ID und Feldmaske.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Seiten.
+     */
+    @Override
+    public void streamAlleEinnahmen(GetAlleEinnahmenRequest request,
+                                    StreamObserver<GetAlleEinnahmenResponse> responseObserver) {
+        streameEintraege(request.getKontoId(), request.getFelder(), TimelineService.EINNAHME,
+                einnahmen -> GetAlleEinnahmenResponse.newBuilder().addAllEinnahmen(einnahmen).build(),
+                responseObserver);
+    }
+
+    /**
+     * Liefert alle Ausgaben eines Kontos in Seiten, sortiert nach Datum absteigend.
+     *
+     * Verhält sich wie {@link #streamAlleEinnahmen(GetAlleEinnahmenRequest, StreamObserver)}.
+     *
+     * @param request Die Anfrage mit Konto-ID und Feldmaske.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Seiten.
+     */
+    @Override
+    public void streamAlleAusgaben(GetAlleAusgabenRequest request,
+                                   StreamObserver<GetAlleAusgabenResponse> responseObserver) {
+        streameEintraege(request.getKontoId(), request.getFelder(), TimelineService.AUSGABE,
+                ausgaben -> GetAlleAusgabenResponse.newBuilder().addAllAusgaben(ausgaben).build(),
+                responseObserver);
+    }
+
     /**
      * Ruft alle finanziellen Ziele ab.
      *
@@ -287,6 +332,31 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
         responseObserver.onCompleted();
     }
 
+    /**
+     * Ruft den Fortschritt aller finanziellen Ziele eines Benutzers ab.
+     *
+     * Der Fortschritt wird mit einer Abfrage aus dem gesparten Betrag der Ziele gelesen, der bei jedem
+     * Sparbeitrag fortgeschrieben wird; Einnahmen, Ausgaben und Sparbeiträge werden dabei nicht gelesen.
+     *
+     * @param request Die Anfrage mit der Benutzer-ID.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void getZielFortschritt(GetZielFortschrittRequest request,
+                                   StreamObserver<GetZielFortschrittResponse> responseObserver) {
+        if (request.getBenutzerId().isEmpty()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("benutzerId darf nicht leer sein").asRuntimeException());
+            return;
+        }
+
+        GetZielFortschrittResponse.Builder response = GetZielFortschrittResponse.newBuilder();
+        this.zieleService.getFortschritt(request.getBenutzerId())
+                .forEach(fortschritt -> response.addZiele(FinanzdatenMapper.toDto(fortschritt)));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
     /**
      * Ruft die Summe der Einnahmen des aktuellen Monats ab.
      *
@@ -328,4 +398,184 @@ public class FinanzdatenServiceImpl extends FinanzdatenServiceGrpc.FinanzdatenSe
         responseObserver.onCompleted();
     }
 
+    /**
+     * Ruft die Summen der Einnahmen und Ausgaben mehrerer Konten in einem Zeitraum ab.
+     *
+     * Diese Methode ersetzt zwei Aufrufe pro Konto durch einen Aufruf mit je einer gruppierten Abfrage für
+     * Einnahmen und Ausgaben. Ohne Zeitraum wird der aktuelle Monat verwendet. Die Konten werden nicht einzeln
+     * beim Konto-Service geprüft; unbekannte Konten erhalten die Summe 0.
+     * Zu jeder Summe werden Epoche und Sequenznummer des Änderungsstroms mitgeliefert, damit Abonnenten von
+     * {@code WatchAlleKonten} nur spätere Änderungen auf die Summe anwenden. Sequenznummern und Summen werden in
+     * einer Transaktion mit {@code REPEATABLE READ} aus demselben Datenbankstand gelesen. Da die Sequenznummer in
+     * der Transaktion der Änderung erhöht wird, enthalten die Summen genau die Änderungen bis zu ihr.
+     *
+     * @param request Die Anfrage mit den Konto-IDs und dem Zeitraum.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void getSummenFuerKonten(GetSummenFuerKontenRequest request,
+                                    StreamObserver<GetSummenFuerKontenResponse> responseObserver) {
+        List<Long> kontoIds;
+        LocalDate von;
+        LocalDate bis;
+        try {
+            kontoIds = request.getKontoIdsList().stream().map(Long::parseLong).distinct().toList();
+            von = request.getVon().isEmpty() ? YearMonth.now().atDay(1) : LocalDate.parse(request.getVon());
+            bis = request.getBis().isEmpty() ? YearMonth.now().atEndOfMonth() : LocalDate.parse(request.getBis());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        if (bis.isBefore(von)) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("bis darf nicht vor von liegen").asRuntimeException());
+            return;
+        }
+
+        String epoche = this.aenderungService.getEpoche();
+        GetSummenFuerKontenResponse response = this.stichtagsLesen.execute(status -> {
+            Map<Long, Long> sequenzen = this.aenderungService.getSequenzen(kontoIds);
+            Map<Long, BigDecimal> einnahmen = this.einnahmeService.getSummenProKonto(kontoIds, von, bis);
+            Map<Long, BigDecimal> ausgaben = this.ausgabeService.getSummenProKonto(kontoIds, von, bis);
+            GetSummenFuerKontenResponse.Builder summen = GetSummenFuerKontenResponse.newBuilder();
+            for (Long kontoId : kontoIds) {
+                summen.addSummen(KontoSumme.newBuilder()
+                        .setKontoId(String.valueOf(kontoId))
+                        .setEinnahmenSumme(einnahmen.getOrDefault(kontoId, BigDecimal.ZERO).doubleValue())
+                        .setAusgabenSumme(ausgaben.getOrDefault(kontoId, BigDecimal.ZERO).doubleValue())
+                        .setSequenz(sequenzen.get(kontoId))
+                        .setEpoche(epoche));
+            }
+            return summen.build();
+        });
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Ruft eine Seite der Zeitleiste eines Kontos ab.
+     *
+     * Einnahmen und Ausgaben werden in der Datenbank zusammengeführt und absteigend nach Datum sortiert.
+     * Das Konto wird nur beim Abruf der ersten Seite beim Konto-Service geprüft; weitere Seiten werden mit
+     * dem {@code naechsterCursor} der vorherigen Antwort abgerufen, der auf der letzten Seite leer ist.
+     *
+     * @param request Die Anfrage mit Konto-ID, Zeitraum, Seitengröße und Cursor.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void getTimeline(GetTimelineRequest request, StreamObserver<GetTimelineResponse> responseObserver) {
+        TimelineSeite seite;
+        try {
+            Long kontoId = Long.parseLong(request.getKontoId());
+            if (request.getCursor().isEmpty()
+                    && Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId())).isEmpty()) {
+                responseObserver.onError(new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden"));
+                return;
+            }
+            LocalDate von = request.getVon().isEmpty() ? YearMonth.now().atDay(1) : LocalDate.parse(request.getVon());
+            LocalDate bis = request.getBis().isEmpty() ? YearMonth.now().atEndOfMonth() : LocalDate.parse(request.getBis());
+            seite = this.timelineService.holeSeite(kontoId, von, bis, request.getCursor(), request.getLimit());
+        } catch (NumberFormatException | DateTimeParseException | BadRequestException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        GetTimelineResponse.Builder response = GetTimelineResponse.newBuilder();
+        seite.getEintraege().forEach(zeile -> response.addEintraege(FinanzdatenMapper.toEintrag(zeile)));
+        if (seite.getNaechsterCursor() != null) {
+            response.setNaechsterCursor(seite.getNaechsterCursor());
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Abonniert die Änderungen an Einnahmen und Ausgaben eines Kontos.
+     *
+     * Jede Einfügung, Änderung, Löschung und Archivierung wird nach dem Commit mit einer fortlaufenden Sequenznummer
+     * übermittelt. Ist {@code abSequenz} gesetzt, werden zunächst alle verpassten Änderungen aus dem
+     * gespeicherten Verlauf nachgeliefert, sofern dieser noch ausreicht; andernfalls endet der Stream mit
+     * {@code OUT_OF_RANGE} und der Client muss die Daten neu laden.
+     *
+     * @param request Die Anfrage mit Konto-ID, letzter Sequenznummer und Epoche.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Änderungen.
+     */
+    @Override
+    public void watchKonto(WatchKontoRequest request, StreamObserver<KontoAenderung> responseObserver) {
+        Long kontoId = Long.parseLong(request.getKontoId());
+        Optional<KontoDaten> kontoDaten = Optional.ofNullable(this.kontoClient.findKontoById(request.getKontoId()));
+        if (kontoDaten.isPresent()) {
+            this.aenderungService.abonniere(kontoId, request.getAbSequenz(), request.getEpoche(),
+                    (ServerCallStreamObserver<KontoAenderung>) responseObserver);
+        } else {
+            responseObserver.onError(new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden"));
+        }
+    }
+
+    /**
+     * Abonniert die Änderungen an Einnahmen und Ausgaben aller Konten.
+     *
+     * Jede Änderung trägt die Sequenznummer ihres Kontos; Änderungen vor der Registrierung werden nicht
+     * nachgeliefert. Nach der Registrierung wird eine Nachricht ohne Konto-ID gesendet, ab der der Client seinen
+     * Stand über {@code GetSummenFuerKonten} abgleichen kann. Kommt der Client nicht nach, endet der Stream mit
+     * {@code RESOURCE_EXHAUSTED}.
+     *
+     * @param request Die leere Anfrage.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Änderungen.
+     */
+    @Override
+    public void watchAlleKonten(WatchAlleKontenRequest request, StreamObserver<KontoAenderung> responseObserver) {
+        this.aenderungService.abonniereAlle((ServerCallStreamObserver<KontoAenderung>) responseObserver);
+    }
+
+    /**
+     * Liefert die Einnahmen oder Ausgaben eines Kontos seitenweise unter Beachtung der Flusskontrolle.
+     *
+     * Eine Seite wird nur gelesen und gesendet, solange der Stream bereit ist; danach wird beim nächsten
+     * {@code onReady} fortgesetzt. Bricht der Client ab, werden keine weiteren Seiten gelesen.
+     */
+    private <T> void streameEintraege(String kontoIdText, FieldMask felder, String typ,
+                                      Function<List<FinanzdatenDTO>, T> nachricht,
+                                      StreamObserver<T> responseObserver) {
+        Long kontoId;
+        FeldMaske maske;
+        try {
+            kontoId = Long.parseLong(kontoIdText);
+            maske = FeldMaske.von(felder);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        if (Optional.ofNullable(this.kontoClient.findKontoById(kontoIdText)).isEmpty()) {
+            responseObserver.onError(new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden"));
+            return;
+        }
+
+        ServerCallStreamObserver<T> observer = (ServerCallStreamObserver<T>) responseObserver;
+        AtomicReference<TimelineZeile> letzte = new AtomicReference<>();
+        AtomicBoolean beendet = new AtomicBoolean();
+        observer.setOnCancelHandler(() -> beendet.set(true));
+        observer.setOnReadyHandler(() -> {
+            try {
+                while (!beendet.get() && observer.isReady()) {
+                    List<TimelineZeile> seite = this.timelineService.holeEintraegeNach(kontoId, typ, letzte.get(),
+                            seitenGroesse);
+                    if (!seite.isEmpty()) {
+                        observer.onNext(nachricht.apply(seite.stream()
+                                .map(zeile -> FinanzdatenMapper.toDto(zeile, maske))
+                                .toList()));
+                        letzte.set(seite.get(seite.size() - 1));
+                    }
+                    if (seite.size() < seitenGroesse) {
+                        beendet.set(true);
+                        observer.onCompleted();
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (beendet.compareAndSet(false, true)) {
+                    observer.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,68 @@
+package de.th.koeln.finanzdatenservice.grpc;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Interceptor, der Antworten aller gRPC-Methoden ab einer Mindestgröße mit gzip komprimiert.
+ *
+ * <p>Die Komprimierung wird pro Aufruf ausgehandelt: gRPC verwendet gzip nur, wenn der Client es in
+ * {@code grpc-accept-encoding} angibt, und fällt sonst auf unkomprimierte Nachrichten zurück. Kleine Nachrichten,
+ * etwa einzelne Summen, werden auch dann unkomprimiert gesendet, da der Aufwand den Gewinn übersteigt.</p>
+ */
+@GrpcGlobalServerInterceptor
+public class KomprimierungInterceptor implements ServerInterceptor {
+
+    /**
+     * Name des Komprimierungsverfahrens in der Registry von gRPC.
+     */
+    static final String GZIP = "gzip";
+
+    private final long schwelle;
+
+    /**
+     * Konstruktor zur Initialisierung der Mindestgröße.
+     *
+     * @param schwelle Die Mindestgröße einer Antwort, ab der komprimiert wird.
+     */
+    @Autowired
+    public KomprimierungInterceptor(@Value("${finanzdaten.grpc.komprimierung.schwelle:1KB}") DataSize schwelle) {
+        this.schwelle = schwelle.toBytes();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendHeaders(Metadata antwortHeaders) {
+                setCompression(GZIP);
+                super.sendHeaders(antwortHeaders);
+            }
+
+            @Override
+            public void sendMessage(RespT nachricht) {
+                setMessageCompression(istGross(nachricht));
+                super.sendMessage(nachricht);
+            }
+        }, headers);
+    }
+
+    /**
+     * Prüft, ob eine Nachricht die Mindestgröße für die Komprimierung erreicht.
+     *
+     * @param nachricht Die zu sendende Nachricht.
+     * @return true, wenn die serialisierte Nachricht mindestens so groß wie die Schwelle ist.
+     */
+    boolean istGross(Object nachricht) {
+        return nachricht instanceof MessageLite message && message.getSerializedSize() >= schwelle;
+    }
+}
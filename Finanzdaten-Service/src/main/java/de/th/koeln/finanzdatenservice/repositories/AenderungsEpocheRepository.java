@@ -0,0 +1,25 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.AenderungsEpoche;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Das Repository-Interface für die Entität AenderungsEpoche.
+ */
+public interface AenderungsEpocheRepository extends JpaRepository<AenderungsEpoche, Integer> {
+
+    /**
+     * Legt die Epoche an, sofern noch keine Zeile mit der ID existiert. Eine von einer anderen Instanz angelegte
+     * Epoche bleibt erhalten.
+     *
+     * @param id Die ID der Zeile.
+     * @param wert Die neue Epoche.
+     * @return 1, wenn die Epoche angelegt wurde, sonst 0.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT IGNORE INTO aenderungs_epoche (id, wert) VALUES (:id, :wert)")
+    int legeAn(@Param("id") Integer id, @Param("wert") String wert);
+}
@@ -0,0 +1,64 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
+import de.th.koeln.finanzdatenservice.dto.KontoBetrag;
+import de.th.koeln.finanzdatenservice.entities.AusgabeArchiv;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Das Repository-Interface für die Entität AusgabeArchiv.
+ */
+public interface AusgabeArchivRepository extends JpaRepository<AusgabeArchiv, Long> {
+
+    List<AusgabeArchiv> findAllByKontoIdOrderByDatumDesc(Long kontoId);
+
+    List<AusgabeArchiv> findAllByBenutzerIDOrderByDatumDesc(String benutzerID);
+
+    /**
+     * Berechnet die Summe aller archivierten Ausgaben eines Kontos.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Die Summe oder 0, wenn keine archivierten Ausgaben vorhanden sind.
+     */
+    @Query("SELECT COALESCE(SUM(a.betrag), 0) FROM AusgabeArchiv a WHERE a.kontoId = :kontoId")
+    BigDecimal summeByKontoId(@Param("kontoId") Long kontoId);
+
+    /**
+     * Berechnet die Summe aller archivierten Ausgaben eines Benutzers.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @return Die Summe oder 0, wenn keine archivierten Ausgaben vorhanden sind.
+     */
+    @Query("SELECT COALESCE(SUM(a.betrag), 0) FROM AusgabeArchiv a WHERE a.benutzerID = :benutzerID")
+    BigDecimal summeByBenutzerID(@Param("benutzerID") String benutzerID);
+
+    /**
+     * Berechnet die Summe der archivierten Ausgaben je Konto in einem Zeitraum.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Das Startdatum (einschließlich).
+     * @param bis Das Enddatum (einschließlich).
+     * @return Eine Summe je Konto; Konten ohne archivierten Ausgaben fehlen.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.KontoBetrag(x.kontoId, SUM(x.betrag)) FROM AusgabeArchiv x "
+            + "WHERE x.kontoId IN :kontoIds AND x.datum BETWEEN :von AND :bis GROUP BY x.kontoId")
+    List<KontoBetrag> summeProKonto(@Param("kontoIds") Collection<Long> kontoIds, @Param("von") LocalDate von,
+                                    @Param("bis") LocalDate bis);
+
+    /**
+     * Liest nur Betrag und Datum aller archivierten Ausgaben eines Kontos, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.BetragDatum(x.betrag, x.datum) FROM AusgabeArchiv x "
+            + "WHERE x.kontoId = :kontoId ORDER BY x.datum DESC")
+    List<BetragDatum> findBetragDatumByKontoId(@Param("kontoId") Long kontoId);
+}
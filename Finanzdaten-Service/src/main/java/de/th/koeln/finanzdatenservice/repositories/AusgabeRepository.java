@@ -1,11 +1,20 @@
 package de.th.koeln.finanzdatenservice.repositories;
 
+import de.th.koeln.finanzdatenservice.dto.AusgabeAnsicht;
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
+import de.th.koeln.finanzdatenservice.dto.KontoBetrag;
 import de.th.koeln.finanzdatenservice.entities.Ausgabe;
 import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -15,6 +24,15 @@ import java.util.Set;
  */
 public interface AusgabeRepository extends BaseRepository<Ausgabe> {
 
+    /**
+     * Konstruktorausdruck für {@link AusgabeAnsicht}. Die Budget-ID wird aus dem Fremdschlüssel gelesen, ohne das
+     * Budget zu verbinden; die generischen Projektionen aus {@link BaseRepository} eignen sich daher nicht für
+     * {@link AusgabeAnsicht}.
+     */
+    String ANSICHT = "SELECT new de.th.koeln.finanzdatenservice.dto.AusgabeAnsicht(a.id, a.erstellerZeitstempel, "
+            + "a.bearbeiterZeitstempel, a.benutzerID, a.kontoId, a.betrag, a.ausgabeKategorie, a.bezeichnung, "
+            + "a.beschreibung, a.datum, a.budget.id) FROM Ausgabe a ";
+
     /**
      * Findet eine Ausgabe basierend auf einem Datum zwischen zwei gegebenen Daten und der Benutzer-ID.
      *
@@ -61,4 +79,104 @@ public interface AusgabeRepository extends BaseRepository<Ausgabe> {
      * @return Die Ausgabe der angegebenen Kategorie.
      */
     Ausgabe findAusgabeByAusgabeKategorie(AusgabeKategorie kategorie);
+
+    /**
+     * Findet die ältesten Ausgaben vor einem Stichtag und sperrt sie für die Archivierung.
+     *
+     * @param grenze Der Stichtag; Ausgaben mit einem früheren Datum werden gefunden.
+     * @param pageable Die Größe des Stapels.
+     * @return Eine Liste von Ausgaben, sortiert nach ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Ausgabe> findByDatumBeforeOrderByIdAsc(LocalDate grenze, Pageable pageable);
+
+    /**
+     * Berechnet die Summe der Ausgaben je Konto in einem Zeitraum.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Das Startdatum (einschließlich).
+     * @param bis Das Enddatum (einschließlich).
+     * @return Eine Summe je Konto; Konten ohne Ausgaben fehlen.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.KontoBetrag(x.kontoId, SUM(x.betrag)) FROM Ausgabe x "
+            + "WHERE x.kontoId IN :kontoIds AND x.datum BETWEEN :von AND :bis GROUP BY x.kontoId")
+    List<KontoBetrag> summeProKonto(@Param("kontoIds") Collection<Long> kontoIds, @Param("von") LocalDate von,
+                                    @Param("bis") LocalDate bis);
+
+    /**
+     * Liest nur Betrag und Datum aller Ausgaben eines Kontos, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.BetragDatum(x.betrag, x.datum) FROM Ausgabe x "
+            + "WHERE x.kontoId = :kontoId ORDER BY x.datum DESC")
+    List<BetragDatum> findBetragDatumByKontoId(@Param("kontoId") Long kontoId);
+
+    /**
+     * Liest nur Betrag und Datum der Ausgaben eines Kontos in einem Monat, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param monat Der Monat.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.BetragDatum(x.betrag, x.datum) FROM Ausgabe x "
+            + "WHERE x.kontoId = :kontoId AND MONTH(x.datum) = :monat ORDER BY x.datum DESC")
+    List<BetragDatum> findBetragDatumByMonat(@Param("kontoId") Long kontoId, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansicht einer Ausgabe anhand der ID.
+     *
+     * @param id Die ID der Ausgabe.
+     * @return Die Ansicht, falls vorhanden.
+     */
+    @Query(ANSICHT + "WHERE a.id = :id")
+    Optional<AusgabeAnsicht> findAnsichtById(@Param("id") Long id);
+
+    /**
+     * Findet die Ansichten aller Ausgaben eines Kontos.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE a.kontoId = :kontoId")
+    List<AusgabeAnsicht> findAnsichtenByKontoId(@Param("kontoId") Long kontoId);
+
+    /**
+     * Findet die Ansichten aller Ausgaben eines Benutzers.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @return Eine Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE a.benutzerID = :benutzerID")
+    List<AusgabeAnsicht> findAnsichtenByBenutzerID(@Param("benutzerID") String benutzerID);
+
+    /**
+     * Findet die Ansichten der Ausgaben eines Benutzers für einen bestimmten Monat.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @param monat Der Monat.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE a.benutzerID = :benutzerID AND MONTH(a.datum) = :monat ORDER BY a.datum DESC")
+    List<AusgabeAnsicht> findAnsichtenByMonat(@Param("benutzerID") String benutzerID, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansichten der Ausgaben eines Kontos für einen bestimmten Monat.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param monat Der Monat.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE a.kontoId = :kontoId AND MONTH(a.datum) = :monat ORDER BY a.datum DESC")
+    List<AusgabeAnsicht> findAnsichtenByMonat(@Param("kontoId") Long kontoId, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansichten aller Ausgaben eines Benutzers, sortiert nach Datum absteigend.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE a.benutzerID = :benutzerID ORDER BY a.datum DESC")
+    List<AusgabeAnsicht> findAnsichtenOrderByDatumDesc(@Param("benutzerID") String benutzerID);
 }
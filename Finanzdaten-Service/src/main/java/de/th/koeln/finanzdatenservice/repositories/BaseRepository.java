@@ -22,6 +22,11 @@ import java.util.Set;
 @NoRepositoryBean
 public interface BaseRepository<T extends AbstraktEntitaet> extends JpaRepository<T, Long> {
 
+    /**
+     * Maximale Anzahl von IDs in einer {@code IN}-Liste; längere Listen werden in Blöcken abgefragt.
+     */
+    int MAX_IN_LISTE = 1000;
+
     /**
      * Findet alle Entitäten eines bestimmten Benutzers anhand der Benutzer-ID.
      *
@@ -88,4 +93,34 @@ public interface BaseRepository<T extends AbstraktEntitaet> extends JpaRepositor
      * @return Eine Menge von Entitäten des Kontos.
      */
     T findByKontoId(Long kontoId);
+
+    /**
+     * Findet alle Einträge eines Kontos als Projektion, ohne verwaltete Entitäten zu laden.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param typ Der Projektionstyp, dessen Eigenschaften Attributen der Entität entsprechen.
+     * @param <P> Der Projektionstyp.
+     * @return Eine Menge von Projektionen.
+     */
+    <P> Set<P> findAllByKontoId(Long kontoId, Class<P> typ);
+
+    /**
+     * Findet alle Einträge eines Benutzers als Projektion, ohne verwaltete Entitäten zu laden.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @param typ Der Projektionstyp, dessen Eigenschaften Attributen der Entität entsprechen.
+     * @param <P> Der Projektionstyp.
+     * @return Eine Menge von Projektionen.
+     */
+    <P> Set<P> findAllByBenutzerID(String benutzerID, Class<P> typ);
+
+    /**
+     * Findet einen Eintrag anhand der ID als Projektion, ohne eine verwaltete Entität zu laden.
+     *
+     * @param id Die ID des Eintrags.
+     * @param typ Der Projektionstyp, dessen Eigenschaften Attributen der Entität entsprechen.
+     * @param <P> Der Projektionstyp.
+     * @return Die Projektion, falls vorhanden.
+     */
+    <P> Optional<P> findById(Long id, Class<P> typ);
 }
@@ -1,9 +1,14 @@
 package de.th.koeln.finanzdatenservice.repositories;
 
+import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
 import de.th.koeln.finanzdatenservice.entities.Budget;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -21,4 +26,32 @@ public interface BudgetRepository extends BaseRepository<Budget> {
     @Query("SELECT b FROM Budget b WHERE b.benutzerID = :benutzerID")
     Set<Budget> findBudgetsByBenutzerID(@Param("benutzerID") String benutzerID);
 
+    /**
+     * Findet die Budgets eines Kontos und einer Kategorie, deren Zeitraum das angegebene Datum enthält.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param kategorie Die Kategorie des Budgets.
+     * @param datum Das Datum.
+     * @return Eine Liste passender Budgets, das zuletzt begonnene zuerst.
+     */
+    @Query("SELECT b FROM Budget b WHERE b.kontoId = :kontoId AND b.kategorie = :kategorie "
+            + "AND b.startDatum <= :datum AND b.endDatum >= :datum ORDER BY b.startDatum DESC")
+    List<Budget> findPassendeBudgets(@Param("kontoId") Long kontoId, @Param("kategorie") AusgabeKategorie kategorie,
+                                     @Param("datum") LocalDate datum);
+
+    /**
+     * Ändert den Restbetrag eines Budgets atomar um den angegebenen Betrag.
+     *
+     * <p>Die Änderung erfolgt in einer einzigen bedingten Anweisung in der Datenbank. Gleichzeitige Buchungen
+     * auf dasselbe Budget werden dadurch über die Zeilensperre serialisiert, statt an der optimistischen
+     * Sperre zu scheitern. Die Version wird erhöht, damit veraltete Bearbeitungen des Budgets erkannt werden.</p>
+     *
+     * @param budgetId Die ID des Budgets.
+     * @param differenz Der Betrag, um den der Restbetrag verändert wird (negativ bei Ausgaben).
+     * @return Die Anzahl der geänderten Budgets (0, wenn das Budget nicht existiert).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Budget b SET b.restBetrag = b.restBetrag + :differenz, b.version = b.version + 1 WHERE b.id = :budgetId")
+    int aendereRestBetrag(@Param("budgetId") Long budgetId, @Param("differenz") BigDecimal differenz);
+
 }
@@ -0,0 +1,46 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.Dauerauftrag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Das Repository-Interface für die Entität Dauerauftrag.
+ *
+ * <p>Dieses Interface erweitert {@link BaseRepository} und bietet spezifische Abfragen für Daueraufträge</p>
+ */
+public interface DauerauftragRepository extends BaseRepository<Dauerauftrag> {
+
+    /**
+     * Findet fällige Daueraufträge seitenweise, sortiert nach ID.
+     *
+     * @param stichtag Der Stichtag, bis zu dem Termine fällig sind.
+     * @param nachId Die ID, nach der die Seite beginnt.
+     * @param pageable Die Seitengröße.
+     * @return Eine Liste fälliger Daueraufträge.
+     */
+    List<Dauerauftrag> findByNaechsteAusfuehrungLessThanEqualAndIdGreaterThanOrderByIdAsc(LocalDate stichtag, Long nachId,
+                                                                                          Pageable pageable);
+
+    /**
+     * Beansprucht die Ausführung von Terminen eines Dauerauftrags. Die Änderung greift nur, wenn der Zähler
+     * noch dem erwarteten Stand entspricht, sodass jeder Termin auch bei mehreren Instanzen nur einmal
+     * angelegt wird.
+     *
+     * @param id Die ID des Dauerauftrags.
+     * @param alt Der erwartete Stand des Ausführungszählers.
+     * @param neu Der neue Stand des Ausführungszählers.
+     * @param naechste Der nächste Termin oder {@code null}, wenn der Auftrag beendet ist.
+     * @return 1, wenn die Ausführung beansprucht wurde, sonst 0.
+     */
+    @Modifying
+    @Query("UPDATE Dauerauftrag d SET d.ausfuehrungen = :neu, d.naechsteAusfuehrung = :naechste, d.version = d.version + 1 "
+            + "WHERE d.id = :id AND d.ausfuehrungen = :alt")
+    int beanspruche(@Param("id") Long id, @Param("alt") long alt, @Param("neu") long neu,
+                    @Param("naechste") LocalDate naechste);
+}
@@ -1,10 +1,19 @@
 package de.th.koeln.finanzdatenservice.repositories;
 
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
+import de.th.koeln.finanzdatenservice.dto.EinnahmeAnsicht;
+import de.th.koeln.finanzdatenservice.dto.KontoBetrag;
 import de.th.koeln.finanzdatenservice.entities.Einnahme;
 import de.th.koeln.finanzdatenservice.entities.EinnahmeKategorie;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -13,6 +22,14 @@ import java.util.Set;
  * <p>Dieses Interface erweitert {@link BaseRepository} und bietet spezifische Abfragen für Einnahmen</p>
  */
 public interface EinnahmeRepository extends BaseRepository<Einnahme> {
+
+    /**
+     * Konstruktorausdruck für {@link EinnahmeAnsicht}.
+     */
+    String ANSICHT = "SELECT new de.th.koeln.finanzdatenservice.dto.EinnahmeAnsicht(e.id, e.erstellerZeitstempel, "
+            + "e.bearbeiterZeitstempel, e.benutzerID, e.kontoId, e.betrag, e.einnahmeKategorie, e.bezeichnung, "
+            + "e.beschreibung, e.datum) FROM Einnahme e ";
+
     /**
      * Findet Einnahmen eines Benutzers für einen bestimmten Monat.
      *
@@ -49,4 +66,77 @@ public interface EinnahmeRepository extends BaseRepository<Einnahme> {
      * @return Die Einnahme der angegebenen Kategorie.
      */
     Einnahme findEinnahmeByEinnahmeKategorie(EinnahmeKategorie kategorie);
+
+    /**
+     * Findet die ältesten Einnahmen vor einem Stichtag und sperrt sie für die Archivierung.
+     *
+     * @param grenze Der Stichtag; Einnahmen mit einem früheren Datum werden gefunden.
+     * @param pageable Die Größe des Stapels.
+     * @return Eine Liste von Einnahmen, sortiert nach ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Einnahme> findByDatumBeforeOrderByIdAsc(LocalDate grenze, Pageable pageable);
+
+    /**
+     * Berechnet die Summe der Einnahmen je Konto in einem Zeitraum.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Das Startdatum (einschließlich).
+     * @param bis Das Enddatum (einschließlich).
+     * @return Eine Summe je Konto; Konten ohne Einnahmen fehlen.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.KontoBetrag(x.kontoId, SUM(x.betrag)) FROM Einnahme x "
+            + "WHERE x.kontoId IN :kontoIds AND x.datum BETWEEN :von AND :bis GROUP BY x.kontoId")
+    List<KontoBetrag> summeProKonto(@Param("kontoIds") Collection<Long> kontoIds, @Param("von") LocalDate von,
+                                    @Param("bis") LocalDate bis);
+
+    /**
+     * Liest nur Betrag und Datum aller Einnahmen eines Kontos, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.BetragDatum(x.betrag, x.datum) FROM Einnahme x "
+            + "WHERE x.kontoId = :kontoId ORDER BY x.datum DESC")
+    List<BetragDatum> findBetragDatumByKontoId(@Param("kontoId") Long kontoId);
+
+    /**
+     * Liest nur Betrag und Datum der Einnahmen eines Kontos in einem Monat, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param monat Der Monat.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.BetragDatum(x.betrag, x.datum) FROM Einnahme x "
+            + "WHERE x.kontoId = :kontoId AND MONTH(x.datum) = :monat ORDER BY x.datum DESC")
+    List<BetragDatum> findBetragDatumByMonat(@Param("kontoId") Long kontoId, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansichten der Einnahmen eines Benutzers für einen bestimmten Monat.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @param monat Der Monat.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE e.benutzerID = :benutzerID AND MONTH(e.datum) = :monat ORDER BY e.datum DESC")
+    List<EinnahmeAnsicht> findAnsichtenByMonat(@Param("benutzerID") String benutzerID, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansichten der Einnahmen eines Kontos für einen bestimmten Monat.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param monat Der Monat.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE e.kontoId = :kontoId AND MONTH(e.datum) = :monat ORDER BY e.datum DESC")
+    List<EinnahmeAnsicht> findAnsichtenByMonat(@Param("kontoId") Long kontoId, @Param("monat") int monat);
+
+    /**
+     * Findet die Ansichten aller Einnahmen eines Benutzers, sortiert nach Datum absteigend.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @return Eine nach Datum absteigend sortierte Liste von Ansichten.
+     */
+    @Query(ANSICHT + "WHERE e.benutzerID = :benutzerID ORDER BY e.datum DESC")
+    List<EinnahmeAnsicht> findAnsichtenOrderByDatumDesc(@Param("benutzerID") String benutzerID);
 }
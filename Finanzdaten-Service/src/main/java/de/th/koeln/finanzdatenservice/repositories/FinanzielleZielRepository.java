@@ -1,6 +1,13 @@
 package de.th.koeln.finanzdatenservice.repositories;
 
+import de.th.koeln.finanzdatenservice.dto.ZielFortschritt;
 import de.th.koeln.finanzdatenservice.entities.FinanzielleZiel;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Das Repository-Interface für die Entität FinanzielleZiel.
@@ -8,4 +15,31 @@ import de.th.koeln.finanzdatenservice.entities.FinanzielleZiel;
  * <p>Dieses Interface erweitert {@link BaseRepository} und bietet spezifische Abfragen für finanzielle Ziele.</p>
  */
 public interface FinanzielleZielRepository extends BaseRepository<FinanzielleZiel> {
+
+    /**
+     * Ändert den gesparten Betrag eines Ziels atomar in der Datenbank.
+     *
+     * <p>Die Änderung erfolgt mit einer einzigen Anweisung, sodass gleichzeitige Sparbeiträge zum selben Ziel
+     * sich nicht gegenseitig überschreiben. Die Version wird erhöht, damit veraltete Bearbeitungen des Ziels
+     * erkannt werden.</p>
+     *
+     * @param zielId Die ID des Ziels.
+     * @param differenz Der Betrag, um den der gesparte Betrag verändert wird (negativ bei Entnahmen).
+     * @return Die Anzahl der geänderten Ziele (0, wenn das Ziel nicht existiert).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FinanzielleZiel z SET z.gespartBetrag = z.gespartBetrag + :differenz, z.version = z.version + 1 "
+            + "WHERE z.id = :zielId")
+    int aendereGespartBetrag(@Param("zielId") Long zielId, @Param("differenz") BigDecimal differenz);
+
+    /**
+     * Liest den Fortschritt aller Ziele eines Benutzers mit einer Abfrage, ohne Sparbeiträge zu lesen.
+     *
+     * @param benutzerID Die ID des Benutzers.
+     * @return Der Fortschritt je Ziel, sortiert nach Fälligkeitsdatum.
+     */
+    @Query("SELECT new de.th.koeln.finanzdatenservice.dto.ZielFortschritt(z.id, z.bezeichnung, z.sparbetrag, "
+            + "z.gespartBetrag, z.faelligkeitdatum) FROM FinanzielleZiel z WHERE z.benutzerID = :benutzerID "
+            + "ORDER BY z.faelligkeitdatum ASC")
+    List<ZielFortschritt> findFortschrittByBenutzerID(@Param("benutzerID") String benutzerID);
 }
@@ -0,0 +1,25 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.IdempotenzEintrag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Das Repository-Interface für die Entität IdempotenzEintrag.
+ */
+public interface IdempotenzRepository extends JpaRepository<IdempotenzEintrag, String> {
+
+    /**
+     * Löscht alle Einträge, die vor dem angegebenen Zeitpunkt erstellt wurden.
+     *
+     * @param grenze Der Zeitpunkt, vor dem Einträge gelöscht werden.
+     * @return Die Anzahl der gelöschten Einträge.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotenzEintrag i WHERE i.erstelltAm < :grenze")
+    int deleteByErstelltAmBefore(@Param("grenze") LocalDateTime grenze);
+}
@@ -0,0 +1,54 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.KontoAenderungEintrag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Das Repository-Interface für die Entität KontoAenderungEintrag.
+ */
+public interface KontoAenderungRepository extends JpaRepository<KontoAenderungEintrag, Long> {
+
+    /**
+     * Findet die Einträge nach einer ID, aufsteigend sortiert.
+     *
+     * @param id Die ID, nach der die Seite beginnt.
+     * @param seite Die Seitengröße.
+     * @return Die Einträge.
+     */
+    List<KontoAenderungEintrag> findByIdGreaterThanOrderByIdAsc(Long id, Pageable seite);
+
+    /**
+     * Findet die Einträge eines Kontos in einem Bereich von Sequenznummern, aufsteigend sortiert.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param von Die erste Sequenznummer.
+     * @param bis Die letzte Sequenznummer.
+     * @return Die Einträge.
+     */
+    List<KontoAenderungEintrag> findByKontoIdAndSequenzBetweenOrderBySequenzAsc(Long kontoId, long von, long bis);
+
+    /**
+     * Findet die höchste vergebene ID.
+     *
+     * @return Die höchste ID oder 0, wenn keine Einträge vorhanden sind.
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM KontoAenderungEintrag e")
+    long findMaxId();
+
+    /**
+     * Löscht alle Einträge, die vor dem angegebenen Zeitpunkt erstellt wurden.
+     *
+     * @param grenze Der Zeitpunkt, vor dem Einträge gelöscht werden.
+     * @return Die Anzahl der gelöschten Einträge.
+     */
+    @Modifying
+    @Query("DELETE FROM KontoAenderungEintrag e WHERE e.erstelltAm < :grenze")
+    int deleteByErstelltAmBefore(@Param("grenze") LocalDateTime grenze);
+}
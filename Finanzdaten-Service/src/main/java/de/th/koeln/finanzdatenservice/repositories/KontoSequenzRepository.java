@@ -0,0 +1,38 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.KontoSequenz;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Das Repository-Interface für die Entität KontoSequenz.
+ */
+public interface KontoSequenzRepository extends JpaRepository<KontoSequenz, Long> {
+
+    /**
+     * Erhöht die Sequenznummer eines Kontos und legt sie beim ersten Aufruf an. Die Zeile bleibt bis zum Ende der
+     * Transaktion gesperrt, sodass Änderungen eines Kontos in der Reihenfolge ihrer Sequenznummern festgeschrieben
+     * werden.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param anzahl Die Anzahl der neuen Änderungen.
+     * @return Die Anzahl der betroffenen Zeilen.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO konto_sequenz (konto_id, sequenz) VALUES (:kontoId, :anzahl) "
+            + "ON DUPLICATE KEY UPDATE sequenz = sequenz + :anzahl")
+    int erhoehe(@Param("kontoId") Long kontoId, @Param("anzahl") long anzahl);
+
+    /**
+     * Findet die Sequenznummer der zuletzt festgeschriebenen Änderung eines Kontos.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Die Sequenznummer oder leer, wenn das Konto noch keine Änderung hatte.
+     */
+    @Query("SELECT s.sequenz FROM KontoSequenz s WHERE s.kontoId = :kontoId")
+    Optional<Long> findSequenz(@Param("kontoId") Long kontoId);
+}
@@ -0,0 +1,34 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.entities.Sparbeitrag;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Das Repository-Interface für die Entität Sparbeitrag.
+ *
+ * <p>Dieses Interface erweitert {@link BaseRepository} und bietet spezifische Abfragen für Sparbeiträge</p>
+ */
+public interface SparbeitragRepository extends BaseRepository<Sparbeitrag> {
+
+    /**
+     * Findet alle Sparbeiträge eines Ziels, sortiert nach Datum absteigend.
+     *
+     * @param zielId Die ID des Ziels.
+     * @return Eine Liste von Sparbeiträgen.
+     */
+    List<Sparbeitrag> findAllByZielIdOrderByDatumDesc(Long zielId);
+
+    /**
+     * Löscht alle Sparbeiträge eines Ziels.
+     *
+     * @param zielId Die ID des Ziels.
+     * @return Die Anzahl der gelöschten Sparbeiträge.
+     */
+    @Modifying
+    @Query("DELETE FROM Sparbeitrag s WHERE s.zielId = :zielId")
+    int loescheAlleByZielId(@Param("zielId") Long zielId);
+}
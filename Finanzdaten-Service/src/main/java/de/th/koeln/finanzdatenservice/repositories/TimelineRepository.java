@@ -0,0 +1,116 @@
+package de.th.koeln.finanzdatenservice.repositories;
+
+import de.th.koeln.finanzdatenservice.dto.TimelineZeile;
+import de.th.koeln.finanzdatenservice.entities.Einnahme;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Das Repository für die Zeitleiste eines Kontos aus Einnahmen und Ausgaben.
+ *
+ * <p>Die Abfragen vereinigen beide Tabellen per {@code UNION ALL} und sortieren nach Datum absteigend, Typ und
+ * ID absteigend. Jeder Teil wird über den Index {@code (konto_id, datum)} gelesen und vorab begrenzt. Die Seiten
+ * werden über einen Cursor aus Datum und je einer ID-Grenze pro Typ fortgesetzt: Zeilen am Cursordatum werden nur
+ * geliefert, wenn ihre ID kleiner als die Grenze ihres Typs ist.</p>
+ */
+public interface TimelineRepository extends Repository<Einnahme, Long> {
+
+    String AUSGABE_SPALTEN = "SELECT 'AUSGABE' AS typ, a.id AS id, a.benutzerid AS benutzerId, "
+            + "a.ausgabe_kategorie AS kategorie, a.bezeichnung AS bezeichnung, a.beschreibung AS beschreibung, "
+            + "a.datum AS datum, a.budget_id AS budgetId, a.betrag AS betrag FROM ";
+    String EINNAHME_SPALTEN = "SELECT 'EINNAHME' AS typ, e.id AS id, e.benutzerid AS benutzerId, "
+            + "e.einnahme_kategorie AS kategorie, e.bezeichnung AS bezeichnung, e.beschreibung AS beschreibung, "
+            + "e.datum AS datum, NULL AS budgetId, e.betrag AS betrag FROM ";
+    String AUSGABE_BEDINGUNG = " a WHERE a.konto_id = :kontoId AND a.datum >= :von "
+            + "AND (a.datum < :datum OR (a.datum = :datum AND a.id < :ausgabeIdGrenze)) "
+            + "ORDER BY a.datum DESC, a.id DESC LIMIT :limit";
+    String EINNAHME_BEDINGUNG = " e WHERE e.konto_id = :kontoId AND e.datum >= :von "
+            + "AND (e.datum < :datum OR (e.datum = :datum AND e.id < :einnahmeIdGrenze)) "
+            + "ORDER BY e.datum DESC, e.id DESC LIMIT :limit";
+    String SORTIERUNG = ") t ORDER BY t.datum DESC, t.typ ASC, t.id DESC LIMIT :limit";
+    String AUSGABE_FORTSETZUNG = " a WHERE a.konto_id = :kontoId "
+            + "AND (a.datum < :datum OR (a.datum = :datum AND a.id < :idGrenze)) "
+            + "ORDER BY a.datum DESC, a.id DESC LIMIT :limit";
+    String EINNAHME_FORTSETZUNG = " e WHERE e.konto_id = :kontoId "
+            + "AND (e.datum < :datum OR (e.datum = :datum AND e.id < :idGrenze)) "
+            + "ORDER BY e.datum DESC, e.id DESC LIMIT :limit";
+    String SORTIERUNG_EINES_TYPS = ") t ORDER BY t.datum DESC, t.id DESC LIMIT :limit";
+
+    /**
+     * Liest eine Seite der Zeitleiste aus den aktiven Tabellen.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param von Das früheste Datum (einschließlich).
+     * @param datum Das Datum des Cursors bzw. das späteste Datum auf der ersten Seite.
+     * @param ausgabeIdGrenze Ausgaben am Cursordatum werden nur mit kleinerer ID geliefert.
+     * @param einnahmeIdGrenze Einnahmen am Cursordatum werden nur mit kleinerer ID geliefert.
+     * @param limit Die maximale Anzahl von Zeilen.
+     * @return Die Zeilen, absteigend nach Datum.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM ("
+            + "(" + AUSGABE_SPALTEN + "ausgabe" + AUSGABE_BEDINGUNG + ") UNION ALL "
+            + "(" + EINNAHME_SPALTEN + "einnahme" + EINNAHME_BEDINGUNG + ")"
+            + SORTIERUNG)
+    List<TimelineZeile> findSeite(@Param("kontoId") Long kontoId, @Param("von") LocalDate von,
+                                  @Param("datum") LocalDate datum, @Param("ausgabeIdGrenze") Long ausgabeIdGrenze,
+                                  @Param("einnahmeIdGrenze") Long einnahmeIdGrenze, @Param("limit") int limit);
+
+    /**
+     * Liest eine Seite der Zeitleiste aus den aktiven und den archivierten Tabellen.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param von Das früheste Datum (einschließlich).
+     * @param datum Das Datum des Cursors bzw. das späteste Datum auf der ersten Seite.
+     * @param ausgabeIdGrenze Ausgaben am Cursordatum werden nur mit kleinerer ID geliefert.
+     * @param einnahmeIdGrenze Einnahmen am Cursordatum werden nur mit kleinerer ID geliefert.
+     * @param limit Die maximale Anzahl von Zeilen.
+     * @return Die Zeilen, absteigend nach Datum.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM ("
+            + "(" + AUSGABE_SPALTEN + "ausgabe" + AUSGABE_BEDINGUNG + ") UNION ALL "
+            + "(" + AUSGABE_SPALTEN + "ausgabe_archiv" + AUSGABE_BEDINGUNG + ") UNION ALL "
+            + "(" + EINNAHME_SPALTEN + "einnahme" + EINNAHME_BEDINGUNG + ") UNION ALL "
+            + "(" + EINNAHME_SPALTEN + "einnahme_archiv" + EINNAHME_BEDINGUNG + ")"
+            + SORTIERUNG)
+    List<TimelineZeile> findSeiteMitArchiv(@Param("kontoId") Long kontoId, @Param("von") LocalDate von,
+                                           @Param("datum") LocalDate datum,
+                                           @Param("ausgabeIdGrenze") Long ausgabeIdGrenze,
+                                           @Param("einnahmeIdGrenze") Long einnahmeIdGrenze,
+                                           @Param("limit") int limit);
+
+    /**
+     * Liest die nächsten aktiven und archivierten Einnahmen eines Kontos ohne Begrenzung des Zeitraums.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param datum Das Datum der zuletzt gelieferten Einnahme bzw. das späteste Datum beim ersten Aufruf.
+     * @param idGrenze Einnahmen am angegebenen Datum werden nur mit kleinerer ID geliefert.
+     * @param limit Die maximale Anzahl von Zeilen.
+     * @return Die Zeilen, absteigend nach Datum und ID.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM ("
+            + "(" + EINNAHME_SPALTEN + "einnahme" + EINNAHME_FORTSETZUNG + ") UNION ALL "
+            + "(" + EINNAHME_SPALTEN + "einnahme_archiv" + EINNAHME_FORTSETZUNG + ")"
+            + SORTIERUNG_EINES_TYPS)
+    List<TimelineZeile> findEinnahmenNach(@Param("kontoId") Long kontoId, @Param("datum") LocalDate datum,
+                                          @Param("idGrenze") Long idGrenze, @Param("limit") int limit);
+
+    /**
+     * Liest die nächsten aktiven und archivierten Ausgaben eines Kontos ohne Begrenzung des Zeitraums.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param datum Das Datum der zuletzt gelieferten Ausgabe bzw. das späteste Datum beim ersten Aufruf.
+     * @param idGrenze Ausgaben am angegebenen Datum werden nur mit kleinerer ID geliefert.
+     * @param limit Die maximale Anzahl von Zeilen.
+     * @return Die Zeilen, absteigend nach Datum und ID.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM ("
+            + "(" + AUSGABE_SPALTEN + "ausgabe" + AUSGABE_FORTSETZUNG + ") UNION ALL "
+            + "(" + AUSGABE_SPALTEN + "ausgabe_archiv" + AUSGABE_FORTSETZUNG + ")"
+            + SORTIERUNG_EINES_TYPS)
+    List<TimelineZeile> findAusgabenNach(@Param("kontoId") Long kontoId, @Param("datum") LocalDate datum,
+                                         @Param("idGrenze") Long idGrenze, @Param("limit") int limit);
+}
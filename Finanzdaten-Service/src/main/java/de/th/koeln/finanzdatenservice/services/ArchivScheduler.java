@@ -0,0 +1,48 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Zeitgesteuerter Job, der alte Einnahmen und Ausgaben archiviert.
+ *
+ * <p>Jeder Stapel läuft in einer eigenen Transaktion, damit Zeilen nur kurz gesperrt werden. Bricht ein Lauf ab,
+ * setzt der nächste Lauf bei den noch nicht archivierten Einträgen fort.</p>
+ */
+@Component
+public class ArchivScheduler {
+
+    private final ArchivService archivService;
+    private final int stapelGroesse;
+
+    /**
+     * Konstruktor zur Initialisierung des ArchivService und der Stapelgröße.
+     *
+     * @param archivService Der Service zur Archivierung.
+     * @param stapelGroesse Die Anzahl der Einträge pro Transaktion.
+     */
+    @Autowired
+    public ArchivScheduler(ArchivService archivService,
+                           @Value("${finanzdaten.archiv.stapel-groesse:500}") int stapelGroesse) {
+        this.archivService = archivService;
+        this.stapelGroesse = stapelGroesse;
+    }
+
+    /**
+     * Archiviert alle Einträge vor der aktuellen Archivgrenze.
+     */
+    @Scheduled(cron = "${finanzdaten.archiv.cron:0 30 1 * * *}")
+    public void archiviere() {
+        LocalDate grenze = archivService.archivGrenze();
+        while (archivService.archiviereAusgaben(grenze, stapelGroesse) == stapelGroesse) {
+            // nächster Stapel
+        }
+        while (archivService.archiviereEinnahmen(grenze, stapelGroesse) == stapelGroesse) {
+            // nächster Stapel
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import de.th.koeln.finanzdatenservice.entities.AbstraktEntitaet;
+import de.th.koeln.finanzdatenservice.entities.Ausgabe;
+import de.th.koeln.finanzdatenservice.entities.AusgabeArchiv;
+import de.th.koeln.finanzdatenservice.entities.Einnahme;
+import de.th.koeln.finanzdatenservice.entities.EinnahmeArchiv;
+import de.th.koeln.finanzdatenservice.repositories.AusgabeArchivRepository;
+import de.th.koeln.finanzdatenservice.repositories.AusgabeRepository;
+import de.th.koeln.finanzdatenservice.repositories.EinnahmeArchivRepository;
+import de.th.koeln.finanzdatenservice.repositories.EinnahmeRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Der Service verschiebt alte Einnahmen und Ausgaben in die Archivtabellen.
+ *
+ * <p>Alles vor dem ersten Tag des Monats, der {@code horizontMonate} zurückliegt, wird archiviert. Jeder Stapel
+ * wird in einer eigenen kurzen Transaktion gesperrt, ins Archiv kopiert und aus der aktiven Tabelle gelöscht.
+ * Das Löschen erfolgt per Massenanweisung, daher werden weder Entity-Listener noch Budgetbuchungen ausgelöst;
+ * Restbeträge der Budgets bleiben unverändert. Die verschobenen Einträge werden deshalb ausdrücklich über den
+ * {@link KontoAenderungService} gemeldet.</p>
+ */
+@Service
+public class ArchivService {
+
+    private final AusgabeRepository ausgabeRepository;
+    private final EinnahmeRepository einnahmeRepository;
+    private final AusgabeArchivRepository ausgabeArchivRepository;
+    private final EinnahmeArchivRepository einnahmeArchivRepository;
+    private final KontoAenderungService aenderungService;
+    private final int horizontMonate;
+
+    /**
+     * Konstruktor zur Initialisierung der Repositories und des Archivhorizonts.
+     *
+     * @param ausgabeRepository Das Repository zur Verwaltung der Ausgaben.
+     * @param einnahmeRepository Das Repository zur Verwaltung der Einnahmen.
+     * @param ausgabeArchivRepository Das Repository der archivierten Ausgaben.
+     * @param einnahmeArchivRepository Das Repository der archivierten Einnahmen.
+     * @param aenderungService Der Dienst zur Verteilung von Kontoänderungen.
+     * @param horizontMonate Die Anzahl der Monate, die in den aktiven Tabellen verbleiben.
+     */
+    @Autowired
+    public ArchivService(AusgabeRepository ausgabeRepository, EinnahmeRepository einnahmeRepository,
+                         AusgabeArchivRepository ausgabeArchivRepository,
+                         EinnahmeArchivRepository einnahmeArchivRepository,
+                         KontoAenderungService aenderungService,
+                         @Value("${finanzdaten.archiv.horizont-monate:24}") int horizontMonate) {
+        if (horizontMonate < 1) {
+            throw new IllegalArgumentException("finanzdaten.archiv.horizont-monate muss mindestens 1 sein");
+        }
+        this.ausgabeRepository = ausgabeRepository;
+        this.einnahmeRepository = einnahmeRepository;
+        this.ausgabeArchivRepository = ausgabeArchivRepository;
+        this.einnahmeArchivRepository = einnahmeArchivRepository;
+        this.aenderungService = aenderungService;
+        this.horizontMonate = horizontMonate;
+    }
+
+    /**
+     * Liefert den Stichtag, vor dem Einträge archiviert werden.
+     *
+     * @return Der erste Tag des ältesten Monats in den aktiven Tabellen.
+     */
+    public LocalDate archivGrenze() {
+        return YearMonth.now().minusMonths(horizontMonate).atDay(1);
+    }
+
+    /**
+     * Prüft, ob eine Abfrage ab dem angegebenen Datum archivierte Einträge berücksichtigen muss.
+     *
+     * @param von Das Startdatum der Abfrage oder {@code null} für den gesamten Zeitraum.
+     * @return true, wenn der Zeitraum vor der Archivgrenze beginnt.
+     */
+    public boolean brauchtArchiv(LocalDate von) {
+        return von == null || von.isBefore(archivGrenze());
+    }
+
+    /**
+     * Archiviert einen Stapel von Ausgaben vor dem Stichtag.
+     *
+     * @param grenze Der Stichtag.
+     * @param stapelGroesse Die maximale Anzahl von Ausgaben.
+     * @return Die Anzahl der archivierten Ausgaben.
+     */
+    @Transactional
+    public int archiviereAusgaben(LocalDate grenze, int stapelGroesse) {
+        List<Ausgabe> ausgaben = ausgabeRepository.findByDatumBeforeOrderByIdAsc(grenze, PageRequest.of(0, stapelGroesse));
+        if (ausgaben.isEmpty()) {
+            return 0;
+        }
+        ausgabeArchivRepository.saveAll(ausgaben.stream().map(AusgabeArchiv::von).toList());
+        ausgabeRepository.deleteAllByIdInBatch(ausgaben.stream().map(AbstraktEntitaet::getId).toList());
+        aenderungService.meldeArchiviert(ausgaben);
+        return ausgaben.size();
+    }
+
+    /**
+     * Archiviert einen Stapel von Einnahmen vor dem Stichtag.
+     *
+     * @param grenze Der Stichtag.
+     * @param stapelGroesse Die maximale Anzahl von Einnahmen.
+     * @return Die Anzahl der archivierten Einnahmen.
+     */
+    @Transactional
+    public int archiviereEinnahmen(LocalDate grenze, int stapelGroesse) {
+        List<Einnahme> einnahmen = einnahmeRepository.findByDatumBeforeOrderByIdAsc(grenze, PageRequest.of(0, stapelGroesse));
+        if (einnahmen.isEmpty()) {
+            return 0;
+        }
+        einnahmeArchivRepository.saveAll(einnahmen.stream().map(EinnahmeArchiv::von).toList());
+        einnahmeRepository.deleteAllByIdInBatch(einnahmen.stream().map(AbstraktEntitaet::getId).toList());
+        aenderungService.meldeArchiviert(einnahmen);
+        return einnahmen.size();
+    }
+}
@@ -1,10 +1,13 @@
 package de.th.koeln.finanzdatenservice.services;
 
 import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
+import de.th.koeln.finanzdatenservice.dto.AusgabeAnsicht;
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
 import de.th.koeln.finanzdatenservice.entities.Ausgabe;
 import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
 import de.th.koeln.finanzdatenservice.entities.Budget;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
+import de.th.koeln.finanzdatenservice.repositories.AusgabeArchivRepository;
 import de.th.koeln.finanzdatenservice.repositories.AusgabeRepository;
 import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
 import de.th.koeln.kontoservice.grpc.KontoDaten;
@@ -14,13 +17,21 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * Der Service für die Verwaltung von Ausgaben.
  *
- * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden zur spezifischen Verwaltung von Ausgaben.</p>
+ * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden zur spezifischen Verwaltung von Ausgaben.
+ * Abfragen über den gesamten Zeitraum berücksichtigen auch archivierte Ausgaben; Abfragen des aktuellen Monats
+ * lesen nur die aktive Tabelle. Lesende Abfragen liefern {@link AusgabeAnsicht}-Projektionen, die das Budget
+ * nicht laden.</p>
  */
 @Service
 public class AusgabeService extends BaseService<Ausgabe>{
@@ -28,24 +39,35 @@ public class AusgabeService extends BaseService<Ausgabe>{
     protected AusgabeRepository repository;
     protected BudgetService budgetService;
     protected KontoGrpcClient kontoClient;
+    protected AusgabeArchivRepository archivRepository;
+    protected ArchivService archivService;
 
     /**
-     * Konstruktor zur Initialisierung des Repositories, des KontoClients und des BudgetService.
+     * Konstruktor zur Initialisierung des Repositories, des KontoClients, des BudgetService und der Archivdienste.
      *
      * @param repository Das Repository zur Verwaltung der Ausgaben.
      * @param kontoClient Der Client zur Interaktion mit dem Konto-Service.
      * @param budgetService Der Service zur Verwaltung von Budgets.
+     * @param archivRepository Das Repository der archivierten Ausgaben.
+     * @param archivService Der Service zur Archivierung.
      */
     @Autowired
-    protected AusgabeService(BaseRepository<Ausgabe> repository, KontoGrpcClient kontoClient, BudgetService budgetService) {
+    protected AusgabeService(BaseRepository<Ausgabe> repository, KontoGrpcClient kontoClient, BudgetService budgetService,
+                             AusgabeArchivRepository archivRepository, ArchivService archivService) {
         super(repository);
         this.repository = (AusgabeRepository) repository;
         this.kontoClient = kontoClient;
         this.budgetService = budgetService;
+        this.archivRepository = archivRepository;
+        this.archivService = archivService;
     }
 
     /**
-     * Speichert eine Ausgabe und aktualisiert das zugehörige Budget.
+     * Speichert eine Ausgabe und bucht sie atomar auf das zugehörige Budget.
+     *
+     * <p>Das Budget wird dabei nicht geladen und nicht über die optimistische Sperre gespeichert; der Restbetrag
+     * wird mit einer bedingten Anweisung in der Datenbank angepasst. Bei einer Änderung einer bestehenden Ausgabe
+     * wird der alte Betrag zuvor storniert.</p>
      *
      * @param ausgabe Die zu speichernde Ausgabe.
      * @return Die gespeicherte Ausgabe.
@@ -56,17 +78,28 @@ public class AusgabeService extends BaseService<Ausgabe>{
         if (ausgabe.getBudget() == null || ausgabe.getBudget().getId() == null) {
             throw new IllegalArgumentException("Budget ID cannot be null");
         }
-        Budget budget = budgetService.findById(ausgabe.getBudget().getId())
-                .orElseThrow(() -> new NotFoundException("Budget not found"));
+        Long budgetId = ausgabe.getBudget().getId();
+        ausgabe.setBudget(budgetService.getReferenz(budgetId));
+
+        Long alteBudgetId = null;
+        BigDecimal alterBetrag = null;
+        if (ausgabe.getId() != null) {
+            Ausgabe alt = repository.findById(ausgabe.getId())
+                    .orElseThrow(() -> new NotFoundException("Ausgabe not found"));
+            alteBudgetId = alt.getBudget() != null ? alt.getBudget().getId() : null;
+            alterBetrag = alt.getBetrag();
+        }
 
-        ausgabe.setBudget(budget);
-        budget.getAusgaben().add(ausgabe);
-        budgetService.updateRestBetrag(budget);
-        return super.save(ausgabe);
+        Ausgabe gespeichert = super.save(ausgabe);
+        if (alteBudgetId != null) {
+            budgetService.storniereAusgabe(alteBudgetId, alterBetrag);
+        }
+        budgetService.verbucheAusgabe(budgetId, gespeichert.getBetrag());
+        return gespeichert;
     }
 
     /**
-     * Löscht eine Ausgabe und aktualisiert das zugehörige Budget.
+     * Löscht eine Ausgabe und storniert sie atomar auf dem zugehörigen Budget.
      *
      * @param ausgabeId Die ID der zu löschenden Ausgabe.
      */
@@ -75,10 +108,10 @@ public class AusgabeService extends BaseService<Ausgabe>{
         Ausgabe ausgabe = repository.findById(ausgabeId)
                 .orElseThrow(() -> new NotFoundException("Ausgabe not found"));
         Budget budget = ausgabe.getBudget();
+        repository.delete(ausgabe);
         if (budget != null) {
-            budgetService.removeAusgabeFromBudget(ausgabe);
+            budgetService.storniereAusgabe(budget.getId(), ausgabe.getBetrag());
         }
-        repository.delete(ausgabe);
     }
 
     /**
@@ -110,8 +143,8 @@ public class AusgabeService extends BaseService<Ausgabe>{
      * @param benutzerId Die ID des Benutzers.
      * @return Eine Menge von Ausgaben des Benutzers für den aktuellen Monat.
      */
-    public Set<Ausgabe> holeAusgabenAktuellesDatum(String benutzerId) {
-        return this.repository.findAusgabenByMonat(benutzerId, LocalDate.now().getMonthValue());
+    public Set<AusgabeAnsicht> holeAusgabenAktuellesDatum(String benutzerId) {
+        return new LinkedHashSet<>(this.repository.findAnsichtenByMonat(benutzerId, LocalDate.now().getMonthValue()));
     }
 
     /**
@@ -121,11 +154,11 @@ public class AusgabeService extends BaseService<Ausgabe>{
      * @return Die Summe der Ausgaben des Kontos für den aktuellen Monat.
      */
     public BigDecimal getSummeAusgabenDesMonat(Long kontoId) {
-        Set<Ausgabe> ausgabeSet = holeAusgabenAktuellesDatum(kontoId);
+        Set<AusgabeAnsicht> ausgabeSet = holeAusgabenAktuellesDatum(kontoId);
         BigDecimal summeAusgaben = BigDecimal.ZERO;
-        for (Ausgabe ausgabe : ausgabeSet) {
-            if(ausgabe != null && ausgabe.getBetrag() != null){
-                summeAusgaben  = summeAusgaben.add(ausgabe.getBetrag());
+        for (AusgabeAnsicht ausgabe : ausgabeSet) {
+            if(ausgabe != null && ausgabe.betrag() != null){
+                summeAusgaben  = summeAusgaben.add(ausgabe.betrag());
             }
         }
         return summeAusgaben;
@@ -138,11 +171,11 @@ public class AusgabeService extends BaseService<Ausgabe>{
      * @return Die Summe der Ausgaben des Benutzers für den aktuellen Monat.
      */
     public BigDecimal getSummeAusgabenDesMonat(String benutzerId) {
-        Set<Ausgabe> ausgabeSet = holeAusgabenAktuellesDatum(benutzerId);
+        Set<AusgabeAnsicht> ausgabeSet = holeAusgabenAktuellesDatum(benutzerId);
         BigDecimal summeAusgaben = BigDecimal.ZERO;
-        for (Ausgabe ausgabe : ausgabeSet) {
-            if(ausgabe != null && ausgabe.getBetrag() != null){
-                summeAusgaben  = summeAusgaben.add(ausgabe.getBetrag());
+        for (AusgabeAnsicht ausgabe : ausgabeSet) {
+            if(ausgabe != null && ausgabe.betrag() != null){
+                summeAusgaben  = summeAusgaben.add(ausgabe.betrag());
             }
         }
         return summeAusgaben;
@@ -154,10 +187,10 @@ public class AusgabeService extends BaseService<Ausgabe>{
      * @param kontoId Die ID des Kontos.
      * @return Eine Menge von Ausgaben des Kontos für den aktuellen Monat.
      */
-    public Set<Ausgabe> holeAusgabenAktuellesDatum(Long kontoId) {
+    public Set<AusgabeAnsicht> holeAusgabenAktuellesDatum(Long kontoId) {
         Optional<KontoDaten> kontoDTO = Optional.ofNullable(this.kontoClient.findKontoById(String.valueOf(kontoId)));
         if(kontoDTO.isPresent()){
-            return this.repository.findAusgabenByMonat(kontoId, LocalDate.now().getMonthValue());
+            return new LinkedHashSet<>(this.repository.findAnsichtenByMonat(kontoId, LocalDate.now().getMonthValue()));
         }
         throw new NotFoundException("Konto not found");
     }
@@ -168,9 +201,53 @@ public class AusgabeService extends BaseService<Ausgabe>{
      * @param benutzerId Die ID des Benutzers.
      * @return Eine Menge von Ausgaben des Benutzers sortiert nach Datum absteigend.
      */
-    public Set<Ausgabe> holeAllAusgabenByDatumDesc(String benutzerId) {
+    public Set<AusgabeAnsicht> holeAllAusgabenByDatumDesc(String benutzerId) {
         this.repository.findByBenutzerID(benutzerId);
-        return this.repository.findAllOrderByDatumDesc(benutzerId);
+        return vereinige(this.repository.findAnsichtenOrderByDatumDesc(benutzerId),
+                this.archivRepository.findAllByBenutzerIDOrderByDatumDesc(benutzerId).stream().map(AusgabeAnsicht::von),
+                AusgabeAnsicht::datum);
+    }
+
+    /**
+     * Findet eine Ausgabe anhand der ID als Ansicht.
+     *
+     * @param id Die ID der Ausgabe.
+     * @return Die Ansicht der Ausgabe.
+     */
+    @Override
+    public Optional<AusgabeAnsicht> findAnsichtById(Long id) {
+        if (!this.repository.existsById(id)) {
+            throw new NotFoundException("Eintrag mit der ID " + id + " wurde nicht gefunden.");
+        }
+        return this.repository.findAnsichtById(id);
+    }
+
+    /**
+     * Findet alle Ausgaben eines Benutzers als Ansicht.
+     *
+     * @param benutzerId Die ID des Benutzers.
+     * @return Eine Liste von Ausgaben des Benutzers.
+     */
+    @Override
+    public List<AusgabeAnsicht> findAnsichtenByBenutzerId(String benutzerId) {
+        return this.repository.findAnsichtenByBenutzerID(benutzerId);
+    }
+
+    /**
+     * Findet alle aktiven und archivierten Ausgaben eines Kontos als Ansicht, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Eine Menge von Ausgaben des Kontos.
+     */
+    @Override
+    public Set<AusgabeAnsicht> findAnsichtenByKontoId(Long kontoId) {
+        Optional<KontoDaten> kontoDTO = Optional.ofNullable(this.kontoClient.findKontoById(String.valueOf(kontoId)));
+        if (kontoDTO.isEmpty()) {
+            throw new NotFoundException("Konto mit der ID " + kontoId + " nicht gefunden.");
+        }
+        return vereinige(this.repository.findAnsichtenByKontoId(kontoId),
+                this.archivRepository.findAllByKontoIdOrderByDatumDesc(kontoId).stream().map(AusgabeAnsicht::von),
+                AusgabeAnsicht::datum);
     }
 
     /**
@@ -181,7 +258,7 @@ public class AusgabeService extends BaseService<Ausgabe>{
      */
     public BigDecimal getSummeAlleAusgaben(String benutzerId) {
         Set<Ausgabe> ausgabeSet = this.repository.findAllByBenutzerID(benutzerId);
-        BigDecimal summe = BigDecimal.ZERO;
+        BigDecimal summe = this.archivRepository.summeByBenutzerID(benutzerId);
         for (Ausgabe ausgabe : ausgabeSet) {
             summe = summe.add(ausgabe.getBetrag());
         }
@@ -196,11 +273,50 @@ public class AusgabeService extends BaseService<Ausgabe>{
      */
     public BigDecimal getSummeAlleAusgaben(Long kontoId) {
         Set<Ausgabe> ausgabeSet = this.repository.findAllByKontoId(kontoId);
-        BigDecimal summe = BigDecimal.ZERO;
+        BigDecimal summe = this.archivRepository.summeByKontoId(kontoId);
         for (Ausgabe ausgabe : ausgabeSet) {
             summe = summe.add(ausgabe.getBetrag());
         }
         return summe;
     }
 
+    /**
+     * Liest nur Betrag und Datum aller aktiven und archivierten Ausgaben eines Kontos, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    public List<BetragDatum> findBetragDatumByKontoId(Long kontoId) {
+        List<BetragDatum> betraege = new ArrayList<>(this.repository.findBetragDatumByKontoId(kontoId));
+        betraege.addAll(this.archivRepository.findBetragDatumByKontoId(kontoId));
+        betraege.sort(nachDatumAbsteigend(BetragDatum::getDatum));
+        return betraege;
+    }
+
+    /**
+     * Liest nur Betrag und Datum der Ausgaben eines Kontos für den aktuellen Monat.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    public List<BetragDatum> findBetragDatumAktuellesDatum(Long kontoId) {
+        return this.repository.findBetragDatumByMonat(kontoId, LocalDate.now().getMonthValue());
+    }
+
+    /**
+     * Berechnet die Summen der Ausgaben mehrerer Konten in einem Zeitraum mit einer gruppierten Abfrage.
+     *
+     * <p>Archivierte Ausgaben werden nur abgefragt, wenn der Zeitraum vor der Archivgrenze beginnt. Sehr lange
+     * Listen werden in Blöcken abgefragt, um die Größe der {@code IN}-Liste zu begrenzen.</p>
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Das Startdatum (einschließlich).
+     * @param bis Das Enddatum (einschließlich).
+     * @return Die Summe je Konto; Konten ohne Ausgaben fehlen.
+     */
+    public Map<Long, BigDecimal> getSummenProKonto(Collection<Long> kontoIds, LocalDate von, LocalDate bis) {
+        return summenProKonto(kontoIds, this.archivService.brauchtArchiv(von),
+                block -> this.repository.summeProKonto(block, von, bis),
+                block -> this.archivRepository.summeProKonto(block, von, bis));
+    }
 }
@@ -1,6 +1,7 @@
 package de.th.koeln.finanzdatenservice.services;
 
 import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
+import de.th.koeln.finanzdatenservice.dto.KontoBetrag;
 import de.th.koeln.finanzdatenservice.entities.AbstraktEntitaet;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
 import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
@@ -8,9 +9,19 @@ import de.th.koeln.kontoservice.grpc.KontoDaten;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Die abstrakte Basisklasse für Service-Klassen, die Entitäten verwalten, die von {@link AbstraktEntitaet} erben.
@@ -132,6 +143,42 @@ public abstract class BaseService<T extends AbstraktEntitaet> {
         throw new NotFoundException("Konto mit der ID " + kontoId + " nicht gefunden.");
     }
 
+    /**
+     * Findet eine Entität anhand der ID für lesende Endpunkte.
+     *
+     * <p>Unterklassen können eine schreibgeschützte Projektion liefern; standardmäßig wird die Entität geladen.</p>
+     *
+     * @param id Die ID der zu findenden Entität.
+     * @return Die optionale Entität oder Projektion.
+     */
+    public Optional<?> findAnsichtById(Long id) {
+        return findById(id);
+    }
+
+    /**
+     * Findet alle Entitäten eines Benutzers für lesende Endpunkte.
+     *
+     * <p>Unterklassen können schreibgeschützte Projektionen liefern; standardmäßig werden die Entitäten geladen.</p>
+     *
+     * @param benutzerId Die Benutzer-ID.
+     * @return Die Entitäten oder Projektionen des Benutzers.
+     */
+    public Iterable<?> findAnsichtenByBenutzerId(String benutzerId) {
+        return findAllByBenutzerId(benutzerId);
+    }
+
+    /**
+     * Findet alle Entitäten eines Kontos für lesende Endpunkte.
+     *
+     * <p>Unterklassen können schreibgeschützte Projektionen liefern; standardmäßig werden die Entitäten geladen.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Die Entitäten oder Projektionen des Kontos.
+     */
+    public Collection<?> findAnsichtenByKontoId(Long kontoId) {
+        return findAllByKontoId(kontoId);
+    }
+
     /**
      * Findet eine Entität basierend auf der Konto-ID.
      *
@@ -158,4 +205,62 @@ public abstract class BaseService<T extends AbstraktEntitaet> {
     public List<T> findAll(){
         return this.repository.findAll();
     }
+
+    /**
+     * Berechnet Summen je Konto aus gruppierten Abfragen der aktiven und, falls nötig, der archivierten Einträge.
+     * Sehr lange Listen werden in Blöcken von {@link BaseRepository#MAX_IN_LISTE} IDs abgefragt.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param mitArchiv Ob auch die archivierten Einträge abgefragt werden.
+     * @param aktiv Fragt die Summen der aktiven Einträge eines Blocks ab.
+     * @param archiv Fragt die Summen der archivierten Einträge eines Blocks ab.
+     * @return Die Summe je Konto; Konten ohne Einträge fehlen.
+     */
+    protected static Map<Long, BigDecimal> summenProKonto(Collection<Long> kontoIds, boolean mitArchiv,
+                                                          Function<List<Long>, List<KontoBetrag>> aktiv,
+                                                          Function<List<Long>, List<KontoBetrag>> archiv) {
+        Map<Long, BigDecimal> summen = new HashMap<>();
+        List<Long> ids = List.copyOf(kontoIds);
+        for (int i = 0; i < ids.size(); i += BaseRepository.MAX_IN_LISTE) {
+            List<Long> block = ids.subList(i, Math.min(i + BaseRepository.MAX_IN_LISTE, ids.size()));
+            addiere(summen, aktiv.apply(block));
+            if (mitArchiv) {
+                addiere(summen, archiv.apply(block));
+            }
+        }
+        return summen;
+    }
+
+    private static void addiere(Map<Long, BigDecimal> summen, List<KontoBetrag> betraege) {
+        for (KontoBetrag betrag : betraege) {
+            summen.merge(betrag.getKontoId(), betrag.getSumme(), BigDecimal::add);
+        }
+    }
+
+    /**
+     * Vereinigt aktive und archivierte Einträge zu einer Menge, sortiert nach Datum absteigend.
+     * Einträge ohne Datum stehen am Ende.
+     *
+     * @param aktiv Die aktiven Einträge.
+     * @param archiviert Die archivierten Einträge.
+     * @param datum Liefert das Datum eines Eintrags.
+     * @param <A> Der Typ der Einträge.
+     * @return Die sortierte Menge aller Einträge.
+     */
+    protected static <A> Set<A> vereinige(Collection<A> aktiv, Stream<A> archiviert, Function<A, LocalDate> datum) {
+        return Stream.concat(aktiv.stream(), archiviert)
+                .sorted(nachDatumAbsteigend(datum))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Sortiert Einträge nach Datum absteigend; Einträge ohne Datum stehen am Ende.
+     *
+     * @param datum Liefert das Datum eines Eintrags.
+     * @param <A> Der Typ der Einträge.
+     * @return Der Comparator.
+     */
+    protected static <A> Comparator<A> nachDatumAbsteigend(Function<A, LocalDate> datum) {
+        return Comparator.comparing(datum, Comparator.nullsLast(Comparator.reverseOrder()));
+    }
 }
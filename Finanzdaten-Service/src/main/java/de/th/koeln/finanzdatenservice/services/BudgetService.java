@@ -3,6 +3,7 @@ package de.th.koeln.finanzdatenservice.services;
 import de.th.koeln.finanzdatenservice.entities.Ausgabe;
 import de.th.koeln.finanzdatenservice.entities.Budget;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
+import de.th.koeln.finanzdatenservice.repositories.AusgabeRepository;
 import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
 import de.th.koeln.finanzdatenservice.repositories.BudgetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,22 +19,28 @@ import java.util.Set;
 /**
  * Der Service für die Verwaltung von Budgets.
  *
- * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden zur spezifischen Verwaltung von Budgets.</p>
+ * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden zur spezifischen Verwaltung von Budgets.
+ * Ausgaben werden über {@link #verbucheAusgabe(Long, BigDecimal)} und {@link #storniereAusgabe(Long, BigDecimal)}
+ * atomar auf den Restbetrag gebucht, sodass gleichzeitige Ausgaben auf dasselbe Budget ohne
+ * Wiederholungen auskommen.</p>
  */
 @Service
 public class BudgetService extends BaseService<Budget> {
 
     protected BudgetRepository repository;
+    protected AusgabeRepository ausgabeRepository;
 
     /**
-     * Konstruktor zur Initialisierung des Repositories.
+     * Konstruktor zur Initialisierung der Repositories.
      *
      * @param repository Das Repository zur Verwaltung der Budgets.
+     * @param ausgabeRepository Das Repository zur Verwaltung der Ausgaben.
      */
     @Autowired
-    protected BudgetService(BaseRepository<Budget> repository) {
+    protected BudgetService(BaseRepository<Budget> repository, AusgabeRepository ausgabeRepository) {
         super(repository);
         this.repository = (BudgetRepository) repository;
+        this.ausgabeRepository = ausgabeRepository;
     }
 
     /**
@@ -62,30 +69,85 @@ public class BudgetService extends BaseService<Budget> {
      */
     @Transactional
     public Budget addAusgabeToBudget(Ausgabe ausgabe) {
-        Budget budget = repository.findById(ausgabe.getBudget().getId())
-                .orElseThrow(() -> new NotFoundException("Budget not found"));
-        budget.getAusgaben().add(ausgabe);
-        ausgabe.setBudget(budget);
-        updateRestBetrag(budget);
-        budget.setProgress(calculateProgress(budget));
-        return repository.save(budget);
+        Long budgetId = ausgabe.getBudget().getId();
+        ausgabe.setBudget(getReferenz(budgetId));
+        ausgabeRepository.save(ausgabe);
+        verbucheAusgabe(budgetId, ausgabe.getBetrag());
+        return findBudgetMitFortschritt(budgetId);
     }
 
     /**
      * Entfernt eine Ausgabe aus einem Budget und aktualisiert den Restbetrag und den Fortschritt.
      *
+     * <p>Das Budget wird vor der Stornierung gespeichert, damit die Ausgabe über {@code orphanRemoval} gelöscht
+     * wird, bevor die Stornierung den Persistenzkontext leert.</p>
+     *
      * @param ausgabe Die zu entfernende Ausgabe.
      * @return Das aktualisierte Budget.
+     * @throws NotFoundException Wenn das Budget nicht existiert oder die Ausgabe nicht zum Budget gehört.
      */
     @Transactional
     public Budget removeAusgabeFromBudget(Ausgabe ausgabe) {
         Budget budget = repository.findById(ausgabe.getBudget().getId())
                 .orElseThrow(() -> new NotFoundException("Budget not found"));
-        budget.getAusgaben().remove(ausgabe);
+        if (!budget.getAusgaben().removeIf(a -> a.getId().equals(ausgabe.getId()))) {
+            throw new NotFoundException("Ausgabe not found");
+        }
         ausgabe.setBudget(null);
-        updateRestBetrag(budget);
+        repository.saveAndFlush(budget);
+        storniereAusgabe(budget.getId(), ausgabe.getBetrag());
+        return findBudgetMitFortschritt(budget.getId());
+    }
+
+    /**
+     * Bucht eine Ausgabe atomar auf ein Budget, indem der Restbetrag verringert wird.
+     *
+     * @param budgetId Die ID des Budgets.
+     * @param betrag Der Betrag der Ausgabe.
+     * @throws NotFoundException Wenn das Budget nicht existiert.
+     */
+    @Transactional
+    public void verbucheAusgabe(Long budgetId, BigDecimal betrag) {
+        aendereRestBetrag(budgetId, betrag.negate());
+    }
+
+    /**
+     * Storniert eine Ausgabe atomar auf einem Budget, indem der Restbetrag erhöht wird.
+     *
+     * @param budgetId Die ID des Budgets.
+     * @param betrag Der Betrag der Ausgabe.
+     * @throws NotFoundException Wenn das Budget nicht existiert.
+     */
+    @Transactional
+    public void storniereAusgabe(Long budgetId, BigDecimal betrag) {
+        aendereRestBetrag(budgetId, betrag);
+    }
+
+    /**
+     * Liefert eine Referenz auf ein Budget, ohne es zu laden.
+     *
+     * @param budgetId Die ID des Budgets.
+     * @return Die Referenz auf das Budget.
+     * @throws NotFoundException Wenn das Budget nicht existiert.
+     */
+    public Budget getReferenz(Long budgetId) {
+        if (!repository.existsById(budgetId)) {
+            throw new NotFoundException("Budget not found");
+        }
+        return repository.getReferenceById(budgetId);
+    }
+
+    private void aendereRestBetrag(Long budgetId, BigDecimal differenz) {
+        if (repository.aendereRestBetrag(budgetId, differenz) == 0) {
+            throw new NotFoundException("Budget not found");
+        }
+    }
+
+    private Budget findBudgetMitFortschritt(Long budgetId) {
+        Budget budget = repository.findById(budgetId)
+                .orElseThrow(() -> new NotFoundException("Budget not found"));
         budget.setProgress(calculateProgress(budget));
-        return repository.save(budget);
+        return budget;
     }
 
     /**
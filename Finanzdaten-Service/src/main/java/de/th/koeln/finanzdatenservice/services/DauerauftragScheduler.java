@@ -0,0 +1,52 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Zeitgesteuerter Job, der fällige Termine aller Daueraufträge anlegt.
+ *
+ * <p>Die Aufträge werden seitenweise in jeweils eigener Transaktion verarbeitet, damit auch große Mengen am
+ * Monatsanfang ohne lange Sperren abgearbeitet werden. Bricht ein Lauf ab, setzt der nächste Lauf bei den
+ * noch nicht beanspruchten Terminen fort. Je Auftrag wird pro Lauf nur eine begrenzte Anzahl von Terminen
+ * nachgeholt.</p>
+ */
+@Component
+public class DauerauftragScheduler {
+
+    private final DauerauftragService dauerauftragService;
+    private final int seitenGroesse;
+    private final int maxTermine;
+
+    /**
+     * Konstruktor zur Initialisierung des DauerauftragService und der Seitengröße.
+     *
+     * @param dauerauftragService Der Service zur Verwaltung von Daueraufträgen.
+     * @param seitenGroesse Die Anzahl der Aufträge pro Transaktion.
+     * @param maxTermine Die Anzahl der Termine, die je Auftrag und Lauf höchstens angelegt werden.
+     */
+    @Autowired
+    public DauerauftragScheduler(DauerauftragService dauerauftragService,
+                                 @Value("${finanzdaten.dauerauftrag.seiten-groesse:200}") int seitenGroesse,
+                                 @Value("${finanzdaten.dauerauftrag.max-termine:31}") int maxTermine) {
+        this.dauerauftragService = dauerauftragService;
+        this.seitenGroesse = seitenGroesse;
+        this.maxTermine = maxTermine;
+    }
+
+    /**
+     * Legt alle bis heute fälligen Termine an.
+     */
+    @Scheduled(cron = "${finanzdaten.dauerauftrag.cron:0 5 0 * * *}")
+    public void materialisiere() {
+        LocalDate heute = LocalDate.now();
+        Long nachId = 0L;
+        while (nachId != null) {
+            nachId = dauerauftragService.materialisiereFaellige(heute, nachId, seitenGroesse, maxTermine);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
+import de.th.koeln.finanzdatenservice.entities.*;
+import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
+import de.th.koeln.finanzdatenservice.repositories.AusgabeRepository;
+import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
+import de.th.koeln.finanzdatenservice.repositories.BudgetRepository;
+import de.th.koeln.finanzdatenservice.repositories.DauerauftragRepository;
+import de.th.koeln.finanzdatenservice.repositories.EinnahmeRepository;
+import io.grpc.StatusRuntimeException;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Der Service für die Verwaltung von Daueraufträgen.
+ *
+ * <p>Dieser Service erweitert {@link BaseService} und legt fällige Termine von Daueraufträgen seitenweise als
+ * Einnahmen und Ausgaben an. Pro Seite werden alle Konten mit einem Aufruf geprüft, alle Einträge werden gemeinsam
+ * gespeichert und jedes betroffene Budget wird nur einmal gebucht.</p>
+ *
+ * <p>Pro Lauf wird je Auftrag nur eine begrenzte Anzahl von Terminen nachgeholt, damit ein Auftrag mit weit
+ * zurückliegender erster Ausführung keine unbegrenzt große Transaktion erzeugt; die übrigen Termine folgen in den
+ * nächsten Läufen. Eine Ausgabe wird nur mit einem passenden Budget angelegt. Fehlt es für einen Termin, werden
+ * dieser und die folgenden Termine des Auftrags übersprungen und in einem späteren Lauf erneut versucht.</p>
+ */
+@Service
+public class DauerauftragService extends BaseService<Dauerauftrag> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DauerauftragService.class);
+
+    protected DauerauftragRepository repository;
+    protected EinnahmeRepository einnahmeRepository;
+    protected AusgabeRepository ausgabeRepository;
+    protected BudgetRepository budgetRepository;
+    protected BudgetService budgetService;
+
+    /**
+     * Konstruktor zur Initialisierung der Repositories und des BudgetService.
+     *
+     * @param repository Das Repository zur Verwaltung der Daueraufträge.
+     * @param einnahmeRepository Das Repository zur Verwaltung der Einnahmen.
+     * @param ausgabeRepository Das Repository zur Verwaltung der Ausgaben.
+     * @param budgetRepository Das Repository zur Verwaltung der Budgets.
+     * @param budgetService Der Service zur Verwaltung von Budgets.
+     */
+    @Autowired
+    protected DauerauftragService(BaseRepository<Dauerauftrag> repository, EinnahmeRepository einnahmeRepository,
+                                  AusgabeRepository ausgabeRepository, BudgetRepository budgetRepository,
+                                  BudgetService budgetService) {
+        super(repository);
+        this.repository = (DauerauftragRepository) repository;
+        this.einnahmeRepository = einnahmeRepository;
+        this.ausgabeRepository = ausgabeRepository;
+        this.budgetRepository = budgetRepository;
+        this.budgetService = budgetService;
+    }
+
+    /**
+     * Speichert einen Dauerauftrag. Bei einem neuen Auftrag beginnt die Ausführung mit dem ersten Termin;
+     * bei einer Änderung bleiben die bereits angelegten Termine erhalten.
+     *
+     * @param dauerauftrag Der zu speichernde Dauerauftrag.
+     * @return Der gespeicherte Dauerauftrag.
+     */
+    @Override
+    @Transactional
+    public Dauerauftrag save(Dauerauftrag dauerauftrag) {
+        if (dauerauftrag.getArt() == null || dauerauftrag.getIntervall() == null
+                || dauerauftrag.getErsteAusfuehrung() == null) {
+            throw new IllegalArgumentException("Art, Intervall und erste Ausführung dürfen nicht leer sein");
+        }
+        if (dauerauftrag.getBetrag() == null || dauerauftrag.getBetrag().signum() <= 0) {
+            throw new IllegalArgumentException("Betrag muss positiv sein");
+        }
+        if (dauerauftrag.getArt() == DauerauftragArt.EINNAHME && dauerauftrag.getEinnahmeKategorie() == null
+                || dauerauftrag.getArt() == DauerauftragArt.AUSGABE && dauerauftrag.getAusgabeKategorie() == null) {
+            throw new IllegalArgumentException("Kategorie darf nicht leer sein");
+        }
+
+        long ausfuehrungen = 0;
+        if (dauerauftrag.getId() != null) {
+            ausfuehrungen = repository.findById(dauerauftrag.getId())
+                    .orElseThrow(() -> new NotFoundException("Dauerauftrag not found"))
+                    .getAusfuehrungen();
+        }
+        dauerauftrag.setAusfuehrungen(ausfuehrungen);
+        dauerauftrag.setNaechsteAusfuehrung(dauerauftrag.termin(ausfuehrungen));
+        return super.save(dauerauftrag);
+    }
+
+    /**
+     * Legt die fälligen Termine der nächsten Seite von Daueraufträgen an.
+     *
+     * <p>Jeder Auftrag wird vor dem Anlegen über eine bedingte Aktualisierung seines Ausführungszählers
+     * beansprucht. Zähler und angelegte Einträge werden in derselben Transaktion gespeichert, sodass Termine
+     * weder nach einem Neustart noch bei mehreren Instanzen doppelt angelegt werden.</p>
+     *
+     * @param stichtag Der Stichtag, bis zu dem Termine angelegt werden.
+     * @param nachId Die ID, nach der die Seite beginnt.
+     * @param seitenGroesse Die maximale Anzahl von Aufträgen pro Seite.
+     * @param maxTermine Die maximale Anzahl von Terminen, die je Auftrag angelegt werden.
+     * @return Die ID des letzten Auftrags der Seite oder {@code null}, wenn keine fälligen Aufträge mehr vorhanden sind.
+     */
+    @Transactional
+    public Long materialisiereFaellige(LocalDate stichtag, Long nachId, int seitenGroesse, int maxTermine) {
+        List<Dauerauftrag> faellige = repository.findByNaechsteAusfuehrungLessThanEqualAndIdGreaterThanOrderByIdAsc(
+                stichtag, nachId, PageRequest.of(0, seitenGroesse));
+        if (faellige.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> gueltigeKonten = pruefeKonten(faellige.stream()
+                .map(Dauerauftrag::getKontoId)
+                .collect(Collectors.toSet()));
+
+        List<Einnahme> einnahmen = new ArrayList<>();
+        List<Ausgabe> ausgaben = new ArrayList<>();
+        Map<Long, BigDecimal> budgetSummen = new HashMap<>();
+        Map<List<Object>, Optional<Budget>> budgets = new HashMap<>();
+
+        for (Dauerauftrag dauerauftrag : faellige) {
+            if (!gueltigeKonten.contains(dauerauftrag.getKontoId())) {
+                continue;
+            }
+            List<LocalDate> termine = dauerauftrag.faelligeTermine(stichtag, maxTermine);
+            List<Budget> terminBudgets = new ArrayList<>();
+            if (dauerauftrag.getArt() == DauerauftragArt.AUSGABE) {
+                for (LocalDate termin : termine) {
+                    Optional<Budget> budget = budgets.computeIfAbsent(
+                            List.of(dauerauftrag.getKontoId(), dauerauftrag.getAusgabeKategorie(), termin),
+                            schluessel -> budgetRepository.findPassendeBudgets(dauerauftrag.getKontoId(),
+                                    dauerauftrag.getAusgabeKategorie(), termin).stream().findFirst());
+                    if (budget.isEmpty()) {
+                        logger.warn("Dauerauftrag {} has no matching budget on {}, skipping", dauerauftrag.getId(),
+                                termin);
+                        break;
+                    }
+                    terminBudgets.add(budget.get());
+                }
+                termine = termine.subList(0, terminBudgets.size());
+            }
+            if (termine.isEmpty()) {
+                continue;
+            }
+            long alt = dauerauftrag.getAusfuehrungen();
+            long neu = alt + termine.size();
+            if (repository.beanspruche(dauerauftrag.getId(), alt, neu, dauerauftrag.termin(neu)) == 0) {
+                continue;
+            }
+
+            for (int i = 0; i < termine.size(); i++) {
+                if (dauerauftrag.getArt() == DauerauftragArt.EINNAHME) {
+                    einnahmen.add(neueEinnahme(dauerauftrag, termine.get(i)));
+                } else {
+                    Budget budget = terminBudgets.get(i);
+                    Ausgabe ausgabe = neueAusgabe(dauerauftrag, termine.get(i), budget);
+                    budgetSummen.merge(budget.getId(), ausgabe.getBetrag(), BigDecimal::add);
+                    ausgaben.add(ausgabe);
+                }
+            }
+        }
+
+        einnahmeRepository.saveAll(einnahmen);
+        ausgabeRepository.saveAll(ausgaben);
+        budgetSummen.forEach(budgetService::verbucheAusgabe);
+        return faellige.get(faellige.size() - 1).getId();
+    }
+
+    /**
+     * Prüft alle Konten einer Seite mit einem Aufruf beim Konto-Service.
+     *
+     * @param kontoIds Die zu prüfenden Konto-IDs.
+     * @return Die Konto-IDs, die existieren.
+     */
+    private Set<Long> pruefeKonten(Set<Long> kontoIds) {
+        try {
+            return kontoClient.findKontenByIds(kontoIds).getKontenList().stream()
+                    .map(konto -> Long.valueOf(konto.getId()))
+                    .collect(Collectors.toSet());
+        } catch (StatusRuntimeException e) {
+            // Konto-Service nicht erreichbar; die Aufträge werden beim nächsten Lauf erneut geprüft
+            logger.error("FindKontenByIds request failed: {}", e.getStatus(), e);
+            return Set.of();
+        }
+    }
+
+    private static Einnahme neueEinnahme(Dauerauftrag dauerauftrag, LocalDate termin) {
+        Einnahme einnahme = new Einnahme();
+        einnahme.setBenutzerID(dauerauftrag.getBenutzerID());
+        einnahme.setKontoId(dauerauftrag.getKontoId());
+        einnahme.setBetrag(dauerauftrag.getBetrag());
+        einnahme.setEinnahmeKategorie(dauerauftrag.getEinnahmeKategorie());
+        einnahme.setBezeichnung(dauerauftrag.getBezeichnung());
+        einnahme.setBeschreibung(dauerauftrag.getBeschreibung());
+        einnahme.setDatum(termin);
+        return einnahme;
+    }
+
+    private static Ausgabe neueAusgabe(Dauerauftrag dauerauftrag, LocalDate termin, Budget budget) {
+        Ausgabe ausgabe = new Ausgabe();
+        ausgabe.setBenutzerID(dauerauftrag.getBenutzerID());
+        ausgabe.setKontoId(dauerauftrag.getKontoId());
+        ausgabe.setBetrag(dauerauftrag.getBetrag());
+        ausgabe.setAusgabeKategorie(dauerauftrag.getAusgabeKategorie());
+        ausgabe.setBezeichnung(dauerauftrag.getBezeichnung());
+        ausgabe.setBeschreibung(dauerauftrag.getBeschreibung());
+        ausgabe.setDatum(termin);
+        ausgabe.setBudget(budget);
+        return ausgabe;
+    }
+}
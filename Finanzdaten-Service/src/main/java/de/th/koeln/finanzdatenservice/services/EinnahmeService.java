@@ -1,10 +1,13 @@
 package de.th.koeln.finanzdatenservice.services;
 
 import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
+import de.th.koeln.finanzdatenservice.dto.BetragDatum;
+import de.th.koeln.finanzdatenservice.dto.EinnahmeAnsicht;
 import de.th.koeln.finanzdatenservice.entities.Einnahme;
 import de.th.koeln.finanzdatenservice.entities.EinnahmeKategorie;
 import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
 import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
+import de.th.koeln.finanzdatenservice.repositories.EinnahmeArchivRepository;
 import de.th.koeln.finanzdatenservice.repositories.EinnahmeRepository;
 import de.th.koeln.kontoservice.grpc.KontoDaten;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,30 +15,44 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * Der Service für die Verwaltung von Einnahmen.
- * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden.</p>
+ * <p>Dieser Service erweitert {@link BaseService} und bietet zusätzliche Methoden.
+ * Abfragen über den gesamten Zeitraum berücksichtigen auch archivierte Einnahmen. Lesende Abfragen liefern
+ * {@link EinnahmeAnsicht}-Projektionen statt verwalteter Entitäten.</p>
  */
 @Service
 public class EinnahmeService extends BaseService<Einnahme> {
 
     protected EinnahmeRepository repository;
     protected KontoGrpcClient kontoClient;
+    protected EinnahmeArchivRepository archivRepository;
+    protected ArchivService archivService;
 
     /**
-     * Konstruktor zur Initialisierung des Repositories und des KontoClients.
+     * Konstruktor zur Initialisierung des Repositories, des KontoClients und der Archivdienste.
      *
      * @param repository Das Repository zur Verwaltung der Einnahmen.
      * @param -kontoClient Der Client zur Interaktion mit dem Konto-Service.
+     * @param archivRepository Das Repository der archivierten Einnahmen.
+     * @param archivService Der Service zur Archivierung.
      */
     @Autowired
-    protected EinnahmeService(BaseRepository<Einnahme> repository, KontoGrpcClient kontoClient) {
+    protected EinnahmeService(BaseRepository<Einnahme> repository, KontoGrpcClient kontoClient,
+                              EinnahmeArchivRepository archivRepository, ArchivService archivService) {
         super(repository);
         this.repository = (EinnahmeRepository) repository;
         this.kontoClient = kontoClient;
+        this.archivRepository = archivRepository;
+        this.archivService = archivService;
     }
 
     /**
@@ -45,9 +62,9 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @param monat Der Monat, für den die Einnahmen abgerufen werden sollen.
      * @return Eine Menge von Einnahmen des Benutzers für den angegebenen Monat.
      */
-    public Set<Einnahme> holeEinnahmenBeiDatum(String benutzerId, int monat) {
+    public Set<EinnahmeAnsicht> holeEinnahmenBeiDatum(String benutzerId, int monat) {
         this.repository.findByBenutzerID(benutzerId);
-        return this.repository.findEinnahmeByMonth(benutzerId, monat);
+        return new LinkedHashSet<>(this.repository.findAnsichtenByMonat(benutzerId, monat));
     }
 
     /**
@@ -56,8 +73,8 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @param benutzerId Die ID des Benutzers.
      * @return Eine Menge von Einnahmen des Benutzers für den aktuellen Monat.
      */
-    public Set<Einnahme> holeEinnahmenAktuellesDatum(String benutzerId) {
-        return this.repository.findEinnahmeByMonth(benutzerId, LocalDate.now().getMonthValue());
+    public Set<EinnahmeAnsicht> holeEinnahmenAktuellesDatum(String benutzerId) {
+        return new LinkedHashSet<>(this.repository.findAnsichtenByMonat(benutzerId, LocalDate.now().getMonthValue()));
     }
 
     /**
@@ -66,10 +83,10 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @param kontoId Die ID des Kontos.
      * @return Eine Menge von Einnahmen des Kontos für den aktuellen Monat.
      */
-    public Set<Einnahme> holeEinnahmenAktuellesDatum(Long kontoId) {
+    public Set<EinnahmeAnsicht> holeEinnahmenAktuellesDatum(Long kontoId) {
         Optional<KontoDaten> kontoDTO = Optional.ofNullable(this.kontoClient.findKontoById(String.valueOf(kontoId)));
         if(kontoDTO.isPresent()){
-            return this.repository.findEinnahmeByMonth(kontoId, LocalDate.now().getMonthValue());
+            return new LinkedHashSet<>(this.repository.findAnsichtenByMonat(kontoId, LocalDate.now().getMonthValue()));
         }
         throw new NotFoundException("Konto not found");
     }
@@ -81,11 +98,11 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @return Die Summe der Einnahmen des Benutzers für den aktuellen Monat.
      */
     public BigDecimal getSummeEinnahmenDesMonat(String benutzerId) {
-        Set<Einnahme> einnahmeSet = holeEinnahmenAktuellesDatum(benutzerId);
+        Set<EinnahmeAnsicht> einnahmeSet = holeEinnahmenAktuellesDatum(benutzerId);
         BigDecimal summeEinnahmen = BigDecimal.ZERO;
-        for (Einnahme einnahme : einnahmeSet) {
-            if (einnahme != null && einnahme.getBetrag() != null) {
-                summeEinnahmen = summeEinnahmen.add(einnahme.getBetrag());
+        for (EinnahmeAnsicht einnahme : einnahmeSet) {
+            if (einnahme != null && einnahme.betrag() != null) {
+                summeEinnahmen = summeEinnahmen.add(einnahme.betrag());
             }
         }
         return summeEinnahmen;
@@ -98,11 +115,11 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @return Die Summe der Einnahmen des Kontos für den aktuellen Monat.
      */
     public BigDecimal getSummeEinnahmenDesMonat(Long kontoId) {
-        Set<Einnahme> einnahmeSet = holeEinnahmenAktuellesDatum(kontoId);
+        Set<EinnahmeAnsicht> einnahmeSet = holeEinnahmenAktuellesDatum(kontoId);
         BigDecimal summeEinnahmen = BigDecimal.ZERO;
-        for (Einnahme einnahme : einnahmeSet) {
-            if (einnahme != null && einnahme.getBetrag() != null) {
-                summeEinnahmen = summeEinnahmen.add(einnahme.getBetrag());
+        for (EinnahmeAnsicht einnahme : einnahmeSet) {
+            if (einnahme != null && einnahme.betrag() != null) {
+                summeEinnahmen = summeEinnahmen.add(einnahme.betrag());
             }
         }
         return summeEinnahmen;
@@ -114,9 +131,53 @@ public class EinnahmeService extends BaseService<Einnahme> {
      * @param id Die ID des Benutzers.
      * @return Eine Menge von Einnahmen des Benutzers, sortiert nach Datum absteigend.
      */
-    public Set<Einnahme> holleAlleEinnahmeDesc(String id) {
+    public Set<EinnahmeAnsicht> holleAlleEinnahmeDesc(String id) {
         findByBenutzerId(id);
-        return this.repository.findAllOrderByDatumDesc(id);
+        return vereinige(this.repository.findAnsichtenOrderByDatumDesc(id),
+                this.archivRepository.findAllByBenutzerIDOrderByDatumDesc(id).stream().map(EinnahmeAnsicht::von),
+                EinnahmeAnsicht::datum);
+    }
+
+    /**
+     * Findet eine Einnahme anhand der ID als Ansicht.
+     *
+     * @param id Die ID der Einnahme.
+     * @return Die Ansicht der Einnahme.
+     */
+    @Override
+    public Optional<EinnahmeAnsicht> findAnsichtById(Long id) {
+        if (!this.repository.existsById(id)) {
+            throw new NotFoundException("Eintrag mit der ID " + id + " wurde nicht gefunden.");
+        }
+        return this.repository.findById(id, EinnahmeAnsicht.class);
+    }
+
+    /**
+     * Findet alle Einnahmen eines Benutzers als Ansicht.
+     *
+     * @param benutzerId Die ID des Benutzers.
+     * @return Eine Menge von Einnahmen des Benutzers.
+     */
+    @Override
+    public Set<EinnahmeAnsicht> findAnsichtenByBenutzerId(String benutzerId) {
+        return this.repository.findAllByBenutzerID(benutzerId, EinnahmeAnsicht.class);
+    }
+
+    /**
+     * Findet alle aktiven und archivierten Einnahmen eines Kontos als Ansicht, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Eine Menge von Einnahmen des Kontos.
+     */
+    @Override
+    public Set<EinnahmeAnsicht> findAnsichtenByKontoId(Long kontoId) {
+        Optional<KontoDaten> kontoDTO = Optional.ofNullable(this.kontoClient.findKontoById(String.valueOf(kontoId)));
+        if (kontoDTO.isEmpty()) {
+            throw new NotFoundException("Konto mit der ID " + kontoId + " nicht gefunden.");
+        }
+        return vereinige(this.repository.findAllByKontoId(kontoId, EinnahmeAnsicht.class),
+                this.archivRepository.findAllByKontoIdOrderByDatumDesc(kontoId).stream().map(EinnahmeAnsicht::von),
+                EinnahmeAnsicht::datum);
     }
 
     /**
@@ -128,4 +189,44 @@ public class EinnahmeService extends BaseService<Einnahme> {
     public Einnahme findByKategorie(EinnahmeKategorie kategorie) {
         return this.repository.findEinnahmeByEinnahmeKategorie(kategorie);
     }
+
+    /**
+     * Liest nur Betrag und Datum aller aktiven und archivierten Einnahmen eines Kontos, sortiert nach Datum absteigend.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    public List<BetragDatum> findBetragDatumByKontoId(Long kontoId) {
+        List<BetragDatum> betraege = new ArrayList<>(this.repository.findBetragDatumByKontoId(kontoId));
+        betraege.addAll(this.archivRepository.findBetragDatumByKontoId(kontoId));
+        betraege.sort(nachDatumAbsteigend(BetragDatum::getDatum));
+        return betraege;
+    }
+
+    /**
+     * Liest nur Betrag und Datum der Einnahmen eines Kontos für den aktuellen Monat.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @return Eine Liste von Beträgen mit Datum.
+     */
+    public List<BetragDatum> findBetragDatumAktuellesDatum(Long kontoId) {
+        return this.repository.findBetragDatumByMonat(kontoId, LocalDate.now().getMonthValue());
+    }
+
+    /**
+     * Berechnet die Summen der Einnahmen mehrerer Konten in einem Zeitraum mit einer gruppierten Abfrage.
+     *
+     * <p>Archivierte Einnahmen werden nur abgefragt, wenn der Zeitraum vor der Archivgrenze beginnt. Sehr lange
+     * Listen werden in Blöcken abgefragt, um die Größe der {@code IN}-Liste zu begrenzen.</p>
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Das Startdatum (einschließlich).
+     * @param bis Das Enddatum (einschließlich).
+     * @return Die Summe je Konto; Konten ohne Einnahmen fehlen.
+     */
+    public Map<Long, BigDecimal> getSummenProKonto(Collection<Long> kontoIds, LocalDate von, LocalDate bis) {
+        return summenProKonto(kontoIds, this.archivService.brauchtArchiv(von),
+                block -> this.repository.summeProKonto(block, von, bis),
+                block -> this.archivRepository.summeProKonto(block, von, bis));
+    }
 }
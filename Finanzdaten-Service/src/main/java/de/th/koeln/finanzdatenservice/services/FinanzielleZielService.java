@@ -2,30 +2,88 @@ package de.th.koeln.finanzdatenservice.services;
 
 import de.th.koeln.benutzerservice.grpc.BenutzerDaten;
 import de.th.koeln.finanzdatenservice.clients.BenutzerGrpcClient;
+import de.th.koeln.finanzdatenservice.dto.ZielFortschritt;
 import de.th.koeln.finanzdatenservice.entities.FinanzielleZiel;
+import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
 import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
+import de.th.koeln.finanzdatenservice.repositories.FinanzielleZielRepository;
+import de.th.koeln.finanzdatenservice.repositories.SparbeitragRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * Der Service für die Verwaltung von finanziellen Zielen.
  *
- * <p>Dieser Service erweitert {@link BaseService} und bietet allgemeine Methoden zur Verwaltung von finanziellen Zielen.</p>
+ * <p>Dieser Service erweitert {@link BaseService} und bietet allgemeine Methoden zur Verwaltung von finanziellen Zielen.
+ * Der gesparte Betrag eines Ziels wird ausschließlich vom {@link SparbeitragService} fortgeschrieben.</p>
  */
 @Service
 public class FinanzielleZielService extends BaseService<FinanzielleZiel> {
 
     private final BenutzerGrpcClient benutzerClient;
+    protected FinanzielleZielRepository repository;
+    protected SparbeitragRepository sparbeitragRepository;
 
     /**
-     * Konstruktor zur Initialisierung des Repositories.
+     * Konstruktor zur Initialisierung der Repositories.
      *
      * @param repository Das Repository zur Verwaltung der finanziellen Ziele.
+     * @param benutzerClient Der Client zur Interaktion mit dem Benutzer-Service.
+     * @param sparbeitragRepository Das Repository zur Verwaltung der Sparbeiträge.
      */
     @Autowired
-    protected FinanzielleZielService(BaseRepository<FinanzielleZiel> repository, BenutzerGrpcClient benutzerClient) {
+    protected FinanzielleZielService(BaseRepository<FinanzielleZiel> repository, BenutzerGrpcClient benutzerClient,
+                                     SparbeitragRepository sparbeitragRepository) {
         super(repository);
+        this.repository = (FinanzielleZielRepository) repository;
         this.benutzerClient = benutzerClient;
+        this.sparbeitragRepository = sparbeitragRepository;
+    }
+
+    /**
+     * Speichert ein finanzielles Ziel. Ein neues Ziel beginnt ohne gesparten Betrag; bei einer Änderung bleibt
+     * der bisher gesparte Betrag erhalten.
+     *
+     * @param ziel Das zu speichernde Ziel.
+     * @return Das gespeicherte Ziel.
+     */
+    @Override
+    @Transactional
+    public FinanzielleZiel save(FinanzielleZiel ziel) {
+        BigDecimal gespart = BigDecimal.ZERO;
+        if (ziel.getId() != null) {
+            gespart = repository.findById(ziel.getId())
+                    .orElseThrow(() -> new NotFoundException("Ziel not found"))
+                    .getGespartBetrag();
+        }
+        ziel.setGespartBetrag(gespart);
+        return super.save(ziel);
+    }
+
+    /**
+     * Löscht ein finanzielles Ziel mit allen Sparbeiträgen.
+     *
+     * @param id Die ID des zu löschenden Ziels.
+     */
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        sparbeitragRepository.loescheAlleByZielId(id);
+        super.delete(id);
+    }
+
+    /**
+     * Liest den Fortschritt aller Ziele eines Benutzers mit einer Abfrage.
+     *
+     * @param benutzerId Die ID des Benutzers.
+     * @return Der Fortschritt je Ziel, sortiert nach Fälligkeitsdatum.
+     */
+    public List<ZielFortschritt> getFortschritt(String benutzerId) {
+        return repository.findFortschrittByBenutzerID(benutzerId);
     }
 
     /**
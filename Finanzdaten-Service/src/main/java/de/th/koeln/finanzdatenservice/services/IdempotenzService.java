@@ -0,0 +1,175 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.th.koeln.finanzdatenservice.entities.IdempotenzEintrag;
+import de.th.koeln.finanzdatenservice.exceptions.BadRequestException;
+import de.th.koeln.finanzdatenservice.exceptions.ConflictException;
+import de.th.koeln.finanzdatenservice.repositories.IdempotenzRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Der Service sorgt dafür, dass Anfragen mit demselben {@code Idempotency-Key} nur einmal ausgeführt werden.
+ *
+ * <p>Reservierung des Eintrags, Ausführung der Aktion und Speichern des Ergebnisses laufen in einer Transaktion.
+ * Der Eintrag wird damit nur zusammen mit den Änderungen der Aktion festgeschrieben; bricht die Anfrage ab, etwa
+ * durch einen Absturz, bleibt kein reservierter Eintrag zurück, der Wiederholungen dauerhaft blockiert. Eine
+ * gleichzeitige Wiederholung wartet an der Sperre des Primärschlüssels, bis die erste Anfrage abgeschlossen ist,
+ * und liefert dann das gespeicherte Ergebnis zurück, ohne die Entitätstabellen erneut zu berühren. Einträge
+ * werden nach Ablauf der Aufbewahrungsdauer regelmäßig gelöscht.</p>
+ */
+@Service
+public class IdempotenzService {
+
+    /**
+     * Name des HTTP-Headers für den Idempotenzschlüssel.
+     */
+    public static final String IDEMPOTENZ_HEADER = "Idempotency-Key";
+
+    /**
+     * Name des HTTP-Headers, der eine wiederholte Antwort kennzeichnet.
+     */
+    public static final String WIEDERHOLUNG_HEADER = "Idempotent-Replay";
+
+    private static final int MAX_SCHLUESSEL_LAENGE = 255;
+
+    private final IdempotenzRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration aufbewahrung;
+
+    /**
+     * Konstruktor zur Initialisierung des Repositories, des ObjectMappers und der Aufbewahrungsdauer.
+     *
+     * @param repository Das Repository zur Verwaltung der Idempotenzeinträge.
+     * @param objectMapper Der ObjectMapper zur Serialisierung der Ergebnisse.
+     * @param transactionTemplate Das TransactionTemplate, in dem eine Anfrage ausgeführt wird.
+     * @param aufbewahrung Die Dauer, für die Ergebnisse aufbewahrt werden.
+     */
+    @Autowired
+    public IdempotenzService(IdempotenzRepository repository, ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${finanzdaten.idempotenz.aufbewahrung:24h}") Duration aufbewahrung) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.aufbewahrung = aufbewahrung;
+    }
+
+    /**
+     * Führt eine Aktion höchstens einmal pro Idempotenzschlüssel aus.
+     *
+     * @param ressource Der Name der Ressource, z. B. der Entitätstyp.
+     * @param benutzerId Die ID des Benutzers.
+     * @param idempotenzSchluessel Der vom Client gesendete Idempotenzschlüssel.
+     * @param anfrage Der Inhalt der Anfrage.
+     * @param aktion Die auszuführende Aktion.
+     * @param <T> Der Typ des Ergebnisses.
+     * @return Das Ergebnis der Aktion oder das gespeicherte Ergebnis einer früheren Ausführung.
+     */
+    public <T> ResponseEntity<T> ausfuehren(String ressource, String benutzerId, String idempotenzSchluessel,
+                                            T anfrage, Supplier<T> aktion) {
+        if (idempotenzSchluessel.isBlank() || idempotenzSchluessel.length() > MAX_SCHLUESSEL_LAENGE) {
+            throw new BadRequestException("Ungültiger " + IDEMPOTENZ_HEADER);
+        }
+
+        @SuppressWarnings("unchecked")
+        Class<T> typ = (Class<T>) anfrage.getClass();
+        String schluessel = hash(ressource + '\n' + benutzerId + '\n' + idempotenzSchluessel);
+        String anfrageHash = hash(serialisiere(anfrage));
+
+        T ergebnis;
+        try {
+            ergebnis = transactionTemplate.execute(status -> {
+                IdempotenzEintrag eintrag = reserviere(new IdempotenzEintrag(schluessel, anfrageHash));
+                T neu = aktion.get();
+                eintrag.abschliessen(serialisiere(neu));
+                repository.save(eintrag);
+                return neu;
+            });
+        } catch (BereitsReserviertException e) {
+            return wiederhole(schluessel, anfrageHash, typ);
+        }
+        return ResponseEntity.ok(ergebnis);
+    }
+
+    /**
+     * Löscht regelmäßig alle Einträge, deren Aufbewahrungsdauer abgelaufen ist.
+     */
+    @Scheduled(fixedDelayString = "${finanzdaten.idempotenz.bereinigung-intervall:PT1H}")
+    @Transactional
+    public void bereinige() {
+        repository.deleteByErstelltAmBefore(LocalDateTime.now().minus(aufbewahrung));
+    }
+
+    /**
+     * Fügt den Eintrag ein. Ist der Schlüssel bereits vergeben, wird die Transaktion mit
+     * {@link BereitsReserviertException} beendet, damit Verletzungen durch die Aktion selbst davon unterscheidbar
+     * bleiben.
+     */
+    private IdempotenzEintrag reserviere(IdempotenzEintrag eintrag) {
+        try {
+            return repository.saveAndFlush(eintrag);
+        } catch (DataIntegrityViolationException e) {
+            throw new BereitsReserviertException();
+        }
+    }
+
+    private <T> ResponseEntity<T> wiederhole(String schluessel, String anfrageHash, Class<T> typ) {
+        IdempotenzEintrag vorhanden = repository.findById(schluessel)
+                .orElseThrow(() -> new ConflictException("Eine Anfrage mit diesem " + IDEMPOTENZ_HEADER
+                        + " wird gerade verarbeitet"));
+
+        if (!vorhanden.getAnfrageHash().equals(anfrageHash)) {
+            throw new BadRequestException(IDEMPOTENZ_HEADER + " wurde bereits für eine andere Anfrage verwendet");
+        }
+        if (!vorhanden.isAbgeschlossen()) {
+            throw new ConflictException("Eine Anfrage mit diesem " + IDEMPOTENZ_HEADER + " wird gerade verarbeitet");
+        }
+
+        try {
+            T ergebnis = objectMapper.readValue(vorhanden.getErgebnis(), typ);
+            return ResponseEntity.ok().header(WIEDERHOLUNG_HEADER, "true").body(ergebnis);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Gespeichertes Ergebnis konnte nicht gelesen werden", e);
+        }
+    }
+
+    private String serialisiere(Object wert) {
+        try {
+            return objectMapper.writeValueAsString(wert);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Anfrage konnte nicht serialisiert werden", e);
+        }
+    }
+
+    /**
+     * Zeigt an, dass der Idempotenzschlüssel bereits von einer abgeschlossenen Anfrage verwendet wurde.
+     */
+    private static class BereitsReserviertException extends RuntimeException {
+    }
+
+    private static String hash(String wert) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(wert.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,701 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import de.th.koeln.finanzdaten.grpc.AenderungsTyp;
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.KontoAenderung;
+import de.th.koeln.finanzdatenservice.entities.AbstraktEntitaet;
+import de.th.koeln.finanzdatenservice.entities.AenderungsEpoche;
+import de.th.koeln.finanzdatenservice.entities.Ausgabe;
+import de.th.koeln.finanzdatenservice.entities.Einnahme;
+import de.th.koeln.finanzdatenservice.entities.KontoAenderungEintrag;
+import de.th.koeln.finanzdatenservice.entities.KontoSequenz;
+import de.th.koeln.finanzdatenservice.grpc.FinanzdatenMapper;
+import de.th.koeln.finanzdatenservice.repositories.AenderungsEpocheRepository;
+import de.th.koeln.finanzdatenservice.repositories.KontoAenderungRepository;
+import de.th.koeln.finanzdatenservice.repositories.KontoSequenzRepository;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Der Service verteilt Änderungen an Einnahmen und Ausgaben eines Kontos an gRPC-Abonnenten.
+ *
+ * <p>Jede Änderung erhält pro Konto eine fortlaufende Sequenznummer aus der Tabelle der {@link KontoSequenz}en und
+ * wird unmittelbar vor dem Commit als {@link KontoAenderungEintrag} in derselben Transaktion geschrieben. Alle
+ * Instanzen vergeben die Nummern damit aus derselben Zeile, und eine Änderung wird genau dann verteilt, wenn sie
+ * festgeschrieben wurde. Jede Instanz liest neue Einträge in einem kurzen Intervall und stellt sie ihren
+ * Abonnenten zu, sodass Abonnenten Änderungen aller Instanzen erhalten. Die Abfrage läuft auf einem eigenen
+ * Thread, damit lange geplante Aufgaben wie das Archivieren die Zustellung nicht aufhalten. Einträge werden für
+ * eine konfigurierte Dauer aufbewahrt; Abonnenten eines Kontos können nach einem Verbindungsabbruch ab ihrer
+ * letzten Sequenznummer fortsetzen, solange die Einträge noch vorhanden sind. Die Sequenznummern gelten innerhalb
+ * der gespeicherten Epoche; wenn diese sich ändert oder die Einträge nicht mehr ausreichen, muss der Abonnent neu
+ * laden.</p>
+ *
+ * <p>Bei Änderungen wird zusätzlich der Betrag und das Datum vor der Änderung mitgesendet, damit Abonnenten
+ * wie der Konto-Service ihren Kontostand um die Differenz fortschreiben können. Dazu wird der Stand jeder in der
+ * laufenden Transaktion geladenen Einnahme und Ausgabe vermerkt. Wird ein Eintrag auf ein anderes Konto
+ * verschoben, wird er dem alten Konto als gelöscht und dem neuen als eingefügt gemeldet.</p>
+ *
+ * <p>Änderungen werden über den {@code FinanzdatenAenderungListener} gemeldet. Massenanweisungen umgehen diesen;
+ * das Archivieren meldet die verschobenen Einträge deshalb ausdrücklich über {@link #meldeArchiviert(List)}. Die
+ * übrigen Massenanweisungen des Dienstes ändern keine Einnahmen und Ausgaben.</p>
+ *
+ * <p>Jeder Abonnent besitzt einen begrenzten Puffer. Läuft dieser voll, weil der Abonnent nicht schnell genug
+ * liest, wird der Stream mit {@code RESOURCE_EXHAUSTED} beendet, statt unbegrenzt Speicher zu belegen. Der Strom
+ * eines Kontos wird entfernt, sobald sein letzter Abonnent abgemeldet ist.</p>
+ */
+@Service
+public class KontoAenderungService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KontoAenderungService.class);
+
+    private static final String EINNAHME = "EINNAHME";
+    private static final String AUSGABE = "AUSGABE";
+    private static final Integer EPOCHE_ID = 1;
+
+    private final KontoSequenzRepository sequenzRepository;
+    private final KontoAenderungRepository aenderungRepository;
+    private final AenderungsEpocheRepository epocheRepository;
+    private final TransactionTemplate neueTransaktion;
+    private final int pufferGroesse;
+    private final int pufferGroesseAlle;
+    private final int stapelGroesse;
+    private final long karenzNanos;
+    private final Duration aufbewahrung;
+    private final ConcurrentMap<Long, KontoStrom> stroeme = new ConcurrentHashMap<>();
+    private final Set<Abonnent> alleAbonnenten = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> luecken = new HashMap<>();
+    private final ScheduledExecutorService verteilung = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "konto-aenderung-verteilung");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Duration abfrageIntervall;
+
+    private volatile String epoche;
+    private long gelesenBis = -1;
+
+    /**
+     * Konstruktor zur Initialisierung der Repositories sowie der Puffer- und Abfragegrößen.
+     *
+     * @param sequenzRepository Das Repository der Sequenznummern je Konto.
+     * @param aenderungRepository Das Repository der festgeschriebenen Änderungen.
+     * @param epocheRepository Das Repository der Epoche.
+     * @param transactionManager Der TransactionManager für das Anlegen der Epoche.
+     * @param pufferGroesse Anzahl der Änderungen, die pro Abonnent maximal gepuffert werden.
+     * @param pufferGroesseAlle Anzahl der Änderungen, die pro Abonnent aller Konten maximal gepuffert werden.
+     * @param abfrageIntervall Die Wartezeit zwischen zwei Abfragen neuer Änderungen.
+     * @param stapelGroesse Anzahl der Änderungen, die pro Abfrage höchstens gelesen werden.
+     * @param karenz Die Dauer, für die auf Änderungen mit einer niedrigeren ID gewartet wird, deren Transaktion
+     *               noch nicht festgeschrieben war.
+     * @param aufbewahrung Die Dauer, für die Änderungen für Fortsetzungen aufbewahrt werden.
+     */
+    @Autowired
+    public KontoAenderungService(KontoSequenzRepository sequenzRepository,
+                                 KontoAenderungRepository aenderungRepository,
+                                 AenderungsEpocheRepository epocheRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${finanzdaten.watch.puffer:256}") int pufferGroesse,
+                                 @Value("${finanzdaten.watch.puffer-alle:4096}") int pufferGroesseAlle,
+                                 @Value("${finanzdaten.watch.abfrage-intervall:PT0.2S}") Duration abfrageIntervall,
+                                 @Value("${finanzdaten.watch.stapel-groesse:500}") int stapelGroesse,
+                                 @Value("${finanzdaten.watch.karenz:PT10S}") Duration karenz,
+                                 @Value("${finanzdaten.watch.aufbewahrung:24h}") Duration aufbewahrung) {
+        this.sequenzRepository = sequenzRepository;
+        this.aenderungRepository = aenderungRepository;
+        this.epocheRepository = epocheRepository;
+        this.neueTransaktion = new TransactionTemplate(transactionManager);
+        this.neueTransaktion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pufferGroesse = pufferGroesse;
+        this.pufferGroesseAlle = pufferGroesseAlle;
+        this.abfrageIntervall = abfrageIntervall;
+        this.stapelGroesse = stapelGroesse;
+        this.karenzNanos = karenz.toNanos();
+        this.aufbewahrung = aufbewahrung;
+    }
+
+    /**
+     * Gibt die gespeicherte Epoche zurück und legt sie beim ersten Aufruf in einer eigenen Transaktion an.
+     *
+     * @return Die Epoche.
+     */
+    public String getEpoche() {
+        String bekannt = this.epoche;
+        if (bekannt == null) {
+            bekannt = neueTransaktion.execute(status -> {
+                epocheRepository.legeAn(EPOCHE_ID, UUID.randomUUID().toString());
+                return epocheRepository.findById(EPOCHE_ID).map(AenderungsEpoche::getWert).orElseThrow();
+            });
+            this.epoche = bekannt;
+        }
+        return bekannt;
+    }
+
+    /**
+     * Gibt die Sequenznummern der zuletzt festgeschriebenen Änderungen mehrerer Konten zurück.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @return Die Sequenznummern je Konto; Konten ohne Änderung haben die Sequenznummer 0.
+     */
+    public Map<Long, Long> getSequenzen(Collection<Long> kontoIds) {
+        Map<Long, Long> sequenzen = sequenzRepository.findAllById(kontoIds).stream()
+                .collect(Collectors.toMap(KontoSequenz::getKontoId, KontoSequenz::getSequenz));
+        kontoIds.forEach(kontoId -> sequenzen.putIfAbsent(kontoId, 0L));
+        return sequenzen;
+    }
+
+    /**
+     * Vermerkt den Stand einer geladenen Einnahme oder Ausgabe für die laufende Transaktion, damit eine spätere
+     * Änderung mit dem vorherigen Betrag und Datum gemeldet werden kann. Ohne Transaktion geschieht nichts.
+     *
+     * @param entitaet Die geladene Entität.
+     */
+    public void merkeGeladenenStand(AbstraktEntitaet entitaet) {
+        Transaktion transaktion = transaktion();
+        GeladenerStand stand = GeladenerStand.von(entitaet);
+        if (transaktion != null && stand != null) {
+            transaktion.staende.put(entitaet, stand);
+        }
+    }
+
+    /**
+     * Meldet eine Änderung an einer Einnahme oder Ausgabe. Die Änderung wird vor dem Commit der laufenden
+     * Transaktion in deren Rahmen geschrieben; ohne Transaktion sofort in einer eigenen. Andere Entitäten werden
+     * ignoriert.
+     *
+     * @param entitaet Die geänderte Entität.
+     * @param typ Die Art der Änderung.
+     */
+    public void meldeAenderung(AbstraktEntitaet entitaet, AenderungsTyp typ) {
+        if (entitaet.getKontoId() == null || entitaet.getId() == null) {
+            return;
+        }
+        String art = art(entitaet);
+        if (art == null) {
+            return;
+        }
+
+        Long kontoId = entitaet.getKontoId();
+        String eintragId = entitaet.getId().toString();
+        FinanzdatenDTO daten = daten(entitaet);
+        GeladenerStand vorher = null;
+        Transaktion transaktion = transaktion();
+        if (transaktion != null) {
+            vorher = typ == AenderungsTyp.GEAENDERT ? transaktion.staende.get(entitaet) : null;
+            transaktion.staende.put(entitaet, GeladenerStand.von(entitaet));
+        }
+
+        if (vorher != null && vorher.kontoId() != null && !vorher.kontoId().equals(kontoId)) {
+            vormerken(vorher.kontoId(),
+                    neueAenderung(vorher.kontoId(), AenderungsTyp.GELOESCHT, art, eintragId, vorher.alsDto()));
+            vormerken(kontoId, neueAenderung(kontoId, AenderungsTyp.EINGEFUEGT, art, eintragId, daten));
+            return;
+        }
+
+        KontoAenderung.Builder aenderung = neueAenderung(kontoId, typ, art, eintragId, daten);
+        if (vorher != null) {
+            aenderung.setVorher(vorher.alsDto());
+        }
+        vormerken(kontoId, aenderung);
+    }
+
+    /**
+     * Meldet Einnahmen oder Ausgaben, die per Massenanweisung ins Archiv verschoben wurden, als
+     * {@link AenderungsTyp#ARCHIVIERT}. Die Einträge bleiben in den Summen ihrer Konten enthalten.
+     *
+     * @param eintraege Die verschobenen Einträge.
+     */
+    public void meldeArchiviert(List<? extends AbstraktEntitaet> eintraege) {
+        for (AbstraktEntitaet entitaet : eintraege) {
+            String art = art(entitaet);
+            if (art != null && entitaet.getKontoId() != null) {
+                vormerken(entitaet.getKontoId(), neueAenderung(entitaet.getKontoId(), AenderungsTyp.ARCHIVIERT, art,
+                        entitaet.getId().toString(), daten(entitaet)));
+            }
+        }
+    }
+
+    private static String art(AbstraktEntitaet entitaet) {
+        if (entitaet instanceof Einnahme) {
+            return EINNAHME;
+        }
+        if (entitaet instanceof Ausgabe) {
+            return AUSGABE;
+        }
+        return null;
+    }
+
+    private static FinanzdatenDTO daten(AbstraktEntitaet entitaet) {
+        return entitaet instanceof Einnahme einnahme
+                ? FinanzdatenMapper.toDto(einnahme)
+                : FinanzdatenMapper.toDto((Ausgabe) entitaet);
+    }
+
+    private KontoAenderung.Builder neueAenderung(Long kontoId, AenderungsTyp typ, String art, String eintragId,
+                                                 FinanzdatenDTO daten) {
+        return KontoAenderung.newBuilder()
+                .setKontoId(kontoId.toString())
+                .setTyp(typ)
+                .setArt(art)
+                .setEintragId(eintragId)
+                .setDaten(daten);
+    }
+
+    private void vormerken(Long kontoId, KontoAenderung.Builder aenderung) {
+        Transaktion transaktion = transaktion();
+        if (transaktion == null) {
+            neueTransaktion.executeWithoutResult(status -> schreibe(List.of(new Vorgemerkt(kontoId, aenderung))));
+        } else {
+            transaktion.vorgemerkt.add(new Vorgemerkt(kontoId, aenderung));
+        }
+    }
+
+    /**
+     * Gibt den Zustand der laufenden Transaktion zurück und legt ihn beim ersten Zugriff an. Vor dem Commit
+     * werden die vorgemerkten Änderungen geschrieben.
+     *
+     * @return Der Zustand oder {@code null}, wenn keine Transaktion aktiv ist.
+     */
+    private Transaktion transaktion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Transaktion transaktion = (Transaktion) TransactionSynchronizationManager.getResource(this);
+        if (transaktion == null) {
+            Transaktion neu = new Transaktion();
+            TransactionSynchronizationManager.bindResource(this, neu);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!readOnly) {
+                        schreibeAus(neu);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(KontoAenderungService.this);
+                }
+            });
+            transaktion = neu;
+        }
+        return transaktion;
+    }
+
+    /**
+     * Schreibt die vorgemerkten Änderungen einer Transaktion. Zuvor wird der Persistenzkontext geschrieben, damit
+     * auch Änderungen gemeldet sind, die erst beim Commit übertragen würden; das wiederholt sich, bis keine neuen
+     * Änderungen mehr hinzukommen.
+     */
+    private void schreibeAus(Transaktion transaktion) {
+        aenderungRepository.flush();
+        while (!transaktion.vorgemerkt.isEmpty()) {
+            List<Vorgemerkt> stapel = new ArrayList<>(transaktion.vorgemerkt);
+            transaktion.vorgemerkt.clear();
+            schreibe(stapel);
+            aenderungRepository.flush();
+        }
+    }
+
+    /**
+     * Vergibt die Sequenznummern der Änderungen und speichert sie. Die Sequenzen werden in aufsteigender
+     * Reihenfolge der Konten gesperrt, damit gleichzeitige Transaktionen sich nicht gegenseitig blockieren.
+     */
+    private void schreibe(List<Vorgemerkt> stapel) {
+        String aktuelleEpoche = getEpoche();
+        Map<Long, List<KontoAenderung.Builder>> proKonto = new TreeMap<>();
+        stapel.forEach(vorgemerkt -> proKonto.computeIfAbsent(vorgemerkt.kontoId(), id -> new ArrayList<>())
+                .add(vorgemerkt.aenderung()));
+
+        LocalDateTime jetzt = LocalDateTime.now();
+        List<KontoAenderungEintrag> eintraege = new ArrayList<>();
+        for (Map.Entry<Long, List<KontoAenderung.Builder>> konto : proKonto.entrySet()) {
+            Long kontoId = konto.getKey();
+            sequenzRepository.erhoehe(kontoId, konto.getValue().size());
+            long sequenz = sequenzRepository.findSequenz(kontoId).orElseThrow() - konto.getValue().size();
+            for (KontoAenderung.Builder builder : konto.getValue()) {
+                KontoAenderung aenderung = builder.setEpoche(aktuelleEpoche).setSequenz(++sequenz).build();
+                eintraege.add(new KontoAenderungEintrag(kontoId, sequenz, aenderung.toByteArray(), jetzt));
+            }
+        }
+        aenderungRepository.saveAll(eintraege);
+    }
+
+    /**
+     * Liest die seit der letzten Abfrage festgeschriebenen Änderungen und stellt sie den Abonnenten zu.
+     *
+     * <p>IDs werden beim Einfügen vergeben, Transaktionen aber in beliebiger Reihenfolge festgeschrieben. Fehlende
+     * IDs unterhalb der zuletzt gelesenen werden daher für die Karenzzeit erneut abgefragt. Änderungen eines
+     * Kontos werden in der Reihenfolge ihrer IDs und damit ihrer Sequenznummern zugestellt.</p>
+     */
+    public synchronized void verteile() {
+        if (gelesenBis < 0) {
+            gelesenBis = aenderungRepository.findMaxId();
+            return;
+        }
+        List<KontoAenderungEintrag> eintraege = new ArrayList<>(
+                aenderungRepository.findByIdGreaterThanOrderByIdAsc(gelesenBis, PageRequest.of(0, stapelGroesse)));
+        if (!luecken.isEmpty()) {
+            List<KontoAenderungEintrag> nachgeliefert = aenderungRepository.findAllById(luecken.keySet());
+            nachgeliefert.forEach(eintrag -> luecken.remove(eintrag.getId()));
+            eintraege.addAll(nachgeliefert);
+        }
+        long jetzt = System.nanoTime();
+        luecken.values().removeIf(seit -> jetzt - seit > karenzNanos);
+
+        for (KontoAenderungEintrag eintrag : eintraege) {
+            if (eintrag.getId() <= gelesenBis) {
+                continue;
+            }
+            // Größere Lücken entstehen nur durch zurückgerollte Transaktionen und werden nicht verfolgt
+            if (eintrag.getId() - gelesenBis - 1 <= stapelGroesse) {
+                for (long id = gelesenBis + 1; id < eintrag.getId(); id++) {
+                    luecken.put(id, jetzt);
+                }
+            }
+            gelesenBis = eintrag.getId();
+        }
+
+        eintraege.sort(Comparator.comparing(KontoAenderungEintrag::getId));
+        for (KontoAenderungEintrag eintrag : eintraege) {
+            KontoAenderung aenderung = lese(eintrag);
+            if (aenderung == null) {
+                continue;
+            }
+            KontoStrom strom = stroeme.get(eintrag.getKontoId());
+            if (strom != null) {
+                strom.veroeffentliche(aenderung);
+            }
+            alleAbonnenten.removeIf(abonnent -> !abonnent.zustellen(aenderung));
+        }
+    }
+
+    /**
+     * Startet die regelmäßige Abfrage neuer Änderungen auf dem Thread der Verteilung.
+     */
+    @PostConstruct
+    public void starte() {
+        long intervall = abfrageIntervall.toMillis();
+        verteilung.scheduleWithFixedDelay(() -> {
+            try {
+                verteile();
+            } catch (RuntimeException e) {
+                // Ein Fehler darf die weiteren Abfragen nicht beenden
+                logger.warn("Konto changes could not be distributed", e);
+            }
+        }, intervall, intervall, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Beendet die Abfrage neuer Änderungen beim Herunterfahren.
+     */
+    @PreDestroy
+    public void beende() {
+        verteilung.shutdownNow();
+    }
+
+    /**
+     * Löscht alle Änderungen, die älter als die Aufbewahrungsdauer sind.
+     */
+    @Scheduled(fixedDelayString = "${finanzdaten.watch.bereinigung-intervall:PT1H}")
+    @Transactional
+    public void bereinige() {
+        aenderungRepository.deleteByErstelltAmBefore(LocalDateTime.now().minus(aufbewahrung));
+    }
+
+    private static KontoAenderung lese(KontoAenderungEintrag eintrag) {
+        try {
+            return KontoAenderung.parseFrom(eintrag.getDaten());
+        } catch (InvalidProtocolBufferException e) {
+            logger.error("Change {} of Konto {} could not be read", eintrag.getSequenz(), eintrag.getKontoId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Registriert einen Abonnenten für die Änderungen eines Kontos.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param abSequenz Die letzte bereits empfangene Sequenznummer oder 0 für einen Neustart.
+     * @param epoche Die Epoche, zu der die Sequenznummer gehört.
+     * @param observer Der StreamObserver des Abonnenten.
+     */
+    public void abonniere(Long kontoId, long abSequenz, String epoche, ServerCallStreamObserver<KontoAenderung> observer) {
+        Abonnent abonnent = new Abonnent(observer, pufferGroesse);
+        observer.setOnCancelHandler(() -> {
+            abonnent.abbrechen();
+            KontoStrom strom = stroeme.get(kontoId);
+            if (strom != null) {
+                strom.entferne(abonnent);
+            }
+        });
+        observer.setOnReadyHandler(abonnent::leere);
+
+        boolean fortsetzung = abSequenz > 0;
+        if (fortsetzung && !getEpoche().equals(epoche)) {
+            abonnent.beende(Status.OUT_OF_RANGE
+                    .withDescription("Epoche " + epoche + " ist nicht mehr gültig, bitte neu laden"));
+            return;
+        }
+        // Ein gleichzeitig geschlossener Strom nimmt keine Abonnenten mehr an; dann wird ein neuer angelegt
+        KontoStrom strom;
+        do {
+            strom = stroeme.computeIfAbsent(kontoId, KontoStrom::new);
+        } while (!strom.abonniere(abonnent, abSequenz, fortsetzung));
+    }
+
+    /**
+     * Registriert einen Abonnenten für die Änderungen aller Konten. Verlorene Änderungen können nicht
+     * nachgeliefert werden; direkt nach der Registrierung erhält der Abonnent eine Nachricht ohne Konto-ID,
+     * ab der er seinen Stand über die Summen der Konten abgleichen kann.
+     *
+     * @param observer Der StreamObserver des Abonnenten.
+     */
+    public void abonniereAlle(ServerCallStreamObserver<KontoAenderung> observer) {
+        Abonnent abonnent = new Abonnent(observer, pufferGroesseAlle);
+        observer.setOnCancelHandler(() -> {
+            abonnent.abbrechen();
+            alleAbonnenten.remove(abonnent);
+        });
+        observer.setOnReadyHandler(abonnent::leere);
+
+        alleAbonnenten.add(abonnent);
+        if (!abonnent.zustellen(KontoAenderung.newBuilder().setEpoche(getEpoche()).build())) {
+            alleAbonnenten.remove(abonnent);
+        }
+    }
+
+    /**
+     * Die Abonnenten eines einzelnen Kontos mit der Sequenznummer, bis zu der sie beliefert wurden.
+     */
+    private final class KontoStrom {
+
+        private final Long kontoId;
+        private final Map<Abonnent, Long> abonnenten = new HashMap<>();
+        private boolean geschlossen;
+
+        KontoStrom(Long kontoId) {
+            this.kontoId = kontoId;
+        }
+
+        /**
+         * Registriert einen Abonnenten; bei einer Fortsetzung werden die verpassten Änderungen zuvor aus der
+         * Datenbank nachgeliefert.
+         *
+         * @return false, wenn der Strom bereits geschlossen ist.
+         */
+        synchronized boolean abonniere(Abonnent abonnent, long abSequenz, boolean fortsetzung) {
+            if (geschlossen) {
+                return false;
+            }
+            long aktuell = sequenzRepository.findSequenz(kontoId).orElse(0L);
+            if (!fortsetzung) {
+                abonnenten.put(abonnent, aktuell);
+            } else if (abSequenz > aktuell) {
+                abonnent.beende(Status.OUT_OF_RANGE
+                        .withDescription("Sequenz " + abSequenz + " ist nicht mehr verfügbar, bitte neu laden"));
+            } else if (liefereNach(abonnent, abSequenz, aktuell)) {
+                abonnenten.put(abonnent, aktuell);
+            }
+            schliesseWennLeer();
+            return true;
+        }
+
+        synchronized void veroeffentliche(KontoAenderung aenderung) {
+            Iterator<Map.Entry<Abonnent, Long>> iterator = abonnenten.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Abonnent, Long> eintrag = iterator.next();
+                long bisher = eintrag.getValue();
+                if (aenderung.getSequenz() <= bisher) {
+                    continue;
+                }
+                if (liefereNach(eintrag.getKey(), bisher, aenderung.getSequenz() - 1)
+                        && eintrag.getKey().zustellen(aenderung)) {
+                    eintrag.setValue(aenderung.getSequenz());
+                } else {
+                    iterator.remove();
+                }
+            }
+            schliesseWennLeer();
+        }
+
+        synchronized void entferne(Abonnent abonnent) {
+            abonnenten.remove(abonnent);
+            schliesseWennLeer();
+        }
+
+        /**
+         * Liefert die Änderungen nach {@code nach} bis einschließlich {@code bis} aus der Datenbank nach. Fehlen
+         * Änderungen, weil sie bereits gelöscht wurden, wird der Abonnent mit {@code OUT_OF_RANGE} beendet.
+         *
+         * @return true, wenn alle Änderungen zugestellt wurden.
+         */
+        private boolean liefereNach(Abonnent abonnent, long nach, long bis) {
+            if (bis <= nach) {
+                return true;
+            }
+            List<KontoAenderungEintrag> eintraege =
+                    aenderungRepository.findByKontoIdAndSequenzBetweenOrderBySequenzAsc(kontoId, nach + 1, bis);
+            if (eintraege.size() != bis - nach) {
+                abonnent.beende(Status.OUT_OF_RANGE
+                        .withDescription("Sequenz " + nach + " ist nicht mehr verfügbar, bitte neu laden"));
+                return false;
+            }
+            for (KontoAenderungEintrag eintrag : eintraege) {
+                KontoAenderung aenderung = lese(eintrag);
+                if (aenderung == null || !abonnent.zustellen(aenderung)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void schliesseWennLeer() {
+            if (abonnenten.isEmpty()) {
+                geschlossen = true;
+                stroeme.remove(kontoId, this);
+            }
+        }
+    }
+
+    /**
+     * Die vermerkten Stände und vorgemerkten Änderungen einer Transaktion.
+     */
+    private static final class Transaktion {
+
+        private final Map<AbstraktEntitaet, GeladenerStand> staende = new IdentityHashMap<>();
+        private final List<Vorgemerkt> vorgemerkt = new ArrayList<>();
+    }
+
+    /**
+     * Eine Änderung, die beim Commit ihre Sequenznummer erhält und geschrieben wird.
+     */
+    private record Vorgemerkt(Long kontoId, KontoAenderung.Builder aenderung) {
+    }
+
+    /**
+     * Betrag, Datum und Konto einer Einnahme oder Ausgabe zum Zeitpunkt des Ladens.
+     */
+    private record GeladenerStand(Long kontoId, BigDecimal betrag, LocalDate datum) {
+
+        static GeladenerStand von(AbstraktEntitaet entitaet) {
+            if (entitaet instanceof Einnahme einnahme) {
+                return new GeladenerStand(einnahme.getKontoId(), einnahme.getBetrag(), einnahme.getDatum());
+            }
+            if (entitaet instanceof Ausgabe ausgabe) {
+                return new GeladenerStand(ausgabe.getKontoId(), ausgabe.getBetrag(), ausgabe.getDatum());
+            }
+            return null;
+        }
+
+        FinanzdatenDTO alsDto() {
+            FinanzdatenDTO.Builder dto = FinanzdatenDTO.newBuilder();
+            if (betrag != null) {
+                dto.setBetrag(betrag.toString());
+            }
+            if (datum != null) {
+                dto.setDatum(datum.toString());
+            }
+            return dto.build();
+        }
+    }
+
+    /**
+     * Ein Abonnent mit begrenztem Puffer. Nachrichten werden nur gesendet, solange der Stream bereit ist.
+     */
+    private static final class Abonnent {
+
+        private final ServerCallStreamObserver<KontoAenderung> observer;
+        private final Queue<KontoAenderung> puffer;
+        private volatile boolean beendet;
+
+        Abonnent(ServerCallStreamObserver<KontoAenderung> observer, int pufferGroesse) {
+            this.observer = observer;
+            this.puffer = new ArrayBlockingQueue<>(pufferGroesse);
+        }
+
+        boolean zustellen(KontoAenderung aenderung) {
+            if (beendet) {
+                return false;
+            }
+            if (!puffer.offer(aenderung)) {
+                beende(Status.RESOURCE_EXHAUSTED.withDescription(
+                        "Puffer voll, bitte ab Sequenz " + (aenderung.getSequenz() - puffer.size() - 1) + " fortsetzen"));
+                return false;
+            }
+            leere();
+            return !beendet;
+        }
+
+        synchronized void leere() {
+            try {
+                while (!beendet && observer.isReady()) {
+                    KontoAenderung aenderung = puffer.poll();
+                    if (aenderung == null) {
+                        return;
+                    }
+                    observer.onNext(aenderung);
+                }
+            } catch (RuntimeException e) {
+                abbrechen();
+            }
+        }
+
+        synchronized void beende(Status status) {
+            if (beendet) {
+                return;
+            }
+            beendet = true;
+            puffer.clear();
+            try {
+                observer.onError(status.asRuntimeException());
+            } catch (RuntimeException ignored) {
+                // Stream wurde bereits vom Client geschlossen
+            }
+        }
+
+        void abbrechen() {
+            beendet = true;
+            puffer.clear();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import de.th.koeln.finanzdatenservice.entities.Sparbeitrag;
+import de.th.koeln.finanzdatenservice.exceptions.NotFoundException;
+import de.th.koeln.finanzdatenservice.repositories.BaseRepository;
+import de.th.koeln.finanzdatenservice.repositories.FinanzielleZielRepository;
+import de.th.koeln.finanzdatenservice.repositories.SparbeitragRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Der Service für die Verwaltung von Sparbeiträgen.
+ *
+ * <p>Dieser Service erweitert {@link BaseService}. Jeder gespeicherte, geänderte oder gelöschte Beitrag wird in
+ * derselben Transaktion atomar auf den gesparten Betrag des Ziels gebucht, sodass der Fortschritt eines Ziels
+ * gelesen werden kann, ohne die Beiträge zu summieren.</p>
+ */
+@Service
+public class SparbeitragService extends BaseService<Sparbeitrag> {
+
+    protected SparbeitragRepository repository;
+    protected FinanzielleZielRepository zielRepository;
+
+    /**
+     * Konstruktor zur Initialisierung der Repositories.
+     *
+     * @param repository Das Repository zur Verwaltung der Sparbeiträge.
+     * @param zielRepository Das Repository zur Verwaltung der finanziellen Ziele.
+     */
+    @Autowired
+    protected SparbeitragService(BaseRepository<Sparbeitrag> repository, FinanzielleZielRepository zielRepository) {
+        super(repository);
+        this.repository = (SparbeitragRepository) repository;
+        this.zielRepository = zielRepository;
+    }
+
+    /**
+     * Speichert einen Sparbeitrag und bucht ihn auf das zugehörige Ziel. Bei einer Änderung wird der alte
+     * Betrag zuvor vom bisherigen Ziel abgezogen.
+     *
+     * @param beitrag Der zu speichernde Sparbeitrag.
+     * @return Der gespeicherte Sparbeitrag.
+     */
+    @Override
+    @Transactional
+    public Sparbeitrag save(Sparbeitrag beitrag) {
+        if (beitrag.getZielId() == null) {
+            throw new IllegalArgumentException("zielId cannot be null");
+        }
+        if (beitrag.getBetrag() == null || beitrag.getBetrag().signum() == 0) {
+            throw new IllegalArgumentException("Betrag darf nicht 0 sein");
+        }
+        if (!zielRepository.existsById(beitrag.getZielId())) {
+            throw new NotFoundException("Ziel not found");
+        }
+        if (beitrag.getDatum() == null) {
+            beitrag.setDatum(LocalDate.now());
+        }
+
+        Long alteZielId = null;
+        BigDecimal alterBetrag = null;
+        if (beitrag.getId() != null) {
+            Sparbeitrag alt = repository.findById(beitrag.getId())
+                    .orElseThrow(() -> new NotFoundException("Sparbeitrag not found"));
+            alteZielId = alt.getZielId();
+            alterBetrag = alt.getBetrag();
+        }
+
+        Sparbeitrag gespeichert = super.save(beitrag);
+        if (alteZielId != null) {
+            aendereGespartBetrag(alteZielId, alterBetrag.negate());
+        }
+        aendereGespartBetrag(gespeichert.getZielId(), gespeichert.getBetrag());
+        return gespeichert;
+    }
+
+    /**
+     * Löscht einen Sparbeitrag und zieht ihn vom gesparten Betrag des Ziels ab.
+     *
+     * @param id Die ID des zu löschenden Sparbeitrags.
+     */
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        Sparbeitrag beitrag = repository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Sparbeitrag not found"));
+        repository.delete(beitrag);
+        aendereGespartBetrag(beitrag.getZielId(), beitrag.getBetrag().negate());
+    }
+
+    /**
+     * Findet alle Sparbeiträge eines Ziels, sortiert nach Datum absteigend.
+     *
+     * @param zielId Die ID des Ziels.
+     * @return Eine Liste von Sparbeiträgen.
+     */
+    public List<Sparbeitrag> findAllByZielId(Long zielId) {
+        if (!zielRepository.existsById(zielId)) {
+            throw new NotFoundException("Ziel not found");
+        }
+        return repository.findAllByZielIdOrderByDatumDesc(zielId);
+    }
+
+    private void aendereGespartBetrag(Long zielId, BigDecimal differenz) {
+        if (zielRepository.aendereGespartBetrag(zielId, differenz) == 0) {
+            throw new NotFoundException("Ziel not found");
+        }
+    }
+}
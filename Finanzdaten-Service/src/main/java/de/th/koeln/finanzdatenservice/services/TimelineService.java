@@ -0,0 +1,136 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import de.th.koeln.finanzdatenservice.dto.TimelineSeite;
+import de.th.koeln.finanzdatenservice.dto.TimelineZeile;
+import de.th.koeln.finanzdatenservice.exceptions.BadRequestException;
+import de.th.koeln.finanzdatenservice.repositories.TimelineRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Der Service liefert die Zeitleiste eines Kontos aus Einnahmen und Ausgaben seitenweise.
+ *
+ * <p>Zusammenführen und Sortieren erfolgen in der Datenbank. Der Cursor hat die Form {@code datum|typ|id} und
+ * bezeichnet die letzte Zeile der vorherigen Seite. Archivierte Einträge werden nur gelesen, wenn der Zeitraum vor
+ * der Archivgrenze beginnt.</p>
+ *
+ * <p>Zusätzlich liefert er alle Einnahmen oder alle Ausgaben eines Kontos einschließlich des Archivs in Seiten,
+ * die jeweils nach der zuletzt gelieferten Zeile fortgesetzt werden, z. B. für Streams.</p>
+ */
+@Service
+public class TimelineService {
+
+    /**
+     * Seitengröße, wenn keine angegeben ist.
+     */
+    public static final int STANDARD_LIMIT = 50;
+
+    /**
+     * Maximale Seitengröße.
+     */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Typ einer Ausgabe in der Zeitleiste.
+     */
+    public static final String AUSGABE = "AUSGABE";
+
+    /**
+     * Typ einer Einnahme in der Zeitleiste.
+     */
+    public static final String EINNAHME = "EINNAHME";
+
+    private final TimelineRepository repository;
+    private final ArchivService archivService;
+
+    /**
+     * Konstruktor zur Initialisierung des Repositories und des ArchivService.
+     *
+     * @param repository Das Repository der Zeitleiste.
+     * @param archivService Der Service zur Archivierung.
+     */
+    @Autowired
+    public TimelineService(TimelineRepository repository, ArchivService archivService) {
+        this.repository = repository;
+        this.archivService = archivService;
+    }
+
+    /**
+     * Liest eine Seite der Zeitleiste.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param von Das früheste Datum (einschließlich).
+     * @param bis Das späteste Datum (einschließlich).
+     * @param cursor Der Cursor der vorherigen Seite oder {@code null} bzw. leer für die erste Seite.
+     * @param limit Die gewünschte Seitengröße; Werte kleiner 1 ergeben die Standardgröße.
+     * @return Die Seite mit dem Cursor der nächsten Seite.
+     * @throws BadRequestException Wenn der Cursor ungültig ist oder {@code bis} vor {@code von} liegt.
+     */
+    public TimelineSeite holeSeite(Long kontoId, LocalDate von, LocalDate bis, String cursor, int limit) {
+        if (bis.isBefore(von)) {
+            throw new BadRequestException("bis darf nicht vor von liegen");
+        }
+        int groesse = limit < 1 ? STANDARD_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        LocalDate datum = bis;
+        long ausgabeIdGrenze = Long.MAX_VALUE;
+        long einnahmeIdGrenze = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] teile = cursor.split("\\|");
+            try {
+                if (teile.length != 3) {
+                    throw new IllegalArgumentException();
+                }
+                datum = LocalDate.parse(teile[0]);
+                long id = Long.parseLong(teile[2]);
+                if (AUSGABE.equals(teile[1])) {
+                    ausgabeIdGrenze = id;
+                } else if (EINNAHME.equals(teile[1])) {
+                    // Ausgaben desselben Tages stehen vor den Einnahmen und wurden bereits geliefert
+                    ausgabeIdGrenze = 0;
+                    einnahmeIdGrenze = id;
+                } else {
+                    throw new IllegalArgumentException();
+                }
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new BadRequestException("Ungültiger Cursor: " + cursor);
+            }
+            if (datum.isAfter(bis)) {
+                datum = bis;
+                ausgabeIdGrenze = Long.MAX_VALUE;
+                einnahmeIdGrenze = Long.MAX_VALUE;
+            }
+        }
+
+        List<TimelineZeile> zeilen = archivService.brauchtArchiv(von)
+                ? repository.findSeiteMitArchiv(kontoId, von, datum, ausgabeIdGrenze, einnahmeIdGrenze, groesse + 1)
+                : repository.findSeite(kontoId, von, datum, ausgabeIdGrenze, einnahmeIdGrenze, groesse + 1);
+        if (zeilen.size() <= groesse) {
+            return new TimelineSeite(zeilen, null);
+        }
+        List<TimelineZeile> seite = zeilen.subList(0, groesse);
+        TimelineZeile letzte = seite.get(groesse - 1);
+        return new TimelineSeite(seite, letzte.getDatum() + "|" + letzte.getTyp() + "|" + letzte.getId());
+    }
+
+    /**
+     * Liest die nächsten Einnahmen oder Ausgaben eines Kontos, absteigend nach Datum und ID.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param typ {@code EINNAHME} oder {@code AUSGABE}.
+     * @param nach Die zuletzt gelieferte Zeile oder {@code null} für die erste Seite.
+     * @param limit Die maximale Anzahl von Zeilen.
+     * @return Die Zeilen; weniger als {@code limit}, wenn keine weiteren vorhanden sind.
+     */
+    public List<TimelineZeile> holeEintraegeNach(Long kontoId, String typ, TimelineZeile nach, int limit) {
+        LocalDate datum = nach == null ? LocalDate.of(9999, 12, 31) : nach.getDatum();
+        long idGrenze = nach == null ? Long.MAX_VALUE : nach.getId();
+        return EINNAHME.equals(typ)
+                ? repository.findEinnahmenNach(kontoId, datum, idGrenze, limit)
+                : repository.findAusgabenNach(kontoId, datum, idGrenze, limit);
+    }
+}
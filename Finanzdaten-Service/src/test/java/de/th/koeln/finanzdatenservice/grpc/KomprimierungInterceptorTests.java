@@ -0,0 +1,176 @@
+package de.th.koeln.finanzdatenservice.grpc;
+
+import com.google.protobuf.MessageLite;
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.GetAlleEinnahmenResponse;
+import de.th.koeln.finanzdaten.grpc.GetEinnahmenSummeResponse;
+import io.grpc.Attributes;
+import io.grpc.Codec;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass große Antworten mit gzip und kleine Antworten unkomprimiert gesendet werden.
+ *
+ * <p>Der Benchmark misst zusätzlich gesendete Bytes und CPU-Zeit je Antwortgröße für verschiedene Schwellen. Er ist
+ * mit {@code benchmark} markiert und läuft nur im Profil {@code benchmark} ({@code mvn test -Pbenchmark}).</p>
+ */
+class KomprimierungInterceptorTests {
+
+    private static final int WIEDERHOLUNGEN = 200;
+
+    private final KomprimierungInterceptor interceptor = new KomprimierungInterceptor(DataSize.ofKilobytes(1));
+
+    @Test
+    void grosseAntwortenWerdenKomprimiert() {
+        Aufruf aufruf = sende(liste(50));
+
+        assertEquals(KomprimierungInterceptor.GZIP, aufruf.komprimierung);
+        assertTrue(aufruf.nachrichtKomprimiert);
+    }
+
+    @Test
+    void kleineAntwortenBleibenUnkomprimiert() {
+        assertFalse(sende(GetEinnahmenSummeResponse.newBuilder().setEinnahmenSumme(1234.56).build())
+                .nachrichtKomprimiert);
+        assertFalse(sende(liste(5)).nachrichtKomprimiert);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void gzipJeSchwelle() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (DataSize schwelle : new DataSize[]{DataSize.ofBytes(0), DataSize.ofBytes(512), DataSize.ofKilobytes(1),
+                DataSize.ofKilobytes(4), DataSize.ofKilobytes(16)}) {
+            KomprimierungInterceptor mitSchwelle = new KomprimierungInterceptor(schwelle);
+            System.out.printf("Schwelle %s%n", schwelle);
+            System.out.printf("%8s %10s %10s %8s %12s%n", "Einträge", "Bytes", "Gesendet", "Quote", "CPU/Antwort");
+            for (int anzahl : new int[]{1, 5, 10, 50, 100, 1_000, 10_000}) {
+                GetAlleEinnahmenResponse antwort = liste(anzahl);
+                byte[] roh = antwort.toByteArray();
+                boolean komprimiert = mitSchwelle.istGross(antwort);
+                int gesendet = komprimiert ? gzip(roh).length : roh.length;
+
+                long cpuUs = 0;
+                if (komprimiert) {
+                    for (int i = 0; i < WIEDERHOLUNGEN / 10; i++) {
+                        gzip(roh);
+                    }
+                    long beginn = threads.getCurrentThreadCpuTime();
+                    for (int i = 0; i < WIEDERHOLUNGEN; i++) {
+                        gzip(roh);
+                    }
+                    cpuUs = TimeUnit.NANOSECONDS.toMicros(threads.getCurrentThreadCpuTime() - beginn)
+                            / WIEDERHOLUNGEN;
+                }
+
+                System.out.printf("%8d %10d %10d %7.1f%% %10d µs%n",
+                        anzahl, roh.length, gesendet, gesendet * 100.0 / roh.length, cpuUs);
+                if (komprimiert && anzahl >= 100) {
+                    assertTrue(gesendet * 3 < roh.length);
+                }
+            }
+        }
+    }
+
+    private Aufruf sende(MessageLite antwort) {
+        Aufruf aufruf = new Aufruf();
+        interceptor.interceptCall(aufruf, new Metadata(), (call, headers) -> {
+            call.sendHeaders(new Metadata());
+            call.sendMessage(antwort);
+            return new ServerCall.Listener<>() {
+            };
+        });
+        return aufruf;
+    }
+
+    private static GetAlleEinnahmenResponse liste(int anzahl) {
+        GetAlleEinnahmenResponse.Builder response = GetAlleEinnahmenResponse.newBuilder();
+        LocalDate datum = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < anzahl; i++) {
+            response.addEinnahmen(FinanzdatenDTO.newBuilder()
+                    .setBenutzerID("auth0|6650c4a1f2b3d4e5f6a7b8c9")
+                    .setKategorie(i % 3 == 0 ? "GEHALT" : "SONSTIGES")
+                    .setBezeichnung("Einnahme " + (i % 20))
+                    .setBeschreibung("Monatliche Einnahme")
+                    .setDatum(datum.plusDays(i % 365).toString())
+                    .setBetrag(String.valueOf(100 + i % 1000) + ".00"));
+        }
+        return response.build();
+    }
+
+    private static byte[] gzip(byte[] daten) throws IOException {
+        ByteArrayOutputStream ziel = new ByteArrayOutputStream(daten.length / 4);
+        try (OutputStream gzip = new Codec.Gzip().compress(ziel)) {
+            gzip.write(daten);
+        }
+        return ziel.toByteArray();
+    }
+
+    /**
+     * Ein Aufruf, der die gesetzte Komprimierung der Antwort festhält.
+     */
+    private static class Aufruf extends ServerCall<Object, MessageLite> {
+
+        private String komprimierung;
+        private boolean nachrichtKomprimiert;
+
+        @Override
+        public void setCompression(String compressor) {
+            this.komprimierung = compressor;
+        }
+
+        @Override
+        public void setMessageCompression(boolean enabled) {
+            this.nachrichtKomprimiert = enabled;
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(MessageLite message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.EMPTY;
+        }
+
+        @Override
+        public MethodDescriptor<Object, MessageLite> getMethodDescriptor() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package de.th.koeln.finanzdatenservice.services;
+
+import de.th.koeln.finanzdatenservice.clients.KontoGrpcClient;
+import de.th.koeln.finanzdatenservice.entities.Ausgabe;
+import de.th.koeln.finanzdatenservice.entities.AusgabeKategorie;
+import de.th.koeln.finanzdatenservice.entities.Budget;
+import de.th.koeln.finanzdatenservice.repositories.BudgetRepository;
+import de.th.koeln.kontoservice.grpc.KontoDaten;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prüft, dass gleichzeitige Ausgaben auf dasselbe Budget ohne Konflikte und ohne Wiederholungen verbucht werden.
+ *
+ * <p>Der Benchmark vergleicht den Durchsatz der atomaren Buchung auf ein stark genutztes Budget mit dem früheren
+ * Laden, Ändern und Speichern unter optimistischer Sperre. Er ist mit {@code benchmark} markiert und läuft nur im
+ * Profil {@code benchmark} ({@code mvn test -Pbenchmark}).</p>
+ */
+@DataJpaTest
+@Import({AusgabeService.class, BudgetService.class, ArchivService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AusgabeServiceNebenlaeufigkeitTests {
+
+    private static final int THREADS = 8;
+    private static final int AUSGABEN_PRO_THREAD = 25;
+    private static final int BUCHUNGEN_PRO_THREAD = 250;
+    private static final BigDecimal BUDGET_BETRAG = new BigDecimal("1000.00");
+
+    @MockBean
+    private KontoGrpcClient kontoClient;
+
+    @MockBean
+    private KontoAenderungService aenderungService;
+
+    @Autowired
+    private AusgabeService ausgabeService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void gleichzeitigeAusgabenAufEinBudget() throws Exception {
+        when(kontoClient.findKontoById(anyString())).thenReturn(KontoDaten.getDefaultInstance());
+        Budget budget = budgetRepository.save(neuesBudget());
+
+        parallel(AUSGABEN_PRO_THREAD, () -> ausgabeService.save(neueAusgabe(budget.getId())));
+
+        assertRestBetrag(budget.getId(), THREADS * AUSGABEN_PRO_THREAD);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void durchsatzAtomarGegenueberLesenAendernSchreiben() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger wiederholungen = new AtomicInteger();
+        int anzahl = THREADS * BUCHUNGEN_PRO_THREAD;
+
+        Budget atomar = budgetRepository.save(neuesBudget());
+        long atomarMs = parallel(BUCHUNGEN_PRO_THREAD,
+                () -> budgetService.verbucheAusgabe(atomar.getId(), BigDecimal.ONE));
+
+        Budget gelesen = budgetRepository.save(neuesBudget());
+        long gelesenMs = parallel(BUCHUNGEN_PRO_THREAD,
+                () -> liesAendereSchreibe(transactionTemplate, gelesen.getId(), wiederholungen));
+
+        System.out.printf("%d Buchungen auf ein Budget mit %d Threads%n", anzahl, THREADS);
+        System.out.printf("%-26s %8d ms %8.0f/s%n", "Atomare Anweisung", atomarMs,
+                anzahl * 1000.0 / Math.max(atomarMs, 1));
+        System.out.printf("%-26s %8d ms %8.0f/s %8d Wiederholungen%n", "Laden, Ändern, Speichern", gelesenMs,
+                anzahl * 1000.0 / Math.max(gelesenMs, 1), wiederholungen.get());
+
+        assertRestBetrag(atomar.getId(), anzahl);
+        assertRestBetrag(gelesen.getId(), anzahl);
+    }
+
+    /**
+     * Bucht wie vor der atomaren Buchung: Das Budget wird geladen, der Restbetrag im Speicher verringert und das
+     * Budget unter optimistischer Sperre gespeichert. Bei einem Konflikt wird die Buchung wiederholt.
+     */
+    private void liesAendereSchreibe(TransactionTemplate transactionTemplate, Long budgetId,
+                                     AtomicInteger wiederholungen) {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Budget budget = budgetRepository.findById(budgetId).orElseThrow();
+                    budget.setRestBetrag(budget.getRestBetrag().subtract(BigDecimal.ONE));
+                    budgetRepository.save(budget);
+                });
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                wiederholungen.incrementAndGet();
+            }
+        }
+    }
+
+    private static long parallel(int proThread, Runnable buchung) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> ergebnisse = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ergebnisse.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < proThread; j++) {
+                    buchung.run();
+                }
+                return null;
+            }));
+        }
+
+        long beginn = System.nanoTime();
+        start.countDown();
+        for (Future<?> ergebnis : ergebnisse) {
+            ergebnis.get(60, TimeUnit.SECONDS);
+        }
+        long dauerMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginn);
+        executor.shutdown();
+        return dauerMs;
+    }
+
+    private void assertRestBetrag(Long budgetId, int anzahl) {
+        Budget aktualisiert = budgetRepository.findById(budgetId).orElseThrow();
+        assertEquals(0, BUDGET_BETRAG.subtract(BigDecimal.valueOf(anzahl)).compareTo(aktualisiert.getRestBetrag()));
+    }
+
+    private static Budget neuesBudget() {
+        Budget budget = new Budget();
+        budget.setBenutzerID("benutzer");
+        budget.setKontoId(1L);
+        budget.setBetrag(BUDGET_BETRAG);
+        budget.setRestBetrag(BUDGET_BETRAG);
+        budget.setKategorie(AusgabeKategorie.LEBENSMITTEL);
+        budget.setStartDatum(LocalDate.now().withDayOfMonth(1));
+        budget.setEndDatum(LocalDate.now().withDayOfMonth(1).plusMonths(1).minusDays(1));
+        return budget;
+    }
+
+    private static Ausgabe neueAusgabe(Long budgetId) {
+        Budget budget = new Budget();
+        budget.setId(budgetId);
+
+        Ausgabe ausgabe = new Ausgabe();
+        ausgabe.setBenutzerID("benutzer");
+        ausgabe.setKontoId(1L);
+        ausgabe.setBetrag(BigDecimal.ONE);
+        ausgabe.setAusgabeKategorie(AusgabeKategorie.LEBENSMITTEL);
+        ausgabe.setDatum(LocalDate.now());
+        ausgabe.setBudget(budget);
+        return ausgabe;
+    }
+}
@@ -1,19 +1,64 @@
 package de.th.koeln.kontoservice.clients;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
 import de.th.koeln.finanzdaten.grpc.*;
 import de.th.koeln.kontoservice.exceptions.NotFoundException;
+import de.th.koeln.kontoservice.exceptions.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientResponseObserver;
 import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service-Klasse für die Kommunikation mit dem Finanzdaten-Service über gRPC.
  *
  * Diese Klasse stellt Methoden bereit, um Einnahmen und Ausgaben eines Kontos abzurufen,
  * sowie deren Summen zu berechnen. Die Kommunikation erfolgt über die gRPC-Schnittstelle.
+ *
+ * Jeder Aufruf läuft mit einer Deadline, die für Listen länger als für Summen ist, und wird durch einen
+ * Circuit Breaker und einen Bulkhead geschützt, deren Einstellungen unter
+ * {@code resilience4j.*.instances.finanzdaten-service} stehen. Der Bulkhead begrenzt die Anzahl gleichzeitiger
+ * Aufrufe, damit ein langsamer Finanzdaten-Service nicht alle Threads des Konto-Service belegt. Häufen sich
+ * Zeitüberschreitungen und Fehler, öffnet der Circuit Breaker und Aufrufe schlagen sofort fehl. In beiden Fällen
+ * wird eine {@link ServiceUnavailableException} ausgelöst; nur wenn der Finanzdaten-Service ein Konto nicht kennt,
+ * eine {@link NotFoundException}. Der Zustand beider ist als Metrik unter {@code /actuator/metrics} abrufbar.
+ *
+ * Streams belegen ihre Berechtigung bis zu ihrer deutlich längeren Deadline und haben deshalb einen eigenen
+ * Bulkhead unter {@code resilience4j.bulkhead.instances.finanzdaten-service-stream}. Viele gleichzeitige Downloads
+ * begrenzen so nur weitere Downloads, nicht aber die übrigen Aufrufe.
+ *
+ * Einzelne Summen und vollständige Listen sind idempotent und werden über {@link Hedging} gesendet, damit eine
+ * einzelne langsame Instanz des Finanzdaten-Service die Antwortzeit nicht bestimmt.
  */
 @Service
 public class FinanzdatenClient {
@@ -28,6 +73,65 @@ public class FinanzdatenClient {
     @GrpcClient("finanzdaten-service")
     private FinanzdatenServiceGrpc.FinanzdatenServiceBlockingStub stub;
 
+    /**
+     * Der nicht blockierende gRPC-Client Stub für Aufrufe, die parallel zu anderer Arbeit laufen.
+     */
+    @GrpcClient("finanzdaten-service")
+    private FinanzdatenServiceGrpc.FinanzdatenServiceFutureStub futureStub;
+
+    /**
+     * Der asynchrone gRPC-Client Stub für Streams.
+     */
+    @GrpcClient("finanzdaten-service")
+    private FinanzdatenServiceGrpc.FinanzdatenServiceStub asyncStub;
+
+    /**
+     * Name des Circuit Breakers und des Bulkheads für den Finanzdaten-Service.
+     */
+    static final String FINANZDATEN_SERVICE = "finanzdaten-service";
+
+    /**
+     * Name des Bulkheads für Streams des Finanzdaten-Service.
+     */
+    static final String FINANZDATEN_SERVICE_STREAM = "finanzdaten-service-stream";
+
+    private final Duration deadline;
+    private final Duration deadlineSumme;
+    private final Duration deadlineListe;
+    private final Duration deadlineStream;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Bulkhead streamBulkhead;
+    private final Hedging hedging;
+
+    /**
+     * Konstruktor zur Initialisierung der Deadlines, des Circuit Breakers und der Bulkheads.
+     *
+     * @param deadline Die maximale Dauer eines Aufrufs für die Summen mehrerer Konten.
+     * @param deadlineSumme Die maximale Dauer eines Aufrufs für eine einzelne Summe.
+     * @param deadlineListe Die maximale Dauer eines Aufrufs für alle Einnahmen oder Ausgaben eines Kontos.
+     * @param deadlineStream Die maximale Dauer eines Streams aller Einnahmen oder Ausgaben eines Kontos.
+     * @param circuitBreakerRegistry Die Registry, aus der der Circuit Breaker stammt.
+     * @param bulkheadRegistry Die Registry, aus der die Bulkheads stammen.
+     * @param hedging Das Hedging für idempotente Abfragen.
+     */
+    @Autowired
+    public FinanzdatenClient(@Value("${konto.grpc.deadline:2s}") Duration deadline,
+                             @Value("${konto.grpc.deadline-summe:1s}") Duration deadlineSumme,
+                             @Value("${konto.grpc.deadline-liste:5s}") Duration deadlineListe,
+                             @Value("${konto.grpc.deadline-stream:60s}") Duration deadlineStream,
+                             CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                             Hedging hedging) {
+        this.deadline = deadline;
+        this.deadlineSumme = deadlineSumme;
+        this.deadlineListe = deadlineListe;
+        this.deadlineStream = deadlineStream;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(FINANZDATEN_SERVICE);
+        this.bulkhead = bulkheadRegistry.bulkhead(FINANZDATEN_SERVICE);
+        this.streamBulkhead = bulkheadRegistry.bulkhead(FINANZDATEN_SERVICE_STREAM);
+        this.hedging = hedging;
+    }
+
     /**
      * Ruft alle Einnahmen eines Kontos ab.
      *
@@ -35,21 +139,21 @@ public class FinanzdatenClient {
      * für das gegebene Konto abzurufen. Wenn das Konto gefunden wird, werden die Einnahmen
      * zurückgegeben. Andernfalls wird eine NotFoundException ausgelöst.
      *
+     * Werden Felder angegeben, liefert der Finanzdaten-Service nur diese, z. B. {@code "betrag", "datum"}.
+     *
      * @param kontoId Die ID des Kontos.
+     * @param felder Die benötigten Felder von FinanzdatenDTO; keine Angabe bedeutet alle Felder.
      * @return Eine Liste aller Einnahmen des Kontos.
      * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
      */
-    public List<FinanzdatenDTO> getAlleEinnahmen(Long kontoId) {
+    public List<FinanzdatenDTO> getAlleEinnahmen(Long kontoId, String... felder) {
         GetAlleEinnahmenRequest einnahmenRequest = GetAlleEinnahmenRequest.newBuilder()
                 .setKontoId(kontoId.toString())
+                .setFelder(FieldMask.newBuilder().addAllPaths(List.of(felder)))
                 .build();
-        try {
-            GetAlleEinnahmenResponse einnahmeResponse = stub.getAlleEinnahmen(einnahmenRequest);
-            return einnahmeResponse.getEinnahmenList();
-        } catch (StatusRuntimeException e) {
-            throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
-
-        }
+        return rufeAuf(kontoId, () -> hedging.rufeAuf("GetAlleEinnahmen", deadlineListe,
+                frist -> futureStub.withDeadline(frist).getAlleEinnahmen(einnahmenRequest)).getEinnahmenList());
     }
 
     /**
@@ -59,21 +163,59 @@ public class FinanzdatenClient {
      * für das gegebene Konto abzurufen. Wenn das Konto gefunden wird, werden die Ausgaben
      * zurückgegeben. Andernfalls wird eine NotFoundException ausgelöst.
      *
+     * Werden Felder angegeben, liefert der Finanzdaten-Service nur diese, z. B. {@code "betrag", "datum"}.
+     *
      * @param kontoId Die ID des Kontos.
+     * @param felder Die benötigten Felder von FinanzdatenDTO; keine Angabe bedeutet alle Felder.
      * @return Eine Liste aller Ausgaben des Kontos.
      * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
      */
-    public List<FinanzdatenDTO> getAlleAusgaben(Long kontoId) {
+    public List<FinanzdatenDTO> getAlleAusgaben(Long kontoId, String... felder) {
         GetAlleAusgabenRequest ausgabenRequest = GetAlleAusgabenRequest.newBuilder()
                 .setKontoId(kontoId.toString())
+                .setFelder(FieldMask.newBuilder().addAllPaths(List.of(felder)))
                 .build();
-        try {
-            GetAlleAusgabenResponse ausgabeResponse = stub.getAlleAusgaben(ausgabenRequest);
-            return ausgabeResponse.getAusgabenList();
-        } catch (StatusRuntimeException e) {
-            throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
+        return rufeAuf(kontoId, () -> hedging.rufeAuf("GetAlleAusgaben", deadlineListe,
+                frist -> futureStub.withDeadline(frist).getAlleAusgaben(ausgabenRequest)).getAusgabenList());
+    }
 
-        }
+    /**
+     * Ruft alle Einnahmen eines Kontos seitenweise ab, sortiert nach Datum absteigend.
+     *
+     * Jede Seite wird an den Verbraucher übergeben, sobald sie eintrifft; die nächste wird erst danach
+     * angefordert. Wirft der Verbraucher eine Ausnahme, wird der Stream abgebrochen.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param verbraucher Der Verbraucher der Seiten.
+     * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
+     */
+    public void streamAlleEinnahmen(Long kontoId, Consumer<List<FinanzdatenDTO>> verbraucher) {
+        GetAlleEinnahmenRequest request = GetAlleEinnahmenRequest.newBuilder()
+                .setKontoId(kontoId.toString())
+                .build();
+        streame(kontoId, () -> blockingStub(deadlineStream).streamAlleEinnahmen(request)
+                .forEachRemaining(seite -> verbraucher.accept(seite.getEinnahmenList())));
+    }
+
+    /**
+     * Ruft alle Ausgaben eines Kontos seitenweise ab, sortiert nach Datum absteigend.
+     *
+     * Jede Seite wird an den Verbraucher übergeben, sobald sie eintrifft; die nächste wird erst danach
+     * angefordert. Wirft der Verbraucher eine Ausnahme, wird der Stream abgebrochen.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param verbraucher Der Verbraucher der Seiten.
+     * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
+     */
+    public void streamAlleAusgaben(Long kontoId, Consumer<List<FinanzdatenDTO>> verbraucher) {
+        GetAlleAusgabenRequest request = GetAlleAusgabenRequest.newBuilder()
+                .setKontoId(kontoId.toString())
+                .build();
+        streame(kontoId, () -> blockingStub(deadlineStream).streamAlleAusgaben(request)
+                .forEachRemaining(seite -> verbraucher.accept(seite.getAusgabenList())));
     }
 
     /**
@@ -86,18 +228,14 @@ public class FinanzdatenClient {
      * @param kontoId Die ID des Kontos.
      * @return Die Summe der Einnahmen des Kontos.
      * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
      */
     public BigDecimal getEinnahmenSumme (Long kontoId) {
         GetEinnahmenSummeRequest einnahmenRequest = GetEinnahmenSummeRequest.newBuilder()
                 .setKontoId(kontoId.toString())
                 .build();
-        try {
-            GetEinnahmenSummeResponse einnahmenResponse = stub.getEinnahmenSumme(einnahmenRequest);
-            return BigDecimal.valueOf(einnahmenResponse.getEinnahmenSumme());
-        } catch (StatusRuntimeException e) {
-            throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
-
-        }
+        return rufeAuf(kontoId, () -> BigDecimal.valueOf(hedging.rufeAuf("GetEinnahmenSumme", deadlineSumme,
+                frist -> futureStub.withDeadline(frist).getEinnahmenSumme(einnahmenRequest)).getEinnahmenSumme()));
     }
 
     /**
@@ -110,17 +248,221 @@ public class FinanzdatenClient {
      * @param kontoId Die ID des Kontos.
      * @return Die Summe der Ausgaben des Kontos.
      * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service nicht rechtzeitig antwortet.
      */
     public BigDecimal getAusgabenSumme (Long kontoId) {
         GetAusgabenSummeRequest ausgabenRequest = GetAusgabenSummeRequest.newBuilder()
                 .setKontoId(kontoId.toString())
                 .build();
+        return rufeAuf(kontoId, () -> BigDecimal.valueOf(hedging.rufeAuf("GetAusgabenSumme", deadlineSumme,
+                frist -> futureStub.withDeadline(frist).getAusgabenSumme(ausgabenRequest)).getAusgabensumme()));
+    }
+
+    /**
+     * Ruft die Summen der Einnahmen und Ausgaben mehrerer Konten für den aktuellen Monat mit einem Aufruf ab.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @return Die Summen je Konto-ID.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service die Anfrage nicht beantworten kann.
+     */
+    public Map<Long, KontoSumme> getSummen(Collection<Long> kontoIds) {
+        return getSummen(kontoIds, null, null);
+    }
+
+    /**
+     * Ruft die Summen der Einnahmen und Ausgaben mehrerer Konten in einem Zeitraum mit einem Aufruf ab.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Der erste Tag oder {@code null} für den ersten Tag des aktuellen Monats.
+     * @param bis Der letzte Tag oder {@code null} für den letzten Tag des aktuellen Monats.
+     * @return Die Summen je Konto-ID.
+     * @throws ServiceUnavailableException wenn der Finanzdaten-Service die Anfrage nicht beantworten kann.
+     */
+    public Map<Long, KontoSumme> getSummen(Collection<Long> kontoIds, LocalDate von, LocalDate bis) {
         try {
-            GetAusgabenSummeResponse einnahmenResponse = stub.getAusgabenSumme(ausgabenRequest);
-            return BigDecimal.valueOf(einnahmenResponse.getAusgabensumme());
-        } catch (StatusRuntimeException e) {
-            throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
+            return getSummenAsync(kontoIds, von, bis).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Ruft die Summen der Einnahmen und Ausgaben mehrerer Konten für den aktuellen Monat ab, ohne den
+     * aufrufenden Thread zu blockieren.
+     *
+     * <p>Der Aufruf läuft mit der konfigurierten Deadline; wird sie überschritten, schlägt der Aufruf fehl oder
+     * lassen Circuit Breaker oder Bulkhead ihn nicht zu, wird das Ergebnis mit einer
+     * {@link ServiceUnavailableException} abgeschlossen. Wird das Ergebnis abgebrochen, wird auch der gRPC-Aufruf
+     * abgebrochen.</p>
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @return Ein Future mit den Summen je Konto-ID.
+     */
+    public CompletableFuture<Map<Long, KontoSumme>> getSummenAsync(Collection<Long> kontoIds) {
+        return getSummenAsync(kontoIds, null, null);
+    }
 
+    /**
+     * Ruft die Summen der Einnahmen und Ausgaben mehrerer Konten in einem Zeitraum ab, ohne den aufrufenden
+     * Thread zu blockieren.
+     *
+     * @param kontoIds Die IDs der Konten.
+     * @param von Der erste Tag oder {@code null} für den ersten Tag des aktuellen Monats.
+     * @param bis Der letzte Tag oder {@code null} für den letzten Tag des aktuellen Monats.
+     * @return Ein Future mit den Summen je Konto-ID.
+     */
+    public CompletableFuture<Map<Long, KontoSumme>> getSummenAsync(Collection<Long> kontoIds, LocalDate von,
+                                                                   LocalDate bis) {
+        GetSummenFuerKontenRequest.Builder request = GetSummenFuerKontenRequest.newBuilder()
+                .addAllKontoIds(kontoIds.stream().map(String::valueOf).toList());
+        if (von != null) {
+            request.setVon(von.toString());
+        }
+        if (bis != null) {
+            request.setBis(bis.toString());
         }
+        String beschreibung = "Summen für die Konten " + kontoIds;
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(nichtVerfuegbar(beschreibung));
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            return CompletableFuture.failedFuture(nichtVerfuegbar(beschreibung));
+        }
+        long beginn = System.nanoTime();
+        ListenableFuture<GetSummenFuerKontenResponse> aufruf = futureStub
+                .withDeadline(Deadline.after(deadline.toMillis(), TimeUnit.MILLISECONDS))
+                .getSummenFuerKonten(request.build());
+
+        CompletableFuture<Map<Long, KontoSumme>> ergebnis = new CompletableFuture<>();
+        Futures.addCallback(aufruf, new FutureCallback<>() {
+            @Override
+            public void onSuccess(GetSummenFuerKontenResponse response) {
+                bulkhead.onComplete();
+                circuitBreaker.onSuccess(System.nanoTime() - beginn, TimeUnit.NANOSECONDS);
+                try {
+                    ergebnis.complete(response.getSummenList().stream()
+                            .collect(Collectors.toMap(summe -> Long.parseLong(summe.getKontoId()),
+                                    Function.identity())));
+                } catch (RuntimeException e) {
+                    ergebnis.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                bulkhead.onComplete();
+                if (t instanceof CancellationException) {
+                    circuitBreaker.releasePermission();
+                    return;
+                }
+                RuntimeException fehler = t instanceof StatusRuntimeException e
+                        ? uebersetze(e, beschreibung)
+                        : new ServiceUnavailableException(beschreibung + " konnten nicht abgerufen werden");
+                circuitBreaker.onError(System.nanoTime() - beginn, TimeUnit.NANOSECONDS, fehler);
+                ergebnis.completeExceptionally(fehler);
+            }
+        }, MoreExecutors.directExecutor());
+        ergebnis.whenComplete((summen, fehler) -> {
+            if (ergebnis.isCancelled()) {
+                aufruf.cancel(true);
+            }
+        });
+        return ergebnis;
+    }
+
+    /**
+     * Abonniert die Änderungen an Einnahmen und Ausgaben aller Konten.
+     *
+     * Der Stream läuft ohne Deadline, bis er vom Finanzdaten-Service beendet oder über den Observer abgebrochen
+     * wird. Die erste Nachricht enthält keine Konto-ID und zeigt an, dass das Abonnement registriert ist.
+     *
+     * @param observer Der Observer, der die Änderungen erhält.
+     */
+    public void watchAlleKonten(ClientResponseObserver<WatchAlleKontenRequest, KontoAenderung> observer) {
+        asyncStub.watchAlleKonten(WatchAlleKontenRequest.getDefaultInstance(), observer);
+    }
+
+    /**
+     * Führt einen blockierenden Aufruf geschützt durch Circuit Breaker und Bulkhead aus und übersetzt dessen Fehler.
+     *
+     * @param kontoId Die ID des Kontos, auf das sich der Aufruf bezieht.
+     * @param aufruf Der Aufruf.
+     * @return Das Ergebnis des Aufrufs.
+     */
+    private <T> T rufeAuf(Long kontoId, Supplier<T> aufruf) {
+        return rufeAuf(kontoId, bulkhead, aufruf);
+    }
+
+    /**
+     * Führt einen blockierenden Aufruf geschützt durch den Circuit Breaker und den angegebenen Bulkhead aus.
+     *
+     * @param kontoId Die ID des Kontos, auf das sich der Aufruf bezieht.
+     * @param begrenzung Der Bulkhead des Aufrufs.
+     * @param aufruf Der Aufruf.
+     * @return Das Ergebnis des Aufrufs.
+     */
+    private <T> T rufeAuf(Long kontoId, Bulkhead begrenzung, Supplier<T> aufruf) {
+        String beschreibung = "Konto mit der ID " + kontoId;
+        Supplier<T> geschuetzt = CircuitBreaker.decorateSupplier(circuitBreaker,
+                Bulkhead.decorateSupplier(begrenzung, () -> {
+                    try {
+                        return aufruf.get();
+                    } catch (StatusRuntimeException e) {
+                        throw uebersetze(e, beschreibung);
+                    }
+                }));
+        try {
+            return geschuetzt.get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw nichtVerfuegbar(beschreibung);
+        }
+    }
+
+    /**
+     * Führt einen blockierenden Stream in einem eigenen gRPC-Kontext aus, der danach abgebrochen wird. So endet
+     * der Stream auch dann sofort, wenn er nicht vollständig gelesen wurde. Der Stream belegt eine Berechtigung
+     * des Bulkheads für Streams, nicht des Bulkheads für die übrigen Aufrufe.
+     *
+     * @param kontoId Die ID des Kontos, auf das sich der Stream bezieht.
+     * @param stream Der Stream einschließlich der Verarbeitung seiner Nachrichten.
+     */
+    private void streame(Long kontoId, Runnable stream) {
+        rufeAuf(kontoId, streamBulkhead, () -> {
+            Context.CancellableContext kontext = Context.current().withCancellation();
+            try {
+                kontext.run(stream);
+            } finally {
+                kontext.cancel(null);
+            }
+            return null;
+        });
+    }
+
+    private FinanzdatenServiceGrpc.FinanzdatenServiceBlockingStub blockingStub(Duration frist) {
+        return stub.withDeadline(Deadline.after(frist.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Übersetzt einen gRPC-Fehler: Kennt der Finanzdaten-Service das Konto nicht oder ist die Anfrage ungültig,
+     * wird eine {@link NotFoundException} ausgelöst, die der Circuit Breaker nicht als Fehler zählt. Alle
+     * anderen Fehler, etwa eine überschrittene Deadline, gelten als Ausfall des Finanzdaten-Service.
+     *
+     * @param e Der gRPC-Fehler.
+     * @param beschreibung Die Beschreibung der angefragten Daten.
+     * @return Die zu werfende Ausnahme.
+     */
+    private static RuntimeException uebersetze(StatusRuntimeException e, String beschreibung) {
+        Status.Code code = e.getStatus().getCode();
+        if (code == Status.Code.NOT_FOUND || code == Status.Code.INVALID_ARGUMENT) {
+            return new NotFoundException(beschreibung + " konnte nicht gefunden werden");
+        }
+        return new ServiceUnavailableException(beschreibung + ": Finanzdaten-Service antwortet nicht ("
+                + code + ")");
+    }
+
+    private static ServiceUnavailableException nichtVerfuegbar(String beschreibung) {
+        return new ServiceUnavailableException(beschreibung + ": Finanzdaten-Service ist vorübergehend nicht "
+                + "verfügbar");
     }
 }
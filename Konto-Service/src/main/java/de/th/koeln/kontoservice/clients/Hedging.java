@@ -0,0 +1,218 @@
+package de.th.koeln.kontoservice.clients;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Führt idempotente gRPC-Aufrufe mit Hedging aus.
+ *
+ * <p>Antwortet der erste Versuch nicht innerhalb des 95. Perzentils der bisherigen Antwortzeiten der Methode, wird
+ * ein zweiter Versuch gestartet. Da der Kanal die Aufrufe per {@code round_robin} verteilt, geht dieser in der
+ * Regel an eine andere Instanz. Die erste erfolgreiche Antwort gewinnt, der andere Versuch wird abgebrochen. Beide
+ * Versuche teilen sich dieselbe Deadline.</p>
+ *
+ * <p>Damit Hedging einen überlasteten Service nicht zusätzlich belastet, wird es über ein Guthaben begrenzt: Jeder
+ * Aufruf schreibt {@code anteil} gut, jeder zweite Versuch verbraucht 1. Bei einem Anteil von 0,1 wird so höchstens
+ * jeder zehnte Aufruf doppelt gesendet. Schlägt der erste Versuch mit {@code UNAVAILABLE} fehl, übernimmt der
+ * zweite Versuch; alle anderen Fehler werden sofort weitergegeben.</p>
+ */
+@Component
+public class Hedging {
+
+    private static final int FENSTER = 256;
+    private static final int MINDEST_MESSUNGEN = 20;
+    private static final int NEUBERECHNUNG = 16;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "grpc-hedging");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final boolean aktiv;
+    private final Duration startVerzoegerung;
+    private final Duration minVerzoegerung;
+    private final double anteil;
+    private final double maxGuthaben;
+    private final Map<String, Antwortzeiten> antwortzeiten = new ConcurrentHashMap<>();
+
+    private double guthaben;
+
+    /**
+     * Konstruktor zur Initialisierung der Einstellungen.
+     *
+     * @param aktiv Ob Hedging verwendet wird.
+     * @param startVerzoegerung Die Verzögerung, solange für eine Methode zu wenige Antwortzeiten vorliegen.
+     * @param minVerzoegerung Die minimale Verzögerung des zweiten Versuchs.
+     * @param anteil Der Anteil der Aufrufe, die höchstens doppelt gesendet werden.
+     * @param maxGuthaben Die maximale Anzahl zweiter Versuche, die kurz hintereinander erlaubt sind.
+     */
+    @Autowired
+    public Hedging(@Value("${konto.grpc.hedging.aktiv:true}") boolean aktiv,
+                   @Value("${konto.grpc.hedging.start-verzoegerung:100ms}") Duration startVerzoegerung,
+                   @Value("${konto.grpc.hedging.min-verzoegerung:10ms}") Duration minVerzoegerung,
+                   @Value("${konto.grpc.hedging.anteil:0.1}") double anteil,
+                   @Value("${konto.grpc.hedging.max-guthaben:10}") double maxGuthaben) {
+        this.aktiv = aktiv;
+        this.startVerzoegerung = startVerzoegerung;
+        this.minVerzoegerung = minVerzoegerung;
+        this.anteil = anteil;
+        this.maxGuthaben = maxGuthaben;
+    }
+
+    /**
+     * Führt einen Aufruf mit Hedging aus und wartet auf die erste erfolgreiche Antwort.
+     *
+     * @param methode Der Name der Methode, nach dem die Antwortzeiten erfasst werden.
+     * @param frist Die Deadline beider Versuche.
+     * @param versuch Startet einen Versuch mit der übergebenen Deadline.
+     * @return Die Antwort.
+     * @throws StatusRuntimeException wenn kein Versuch erfolgreich ist.
+     */
+    public <T> T rufeAuf(String methode, Duration frist, Function<Deadline, ListenableFuture<T>> versuch) {
+        Deadline deadline = Deadline.after(frist.toMillis(), TimeUnit.MILLISECONDS);
+        if (!aktiv) {
+            return warte(versuch.apply(deadline));
+        }
+        schreibeGut();
+        Antwortzeiten zeiten = antwortzeiten.computeIfAbsent(methode, m -> new Antwortzeiten());
+
+        CompletableFuture<T> ergebnis = new CompletableFuture<>();
+        List<ListenableFuture<T>> versuche = new CopyOnWriteArrayList<>();
+        // Laufende Versuche plus der geplante zweite Versuch
+        AtomicInteger offen = new AtomicInteger(2);
+        AtomicReference<Throwable> letzterFehler = new AtomicReference<>();
+        starte(versuch, deadline, zeiten, ergebnis, versuche, offen, letzterFehler);
+
+        ScheduledFuture<?> zweiter = scheduler.schedule(() -> {
+            if (!ergebnis.isDone() && verbrauche()) {
+                starte(versuch, deadline, zeiten, ergebnis, versuche, offen, letzterFehler);
+            } else if (offen.decrementAndGet() == 0) {
+                ergebnis.completeExceptionally(letzterFehler.get());
+            }
+        }, zeiten.verzoegerung(startVerzoegerung, minVerzoegerung).toNanos(), TimeUnit.NANOSECONDS);
+
+        ergebnis.whenComplete((antwort, fehler) -> {
+            zweiter.cancel(false);
+            versuche.forEach(laufend -> laufend.cancel(true));
+        });
+        return warte(ergebnis);
+    }
+
+    private <T> void starte(Function<Deadline, ListenableFuture<T>> versuch, Deadline deadline, Antwortzeiten zeiten,
+                            CompletableFuture<T> ergebnis, List<ListenableFuture<T>> versuche, AtomicInteger offen,
+                            AtomicReference<Throwable> letzterFehler) {
+        long beginn = System.nanoTime();
+        ListenableFuture<T> aufruf = versuch.apply(deadline);
+        versuche.add(aufruf);
+        if (ergebnis.isDone()) {
+            aufruf.cancel(true);
+        }
+        Futures.addCallback(aufruf, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T antwort) {
+                zeiten.erfasse(System.nanoTime() - beginn);
+                ergebnis.complete(antwort);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                letzterFehler.set(t);
+                if (offen.decrementAndGet() == 0 || Status.fromThrowable(t).getCode() != Status.Code.UNAVAILABLE) {
+                    ergebnis.completeExceptionally(t);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static <T> T warte(Future<T> ergebnis) {
+        try {
+            return ergebnis.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException fehler) {
+                throw fehler;
+            }
+            throw Status.fromThrowable(e.getCause()).asRuntimeException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ergebnis.cancel(true);
+            throw Status.CANCELLED.withCause(e).asRuntimeException();
+        }
+    }
+
+    /**
+     * Beendet den Scheduler der zweiten Versuche.
+     */
+    @PreDestroy
+    public void beende() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void schreibeGut() {
+        guthaben = Math.min(maxGuthaben, guthaben + anteil);
+    }
+
+    private synchronized boolean verbrauche() {
+        if (guthaben < 1) {
+            return false;
+        }
+        guthaben -= 1;
+        return true;
+    }
+
+    /**
+     * Die letzten Antwortzeiten einer Methode und ihr 95. Perzentil, das alle {@value #NEUBERECHNUNG}
+     * Messungen neu berechnet wird.
+     */
+    private static final class Antwortzeiten {
+
+        private final long[] werte = new long[FENSTER];
+        private int anzahl;
+        private int position;
+        private long p95 = -1;
+
+        synchronized void erfasse(long nanos) {
+            werte[position] = nanos;
+            position = (position + 1) % FENSTER;
+            anzahl = Math.min(anzahl + 1, FENSTER);
+            if (anzahl >= MINDEST_MESSUNGEN && position % NEUBERECHNUNG == 0) {
+                long[] sortiert = Arrays.copyOf(werte, anzahl);
+                Arrays.sort(sortiert);
+                p95 = sortiert[(int) Math.ceil(anzahl * 0.95) - 1];
+            }
+        }
+
+        synchronized Duration verzoegerung(Duration start, Duration minimum) {
+            if (p95 < 0) {
+                return start;
+            }
+            Duration verzoegerung = Duration.ofNanos(p95);
+            return verzoegerung.compareTo(minimum) < 0 ? minimum : verzoegerung;
+        }
+    }
+}
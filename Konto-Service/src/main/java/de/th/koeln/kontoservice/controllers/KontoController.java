@@ -1,14 +1,29 @@
 package de.th.koeln.kontoservice.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import de.th.koeln.kontoservice.dto.FinanzdatenDto;
+import de.th.koeln.kontoservice.dto.Granularitaet;
+import de.th.koeln.kontoservice.dto.Saldopunkt;
 import de.th.koeln.kontoservice.entities.Kontodaten;
 import de.th.koeln.kontoservice.services.KontodatenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * REST-Controller zur Verwaltung von Kontodaten.
@@ -20,16 +35,23 @@ import java.util.Optional;
 @RequestMapping("/api/konto")
 public class KontoController {
 
+    private static final byte[] ZEILENENDE = {'\n'};
+
     private final KontodatenService service;
+    private final ObjectWriter writer;
+    private final ObjectWriter fehlerWriter;
 
     /**
      * Konstruktor zur Initialisierung des Kontodaten-Services.
      *
      * @param service Der Kontodaten-Service.
+     * @param objectMapper Der ObjectMapper für die zeilenweise JSON-Ausgabe.
      */
     @Autowired
-    public KontoController(KontodatenService service) {
+    public KontoController(KontodatenService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.writer = objectMapper.writerFor(FinanzdatenDto.class);
+        this.fehlerWriter = objectMapper.writer();
     }
 
     /**
@@ -95,6 +117,36 @@ public class KontoController {
         return ResponseEntity.ok(kontostand);
     }
 
+    /**
+     * Gibt den Saldo eines Kontos am Ende eines Tages zurück.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag im Format yyyy-MM-dd.
+     * @return Der Saldo als ResponseEntity.
+     */
+    @GetMapping("/saldo/{kontoId}")
+    public ResponseEntity<BigDecimal> getSaldo(@PathVariable Long kontoId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate datum) {
+        return ResponseEntity.ok(service.getSaldoAm(kontoId, datum));
+    }
+
+    /**
+     * Gibt den Saldenverlauf eines Kontos zurück, einen Saldo am Ende jedes Tages, jeder Woche oder jedes Monats.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param von Der erste Tag im Format yyyy-MM-dd.
+     * @param bis Der letzte Tag im Format yyyy-MM-dd.
+     * @param granularitaet {@code TAG}, {@code WOCHE} oder {@code MONAT}.
+     * @return Die Salden in aufsteigender Reihenfolge als ResponseEntity.
+     */
+    @GetMapping("/saldo/{kontoId}/verlauf")
+    public ResponseEntity<List<Saldopunkt>> getSaldoVerlauf(@PathVariable Long kontoId,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate von,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bis,
+                                                            @RequestParam(defaultValue = "TAG") Granularitaet granularitaet) {
+        return ResponseEntity.ok(service.getSaldoVerlauf(kontoId, von, bis, granularitaet));
+    }
+
     /**
      * Holt alle Einnahmen eines Kontos anhand der Konto-ID.
      *
@@ -118,4 +170,72 @@ public class KontoController {
         Iterable<FinanzdatenDto> ausgaben = service.findAllAusgabenByKontoId(kontoId);
         return ResponseEntity.ok(ausgaben);
     }
-}
\ No newline at end of file
+
+    /**
+     * Streamt alle Einnahmen eines Kontos als NDJSON, ein JSON-Objekt pro Zeile.
+     *
+     * <p>Die Einnahmen werden seitenweise vom Finanzdaten-Service gelesen und jede Seite sofort geschrieben,
+     * sodass die Antwort unabhängig von der Anzahl der Einnahmen sofort beginnt und nicht im Speicher
+     * gesammelt wird. Sortiert nach Datum absteigend.</p>
+     *
+     * <p>Schlägt das Lesen fehl, nachdem die Antwort mit 200 begonnen hat, etwa weil die Deadline des Streams
+     * abläuft, kann der Status nicht mehr geändert werden. Die Antwort endet dann mit einer Zeile
+     * {@code {"fehler": "..."}}, an der ein Client die unvollständige Liste erkennt.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Der Stream der Einnahmen als ResponseEntity.
+     */
+    @GetMapping(value = "/einnahmen/{kontoId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEinnahmen(@PathVariable Long kontoId) {
+        return streame(kontoId, service::streamEinnahmenByKontoId);
+    }
+
+    /**
+     * Streamt alle Ausgaben eines Kontos als NDJSON, ein JSON-Objekt pro Zeile.
+     *
+     * <p>Verhält sich wie {@link #streamEinnahmen(Long)}.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Der Stream der Ausgaben als ResponseEntity.
+     */
+    @GetMapping(value = "/ausgaben/{kontoId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAusgaben(@PathVariable Long kontoId) {
+        return streame(kontoId, service::streamAusgabenByKontoId);
+    }
+
+    /**
+     * Prüft das Konto vor dem Beginn der Antwort, damit ein unbekanntes Konto noch mit 404 beantwortet wird,
+     * und schreibt dann jede Seite als NDJSON mit anschließendem Flush. Ein Fehler beim Lesen wird als letzte
+     * Zeile geschrieben; ist die Verbindung zum Client abgebrochen, wird nichts mehr geschrieben.
+     */
+    private ResponseEntity<StreamingResponseBody> streame(Long kontoId,
+                                                          BiConsumer<Long, Consumer<List<FinanzdatenDto>>> quelle) {
+        service.findKontoById(kontoId);
+        StreamingResponseBody body = ausgabe -> {
+            try {
+                quelle.accept(kontoId, seite -> schreibe(ausgabe, seite));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                ausgabe.write(fehlerWriter.writeValueAsBytes(Map.of("fehler", String.valueOf(e.getMessage()))));
+                ausgabe.write(ZEILENENDE);
+                ausgabe.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void schreibe(OutputStream ausgabe, List<FinanzdatenDto> seite) {
+        try {
+            for (FinanzdatenDto eintrag : seite) {
+                ausgabe.write(writer.writeValueAsBytes(eintrag));
+                ausgabe.write(ZEILENENDE);
+            }
+            ausgabe.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
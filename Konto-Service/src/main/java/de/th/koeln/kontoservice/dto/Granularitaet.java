@@ -0,0 +1,41 @@
+package de.th.koeln.kontoservice.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Zeitraum, über den der Saldenverlauf eines Kontos zusammengefasst wird.
+ */
+public enum Granularitaet {
+
+    /**
+     * Ein Saldo am Ende jedes Tages.
+     */
+    TAG,
+
+    /**
+     * Ein Saldo am Ende jeder Kalenderwoche, also jeden Sonntag.
+     */
+    WOCHE,
+
+    /**
+     * Ein Saldo am Ende jedes Monats.
+     */
+    MONAT;
+
+    /**
+     * Gibt den letzten Tag des Zeitraums zurück, in dem ein Tag liegt.
+     *
+     * @param tag Der Tag.
+     * @return Der letzte Tag des Tages, der Woche oder des Monats.
+     */
+    public LocalDate ende(LocalDate tag) {
+        return switch (this) {
+            case TAG -> tag;
+            case WOCHE -> tag.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONAT -> YearMonth.from(tag).atEndOfMonth();
+        };
+    }
+}
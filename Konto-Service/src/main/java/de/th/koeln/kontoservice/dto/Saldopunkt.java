@@ -0,0 +1,13 @@
+package de.th.koeln.kontoservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo eines Kontos am Ende eines Tages, einer Woche oder eines Monats.
+ *
+ * @param datum Der letzte Tag des Zeitraums.
+ * @param saldo Der Saldo am Ende dieses Tages.
+ */
+public record Saldopunkt(LocalDate datum, BigDecimal saldo) {
+}
@@ -0,0 +1,13 @@
+package de.th.koeln.kontoservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Summe der Buchungen eines Kontos an einem Tag.
+ *
+ * @param datum Der Tag.
+ * @param betrag Die Summe der Buchungen.
+ */
+public record Tagessumme(LocalDate datum, BigDecimal betrag) {
+}
@@ -0,0 +1,67 @@
+package de.th.koeln.kontoservice.entities;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entität für eine Buchung im Saldenverlauf eines Kontos.
+ *
+ * <p>Eine Buchung hält die Änderung des Saldos an einem Tag fest: positiv für Einnahmen, negativ für Ausgaben
+ * und für stornierte Einnahmen. Buchungen werden nur angehängt und nach Abschluss eines Monats in
+ * {@link KontoSnapshot}s zusammengefasst.</p>
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_kontobuchung_konto_datum", columnList = "kontoId, datum"))
+public class KontoBuchung {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long kontoId;
+
+    @Column(nullable = false)
+    private LocalDate datum;
+
+    @Column(nullable = false)
+    private BigDecimal betrag;
+
+    /**
+     * Standardkonstruktor.
+     */
+    public KontoBuchung() {}
+
+    /**
+     * Konstruktor zur Initialisierung einer Buchung.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag der Buchung.
+     * @param betrag Die Änderung des Saldos.
+     */
+    public KontoBuchung(Long kontoId, LocalDate datum, BigDecimal betrag) {
+        this.kontoId = kontoId;
+        this.datum = datum;
+        this.betrag = betrag;
+    }
+
+    // Getter und Setter
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public LocalDate getDatum() {
+        return datum;
+    }
+
+    public BigDecimal getBetrag() {
+        return betrag;
+    }
+}
@@ -0,0 +1,66 @@
+package de.th.koeln.kontoservice.entities;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entität für den Saldo eines Kontos am Ende eines Tages.
+ *
+ * <p>Snapshots entstehen beim Zusammenfassen der {@link KontoBuchung}en abgeschlossener Monate, und zwar für
+ * jeden Tag mit Buchungen. Der Saldo eines Tages ohne Snapshot ist der Saldo des letzten Snapshots davor.</p>
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_kontosnapshot_konto_datum", columnNames = {"kontoId", "datum"}))
+public class KontoSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long kontoId;
+
+    @Column(nullable = false)
+    private LocalDate datum;
+
+    @Column(nullable = false)
+    private BigDecimal kontostand;
+
+    /**
+     * Standardkonstruktor.
+     */
+    public KontoSnapshot() {}
+
+    /**
+     * Konstruktor zur Initialisierung eines Snapshots.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag, an dessen Ende der Saldo gilt.
+     * @param kontostand Der Saldo.
+     */
+    public KontoSnapshot(Long kontoId, LocalDate datum, BigDecimal kontostand) {
+        this.kontoId = kontoId;
+        this.datum = datum;
+        this.kontostand = kontostand;
+    }
+
+    // Getter und Setter
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getKontoId() {
+        return kontoId;
+    }
+
+    public LocalDate getDatum() {
+        return datum;
+    }
+
+    public BigDecimal getKontostand() {
+        return kontostand;
+    }
+}
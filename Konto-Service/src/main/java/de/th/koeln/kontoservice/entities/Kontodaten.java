@@ -1,6 +1,6 @@
 package de.th.koeln.kontoservice.entities;
 
-
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
@@ -11,8 +11,16 @@ import java.time.LocalDateTime;
  *
  * <p>Diese Klasse repräsentiert die Kontodaten eines Benutzers und enthält Informationen wie den Kontostand,
  * die Benutzer-ID und Zeitstempel für die Erstellung und Bearbeitung.</p>
+ *
+ * <p>Der Kontostand wird aus den Änderungen des Finanzdaten-Service fortgeschrieben. {@code standMonat},
+ * {@code epoche} und {@code sequenz} geben an, für welchen Monat er gilt und welche Änderung zuletzt
+ * angewendet wurde.</p>
+ *
+ * <p>Jeder Benutzer hat höchstens ein Konto; der eindeutige Index auf {@code benutzerId} stellt das sicher und
+ * beschleunigt die Suche nach dem Konto eines Benutzers.</p>
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_kontodaten_benutzer_id", columnNames = "benutzerId"))
 public class Kontodaten {
 
     @Id
@@ -34,6 +42,24 @@ public class Kontodaten {
 
     private BigDecimal kontostand = BigDecimal.ZERO;
 
+    @JsonIgnore
+    @Column(length = 7)
+    private String standMonat;
+
+    @JsonIgnore
+    private String epoche;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private long sequenz;
+
+    @JsonIgnore
+    private String verlaufEpoche;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private long verlaufSequenz;
+
     /**
      * Standardkonstruktor.
      */
@@ -57,6 +83,46 @@ public class Kontodaten {
         this.kontostand = kontostand;
     }
 
+    public String getStandMonat() {
+        return standMonat;
+    }
+
+    public void setStandMonat(String standMonat) {
+        this.standMonat = standMonat;
+    }
+
+    public String getEpoche() {
+        return epoche;
+    }
+
+    public void setEpoche(String epoche) {
+        this.epoche = epoche;
+    }
+
+    public long getSequenz() {
+        return sequenz;
+    }
+
+    public void setSequenz(long sequenz) {
+        this.sequenz = sequenz;
+    }
+
+    public String getVerlaufEpoche() {
+        return verlaufEpoche;
+    }
+
+    public void setVerlaufEpoche(String verlaufEpoche) {
+        this.verlaufEpoche = verlaufEpoche;
+    }
+
+    public long getVerlaufSequenz() {
+        return verlaufSequenz;
+    }
+
+    public void setVerlaufSequenz(long verlaufSequenz) {
+        this.verlaufSequenz = verlaufSequenz;
+    }
+
     public String getBenutzerId() {
         return benutzerId;
     }
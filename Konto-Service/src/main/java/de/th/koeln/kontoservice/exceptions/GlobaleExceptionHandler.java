@@ -37,6 +37,17 @@ public class GlobaleExceptionHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handler für ServiceUnavailableException.
+     *
+     * @param e Die ausgelöste ServiceUnavailableException.
+     * @return Eine ResponseEntity mit einer Fehlermeldung und dem HTTP-Status SERVICE_UNAVAILABLE.
+     */
+    @ExceptionHandler(value = {ServiceUnavailableException.class})
+    public ResponseEntity<String> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Allgemeiner Handler für alle anderen Ausnahmen.
      *
@@ -0,0 +1,18 @@
+package de.th.koeln.kontoservice.exceptions;
+/**
+ * Ausnahme für nicht erreichbare Services.
+ *
+ * <p>Diese Ausnahme wird ausgelöst, wenn ein anderer Service nicht rechtzeitig antwortet, einen Fehler meldet
+ * oder wegen eines offenen Circuit Breakers bzw. eines vollen Bulkheads gar nicht erst aufgerufen wird.</p>
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Konstruktor zur Initialisierung der Ausnahme mit einer Fehlermeldung.
+     *
+     * @param message Die Fehlermeldung.
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
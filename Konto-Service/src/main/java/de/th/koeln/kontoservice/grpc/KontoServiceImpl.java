@@ -9,6 +9,9 @@ import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -141,4 +144,68 @@ public class KontoServiceImpl extends KontoServiceGrpc.KontoServiceImplBase {
         // Schließt den Stream
         responseObserver.onCompleted();
     }
+
+    /**
+     * Findet mehrere Konten anhand ihrer Konto-IDs.
+     *
+     * Diese Methode fragt alle Konten mit einer Abfrage ab und liefert die gefundenen Konten
+     * sowie die angefragten IDs, zu denen kein Konto existiert. Doppelte IDs werden nur einmal geliefert.
+     *
+     * @param request Die Anfrage mit den Konto-IDs.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void findKontenByIds(FindKontenByIdsRequest request, StreamObserver<FindKontenByIdsResponse> responseObserver) {
+        Map<Long, String> angefragt = new LinkedHashMap<>();
+        try {
+            for (String kontoId : request.getKontoIdsList()) {
+                angefragt.putIfAbsent(Long.valueOf(kontoId), kontoId);
+            }
+        } catch (NumberFormatException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Ungültige Konto-ID: " + e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        List<Kontodaten> konten = this.service.findKontenByIds(angefragt.keySet());
+        FindKontenByIdsResponse.Builder response = FindKontenByIdsResponse.newBuilder();
+        for (Kontodaten konto : konten) {
+            angefragt.remove(konto.getId());
+            response.addKonten(KontoDaten.newBuilder()
+                    .setId(String.valueOf(konto.getId()))
+                    .setBenutzerId(konto.getBenutzerId())
+                    .setKontostand(konto.getKontostand().toPlainString()));
+        }
+        response.addAllFehlendeIds(angefragt.values());
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Stellt sicher, dass ein Benutzer ein Konto hat.
+     *
+     * Diese Methode gibt das Konto des Benutzers zurück und legt es mit Kontostand 0 an,
+     * wenn es noch nicht existiert. Wiederholte Aufrufe legen kein weiteres Konto an.
+     *
+     * @param request Die Anfrage mit der Benutzer-ID.
+     * @param responseObserver Der StreamObserver zur Übermittlung der Antwort.
+     */
+    @Override
+    public void ensureKonto(EnsureKontoRequest request, StreamObserver<EnsureKontoResponse> responseObserver) {
+        if (request.getBenutzerId().isEmpty()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Die Benutzer-ID fehlt").asRuntimeException());
+            return;
+        }
+
+        Kontodaten konto = this.service.ensureKonto(request.getBenutzerId());
+        responseObserver.onNext(EnsureKontoResponse.newBuilder()
+                .setKonto(KontoDaten.newBuilder()
+                        .setId(String.valueOf(konto.getId()))
+                        .setBenutzerId(konto.getBenutzerId())
+                        .setKontostand(konto.getKontostand().toPlainString()))
+                .build());
+        responseObserver.onCompleted();
+    }
 }
@@ -0,0 +1,82 @@
+package de.th.koeln.kontoservice.repositories;
+
+import de.th.koeln.kontoservice.dto.Tagessumme;
+import de.th.koeln.kontoservice.entities.KontoBuchung;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository für die Buchungen im Saldenverlauf der Konten.
+ */
+public interface KontoBuchungRepository extends JpaRepository<KontoBuchung, Long> {
+
+    /**
+     * Summiert die Buchungen eines Kontos bis einschließlich zu einem Tag.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der letzte Tag.
+     * @return Die Summe oder 0, wenn keine Buchungen vorhanden sind.
+     */
+    @Query("SELECT COALESCE(SUM(b.betrag), 0) FROM KontoBuchung b WHERE b.kontoId = :kontoId AND b.datum <= :datum")
+    BigDecimal summeBis(@Param("kontoId") Long kontoId, @Param("datum") LocalDate datum);
+
+    /**
+     * Summiert alle Buchungen eines Kontos.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Die Summe oder 0, wenn keine Buchungen vorhanden sind.
+     */
+    @Query("SELECT COALESCE(SUM(b.betrag), 0) FROM KontoBuchung b WHERE b.kontoId = :kontoId")
+    BigDecimal summe(@Param("kontoId") Long kontoId);
+
+    /**
+     * Summiert die Buchungen eines Kontos bis einschließlich zu einem Tag je Tag.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param bis Der letzte Tag.
+     * @return Die Tagessummen in aufsteigender Reihenfolge.
+     */
+    @Query("SELECT new de.th.koeln.kontoservice.dto.Tagessumme(b.datum, SUM(b.betrag)) FROM KontoBuchung b "
+            + "WHERE b.kontoId = :kontoId AND b.datum <= :bis GROUP BY b.datum ORDER BY b.datum")
+    List<Tagessumme> findTagessummenBis(@Param("kontoId") Long kontoId, @Param("bis") LocalDate bis);
+
+    /**
+     * Summiert die Buchungen eines Kontos in einem Zeitraum je Tag.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param von Der erste Tag.
+     * @param bis Der letzte Tag.
+     * @return Die Tagessummen in aufsteigender Reihenfolge.
+     */
+    @Query("SELECT new de.th.koeln.kontoservice.dto.Tagessumme(b.datum, SUM(b.betrag)) FROM KontoBuchung b "
+            + "WHERE b.kontoId = :kontoId AND b.datum BETWEEN :von AND :bis GROUP BY b.datum ORDER BY b.datum")
+    List<Tagessumme> findTagessummen(@Param("kontoId") Long kontoId, @Param("von") LocalDate von,
+                                     @Param("bis") LocalDate bis);
+
+    /**
+     * Löscht die Buchungen eines Kontos bis einschließlich zu einem Tag.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param bis Der letzte Tag.
+     * @return Die Anzahl der gelöschten Buchungen.
+     */
+    @Modifying
+    @Query("DELETE FROM KontoBuchung b WHERE b.kontoId = :kontoId AND b.datum <= :bis")
+    int loescheBis(@Param("kontoId") Long kontoId, @Param("bis") LocalDate bis);
+
+    /**
+     * Löscht alle Buchungen eines Kontos.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Die Anzahl der gelöschten Buchungen.
+     */
+    @Modifying
+    @Query("DELETE FROM KontoBuchung b WHERE b.kontoId = :kontoId")
+    int loescheAlle(@Param("kontoId") Long kontoId);
+}
@@ -0,0 +1,76 @@
+package de.th.koeln.kontoservice.repositories;
+
+import de.th.koeln.kontoservice.entities.KontoSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository für die Snapshots im Saldenverlauf der Konten.
+ */
+public interface KontoSnapshotRepository extends JpaRepository<KontoSnapshot, Long> {
+
+    /**
+     * Findet den letzten Snapshot eines Kontos.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Der Snapshot mit dem spätesten Datum.
+     */
+    Optional<KontoSnapshot> findFirstByKontoIdOrderByDatumDesc(Long kontoId);
+
+    /**
+     * Findet den letzten Snapshot eines Kontos an oder vor einem Tag.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag.
+     * @return Der nächstgelegene Snapshot.
+     */
+    Optional<KontoSnapshot> findFirstByKontoIdAndDatumLessThanEqualOrderByDatumDesc(Long kontoId, LocalDate datum);
+
+    /**
+     * Findet die Snapshots eines Kontos in einem Zeitraum.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param von Der erste Tag.
+     * @param bis Der letzte Tag.
+     * @return Die Snapshots in aufsteigender Reihenfolge.
+     */
+    List<KontoSnapshot> findByKontoIdAndDatumBetweenOrderByDatumAsc(Long kontoId, LocalDate von, LocalDate bis);
+
+    /**
+     * Prüft, ob für einen Tag bereits ein Snapshot existiert.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag.
+     * @return true, wenn ein Snapshot existiert.
+     */
+    boolean existsByKontoIdAndDatum(Long kontoId, LocalDate datum);
+
+    /**
+     * Verschiebt alle Snapshots eines Kontos ab einem Tag um einen Betrag, z. B. bei einer rückwirkenden Buchung.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der erste betroffene Tag.
+     * @param betrag Der Betrag.
+     * @return Die Anzahl der geänderten Snapshots.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE KontoSnapshot s SET s.kontostand = s.kontostand + :betrag WHERE s.kontoId = :kontoId AND s.datum >= :datum")
+    int verschiebeAb(@Param("kontoId") Long kontoId, @Param("datum") LocalDate datum, @Param("betrag") BigDecimal betrag);
+
+    /**
+     * Löscht alle Snapshots eines Kontos.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Die Anzahl der gelöschten Snapshots.
+     */
+    @Modifying
+    @Query("DELETE FROM KontoSnapshot s WHERE s.kontoId = :kontoId")
+    int loescheAlle(@Param("kontoId") Long kontoId);
+}
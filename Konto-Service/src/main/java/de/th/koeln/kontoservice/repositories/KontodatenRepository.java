@@ -1,10 +1,19 @@
 package de.th.koeln.kontoservice.repositories;
 
 import de.th.koeln.kontoservice.entities.Kontodaten;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository für die Verwaltung von Kontodaten.
  *
@@ -24,4 +33,96 @@ public interface KontodatenRepository extends JpaRepository<Kontodaten, Long> {
     @Query("SELECT k FROM Kontodaten k WHERE k.benutzerId = :benutzerId")
     Kontodaten findKontodatenByBenutzerId(@Param("benutzerId") String benutzerId);
 
+    /**
+     * Findet die Kontodaten mehrerer Konten mit einer Abfrage.
+     *
+     * @param ids Die IDs der Konten.
+     * @return Die gefundenen Kontodaten; nicht vorhandene IDs fehlen in der Liste.
+     */
+    @Query("SELECT k FROM Kontodaten k WHERE k.id IN :ids")
+    List<Kontodaten> findKontenByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Verbucht die Differenz einer Änderung auf den Kontostand, sofern sie die nächste Änderung derselben Epoche
+     * und desselben Monats ist. Doppelte oder übersprungene Änderungen werden dadurch nicht verbucht.
+     *
+     * @param id Die ID des Kontos.
+     * @param differenz Die Differenz des Kontostands.
+     * @param epoche Die Epoche der Änderung.
+     * @param sequenz Die Sequenznummer der Änderung.
+     * @param monat Der Monat des Kontostands im Format yyyy-MM.
+     * @return 1, wenn die Änderung verbucht wurde, sonst 0.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Kontodaten k SET k.kontostand = k.kontostand + :differenz, k.sequenz = :sequenz, "
+            + "k.version = k.version + 1 WHERE k.id = :id AND k.epoche = :epoche AND k.sequenz = :sequenz - 1 "
+            + "AND k.standMonat = :monat")
+    int verbucheAenderung(@Param("id") Long id, @Param("differenz") BigDecimal differenz,
+                          @Param("epoche") String epoche, @Param("sequenz") long sequenz, @Param("monat") String monat);
+
+    /**
+     * Übernimmt die Sequenznummer einer Änderung ohne den Kontostand zu ändern, sofern sie die nächste Änderung
+     * derselben Epoche ist. Wird verwendet, wenn die Änderung nur im Saldenverlauf verbucht werden kann.
+     *
+     * @param id Die ID des Kontos.
+     * @param epoche Die Epoche der Änderung.
+     * @param sequenz Die Sequenznummer der Änderung.
+     * @return 1, wenn die Sequenznummer übernommen wurde, sonst 0.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Kontodaten k SET k.sequenz = :sequenz, k.version = k.version + 1 "
+            + "WHERE k.id = :id AND k.epoche = :epoche AND k.sequenz = :sequenz - 1")
+    int beanspruche(@Param("id") Long id, @Param("epoche") String epoche, @Param("sequenz") long sequenz);
+
+    /**
+     * Sperrt die Kontodaten bis zum Ende der Transaktion, damit Änderungen am Saldenverlauf eines Kontos
+     * nacheinander ausgeführt werden.
+     *
+     * @param id Die ID des Kontos.
+     * @return Die gesperrten Kontodaten.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM Kontodaten k WHERE k.id = :id")
+    Optional<Kontodaten> sperre(@Param("id") Long id);
+
+    /**
+     * Setzt Epoche und Sequenznummer der letzten im Saldenverlauf enthaltenen Änderung.
+     *
+     * @param id Die ID des Kontos.
+     * @param epoche Die Epoche der Änderung.
+     * @param sequenz Die Sequenznummer der Änderung.
+     * @return 1, wenn das Konto existiert, sonst 0.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Kontodaten k SET k.verlaufEpoche = :epoche, k.verlaufSequenz = :sequenz, "
+            + "k.version = k.version + 1 WHERE k.id = :id")
+    int setzeVerlaufStand(@Param("id") Long id, @Param("epoche") String epoche, @Param("sequenz") long sequenz);
+
+    /**
+     * Setzt den abgeglichenen Kontostand, sofern seit dem Abgleich noch keine neuere Änderung verbucht wurde.
+     *
+     * @param id Die ID des Kontos.
+     * @param kontostand Der aus den Summen berechnete Kontostand.
+     * @param epoche Die Epoche der Summen.
+     * @param sequenz Die Sequenznummer, bis zu der die Summen Änderungen enthalten.
+     * @param monat Der Monat des Kontostands im Format yyyy-MM.
+     * @return 1, wenn der Kontostand gesetzt wurde, sonst 0.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Kontodaten k SET k.kontostand = :kontostand, k.epoche = :epoche, k.sequenz = :sequenz, "
+            + "k.standMonat = :monat, k.version = k.version + 1 WHERE k.id = :id AND (k.epoche IS NULL "
+            + "OR k.epoche <> :epoche OR k.standMonat IS NULL OR k.standMonat <> :monat OR k.sequenz <= :sequenz)")
+    int setzeKontostand(@Param("id") Long id, @Param("kontostand") BigDecimal kontostand,
+                        @Param("epoche") String epoche, @Param("sequenz") long sequenz, @Param("monat") String monat);
+
+    /**
+     * Findet die IDs der Konten nach einer ID, aufsteigend sortiert.
+     *
+     * @param nachId Die ID, nach der die Seite beginnt.
+     * @param seite Die Seitengröße.
+     * @return Die IDs der Konten.
+     */
+    @Query("SELECT k.id FROM Kontodaten k WHERE k.id > :nachId ORDER BY k.id")
+    List<Long> findIdsNach(@Param("nachId") Long nachId, Pageable seite);
+
 }
@@ -0,0 +1,98 @@
+package de.th.koeln.kontoservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Prozessinterner Cache, der Benutzer-IDs (sub) auf die ID ihres Kontos abbildet.
+ *
+ * <p>Der Cache fasst höchstens eine konfigurierte Anzahl von Einträgen und verdrängt die am längsten nicht
+ * verwendeten. Einträge werden erst nach dem Commit der schreibenden Transaktion gesetzt, damit nach einem
+ * Rollback keine IDs nicht gespeicherter Konten zurückgegeben werden. Ein Treffer ist nur ein Hinweis: Aufrufer
+ * laden das Konto über die ID und prüfen die Benutzer-ID, veraltete Einträge werden dabei entfernt.</p>
+ */
+@Component
+public class BenutzerKontoCache {
+
+    private final Map<String, Long> eintraege;
+
+    /**
+     * Konstruktor zur Initialisierung der Cachegröße.
+     *
+     * @param groesse Die maximale Anzahl der Einträge.
+     */
+    @Autowired
+    public BenutzerKontoCache(@Value("${konto.benutzer-cache.groesse:10000}") int groesse) {
+        this.eintraege = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > groesse;
+            }
+        });
+    }
+
+    /**
+     * Gibt die zwischengespeicherte Konto-ID eines Benutzers zurück.
+     *
+     * @param benutzerId Die Benutzer-ID.
+     * @return Die Konto-ID oder leer, wenn der Benutzer nicht im Cache ist.
+     */
+    public Optional<Long> get(String benutzerId) {
+        return Optional.ofNullable(this.eintraege.get(benutzerId));
+    }
+
+    /**
+     * Speichert die Konto-ID eines Benutzers, bei laufender Transaktion erst nach deren Commit.
+     *
+     * @param benutzerId Die Benutzer-ID.
+     * @param kontoId Die Konto-ID.
+     */
+    public void put(String benutzerId, Long kontoId) {
+        if (benutzerId == null || kontoId == null) {
+            return;
+        }
+        nachCommit(() -> this.eintraege.put(benutzerId, kontoId));
+    }
+
+    /**
+     * Entfernt den Eintrag eines Benutzers sofort und, bei laufender Transaktion, erneut nach deren Abschluss,
+     * damit ein zwischenzeitlich gelesener Stand nicht im Cache bleibt.
+     *
+     * @param benutzerId Die Benutzer-ID.
+     */
+    public void entferne(String benutzerId) {
+        if (benutzerId == null) {
+            return;
+        }
+        this.eintraege.remove(benutzerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eintraege.remove(benutzerId);
+                }
+            });
+        }
+    }
+
+    private static void nachCommit(Runnable aktion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aktion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aktion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package de.th.koeln.kontoservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Zeitgesteuerter Job, der die Buchungen abgeschlossener Monate zu Snapshots zusammenfasst.
+ *
+ * <p>Die Konten werden seitenweise in jeweils eigener Transaktion verarbeitet. Bricht ein Lauf ab, fasst der
+ * nächste Lauf die verbliebenen Buchungen zusammen.</p>
+ */
+@Component
+public class KontoBuchungScheduler {
+
+    private final KontoBuchungService buchungService;
+    private final int seitenGroesse;
+
+    /**
+     * Konstruktor zur Initialisierung des KontoBuchungService und der Seitengröße.
+     *
+     * @param buchungService Der Service für den Saldenverlauf.
+     * @param seitenGroesse Die Anzahl der Konten pro Transaktion.
+     */
+    @Autowired
+    public KontoBuchungScheduler(KontoBuchungService buchungService,
+                                 @Value("${konto.buchungen.seiten-groesse:200}") int seitenGroesse) {
+        this.buchungService = buchungService;
+        this.seitenGroesse = seitenGroesse;
+    }
+
+    /**
+     * Fasst die Buchungen aller Konten bis zum Ende des Vormonats zusammen.
+     */
+    @Scheduled(cron = "${konto.buchungen.cron:0 20 0 * * *}")
+    public void kompaktiere() {
+        Long nachId = 0L;
+        while (nachId != null) {
+            nachId = buchungService.kompaktiereSeite(nachId, seitenGroesse);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package de.th.koeln.kontoservice.services;
+
+import de.th.koeln.finanzdaten.grpc.AenderungsTyp;
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.KontoAenderung;
+import de.th.koeln.finanzdaten.grpc.KontoSumme;
+import de.th.koeln.kontoservice.clients.FinanzdatenClient;
+import de.th.koeln.kontoservice.dto.Granularitaet;
+import de.th.koeln.kontoservice.dto.Saldopunkt;
+import de.th.koeln.kontoservice.dto.Tagessumme;
+import de.th.koeln.kontoservice.entities.KontoBuchung;
+import de.th.koeln.kontoservice.entities.KontoSnapshot;
+import de.th.koeln.kontoservice.entities.Kontodaten;
+import de.th.koeln.kontoservice.exceptions.BadRequestException;
+import de.th.koeln.kontoservice.repositories.KontoBuchungRepository;
+import de.th.koeln.kontoservice.repositories.KontoSnapshotRepository;
+import de.th.koeln.kontoservice.repositories.KontodatenRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Service für den Saldenverlauf der Konten.
+ *
+ * <p>Jede Änderung des Finanzdaten-Service wird als {@link KontoBuchung} am Tag des Eintrags angehängt. Nach
+ * Abschluss eines Monats werden die Buchungen zu {@link KontoSnapshot}s zusammengefasst, einem je Tag mit
+ * Buchungen. Buchungen gibt es daher nur nach dem letzten Snapshot eines Kontos, und der Saldo an einem Tag ist
+ * der nächstgelegene Snapshot plus die Buchungen des laufenden und höchstens des vorherigen Monats.
+ * Rückwirkende Buchungen vor dem letzten Snapshot verschieben die späteren Snapshots.</p>
+ *
+ * <p>Alle Änderungen am Verlauf eines Kontos sperren dessen Kontodaten, damit Zusammenfassung, Buchung und
+ * Neuaufbau nicht gleichzeitig laufen. Die Kontodaten halten Epoche und Sequenznummer der letzten im Verlauf
+ * enthaltenen Änderung; eine Änderung wird nur verbucht, wenn sie direkt darauf folgt, und bereits enthaltene
+ * Änderungen werden ignoriert. Fehlen Änderungen, wird der Verlauf vom {@link SaldoVerlaufNeuaufbau} aus den
+ * Einträgen des Finanzdaten-Service neu aufgebaut, die außerhalb der Sperre abgerufen werden.</p>
+ *
+ * <p>Salden am Ende von Tagen, Wochen oder Monaten eines Zeitraums werden aus dem Saldo vor dem Zeitraum und den
+ * Snapshots und Tagessummen der Buchungen im Zeitraum berechnet und im {@link SaldoVerlaufCache} gehalten, bis
+ * sich der Verlauf des Kontos ändert.</p>
+ */
+@Service
+@Transactional
+public class KontoBuchungService {
+
+    static final LocalDate ANFANG = LocalDate.of(1900, 1, 1);
+    static final LocalDate ENDE = LocalDate.of(9999, 12, 31);
+
+    private final KontoBuchungRepository buchungRepository;
+    private final KontoSnapshotRepository snapshotRepository;
+    private final KontodatenRepository kontodatenRepository;
+    private final FinanzdatenClient client;
+    private final SaldoVerlaufCache verlaufCache;
+    private final int maxPunkte;
+
+    /**
+     * Konstruktor zur Initialisierung der Repositories, des Clients und des Caches.
+     *
+     * @param buchungRepository Das Repository der Buchungen.
+     * @param snapshotRepository Das Repository der Snapshots.
+     * @param kontodatenRepository Das Repository der Kontodaten.
+     * @param client Der Client für den Finanzdaten-Service.
+     * @param verlaufCache Der Cache der berechneten Saldenverläufe.
+     * @param maxPunkte Die maximale Anzahl von Salden eines Verlaufs.
+     */
+    @Autowired
+    public KontoBuchungService(KontoBuchungRepository buchungRepository, KontoSnapshotRepository snapshotRepository,
+                               KontodatenRepository kontodatenRepository, FinanzdatenClient client,
+                               SaldoVerlaufCache verlaufCache,
+                               @Value("${konto.saldo-verlauf.max-punkte:1000}") int maxPunkte) {
+        this.buchungRepository = buchungRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.kontodatenRepository = kontodatenRepository;
+        this.client = client;
+        this.verlaufCache = verlaufCache;
+        this.maxPunkte = maxPunkte;
+    }
+
+    /**
+     * Berechnet den Saldo eines Kontos am Ende eines Tages.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag.
+     * @return Der Saldo aller Einnahmen und Ausgaben bis einschließlich zu diesem Tag.
+     */
+    public BigDecimal getSaldo(Long kontoId, LocalDate datum) {
+        Optional<KontoSnapshot> letzter = this.snapshotRepository.findFirstByKontoIdOrderByDatumDesc(kontoId);
+        if (letzter.isPresent() && datum.isBefore(letzter.get().getDatum())) {
+            return this.snapshotRepository.findFirstByKontoIdAndDatumLessThanEqualOrderByDatumDesc(kontoId, datum)
+                    .map(KontoSnapshot::getKontostand)
+                    .orElse(BigDecimal.ZERO);
+        }
+        return letzter.map(KontoSnapshot::getKontostand)
+                .orElse(BigDecimal.ZERO)
+                .add(this.buchungRepository.summeBis(kontoId, datum));
+    }
+
+    /**
+     * Berechnet die Salden eines Kontos am Ende jedes Tages, jeder Woche oder jedes Monats in einem Zeitraum.
+     *
+     * <p>Der letzte Saldo gilt am Ende von {@code bis}, auch wenn die Woche bzw. der Monat später endet.
+     * Zeiträume ohne Buchungen übernehmen den vorherigen Saldo.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @param von Der erste Tag.
+     * @param bis Der letzte Tag.
+     * @param granularitaet Die Granularität.
+     * @return Die Salden in aufsteigender Reihenfolge.
+     * @throws BadRequestException wenn {@code bis} vor {@code von} liegt oder der Verlauf zu viele Salden hätte.
+     */
+    public List<Saldopunkt> getVerlauf(Long kontoId, LocalDate von, LocalDate bis, Granularitaet granularitaet) {
+        if (bis.isBefore(von)) {
+            throw new BadRequestException("bis darf nicht vor von liegen");
+        }
+        return this.verlaufCache.hole(kontoId, new SaldoVerlaufCache.Schluessel(granularitaet, von, bis),
+                () -> berechneVerlauf(kontoId, von, bis, granularitaet));
+    }
+
+    /**
+     * Verbucht eine Änderung des Finanzdaten-Service im Saldenverlauf, sofern sie direkt auf die zuletzt im Verlauf
+     * enthaltene Änderung folgt. Bereits enthaltene Änderungen werden ignoriert.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param aenderung Die Änderung.
+     * @return false, wenn vorherige Änderungen oder der vorherige Stand fehlen und der Verlauf neu aufgebaut
+     * werden muss.
+     */
+    public boolean verbuche(Long kontoId, KontoAenderung aenderung) {
+        this.verlaufCache.verwirf(kontoId);
+        Optional<Kontodaten> kontodaten = this.kontodatenRepository.sperre(kontoId);
+        if (kontodaten.isEmpty()) {
+            return true;
+        }
+        boolean gleicheEpoche = aenderung.getEpoche().equals(kontodaten.get().getVerlaufEpoche());
+        long enthalten = kontodaten.get().getVerlaufSequenz();
+        if (gleicheEpoche && aenderung.getSequenz() <= enthalten) {
+            return true;
+        }
+        if (!gleicheEpoche || aenderung.getSequenz() != enthalten + 1
+                || (aenderung.getTyp() == AenderungsTyp.GEAENDERT && !aenderung.hasVorher())) {
+            return false;
+        }
+        switch (aenderung.getTyp()) {
+            case EINGEFUEGT -> buche(kontoId, aenderung.getArt(), aenderung.getDaten(), false);
+            case GELOESCHT -> buche(kontoId, aenderung.getArt(), aenderung.getDaten(), true);
+            case GEAENDERT -> {
+                buche(kontoId, aenderung.getArt(), aenderung.getVorher(), true);
+                buche(kontoId, aenderung.getArt(), aenderung.getDaten(), false);
+            }
+            case ARCHIVIERT -> {
+                // Archivierte Einträge bleiben in den Summen enthalten
+            }
+            default -> {
+                return false;
+            }
+        }
+        this.kontodatenRepository.setzeVerlaufStand(kontoId, aenderung.getEpoche(), aenderung.getSequenz());
+        return true;
+    }
+
+    /**
+     * Ersetzt den Saldenverlauf eines Kontos durch die übergebenen Einnahmen und Ausgaben, die alle Änderungen bis
+     * zur angegebenen Sequenznummer enthalten. Enthält der Verlauf inzwischen eine spätere Änderung derselben
+     * Epoche, bleibt er unverändert, damit keine Änderung doppelt oder gar nicht enthalten ist.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param einnahmen Betrag und Datum aller Einnahmen.
+     * @param ausgaben Betrag und Datum aller Ausgaben.
+     * @param epoche Die Epoche der Einträge.
+     * @param sequenz Die Sequenznummer der letzten in den Einträgen enthaltenen Änderung.
+     */
+    public void ersetzeVerlauf(Long kontoId, List<FinanzdatenDTO> einnahmen, List<FinanzdatenDTO> ausgaben,
+                               String epoche, long sequenz) {
+        Optional<Kontodaten> kontodaten = this.kontodatenRepository.sperre(kontoId);
+        if (kontodaten.isEmpty() || (epoche.equals(kontodaten.get().getVerlaufEpoche())
+                && kontodaten.get().getVerlaufSequenz() > sequenz)) {
+            return;
+        }
+        this.verlaufCache.verwirf(kontoId);
+        TreeMap<LocalDate, BigDecimal> tage = new TreeMap<>();
+        addiere(tage, KontostandService.EINNAHME, einnahmen);
+        addiere(tage, KontostandService.AUSGABE, ausgaben);
+
+        this.buchungRepository.loescheAlle(kontoId);
+        this.snapshotRepository.loescheAlle(kontoId);
+
+        LocalDate grenze = kompaktierungsGrenze();
+        List<KontoSnapshot> snapshots = new ArrayList<>();
+        List<KontoBuchung> buchungen = new ArrayList<>();
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> tag : tage.entrySet()) {
+            if (tag.getKey().isAfter(grenze)) {
+                buchungen.add(new KontoBuchung(kontoId, tag.getKey(), tag.getValue()));
+            } else {
+                saldo = saldo.add(tag.getValue());
+                snapshots.add(new KontoSnapshot(kontoId, tag.getKey(), saldo));
+            }
+        }
+        this.snapshotRepository.saveAll(snapshots);
+        this.buchungRepository.saveAll(buchungen);
+        this.kontodatenRepository.setzeVerlaufStand(kontoId, epoche, sequenz);
+    }
+
+    /**
+     * Prüft den Saldenverlauf der Konten gegen die Summen aller Einträge des Finanzdaten-Service, z. B. für Konten
+     * ohne Verlauf oder nach verpassten Änderungen. Enthält der Verlauf bereits spätere Änderungen als die Summen,
+     * wird er nicht verglichen. Die Prüfung liest nur und läuft ohne eigene Transaktion, damit während des Abrufs
+     * der Summen keine Verbindung und keine Sperre gehalten wird.
+     *
+     * @param kontoIds Die Konto-IDs.
+     * @return Die IDs der Konten, deren Verlauf neu aufgebaut werden muss.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<Long> pruefe(Collection<Long> kontoIds) {
+        Map<Long, KontoSumme> summen = this.client.getSummen(kontoIds, ANFANG, ENDE);
+        List<Long> abweichend = new ArrayList<>();
+        for (Kontodaten kontodaten : this.kontodatenRepository.findKontenByIds(summen.keySet())) {
+            Long kontoId = kontodaten.getId();
+            KontoSumme summe = summen.get(kontoId);
+            boolean gleicheEpoche = summe.getEpoche().equals(kontodaten.getVerlaufEpoche());
+            if (gleicheEpoche && kontodaten.getVerlaufSequenz() > summe.getSequenz()) {
+                continue;
+            }
+            BigDecimal erwartet = BigDecimal.valueOf(summe.getEinnahmenSumme())
+                    .subtract(BigDecimal.valueOf(summe.getAusgabenSumme()));
+            BigDecimal verlauf = this.snapshotRepository.findFirstByKontoIdOrderByDatumDesc(kontoId)
+                    .map(KontoSnapshot::getKontostand)
+                    .orElse(BigDecimal.ZERO)
+                    .add(this.buchungRepository.summe(kontoId));
+            boolean gleicherSaldo = erwartet.setScale(2, RoundingMode.HALF_UP)
+                    .compareTo(verlauf.setScale(2, RoundingMode.HALF_UP)) == 0;
+            if (!gleicheEpoche || kontodaten.getVerlaufSequenz() < summe.getSequenz() || !gleicherSaldo) {
+                abweichend.add(kontoId);
+            }
+        }
+        return abweichend;
+    }
+
+    /**
+     * Löscht den Saldenverlauf eines Kontos.
+     *
+     * @param kontoId Die Konto-ID.
+     */
+    public void loesche(Long kontoId) {
+        this.verlaufCache.verwirf(kontoId);
+        this.buchungRepository.loescheAlle(kontoId);
+        this.snapshotRepository.loescheAlle(kontoId);
+    }
+
+    /**
+     * Fasst die Buchungen abgeschlossener Monate der nächsten Seite von Konten zu Snapshots zusammen.
+     *
+     * @param nachId Die ID, nach der die Seite beginnt.
+     * @param seitenGroesse Die maximale Anzahl von Konten pro Seite.
+     * @return Die ID des letzten Kontos der Seite oder {@code null}, wenn keine Konten mehr vorhanden sind.
+     */
+    public Long kompaktiereSeite(Long nachId, int seitenGroesse) {
+        List<Long> kontoIds = this.kontodatenRepository.findIdsNach(nachId, PageRequest.of(0, seitenGroesse));
+        if (kontoIds.isEmpty()) {
+            return null;
+        }
+        LocalDate grenze = kompaktierungsGrenze();
+        kontoIds.forEach(kontoId -> kompaktiere(kontoId, grenze));
+        return kontoIds.get(kontoIds.size() - 1);
+    }
+
+    private void kompaktiere(Long kontoId, LocalDate bis) {
+        this.kontodatenRepository.sperre(kontoId);
+        List<Tagessumme> tage = this.buchungRepository.findTagessummenBis(kontoId, bis);
+        if (tage.isEmpty()) {
+            return;
+        }
+        BigDecimal saldo = this.snapshotRepository.findFirstByKontoIdOrderByDatumDesc(kontoId)
+                .map(KontoSnapshot::getKontostand)
+                .orElse(BigDecimal.ZERO);
+        List<KontoSnapshot> snapshots = new ArrayList<>();
+        for (Tagessumme tag : tage) {
+            saldo = saldo.add(tag.betrag());
+            snapshots.add(new KontoSnapshot(kontoId, tag.datum(), saldo));
+        }
+        this.snapshotRepository.saveAll(snapshots);
+        this.buchungRepository.loescheBis(kontoId, bis);
+    }
+
+    private List<Saldopunkt> berechneVerlauf(Long kontoId, LocalDate von, LocalDate bis,
+                                             Granularitaet granularitaet) {
+        List<KontoSnapshot> snapshots = this.snapshotRepository.findByKontoIdAndDatumBetweenOrderByDatumAsc(kontoId,
+                von, bis);
+        List<Tagessumme> tage = this.buchungRepository.findTagessummen(kontoId, von, bis);
+
+        // Buchungen liegen immer nach dem letzten Snapshot, daher genügt je Zeitraum zuerst der letzte Snapshot
+        // und danach die Tagessummen.
+        BigDecimal saldo = getSaldo(kontoId, von.minusDays(1));
+        List<Saldopunkt> punkte = new ArrayList<>();
+        int snapshot = 0;
+        int tag = 0;
+        LocalDate ende = granularitaet.ende(von);
+        while (true) {
+            if (punkte.size() == this.maxPunkte) {
+                throw new BadRequestException("Der Verlauf darf höchstens " + this.maxPunkte + " Salden enthalten");
+            }
+            LocalDate grenze = ende.isAfter(bis) ? bis : ende;
+            while (snapshot < snapshots.size() && !snapshots.get(snapshot).getDatum().isAfter(grenze)) {
+                saldo = snapshots.get(snapshot++).getKontostand();
+            }
+            while (tag < tage.size() && !tage.get(tag).datum().isAfter(grenze)) {
+                saldo = saldo.add(tage.get(tag++).betrag());
+            }
+            punkte.add(new Saldopunkt(grenze, saldo));
+            if (!ende.isBefore(bis)) {
+                return punkte;
+            }
+            ende = granularitaet.ende(ende.plusDays(1));
+        }
+    }
+
+    private static void addiere(Map<LocalDate, BigDecimal> tage, String art, List<FinanzdatenDTO> eintraege) {
+        for (FinanzdatenDTO eintrag : eintraege) {
+            BigDecimal betrag = KontostandService.betrag(art, eintrag);
+            if (betrag.signum() != 0) {
+                tage.merge(LocalDate.parse(eintrag.getDatum()), betrag, BigDecimal::add);
+            }
+        }
+    }
+
+    private void buche(Long kontoId, String art, FinanzdatenDTO daten, boolean storno) {
+        BigDecimal betrag = KontostandService.betrag(art, daten);
+        if (betrag.signum() == 0) {
+            return;
+        }
+        if (storno) {
+            betrag = betrag.negate();
+        }
+        LocalDate datum = LocalDate.parse(daten.getDatum());
+
+        Optional<KontoSnapshot> letzter = this.snapshotRepository.findFirstByKontoIdOrderByDatumDesc(kontoId);
+        if (letzter.isEmpty() || datum.isAfter(letzter.get().getDatum())) {
+            this.buchungRepository.save(new KontoBuchung(kontoId, datum, betrag));
+            return;
+        }
+        // Rückwirkende Buchung in einem bereits zusammengefassten Monat
+        if (!this.snapshotRepository.existsByKontoIdAndDatum(kontoId, datum)) {
+            this.snapshotRepository.save(new KontoSnapshot(kontoId, datum, getSaldo(kontoId, datum)));
+        }
+        this.snapshotRepository.verschiebeAb(kontoId, datum, betrag);
+    }
+
+    /**
+     * Gibt den letzten Tag zurück, bis zu dem Buchungen zusammengefasst werden: das Ende des Vormonats.
+     *
+     * @return Der letzte Tag des Vormonats.
+     */
+    private static LocalDate kompaktierungsGrenze() {
+        return YearMonth.now().minusMonths(1).atEndOfMonth();
+    }
+}
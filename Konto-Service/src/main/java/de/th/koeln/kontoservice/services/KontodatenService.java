@@ -4,17 +4,24 @@ import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
 import de.th.koeln.kontoservice.clients.FinanzdatenClient;
 import de.th.koeln.kontoservice.dto.FinanzdatenDto;
 import de.th.koeln.kontoservice.dto.FinanzdatenMapper;
+import de.th.koeln.kontoservice.dto.Granularitaet;
+import de.th.koeln.kontoservice.dto.Saldopunkt;
 import de.th.koeln.kontoservice.entities.Kontodaten;
 import de.th.koeln.kontoservice.exceptions.NotFoundException;
+import de.th.koeln.kontoservice.exceptions.ServiceUnavailableException;
 import de.th.koeln.kontoservice.repositories.KontodatenRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service zur Verwaltung von Kontodaten.
@@ -28,21 +35,31 @@ public class KontodatenService {
 
     private final KontodatenRepository repository;
     private final FinanzdatenClient client;
+    private final KontostandService kontostandService;
+    private final KontoBuchungService buchungService;
+    private final BenutzerKontoCache benutzerKontoCache;
 
     @Autowired
-    public KontodatenService(KontodatenRepository repository, FinanzdatenClient client) {
+    public KontodatenService(KontodatenRepository repository, FinanzdatenClient client,
+                             KontostandService kontostandService, KontoBuchungService buchungService,
+                             BenutzerKontoCache benutzerKontoCache) {
         this.repository = repository;
         this.client = client;
+        this.kontostandService = kontostandService;
+        this.buchungService = buchungService;
+        this.benutzerKontoCache = benutzerKontoCache;
     }
 
     /**
-     * Speichert Kontodaten.
+     * Speichert Kontodaten und trägt das Konto nach dem Commit in den Cache der Benutzer-IDs ein.
      *
      * @param kontodaten Die zu speichernden Kontodaten.
      * @return Die gespeicherten Kontodaten.
      */
     public Kontodaten save(Kontodaten kontodaten) {
-        return this.repository.save(kontodaten);
+        Kontodaten gespeichert = this.repository.save(kontodaten);
+        this.benutzerKontoCache.put(gespeichert.getBenutzerId(), gespeichert.getId());
+        return gespeichert;
     }
 
     /**
@@ -70,7 +87,11 @@ public class KontodatenService {
      */
     public void delete(Long id) {
         Optional<Kontodaten> kd = findKontoById(id);
-        kd.ifPresent(repository::delete);
+        kd.ifPresent(kontodaten -> {
+            this.repository.delete(kontodaten);
+            this.benutzerKontoCache.entferne(kontodaten.getBenutzerId());
+        });
+        this.buchungService.loesche(id);
     }
 
     /**
@@ -87,35 +108,123 @@ public class KontodatenService {
         throw new NotFoundException("Konto mit der ID:" + id + " konnte nicht gefunden");
     }
 
+    /**
+     * Findet die Kontodaten mehrerer Konten mit einer Abfrage.
+     *
+     * @param ids Die IDs der Konten.
+     * @return Die gefundenen Kontodaten; nicht vorhandene IDs fehlen in der Liste.
+     */
+    public List<Kontodaten> findKontenByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return this.repository.findKontenByIds(ids);
+    }
+
     /**
      * Findet Kontodaten anhand der Benutzer-ID.
      *
+     * <p>Ist der Benutzer im {@link BenutzerKontoCache}, wird das Konto über seine ID geladen. Gehört es nicht
+     * mehr zu dem Benutzer, wird der Eintrag verworfen und über den Index der Benutzer-ID gesucht.</p>
+     *
      * @param benutzerId Die Benutzer-ID.
      * @return Die gefundenen Kontodaten.
      */
     public Optional<Kontodaten> findByBenutzerId(String benutzerId) {
-        return Optional.ofNullable(this.repository.findKontodatenByBenutzerId(benutzerId));
+        Optional<Long> kontoId = this.benutzerKontoCache.get(benutzerId);
+        if (kontoId.isPresent()) {
+            Optional<Kontodaten> kontodaten = this.repository.findById(kontoId.get());
+            if (kontodaten.isPresent() && benutzerId.equals(kontodaten.get().getBenutzerId())) {
+                return kontodaten;
+            }
+            this.benutzerKontoCache.entferne(benutzerId);
+        }
+        Optional<Kontodaten> kontodaten = Optional.ofNullable(this.repository.findKontodatenByBenutzerId(benutzerId));
+        kontodaten.ifPresent(k -> this.benutzerKontoCache.put(benutzerId, k.getId()));
+        return kontodaten;
     }
 
     /**
-     * Berechnet den Kontostand anhand der Konto-ID.
+     * Gibt das Konto eines Benutzers zurück und legt es mit Kontostand 0 an, wenn es noch nicht existiert.
+     *
+     * <p>Die Methode ist idempotent. Legen zwei Anfragen gleichzeitig ein Konto an, verhindert der eindeutige Index
+     * auf der Benutzer-ID ein zweites Konto und die unterlegene Anfrage liest das Konto der anderen. Die Methode
+     * läuft ohne eigene Transaktion, damit ein fehlgeschlagenes Einfügen nur seine eigene zurückrollt.</p>
+     *
+     * @param benutzerId Die Benutzer-ID.
+     * @return Die vorhandenen oder neu angelegten Kontodaten.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Kontodaten ensureKonto(String benutzerId) {
+        Optional<Kontodaten> vorhanden = findByBenutzerId(benutzerId);
+        if (vorhanden.isPresent()) {
+            return vorhanden.get();
+        }
+
+        Kontodaten konto = new Kontodaten();
+        konto.setBenutzerId(benutzerId);
+        konto.setKontostand(BigDecimal.ZERO);
+        try {
+            Kontodaten gespeichert = this.repository.saveAndFlush(konto);
+            this.benutzerKontoCache.put(benutzerId, gespeichert.getId());
+            return gespeichert;
+        } catch (DataIntegrityViolationException e) {
+            return findByBenutzerId(benutzerId).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Gibt den Kontostand anhand der Konto-ID zurück.
+     *
+     * <p>Der Kontostand wird vom {@link KontostandService} fortgeschrieben und hier nur gelesen. Er wird vorher mit
+     * dem Finanzdaten-Service abgeglichen, wenn er noch nie oder für einen vergangenen Monat berechnet wurde oder
+     * wenn der Änderungsstrom unterbrochen und noch nicht wieder abgeglichen ist. Die Methode läuft ohne eigene
+     * Transaktion; der Abgleich setzt den Kontostand in einer eigenen, nachdem die Summen abgerufen wurden.</p>
+     *
+     * <p>Ist der Finanzdaten-Service für den Abgleich nicht verfügbar, wird der zuletzt gespeicherte Kontostand
+     * zurückgegeben, auch wenn er veraltet ist.</p>
      *
      * @param kontoId Die Konto-ID.
-     * @return Der berechnete Kontostand.
+     * @return Der Kontostand des aktuellen Monats oder der zuletzt gespeicherte Kontostand.
      */
+    @Transactional(Transactional.TxType.SUPPORTS)
     public BigDecimal getKontoStandByKontoId(Long kontoId) {
-        Optional<Kontodaten> kontoOpt = findKontoById(kontoId);
-
-        if (kontoOpt.isEmpty()) {
-            throw new NotFoundException("Konto nicht gefunden: " + kontoId);
+        Kontodaten kontodaten = findKontoById(kontoId).orElseThrow();
+        if (this.kontostandService.istAktuell(kontodaten)) {
+            return kontodaten.getKontostand();
+        }
+        try {
+            return this.kontostandService.gleicheKontoAb(kontoId);
+        } catch (ServiceUnavailableException e) {
+            return kontodaten.getKontostand();
         }
-        Kontodaten kontodaten = kontoOpt.get();
-        BigDecimal einnahmeSumme = this.client.getEinnahmenSumme(kontoId);
-        BigDecimal ausgabeSumme = this.client.getAusgabenSumme(kontoId);
-        BigDecimal kontostand = einnahmeSumme.subtract(ausgabeSumme);
-        kontodaten.setKontostand(kontostand);
-        this.repository.save(kontodaten);
-        return kontostand;
+    }
+
+    /**
+     * Gibt den Saldo eines Kontos am Ende eines Tages zurück, z. B. für Kontoauszüge.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param datum Der Tag.
+     * @return Der Saldo aller Einnahmen und Ausgaben bis einschließlich zu diesem Tag.
+     */
+    public BigDecimal getSaldoAm(Long kontoId, LocalDate datum) {
+        findKontoById(kontoId);
+        return this.buchungService.getSaldo(kontoId, datum);
+    }
+
+    /**
+     * Gibt die Salden eines Kontos am Ende jedes Tages, jeder Woche oder jedes Monats in einem Zeitraum zurück,
+     * z. B. für Diagramme.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param von Der erste Tag.
+     * @param bis Der letzte Tag.
+     * @param granularitaet Die Granularität.
+     * @return Die Salden in aufsteigender Reihenfolge.
+     */
+    public List<Saldopunkt> getSaldoVerlauf(Long kontoId, LocalDate von, LocalDate bis, Granularitaet granularitaet) {
+        findKontoById(kontoId);
+        return this.buchungService.getVerlauf(kontoId, von, bis, granularitaet);
     }
 
     /**
@@ -146,4 +255,35 @@ public class KontodatenService {
                 .toList();
     }
 
+    /**
+     * Übergibt alle Einnahmen eines Kontos seitenweise an einen Verbraucher, ohne sie vollständig zu laden.
+     *
+     * <p>Die Methode läuft ohne eigene Transaktion, damit während des Streams keine Datenbankverbindung
+     * belegt wird.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @param verbraucher Der Verbraucher der Seiten von Einnahmen-Daten-Transfer-Objekten.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public void streamEinnahmenByKontoId(Long kontoId, Consumer<List<FinanzdatenDto>> verbraucher) {
+        this.client.streamAlleEinnahmen(kontoId, seite -> verbraucher.accept(seite.stream()
+                .map(FinanzdatenMapper::toDto)
+                .toList()));
+    }
+
+    /**
+     * Übergibt alle Ausgaben eines Kontos seitenweise an einen Verbraucher, ohne sie vollständig zu laden.
+     *
+     * <p>Die Methode läuft ohne eigene Transaktion, damit während des Streams keine Datenbankverbindung
+     * belegt wird.</p>
+     *
+     * @param kontoId Die Konto-ID.
+     * @param verbraucher Der Verbraucher der Seiten von Ausgaben-Daten-Transfer-Objekten.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public void streamAusgabenByKontoId(Long kontoId, Consumer<List<FinanzdatenDto>> verbraucher) {
+        this.client.streamAlleAusgaben(kontoId, seite -> verbraucher.accept(seite.stream()
+                .map(FinanzdatenMapper::toDto)
+                .toList()));
+    }
 }
@@ -0,0 +1,183 @@
+package de.th.koeln.kontoservice.services;
+
+import de.th.koeln.finanzdaten.grpc.KontoAenderung;
+import de.th.koeln.finanzdaten.grpc.WatchAlleKontenRequest;
+import de.th.koeln.kontoservice.clients.FinanzdatenClient;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Hält die Kontostände aller Konten mit dem Finanzdaten-Service synchron.
+ *
+ * <p>Nach dem Start wird der Änderungsstrom aller Konten abonniert und jede Änderung über den
+ * {@link KontostandService} verbucht. Sobald das Abonnement registriert ist, werden alle Kontostände
+ * abgeglichen, damit Änderungen vor der Registrierung nicht verloren gehen. Bricht der Stream ab, wird nach einer
+ * Wartezeit neu verbunden. Von einem Abbruch bis zum Abschluss des Abgleichs nach der nächsten Registrierung
+ * gelten die gespeicherten Kontostände nicht als aktuell und werden beim Abruf einzeln abgeglichen. Schlägt der
+ * Abgleich fehl, wird er mit wachsender Wartezeit wiederholt, bis er gelingt oder der Stream abbricht. Zusätzlich
+ * werden alle Kontostände regelmäßig vollständig abgeglichen, was auch den Monatswechsel abdeckt; ist der Stream
+ * dabei registriert, gilt er danach ebenfalls als abgeglichen.</p>
+ */
+@Component
+public class KontostandAbgleich {
+
+    private static final Logger logger = LoggerFactory.getLogger(KontostandAbgleich.class);
+
+    private final FinanzdatenClient client;
+    private final KontostandService kontostandService;
+    private final TaskScheduler scheduler;
+    private final Duration wartezeit;
+    private final Duration maxWartezeit;
+    private final int seitenGroesse;
+
+    private volatile ClientCallStreamObserver<WatchAlleKontenRequest> aufruf;
+    private volatile boolean beendet;
+    private volatile long registriert = -1;
+
+    /**
+     * Konstruktor zur Initialisierung der Abhängigkeiten und Einstellungen.
+     *
+     * @param client Der Client für den Finanzdaten-Service.
+     * @param kontostandService Der Service zur Fortschreibung des Kontostands.
+     * @param scheduler Der Scheduler für Abgleiche und Neuverbindungen.
+     * @param wartezeit Die Wartezeit vor einer Neuverbindung und vor der ersten Wiederholung eines Abgleichs.
+     * @param maxWartezeit Die maximale Wartezeit vor der Wiederholung eines fehlgeschlagenen Abgleichs.
+     * @param seitenGroesse Die Anzahl der Konten pro Abgleich.
+     */
+    @Autowired
+    public KontostandAbgleich(FinanzdatenClient client, KontostandService kontostandService, TaskScheduler scheduler,
+                              @Value("${konto.kontostand.wiederverbindung:5s}") Duration wartezeit,
+                              @Value("${konto.kontostand.abgleich.max-wartezeit:5m}") Duration maxWartezeit,
+                              @Value("${konto.kontostand.abgleich.seiten-groesse:500}") int seitenGroesse) {
+        this.client = client;
+        this.kontostandService = kontostandService;
+        this.scheduler = scheduler;
+        this.wartezeit = wartezeit;
+        this.maxWartezeit = maxWartezeit;
+        this.seitenGroesse = seitenGroesse;
+    }
+
+    /**
+     * Gleicht die Kontostände aller Konten seitenweise ab. War der Änderungsstrom zu Beginn registriert und ist
+     * seitdem nicht abgebrochen, gilt er danach als abgeglichen.
+     */
+    @Scheduled(cron = "${konto.kontostand.abgleich.cron:0 10 0 * * *}")
+    public void gleicheAlleAb() {
+        long stand = registriert;
+        Long nachId = 0L;
+        while (nachId != null) {
+            nachId = kontostandService.gleicheSeiteAb(nachId, seitenGroesse);
+        }
+        if (stand >= 0) {
+            kontostandService.bestaetigeStrom(stand);
+        }
+    }
+
+    /**
+     * Abonniert den Änderungsstrom, sobald die Anwendung bereit ist.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void starte() {
+        verbinde();
+    }
+
+    /**
+     * Beendet das Abonnement beim Herunterfahren.
+     */
+    @PreDestroy
+    public void beende() {
+        beendet = true;
+        ClientCallStreamObserver<WatchAlleKontenRequest> laufend = aufruf;
+        if (laufend != null) {
+            laufend.cancel("Konto-Service wird beendet", null);
+        }
+    }
+
+    private void verbinde() {
+        if (beendet) {
+            return;
+        }
+        long stand = kontostandService.unterbrecheStrom();
+        client.watchAlleKonten(new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<WatchAlleKontenRequest> requestStream) {
+                aufruf = requestStream;
+            }
+
+            @Override
+            public void onNext(KontoAenderung aenderung) {
+                if (aenderung.getKontoId().isEmpty()) {
+                    registriert = stand;
+                    scheduler.schedule(() -> gleicheNachRegistrierungAb(stand, wartezeit), Instant.now());
+                    return;
+                }
+                try {
+                    kontostandService.wendeAn(aenderung);
+                } catch (RuntimeException e) {
+                    // Der Kontostand wird beim nächsten Abgleich oder bei der nächsten Änderung korrigiert
+                    logger.warn("Change {} of Konto {} could not be applied", aenderung.getSequenz(),
+                            aenderung.getKontoId(), e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                logger.warn("WatchAlleKonten stream failed: {}", Status.fromThrowable(t));
+                registriert = -1;
+                kontostandService.unterbrecheStrom();
+                planeNeuverbindung();
+            }
+
+            @Override
+            public void onCompleted() {
+                registriert = -1;
+                kontostandService.unterbrecheStrom();
+                planeNeuverbindung();
+            }
+        });
+    }
+
+    /**
+     * Gleicht alle Kontostände nach der Registrierung des Stroms ab. Schlägt der Abgleich fehl, z. B. weil der
+     * Finanzdaten-Service nicht verfügbar ist, wird er mit verdoppelter Wartezeit erneut geplant, solange der
+     * Stream noch mit diesem Stand registriert ist.
+     *
+     * @param stand Der Stand des Stroms bei seiner Registrierung.
+     * @param naechsteWartezeit Die Wartezeit vor der nächsten Wiederholung.
+     */
+    private void gleicheNachRegistrierungAb(long stand, Duration naechsteWartezeit) {
+        if (beendet || registriert != stand) {
+            return;
+        }
+        try {
+            gleicheAlleAb();
+        } catch (RuntimeException e) {
+            logger.warn("Reconciliation after WatchAlleKonten registration failed, retrying in {}",
+                    naechsteWartezeit, e);
+            Duration danach = naechsteWartezeit.multipliedBy(2);
+            Duration begrenzt = danach.compareTo(maxWartezeit) > 0 ? maxWartezeit : danach;
+            scheduler.schedule(() -> gleicheNachRegistrierungAb(stand, begrenzt),
+                    Instant.now().plus(naechsteWartezeit));
+        }
+    }
+
+    private void planeNeuverbindung() {
+        if (!beendet) {
+            scheduler.schedule(this::verbinde, Instant.now().plus(wartezeit));
+        }
+    }
+}
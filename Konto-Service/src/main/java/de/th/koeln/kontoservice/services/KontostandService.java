@@ -0,0 +1,251 @@
+package de.th.koeln.kontoservice.services;
+
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.KontoAenderung;
+import de.th.koeln.finanzdaten.grpc.KontoSumme;
+import de.th.koeln.kontoservice.clients.FinanzdatenClient;
+import de.th.koeln.kontoservice.entities.Kontodaten;
+import de.th.koeln.kontoservice.repositories.KontodatenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Service zur Fortschreibung des Kontostands.
+ *
+ * <p>Der Kontostand ist die Differenz aus Einnahmen und Ausgaben des aktuellen Monats. Statt ihn bei jedem Abruf
+ * neu zu berechnen, wird er um die Differenz jeder Änderung des Finanzdaten-Service fortgeschrieben. Eine
+ * Änderung wird nur verbucht, wenn ihre Sequenznummer direkt auf die zuletzt verbuchte folgt; doppelt
+ * zugestellte Änderungen werden ignoriert. Fehlt eine Änderung, hat der Finanzdaten-Service eine neue Epoche
+ * oder hat ein neuer Monat begonnen, wird der Kontostand aus den Summen des Finanzdaten-Service abgeglichen.</p>
+ *
+ * <p>Der Service hat keine eigene Transaktion: Jede bedingte Aktualisierung der Kontodaten läuft in einer kurzen
+ * Transaktion, und die Summen werden vor der Transaktion abgerufen, in der sie gesetzt werden. So wird keine
+ * Zeile der Kontodaten gesperrt, während auf den Finanzdaten-Service gewartet wird.</p>
+ */
+@Service
+public class KontostandService {
+
+    static final String EINNAHME = "EINNAHME";
+    static final String AUSGABE = "AUSGABE";
+
+    private final KontodatenRepository repository;
+    private final FinanzdatenClient client;
+    private final KontoBuchungService buchungService;
+    private final SaldoVerlaufCache verlaufCache;
+    private final SaldoVerlaufNeuaufbau neuaufbau;
+    private final TransactionTemplate transactionTemplate;
+    private long stromStand;
+    private volatile boolean stromAbgeglichen;
+
+    /**
+     * Konstruktor zur Initialisierung des Repositories, des Clients und des Saldenverlaufs.
+     *
+     * @param repository Das Repository zur Verwaltung der Kontodaten.
+     * @param client Der Client für den Finanzdaten-Service.
+     * @param buchungService Der Service für den Saldenverlauf.
+     * @param verlaufCache Der Cache der berechneten Saldenverläufe.
+     * @param neuaufbau Der Neuaufbau der Saldenverläufe im Hintergrund.
+     * @param transactionTemplate Das TransactionTemplate, in dem die Kontodaten aktualisiert werden.
+     */
+    @Autowired
+    public KontostandService(KontodatenRepository repository, FinanzdatenClient client,
+                             KontoBuchungService buchungService, SaldoVerlaufCache verlaufCache,
+                             SaldoVerlaufNeuaufbau neuaufbau, TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.client = client;
+        this.buchungService = buchungService;
+        this.verlaufCache = verlaufCache;
+        this.neuaufbau = neuaufbau;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Prüft, ob der gespeicherte Kontostand für den aktuellen Monat fortgeschrieben wird. Solange der
+     * Änderungsstrom unterbrochen oder nach einer Neuverbindung noch nicht abgeglichen ist, können Änderungen
+     * fehlen; der Kontostand gilt dann nicht als aktuell.
+     *
+     * @param kontodaten Die Kontodaten.
+     * @return true, wenn der Kontostand ohne Abgleich verwendet werden kann.
+     */
+    public boolean istAktuell(Kontodaten kontodaten) {
+        return this.stromAbgeglichen && kontodaten.getEpoche() != null
+                && YearMonth.now().toString().equals(kontodaten.getStandMonat());
+    }
+
+    /**
+     * Vermerkt, dass der Änderungsstrom unterbrochen ist oder neu aufgebaut wird.
+     *
+     * @return Der Stand des Stroms, mit dem ein anschließender Abgleich bestätigt wird.
+     */
+    public synchronized long unterbrecheStrom() {
+        this.stromAbgeglichen = false;
+        return ++this.stromStand;
+    }
+
+    /**
+     * Vermerkt, dass alle Kontostände nach der Registrierung des Änderungsstroms abgeglichen wurden. Wurde der
+     * Strom seitdem erneut unterbrochen, bleibt er als nicht abgeglichen vermerkt.
+     *
+     * @param stand Der Stand des Stroms bei seiner Registrierung.
+     */
+    public synchronized void bestaetigeStrom(long stand) {
+        if (stand == this.stromStand) {
+            this.stromAbgeglichen = true;
+        }
+    }
+
+    /**
+     * Verbucht eine Änderung des Finanzdaten-Service auf den Kontostand und im Saldenverlauf ihres Kontos.
+     *
+     * <p>Folgt die Änderung direkt auf die zuletzt verbuchte, aber ihre Wirkung auf den Monat ist unbekannt oder
+     * ein neuer Monat hat begonnen, wird sie nur im Saldenverlauf verbucht und der Kontostand abgeglichen. Wurde
+     * die Änderung bereits verbucht, wird sie ignoriert; fehlen vorherige Änderungen, wird der Kontostand
+     * abgeglichen. Fehlen dem Saldenverlauf vorherige Änderungen, wird sein Neuaufbau im Hintergrund geplant.
+     * Änderungen an unbekannten Konten werden ignoriert.</p>
+     *
+     * <p>Die Saldenverläufe des Kontos im Cache dieser Instanz werden in jedem Fall verworfen, auch wenn eine andere
+     * Instanz die Änderung verbucht, da jede Instanz ihren eigenen Cache hat.</p>
+     *
+     * @param aenderung Die Änderung.
+     */
+    public void wendeAn(KontoAenderung aenderung) {
+        Long kontoId = Long.parseLong(aenderung.getKontoId());
+        YearMonth monat = YearMonth.now();
+        this.verlaufCache.verwirf(kontoId);
+
+        Optional<BigDecimal> differenz = differenz(aenderung, monat);
+        if (differenz.isPresent() && schreibe(() -> this.repository.verbucheAenderung(kontoId, differenz.get(),
+                aenderung.getEpoche(), aenderung.getSequenz(), monat.toString())) == 1) {
+            verbucheImVerlauf(kontoId, aenderung);
+            return;
+        }
+        if (schreibe(() -> this.repository.beanspruche(kontoId, aenderung.getEpoche(), aenderung.getSequenz())) == 1) {
+            verbucheImVerlauf(kontoId, aenderung);
+            gleicheAb(List.of(kontoId));
+            return;
+        }
+
+        Optional<Kontodaten> kontodaten = this.repository.findById(kontoId);
+        if (kontodaten.isEmpty() || istBereitsVerbucht(kontodaten.get(), aenderung, monat)) {
+            return;
+        }
+        gleicheAb(List.of(kontoId));
+        this.neuaufbau.plane(kontoId);
+    }
+
+    private void verbucheImVerlauf(Long kontoId, KontoAenderung aenderung) {
+        if (!this.buchungService.verbuche(kontoId, aenderung)) {
+            this.neuaufbau.plane(kontoId);
+        }
+    }
+
+    /**
+     * Gleicht den Kontostand eines Kontos mit den Summen des Finanzdaten-Service ab.
+     *
+     * @param kontoId Die Konto-ID.
+     * @return Der abgeglichene Kontostand.
+     */
+    public BigDecimal gleicheKontoAb(Long kontoId) {
+        gleicheAb(List.of(kontoId));
+        return this.repository.findById(kontoId)
+                .map(Kontodaten::getKontostand)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Gleicht die Kontostände der nächsten Seite von Konten ab und prüft deren Saldenverlauf.
+     *
+     * @param nachId Die ID, nach der die Seite beginnt.
+     * @param seitenGroesse Die maximale Anzahl von Konten pro Seite.
+     * @return Die ID des letzten Kontos der Seite oder {@code null}, wenn keine Konten mehr vorhanden sind.
+     */
+    public Long gleicheSeiteAb(Long nachId, int seitenGroesse) {
+        List<Long> kontoIds = this.repository.findIdsNach(nachId, PageRequest.of(0, seitenGroesse));
+        if (kontoIds.isEmpty()) {
+            return null;
+        }
+        gleicheAb(kontoIds);
+        this.buchungService.pruefe(kontoIds).forEach(this.neuaufbau::plane);
+        return kontoIds.get(kontoIds.size() - 1);
+    }
+
+    /**
+     * Setzt die Kontostände aus den Summen des aktuellen Monats. Die Summen enthalten alle Änderungen bis zu der
+     * mitgelieferten Sequenznummer; spätere Änderungen werden anschließend über den Stream verbucht. Die Summen
+     * werden vor der Transaktion abgerufen, und ein Kontostand wird nur gesetzt, wenn seitdem keine spätere
+     * Änderung verbucht wurde.
+     *
+     * @param kontoIds Die Konto-IDs.
+     */
+    private void gleicheAb(Collection<Long> kontoIds) {
+        String monat = YearMonth.now().toString();
+        Map<Long, KontoSumme> summen = this.client.getSummen(kontoIds);
+        this.transactionTemplate.executeWithoutResult(status -> summen.forEach((kontoId, summe) ->
+                this.repository.setzeKontostand(kontoId, BigDecimal.valueOf(summe.getEinnahmenSumme())
+                                .subtract(BigDecimal.valueOf(summe.getAusgabenSumme())),
+                        summe.getEpoche(), summe.getSequenz(), monat)));
+    }
+
+    private int schreibe(Supplier<Integer> aktualisierung) {
+        return this.transactionTemplate.execute(status -> aktualisierung.get());
+    }
+
+    private static boolean istBereitsVerbucht(Kontodaten kontodaten, KontoAenderung aenderung, YearMonth monat) {
+        return aenderung.getEpoche().equals(kontodaten.getEpoche())
+                && monat.toString().equals(kontodaten.getStandMonat())
+                && kontodaten.getSequenz() >= aenderung.getSequenz();
+    }
+
+    /**
+     * Berechnet, um wie viel sich der Kontostand des Monats durch eine Änderung ändert.
+     *
+     * @param aenderung Die Änderung.
+     * @param monat Der Monat des Kontostands.
+     * @return Die Differenz oder leer, wenn sie ohne vorherigen Stand nicht bestimmt werden kann.
+     */
+    static Optional<BigDecimal> differenz(KontoAenderung aenderung, YearMonth monat) {
+        BigDecimal neu = wirkung(aenderung.getArt(), aenderung.getDaten(), monat);
+        return switch (aenderung.getTyp()) {
+            case EINGEFUEGT -> Optional.of(neu);
+            case GELOESCHT -> Optional.of(neu.negate());
+            case GEAENDERT -> aenderung.hasVorher()
+                    ? Optional.of(neu.subtract(wirkung(aenderung.getArt(), aenderung.getVorher(), monat)))
+                    : Optional.empty();
+            case ARCHIVIERT -> Optional.of(BigDecimal.ZERO);
+            default -> Optional.empty();
+        };
+    }
+
+    private static BigDecimal wirkung(String art, FinanzdatenDTO daten, YearMonth monat) {
+        if (daten.getDatum().isEmpty() || !YearMonth.from(LocalDate.parse(daten.getDatum())).equals(monat)) {
+            return BigDecimal.ZERO;
+        }
+        return betrag(art, daten);
+    }
+
+    /**
+     * Gibt den Betrag eines Eintrags mit dem Vorzeichen seiner Wirkung auf den Saldo zurück.
+     *
+     * @param art Die Art des Eintrags, {@code EINNAHME} oder {@code AUSGABE}.
+     * @param daten Die Daten des Eintrags.
+     * @return Der positive Betrag einer Einnahme, der negative Betrag einer Ausgabe oder 0 ohne Betrag und Datum.
+     */
+    static BigDecimal betrag(String art, FinanzdatenDTO daten) {
+        if (daten.getBetrag().isEmpty() || daten.getDatum().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal betrag = new BigDecimal(daten.getBetrag());
+        return AUSGABE.equals(art) ? betrag.negate() : betrag;
+    }
+}
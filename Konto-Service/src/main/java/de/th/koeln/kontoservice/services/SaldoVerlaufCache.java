@@ -0,0 +1,102 @@
+package de.th.koeln.kontoservice.services;
+
+import de.th.koeln.kontoservice.dto.Granularitaet;
+import de.th.koeln.kontoservice.dto.Saldopunkt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Prozessinterner Cache für berechnete Saldenverläufe je Konto, Granularität und Zeitraum.
+ *
+ * <p>Der Cache fasst Verläufe einer begrenzten Anzahl von Konten und je Konto eine begrenzte Anzahl von Zeiträumen;
+ * die am längsten nicht verwendeten werden verdrängt. Jede Änderung am Saldenverlauf eines Kontos verwirft alle
+ * Verläufe des Kontos. Ein Verlauf wird nur gespeichert, wenn das Konto während seiner Berechnung nicht verworfen
+ * wurde, damit kein Stand vor der Änderung im Cache bleibt.</p>
+ */
+@Component
+public class SaldoVerlaufCache {
+
+    /**
+     * Schlüssel eines Verlaufs innerhalb eines Kontos.
+     *
+     * @param granularitaet Die Granularität.
+     * @param von Der erste Tag.
+     * @param bis Der letzte Tag.
+     */
+    public record Schluessel(Granularitaet granularitaet, LocalDate von, LocalDate bis) {
+    }
+
+    private final Map<Long, Map<Schluessel, List<Saldopunkt>>> konten;
+    private final int verlaeufeProKonto;
+
+    /**
+     * Konstruktor zur Initialisierung der Cachegrößen.
+     *
+     * @param konten Die maximale Anzahl der Konten.
+     * @param verlaeufeProKonto Die maximale Anzahl der Verläufe je Konto.
+     */
+    @Autowired
+    public SaldoVerlaufCache(@Value("${konto.saldo-verlauf.cache.konten:1000}") int konten,
+                             @Value("${konto.saldo-verlauf.cache.verlaeufe-pro-konto:16}") int verlaeufeProKonto) {
+        this.konten = lru(konten);
+        this.verlaeufeProKonto = verlaeufeProKonto;
+    }
+
+    /**
+     * Gibt einen Verlauf aus dem Cache zurück oder berechnet und speichert ihn.
+     *
+     * @param kontoId Die Konto-ID.
+     * @param schluessel Der Schlüssel des Verlaufs.
+     * @param berechnung Die Berechnung des Verlaufs bei einem Fehltreffer.
+     * @return Der unveränderliche Verlauf.
+     */
+    public List<Saldopunkt> hole(Long kontoId, Schluessel schluessel, Supplier<List<Saldopunkt>> berechnung) {
+        Map<Schluessel, List<Saldopunkt>> verlaeufe = this.konten.computeIfAbsent(kontoId,
+                id -> lru(this.verlaeufeProKonto));
+        List<Saldopunkt> verlauf = verlaeufe.get(schluessel);
+        if (verlauf != null) {
+            return verlauf;
+        }
+        verlauf = List.copyOf(berechnung.get());
+        if (this.konten.get(kontoId) == verlaeufe) {
+            verlaeufe.put(schluessel, verlauf);
+        }
+        return verlauf;
+    }
+
+    /**
+     * Verwirft alle Verläufe eines Kontos sofort und, bei laufender Transaktion, erneut nach deren Abschluss.
+     *
+     * @param kontoId Die Konto-ID.
+     */
+    public void verwirf(Long kontoId) {
+        this.konten.remove(kontoId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    konten.remove(kontoId);
+                }
+            });
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int groesse) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > groesse;
+            }
+        });
+    }
+}
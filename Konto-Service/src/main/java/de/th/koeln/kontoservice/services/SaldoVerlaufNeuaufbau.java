@@ -0,0 +1,133 @@
+package de.th.koeln.kontoservice.services;
+
+import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.KontoSumme;
+import de.th.koeln.kontoservice.clients.FinanzdatenClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baut die Saldenverläufe von Konten im Hintergrund neu auf.
+ *
+ * <p>Neuaufbauten laufen auf einem eigenen Pool mit begrenzter Anzahl von Threads und begrenzter Warteschlange,
+ * damit weder der Thread des Änderungsstroms noch der gemeinsame {@link TaskScheduler} für Neuverbindungen und
+ * Abgleiche auf den Finanzdaten-Service wartet; für ein bereits geplantes Konto wird kein weiterer geplant. Ist die
+ * Warteschlange voll, wird der Neuaufbau verworfen und bei der nächsten Änderung oder Prüfung erneut geplant. Der
+ * Scheduler wird nur für die Wartezeit vor einem verschobenen Neuaufbau verwendet. Die Einträge werden
+ * ohne Transaktion und ohne Sperre abgerufen. Davor und danach wird die Sequenznummer des Kontos gelesen; nur wenn
+ * sie unverändert ist, enthalten die Einträge genau die Änderungen bis zu ihr, und der Verlauf wird mit dieser
+ * Sequenznummer über {@link KontoBuchungService#ersetzeVerlauf} ersetzt. Ändert sich das Konto bei jedem Versuch,
+ * wird der Neuaufbau nach einer Wartezeit erneut geplant. Schlägt der Abruf fehl, wird der Verlauf bei der
+ * nächsten Änderung oder der nächsten Prüfung erneut aufgebaut.</p>
+ */
+@Component
+public class SaldoVerlaufNeuaufbau {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaldoVerlaufNeuaufbau.class);
+
+    private final KontoBuchungService buchungService;
+    private final FinanzdatenClient client;
+    private final TaskScheduler scheduler;
+    private final ThreadPoolExecutor executor;
+    private final int versuche;
+    private final Duration wartezeit;
+    private final Set<Long> geplant = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Konstruktor zur Initialisierung der Abhängigkeiten und Einstellungen.
+     *
+     * @param buchungService Der Service für den Saldenverlauf.
+     * @param client Der Client für den Finanzdaten-Service.
+     * @param scheduler Der Scheduler, über den verschobene Neuaufbauten erneut geplant werden.
+     * @param threads Die Anzahl der Neuaufbauten, die gleichzeitig laufen.
+     * @param warteschlange Die Anzahl der Neuaufbauten, die höchstens auf einen Thread warten.
+     * @param versuche Die Anzahl der Abrufe, bevor der Neuaufbau verschoben wird.
+     * @param wartezeit Die Wartezeit, nach der ein verschobener Neuaufbau erneut geplant wird.
+     */
+    @Autowired
+    public SaldoVerlaufNeuaufbau(KontoBuchungService buchungService, FinanzdatenClient client, TaskScheduler scheduler,
+                                 @Value("${konto.saldo-verlauf.neuaufbau.threads:2}") int threads,
+                                 @Value("${konto.saldo-verlauf.neuaufbau.warteschlange:1000}") int warteschlange,
+                                 @Value("${konto.saldo-verlauf.neuaufbau.versuche:3}") int versuche,
+                                 @Value("${konto.saldo-verlauf.neuaufbau.wartezeit:5s}") Duration wartezeit) {
+        this.buchungService = buchungService;
+        this.client = client;
+        this.scheduler = scheduler;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(warteschlange), runnable -> {
+                    Thread thread = new Thread(runnable, "saldo-verlauf-neuaufbau");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.versuche = versuche;
+        this.wartezeit = wartezeit;
+    }
+
+    /**
+     * Plant den Neuaufbau des Saldenverlaufs eines Kontos, sofern er noch nicht geplant ist.
+     *
+     * @param kontoId Die Konto-ID.
+     */
+    public void plane(Long kontoId) {
+        if (!geplant.add(kontoId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> baueNeuAuf(kontoId));
+        } catch (RejectedExecutionException e) {
+            geplant.remove(kontoId);
+            logger.warn("Rebuild of Konto {} rejected, {} rebuilds queued", kontoId, executor.getQueue().size());
+        }
+    }
+
+    /**
+     * Beendet die laufenden Neuaufbauten beim Herunterfahren.
+     */
+    @PreDestroy
+    public void beende() {
+        executor.shutdownNow();
+    }
+
+    private void baueNeuAuf(Long kontoId) {
+        // Änderungen während des Abrufs planen einen weiteren Neuaufbau
+        geplant.remove(kontoId);
+        try {
+            for (int versuch = 0; versuch < versuche; versuch++) {
+                KontoSumme vorher = stand(kontoId);
+                List<FinanzdatenDTO> einnahmen = client.getAlleEinnahmen(kontoId, "betrag", "datum");
+                List<FinanzdatenDTO> ausgaben = client.getAlleAusgaben(kontoId, "betrag", "datum");
+                KontoSumme nachher = stand(kontoId);
+                if (vorher.getEpoche().equals(nachher.getEpoche()) && vorher.getSequenz() == nachher.getSequenz()) {
+                    buchungService.ersetzeVerlauf(kontoId, einnahmen, ausgaben, nachher.getEpoche(),
+                            nachher.getSequenz());
+                    return;
+                }
+            }
+            logger.warn("Konto {} changed during {} rebuild attempts", kontoId, versuche);
+            scheduler.schedule(() -> plane(kontoId), Instant.now().plus(wartezeit));
+        } catch (RuntimeException e) {
+            // Der Verlauf wird bei der nächsten Änderung oder der nächsten Prüfung erneut aufgebaut
+            logger.warn("Rebuild of Konto {} failed", kontoId, e);
+        }
+    }
+
+    private KontoSumme stand(Long kontoId) {
+        return client.getSummen(List.of(kontoId), KontoBuchungService.ANFANG, KontoBuchungService.ENDE)
+                .getOrDefault(kontoId, KontoSumme.getDefaultInstance());
+    }
+}
@@ -72,4 +72,34 @@ public class FinanzdatenGrpcClient {
             throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
         }
     }
+
+    /**
+     * Ruft eine Seite der Zeitleiste eines Kontos ab.
+     *
+     * Diese Methode sendet eine Anfrage an den Finanzdaten-Service, der Einnahmen und Ausgaben des
+     * Zeitraums zusammengeführt und absteigend nach Datum sortiert liefert. Die nächste Seite wird mit
+     * dem {@code naechsterCursor} der Antwort abgerufen.
+     *
+     * @param kontoId Die ID des Kontos.
+     * @param von Das Startdatum im Format yyyy-MM-dd.
+     * @param bis Das Enddatum im Format yyyy-MM-dd.
+     * @param cursor Der Cursor der vorherigen Seite oder ein leerer String für die erste Seite.
+     * @param limit Die maximale Anzahl von Einträgen.
+     * @return Die Antwort mit den Einträgen und dem Cursor der nächsten Seite.
+     * @throws NotFoundException wenn das Konto mit der angegebenen ID nicht gefunden wird.
+     */
+    public GetTimelineResponse getTimeline(Long kontoId, String von, String bis, String cursor, int limit) {
+        GetTimelineRequest request = GetTimelineRequest.newBuilder()
+                .setKontoId(kontoId.toString())
+                .setVon(von)
+                .setBis(bis)
+                .setCursor(cursor)
+                .setLimit(limit)
+                .build();
+        try {
+            return stub.getTimeline(request);
+        } catch (StatusRuntimeException e) {
+            throw new NotFoundException("Konto mit der ID " + kontoId + " konnte nicht gefunden werden");
+        }
+    }
 }
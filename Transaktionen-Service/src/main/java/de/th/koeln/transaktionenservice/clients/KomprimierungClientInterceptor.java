@@ -0,0 +1,52 @@
+package de.th.koeln.transaktionenservice.clients;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.MethodDescriptor;
+import net.devh.boot.grpc.client.interceptor.GrpcGlobalClientInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Interceptor, der gzip für alle gRPC-Clients dieses Services aushandelt.
+ *
+ * <p>Antworten des Servers werden entpackt, sobald er gzip wählt; gRPC kündigt die unterstützten Verfahren
+ * dazu in {@code grpc-accept-encoding} an. Anfragen werden nur ab einer Mindestgröße komprimiert, da die
+ * meisten Anfragen nur aus wenigen IDs bestehen.</p>
+ */
+@GrpcGlobalClientInterceptor
+public class KomprimierungClientInterceptor implements ClientInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    private final long schwelle;
+
+    /**
+     * Konstruktor zur Initialisierung der Mindestgröße.
+     *
+     * @param schwelle Die Mindestgröße einer Anfrage, ab der komprimiert wird.
+     */
+    @Autowired
+    public KomprimierungClientInterceptor(@Value("${transaktionen.grpc.komprimierung.schwelle:1KB}") DataSize schwelle) {
+        this.schwelle = schwelle.toBytes();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method,
+                callOptions.withCompression(GZIP))) {
+            @Override
+            public void sendMessage(ReqT nachricht) {
+                setMessageCompression(nachricht instanceof MessageLite message
+                        && message.getSerializedSize() >= schwelle);
+                super.sendMessage(nachricht);
+            }
+        };
+    }
+}
@@ -15,6 +15,7 @@ public class FinanzdatenDto {
     private String datum;
     private String budget;
     private String betrag;
+    private String typ;
 
     //Getter und Setter
 
@@ -73,4 +74,12 @@ public class FinanzdatenDto {
     public void setBetrag(String betrag) {
         this.betrag = betrag;
     }
+
+    public String getTyp() {
+        return typ;
+    }
+
+    public void setTyp(String typ) {
+        this.typ = typ;
+    }
 }
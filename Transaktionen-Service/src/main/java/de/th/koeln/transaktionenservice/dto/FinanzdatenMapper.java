@@ -1,6 +1,7 @@
 package de.th.koeln.transaktionenservice.dto;
 
 import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.TimelineEintrag;
 
 /**
  * Mapper-Klasse zur Umwandlung zwischen FinanzdatenDTO und FinanzdatenDto.
@@ -31,6 +32,20 @@ public class FinanzdatenMapper {
         return dto;
     }
 
+    /**
+     * Konvertiert einen TimelineEintrag in ein FinanzdatenDto.
+     *
+     * Diese Methode übernimmt die Felder der enthaltenen Finanzdaten und den Typ des Eintrags.
+     *
+     * @param eintrag Der TimelineEintrag aus dem gRPC-Service.
+     * @return Das konvertierte FinanzdatenDto-Objekt.
+     */
+    public static FinanzdatenDto toDto(TimelineEintrag eintrag) {
+        FinanzdatenDto dto = toDto(eintrag.getDaten());
+        dto.setTyp(eintrag.getTyp());
+        return dto;
+    }
+
     /**
      * Konvertiert ein FinanzdatenDto in ein FinanzdatenDTO.
      *
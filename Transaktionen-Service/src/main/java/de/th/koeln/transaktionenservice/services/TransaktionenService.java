@@ -1,19 +1,15 @@
 package de.th.koeln.transaktionenservice.services;
 
-import de.th.koeln.finanzdaten.grpc.FinanzdatenDTO;
+import de.th.koeln.finanzdaten.grpc.GetTimelineResponse;
 import de.th.koeln.transaktionenservice.clients.FinanzdatenGrpcClient;
 import de.th.koeln.transaktionenservice.dto.FinanzdatenDto;
 import de.th.koeln.transaktionenservice.dto.FinanzdatenMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Service-Klasse für Transaktionen.
@@ -24,6 +20,8 @@ import java.util.stream.Stream;
 @Service
 public class TransaktionenService {
 
+    private static final int SEITEN_GROESSE = 200;
+
     private final FinanzdatenGrpcClient client;
 
     /**
@@ -37,34 +35,26 @@ public class TransaktionenService {
     }
 
     /**
-     * Ruft alle Finanzdaten eines Kontos ab.
+     * Ruft alle Finanzdaten eines Kontos für den aktuellen Monat ab.
      *
-     * Diese Methode ruft alle Einnahmen und Ausgaben für das gegebene Konto ab,
-     * konvertiert sie in DTOs, sortiert sie nach Datum und gibt eine Liste der
-     * kombinierten und sortierten Finanzdaten zurück.
+     * Diese Methode ruft die Zeitleiste des Kontos seitenweise ab. Einnahmen und Ausgaben werden
+     * bereits vom Finanzdaten-Service zusammengeführt und absteigend nach Datum sortiert geliefert.
      *
      * @param kontoId Die ID des Kontos.
      * @return Eine sortierte Liste aller Finanzdaten des Kontos.
      */
     public List<FinanzdatenDto> getAlleFinanzdaten(Long kontoId) {
-        // Ruft alle Einnahmen und Ausgaben für das Konto ab
-        List<FinanzdatenDTO> einnahmenProto = this.client.getAllEinnahmen(kontoId);
-        List<FinanzdatenDTO> ausgabenProto = this.client.getAllAusgaben(kontoId);
-
-        // Konvertiert die Protobuf-Objekte in DTOs
-        List<FinanzdatenDto> einnahmen = einnahmenProto.stream()
-                .map(FinanzdatenMapper::toDto)
-                .toList();
-
-        List<FinanzdatenDto> ausgaben = ausgabenProto.stream()
-                .map(FinanzdatenMapper::toDto)
-                .toList();
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-        // Kombiniert und sortiert die Einnahmen und Ausgaben nach Datum absteigend
-        return Stream.concat(einnahmen.stream(), ausgaben.stream())
-                .sorted(Comparator.comparing((FinanzdatenDto f) -> LocalDate.parse(f.getDatum(), formatter)).reversed())
-                .collect(Collectors.toCollection(ArrayList::new));
+        YearMonth monat = YearMonth.now();
+        String von = monat.atDay(1).toString();
+        String bis = monat.atEndOfMonth().toString();
+
+        List<FinanzdatenDto> finanzdaten = new ArrayList<>();
+        String cursor = "";
+        do {
+            GetTimelineResponse seite = this.client.getTimeline(kontoId, von, bis, cursor, SEITEN_GROESSE);
+            seite.getEintraegeList().forEach(eintrag -> finanzdaten.add(FinanzdatenMapper.toDto(eintrag)));
+            cursor = seite.getNaechsterCursor();
+        } while (!cursor.isEmpty());
+        return finanzdaten;
     }
 }